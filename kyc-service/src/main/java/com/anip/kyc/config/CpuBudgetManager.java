@@ -0,0 +1,351 @@
+package com.anip.kyc.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.opencv.core.Core;
+
+/**
+ * Budget CPU central du service.
+ * OpenCV (parallel_for), Tesseract LSTM (OpenMP) et les pools Java se partagent un même nombre de cœurs
+ * (app.cpu.budget.cores, 0 = processeurs disponibles). Chaque tâche utilise app.cpu.budget.native.threads
+ * threads natifs (OpenCV, OpenMP) : le budget divisé par cette valeur donne le nombre de threads Java,
+ * répartis entre les pools document et visage, de sorte que threads Java x threads natifs ne dépasse pas
+ * le budget. Avec un seul thread Java disponible, les deux pools n'en font qu'un.
+ *
+ * Les pages PDF et régions de texte sont lues sur un pool imbriqué dans le pool document : elles
+ * s'exécutent dans les créneaux du pool document (getDocumentSlots), qu'un worker prête le temps
+ * d'attendre ses pages. Le traitement documentaire reste ainsi borné à la part document du budget.
+ *
+ * OpenMP lit OMP_THREAD_LIMIT au chargement de libgomp : la variable doit être fixée par l'environnement
+ * de lancement (Dockerfile) ; une valeur absente ou supérieure à la part par tâche est signalée au démarrage.
+ *
+ * Métriques exposées :
+ * - kyc.cpu.budget.cores : budget configuré
+ * - kyc.cpu.allocation.threads{pool} : threads alloués (document, face, opencv, tesseract)
+ * - kyc.cpu.oversubscription.ratio{kind=planned} : concurrence native maximale / budget
+ * - kyc.cpu.oversubscription.ratio{kind=active} : threads de pool actifs x threads natifs / budget
+ * - kyc.cpu.oversubscription.ratio{kind=load} : charge système moyenne / budget
+ * - kyc.cpu.document.slots.available : créneaux document libres ou prêtés
+ */
+@Component
+public class CpuBudgetManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(CpuBudgetManager.class);
+
+    public static final String POOL_DOCUMENT = "document";
+    public static final String POOL_FACE = "face";
+    public static final String POOL_UPLOAD = "upload";
+    public static final String POOL_TAMPER = "tamper";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.cpu.budget.cores:0}")
+    private int configuredCores;
+
+    // Part du budget attribuée au pool OCR (le reste va au pool visage)
+    @Value("${app.cpu.budget.document.share:0.5}")
+    private double documentShare;
+
+    // Threads natifs (OpenCV, OpenMP) par tâche ; à reporter dans OMP_THREAD_LIMIT
+    @Value("${app.cpu.budget.native.threads:1}")
+    private int configuredNativeThreads;
+
+    private int budgetCores;
+    private int documentThreads;
+    private int faceThreads;
+    private int nativeThreadsPerTask;
+    private boolean sharedPool;
+    private Integer ompThreadLimit;
+    private Slots documentSlots;
+
+    private final Map<String, ThreadPoolTaskExecutor> pools = new ConcurrentHashMap<>();
+
+    @jakarta.annotation.PostConstruct
+    public void init() {
+        budgetCores = configuredCores > 0 ? configuredCores : Runtime.getRuntime().availableProcessors();
+        Split split = split(budgetCores, documentShare, configuredNativeThreads);
+        documentThreads = split.getDocumentThreads();
+        faceThreads = split.getFaceThreads();
+        nativeThreadsPerTask = split.getNativeThreads();
+        sharedPool = split.isSharedPool();
+        documentSlots = new Slots(documentThreads);
+
+        applyOpenCvLimit();
+        ompThreadLimit = checkOmpLimit();
+        registerMetrics();
+
+        logger.info("Budget CPU: {} cœurs - pool document: {}, pool visage: {}{}, threads OpenCV/OpenMP par tâche: {}",
+            budgetCores, documentThreads, faceThreads, sharedPool ? " (pool commun)" : "", nativeThreadsPerTask);
+    }
+
+    /**
+     * Répartition du budget : threads Java = budget / threads natifs par tâche, partagés entre les pools
+     * document (part documentShare, au moins 1) et visage (le reste, au moins 1). Un seul thread Java
+     * disponible : un pool commun d'un thread.
+     */
+    public static Split split(int budgetCores, double documentShare, int nativeThreads) {
+        int budget = Math.max(1, budgetCores);
+        int perTask = Math.min(budget, Math.max(1, nativeThreads));
+        int javaThreads = budget / perTask;
+        if (javaThreads < 2) {
+            return new Split(1, 1, perTask, true);
+        }
+        double share = Math.min(1.0, Math.max(0.0, documentShare));
+        int document = (int) Math.round(javaThreads * share);
+        document = Math.min(javaThreads - 1, Math.max(1, document));
+        return new Split(document, javaThreads - document, perTask, false);
+    }
+
+    public int getBudgetCores() {
+        return budgetCores;
+    }
+
+    public int getDocumentThreads() {
+        return documentThreads;
+    }
+
+    public int getFaceThreads() {
+        return faceThreads;
+    }
+
+    public int getNativeThreadsPerTask() {
+        return nativeThreadsPerTask;
+    }
+
+    /**
+     * Créneaux CPU du traitement documentaire, partagés entre workers document et tâches de pages / régions
+     */
+    public Slots getDocumentSlots() {
+        return documentSlots;
+    }
+
+    /**
+     * Un seul thread Java au budget : les pools document et visage sont un même exécuteur
+     */
+    public boolean isSharedPool() {
+        return sharedPool;
+    }
+
+    /**
+     * Allocation effective, pour diagnostic
+     */
+    public Map<String, Object> getAllocation() {
+        Map<String, Object> allocation = new LinkedHashMap<>();
+        allocation.put("budgetCores", budgetCores);
+        allocation.put("documentThreads", documentThreads);
+        allocation.put("faceThreads", faceThreads);
+        allocation.put("sharedPool", sharedPool);
+        allocation.put("opencvThreads", nativeThreadsPerTask);
+        allocation.put("ompThreadLimit", ompThreadLimit);
+        allocation.put("plannedOversubscription", getPlannedOversubscription());
+        allocation.put("activeOversubscription", getActiveOversubscription());
+        return allocation;
+    }
+
+    /**
+     * Enregistrement d'un pool dimensionné par le budget, pour le suivi de son activité
+     */
+    public void registerPool(String name, ThreadPoolTaskExecutor executor) {
+        pools.put(name, executor);
+        Gauge.builder("kyc.cpu.pool.active.threads", executor, ThreadPoolTaskExecutor::getActiveCount)
+            .tag("pool", name)
+            .description("Threads actifs du pool")
+            .register(meterRegistry);
+    }
+
+    private double getPlannedOversubscription() {
+        int javaThreads = sharedPool ? 1 : documentThreads + faceThreads;
+        int nativeThreads = ompThreadLimit != null ? Math.max(nativeThreadsPerTask, ompThreadLimit) : nativeThreadsPerTask;
+        return (double) javaThreads * nativeThreads / budgetCores;
+    }
+
+    private double getActiveOversubscription() {
+        int active = pools.values().stream().distinct().mapToInt(ThreadPoolTaskExecutor::getActiveCount).sum();
+        return (double) active * nativeThreadsPerTask / budgetCores;
+    }
+
+    private double getLoadOversubscription() {
+        double load = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+        return load < 0 ? 0.0 : load / budgetCores;
+    }
+
+    private void applyOpenCvLimit() {
+        try {
+            OpenCvNativeLoader.load();
+            Core.setNumThreads(nativeThreadsPerTask);
+            logger.info("OpenCV limité à {} thread(s) (effectif: {})", nativeThreadsPerTask, Core.getNumThreads());
+        } catch (UnsatisfiedLinkError e) {
+            logger.warn("Bibliothèque OpenCV indisponible, limite de threads non appliquée: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * OpenMP (Tesseract LSTM) ne lit OMP_THREAD_LIMIT qu'au chargement de libgomp : la limite n'est pas
+     * modifiable depuis la JVM et doit venir de l'environnement de lancement. Retourne la limite lue, null si absente.
+     */
+    private Integer checkOmpLimit() {
+        String value = System.getenv("OMP_THREAD_LIMIT");
+        Integer limit = null;
+        try {
+            limit = value == null ? null : Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("OMP_THREAD_LIMIT invalide: {}", value);
+        }
+        if (limit == null) {
+            logger.warn("OMP_THREAD_LIMIT non défini : OpenMP utilisera tous les cœurs, définir OMP_THREAD_LIMIT={} au lancement",
+                nativeThreadsPerTask);
+        } else if (limit > nativeThreadsPerTask) {
+            logger.warn("OMP_THREAD_LIMIT={} dépasse la part du budget par tâche : définir OMP_THREAD_LIMIT={} au lancement",
+                limit, nativeThreadsPerTask);
+        }
+        return limit;
+    }
+
+    private void registerMetrics() {
+        Gauge.builder("kyc.cpu.budget.cores", this, m -> m.budgetCores)
+            .description("Budget CPU configuré")
+            .register(meterRegistry);
+        registerAllocation(POOL_DOCUMENT, documentThreads);
+        registerAllocation(POOL_FACE, faceThreads);
+        registerAllocation("opencv", nativeThreadsPerTask);
+        if (ompThreadLimit != null) {
+            registerAllocation("tesseract", ompThreadLimit);
+        }
+        Gauge.builder("kyc.cpu.oversubscription.ratio", this, CpuBudgetManager::getPlannedOversubscription)
+            .tag("kind", "planned")
+            .register(meterRegistry);
+        Gauge.builder("kyc.cpu.oversubscription.ratio", this, CpuBudgetManager::getActiveOversubscription)
+            .tag("kind", "active")
+            .register(meterRegistry);
+        Gauge.builder("kyc.cpu.oversubscription.ratio", this, CpuBudgetManager::getLoadOversubscription)
+            .tag("kind", "load")
+            .register(meterRegistry);
+        Gauge.builder("kyc.cpu.document.slots.available", documentSlots, Slots::getAvailable)
+            .description("Créneaux CPU document libres ou prêtés")
+            .register(meterRegistry);
+    }
+
+    private void registerAllocation(String pool, int threads) {
+        Gauge.builder("kyc.cpu.allocation.threads", () -> threads)
+            .tag("pool", pool)
+            .description("Threads alloués par le budget CPU")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Créneaux CPU : au plus autant de traitements natifs simultanés que de créneaux.
+     * Un thread qui détient un créneau exécute directement les tâches imbriquées (tâche refusée par un pool
+     * et exécutée par l'appelant, par exemple) et le prête pendant qu'il attend d'autres tâches.
+     */
+    public static final class Slots {
+        private final Semaphore permits;
+        private final ThreadLocal<Boolean> holder = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+        public Slots(int slots) {
+            this.permits = new Semaphore(Math.max(1, slots), true);
+        }
+
+        /**
+         * Exécution dans un créneau, acquis s'il n'est pas déjà détenu par le thread
+         */
+        public <T> T call(Callable<T> task) throws Exception {
+            if (holder.get()) {
+                return task.call();
+            }
+            permits.acquire();
+            holder.set(Boolean.TRUE);
+            try {
+                return task.call();
+            } finally {
+                holder.set(Boolean.FALSE);
+                permits.release();
+            }
+        }
+
+        /**
+         * Exécution dans un créneau obtenu avant l'échéance (System.nanoTime), pour un traitement borné en durée.
+         * Retourne false, sans exécuter la tâche, si aucun créneau ne s'est libéré à temps.
+         */
+        public boolean runBefore(long deadlineNanos, Runnable task) throws InterruptedException {
+            if (holder.get()) {
+                task.run();
+                return true;
+            }
+            if (!permits.tryAcquire(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+            holder.set(Boolean.TRUE);
+            try {
+                task.run();
+            } finally {
+                holder.set(Boolean.FALSE);
+                permits.release();
+            }
+            return true;
+        }
+
+        /**
+         * Attente bloquante (résultat de tâches imbriquées) : le créneau détenu est prêté pendant l'attente
+         */
+        public <T> T await(Callable<T> wait) throws Exception {
+            if (!holder.get()) {
+                return wait.call();
+            }
+            holder.set(Boolean.FALSE);
+            permits.release();
+            try {
+                return wait.call();
+            } finally {
+                permits.acquireUninterruptibly();
+                holder.set(Boolean.TRUE);
+            }
+        }
+
+        public int getAvailable() {
+            return permits.availablePermits();
+        }
+    }
+
+    /**
+     * Répartition du budget entre pools Java et parallélisme natif
+     */
+    public static final class Split {
+        private final int documentThreads;
+        private final int faceThreads;
+        private final int nativeThreads;
+        private final boolean sharedPool;
+
+        private Split(int documentThreads, int faceThreads, int nativeThreads, boolean sharedPool) {
+            this.documentThreads = documentThreads;
+            this.faceThreads = faceThreads;
+            this.nativeThreads = nativeThreads;
+            this.sharedPool = sharedPool;
+        }
+
+        public int getDocumentThreads() { return documentThreads; }
+        public int getFaceThreads() { return faceThreads; }
+        public int getNativeThreads() { return nativeThreads; }
+        public boolean isSharedPool() { return sharedPool; }
+
+        // Threads Java effectivement créés
+        public int getJavaThreads() { return sharedPool ? 1 : documentThreads + faceThreads; }
+    }
+}
@@ -0,0 +1,140 @@
+package com.anip.kyc.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Pools de threads dédiés aux traitements d'image.
+ * Évite de saturer le ForkJoinPool commun utilisé par défaut par CompletableFuture.
+ * Les tailles sont issues du budget CPU (CpuBudgetManager) sauf valeur explicite (> 0) ;
+ * avec un budget d'un seul thread Java, les pools document et visage sont un même exécuteur.
+ * La planification alimente le pool document depuis la file OCR persistante.
+ * Les uploads (contrôle qualité, chiffrement, stockage) ont leur pool, dimensionné comme le pool document :
+ * la réception et le stockage ne dépendent pas de l'OCR en cours ; au-delà de sa file, l'upload s'exécute dans
+ * le thread appelant. Le contrôle qualité (décodage, analyse) s'exécute dans les créneaux document.
+ * Le pool des pages PDF et des régions est imbriqué dans le pool document : ses tâches s'exécutent dans
+ * les créneaux du pool document (CpuBudgetManager.getDocumentSlots), prêtés par les workers qui les attendent ;
+ * ses threads en attente de créneau ne consomment pas de CPU.
+ * L'analyse de retouches s'exécute après l'OCR : un thread par document analysé, dont les tuiles
+ * sont réparties sur un ForkJoinPool du parallélisme du pool document ; décodage et tuiles s'exécutent
+ * dans les créneaux document, l'analyse ne s'ajoute pas au budget.
+ */
+@Configuration
+@EnableScheduling
+public class ExecutorConfig {
+
+    @Value("${app.face.executor.threads:0}")
+    private int faceExecutorThreads;
+
+    @Value("${app.face.executor.queue.capacity:100}")
+    private int faceExecutorQueueCapacity;
+
+    @Value("${app.document.executor.threads:0}")
+    private int documentExecutorThreads;
+
+    @Value("${app.document.executor.queue.capacity:100}")
+    private int documentExecutorQueueCapacity;
+
+    @Value("${app.document.upload.executor.threads:0}")
+    private int uploadExecutorThreads;
+
+    @Value("${app.document.upload.executor.queue.capacity:20}")
+    private int uploadExecutorQueueCapacity;
+
+    @Value("${app.ocr.pdf.executor.threads:0}")
+    private int ocrPageExecutorThreads;
+
+    @Value("${app.document.tamper.executor.threads:1}")
+    private int tamperExecutorThreads;
+
+    @Value("${app.document.tamper.executor.queue.capacity:100}")
+    private int tamperExecutorQueueCapacity;
+
+    private ThreadPoolTaskExecutor sharedExecutor;
+
+    @Bean(name = "faceProcessingExecutor")
+    public ThreadPoolTaskExecutor faceProcessingExecutor(CpuBudgetManager cpuBudget) {
+        if (faceExecutorThreads <= 0 && documentExecutorThreads <= 0 && cpuBudget.isSharedPool()) {
+            return sharedExecutor(cpuBudget);
+        }
+        int threads = faceExecutorThreads > 0 ? faceExecutorThreads : cpuBudget.getFaceThreads();
+        ThreadPoolTaskExecutor executor = createExecutor(threads, faceExecutorQueueCapacity, "face-");
+        cpuBudget.registerPool(CpuBudgetManager.POOL_FACE, executor);
+        return executor;
+    }
+
+    @Bean(name = "documentProcessingExecutor")
+    public ThreadPoolTaskExecutor documentProcessingExecutor(CpuBudgetManager cpuBudget) {
+        if (faceExecutorThreads <= 0 && documentExecutorThreads <= 0 && cpuBudget.isSharedPool()) {
+            return sharedExecutor(cpuBudget);
+        }
+        int threads = documentExecutorThreads > 0 ? documentExecutorThreads : cpuBudget.getDocumentThreads();
+        ThreadPoolTaskExecutor executor = createExecutor(threads, documentExecutorQueueCapacity, "document-");
+        cpuBudget.registerPool(CpuBudgetManager.POOL_DOCUMENT, executor);
+        return executor;
+    }
+
+    @Bean(name = "documentUploadExecutor")
+    public ThreadPoolTaskExecutor documentUploadExecutor(CpuBudgetManager cpuBudget) {
+        int threads = uploadExecutorThreads > 0 ? uploadExecutorThreads : cpuBudget.getDocumentThreads();
+        ThreadPoolTaskExecutor executor = createExecutor(threads, uploadExecutorQueueCapacity, "upload-",
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        cpuBudget.registerPool(CpuBudgetManager.POOL_UPLOAD, executor);
+        return executor;
+    }
+
+    @Bean(name = "ocrPageExecutor")
+    public ThreadPoolTaskExecutor ocrPageExecutor(CpuBudgetManager cpuBudget) {
+        int threads = ocrPageExecutorThreads > 0 ? ocrPageExecutorThreads : cpuBudget.getDocumentThreads();
+        // Pages et régions de plusieurs documents : une tâche refusée s'exécute dans le thread appelant
+        return createExecutor(threads, threads, "ocr-page-", new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Bean(name = "tamperAnalysisExecutor")
+    public ThreadPoolTaskExecutor tamperAnalysisExecutor(CpuBudgetManager cpuBudget) {
+        ThreadPoolTaskExecutor executor = createExecutor(tamperExecutorThreads, tamperExecutorQueueCapacity, "tamper-");
+        cpuBudget.registerPool(CpuBudgetManager.POOL_TAMPER, executor);
+        return executor;
+    }
+
+    @Bean(name = "tamperAnalysisPool", destroyMethod = "shutdown")
+    public ForkJoinPool tamperAnalysisPool(CpuBudgetManager cpuBudget) {
+        return new ForkJoinPool(cpuBudget.getDocumentThreads());
+    }
+
+    /**
+     * Pool commun document / visage d'un thread, créé une seule fois
+     */
+    private synchronized ThreadPoolTaskExecutor sharedExecutor(CpuBudgetManager cpuBudget) {
+        if (sharedExecutor == null) {
+            sharedExecutor = createExecutor(1, faceExecutorQueueCapacity + documentExecutorQueueCapacity, "cpu-");
+            cpuBudget.registerPool(CpuBudgetManager.POOL_DOCUMENT, sharedExecutor);
+            cpuBudget.registerPool(CpuBudgetManager.POOL_FACE, sharedExecutor);
+        }
+        return sharedExecutor;
+    }
+
+    private ThreadPoolTaskExecutor createExecutor(int threads, int queueCapacity, String prefix) {
+        return createExecutor(threads, queueCapacity, prefix, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private ThreadPoolTaskExecutor createExecutor(int threads, int queueCapacity, String prefix,
+                                                  RejectedExecutionHandler rejectionHandler) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setRejectedExecutionHandler(rejectionHandler);
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(prefix);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
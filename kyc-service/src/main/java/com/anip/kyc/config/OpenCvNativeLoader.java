@@ -0,0 +1,61 @@
+package com.anip.kyc.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Chargement unique de la bibliothèque native OpenCV, partagé par les services et le budget CPU.
+ * Tentative via nu.pattern.OpenCV si présent (openpnp wrapper), puis System.loadLibrary.
+ * Si absent, Bytedeco opencv-platform gère le chargement natif automatiquement.
+ */
+public final class OpenCvNativeLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenCvNativeLoader.class);
+
+    private static boolean attempted;
+
+    private OpenCvNativeLoader() {
+    }
+
+    public static synchronized void load() {
+        if (attempted) {
+            return;
+        }
+        attempted = true;
+
+        try {
+            Class<?> openCvWrapper = Class.forName("nu.pattern.OpenCV");
+            // Try common loader methods in order of preference and log outcome
+            try {
+                java.lang.reflect.Method m = openCvWrapper.getMethod("loadShared");
+                m.invoke(null);
+                logger.info("Loaded OpenCV native library via nu.pattern.OpenCV.loadShared()");
+            } catch (NoSuchMethodException nsme1) {
+                try {
+                    java.lang.reflect.Method m2 = openCvWrapper.getMethod("loadLocally");
+                    m2.invoke(null);
+                    logger.info("Loaded OpenCV native library via nu.pattern.OpenCV.loadLocally()");
+                } catch (Throwable nsme2) {
+                    logger.warn("nu.pattern.OpenCV present but no known loader method succeeded: {}", nsme2 == null ? "unknown" : nsme2.getMessage());
+                }
+            } catch (Throwable t) {
+                logger.warn("nu.pattern.OpenCV.loadShared() invocation failed: {}", t.getMessage());
+            }
+        } catch (ClassNotFoundException ignored) {
+            // openpnp not on classpath — try other loading strategies below
+            logger.debug("nu.pattern.OpenCV wrapper not found on classpath");
+        } catch (Throwable t) {
+            logger.warn("Unexpected error while attempting to use nu.pattern.OpenCV: {}", t.getMessage());
+        }
+
+        // As a fallback, attempt to load the native library via System.loadLibrary
+        try {
+            System.loadLibrary(org.opencv.core.Core.NATIVE_LIBRARY_NAME);
+            logger.info("Loaded OpenCV native library via System.loadLibrary: {}", org.opencv.core.Core.NATIVE_LIBRARY_NAME);
+        } catch (UnsatisfiedLinkError ule) {
+            logger.debug("System.loadLibrary failed: {}", ule.getMessage());
+        } catch (Throwable t) {
+            logger.warn("Unexpected error during System.loadLibrary for OpenCV: {}", t.getMessage());
+        }
+    }
+}
@@ -6,11 +6,16 @@ import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import javax.crypto.Cipher;
+import javax.crypto.CipherOutputStream;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 import java.util.Base64;
 
@@ -83,6 +88,26 @@ public class AesGcmEncryptionService implements EncryptionService {
         }
     }
 
+    @Override
+    public OutputStream encryptingStream(OutputStream out) throws IOException {
+        try {
+            byte[] iv = new byte[GCM_IV_LENGTH];
+            secureRandom.nextBytes(iv);
+
+            Cipher cipher = Cipher.getInstance(AES_GCM_NO_PADDING);
+            GCMParameterSpec spec = new GCMParameterSpec(GCM_TAG_LENGTH * 8, iv);
+            cipher.init(Cipher.ENCRYPT_MODE, secretKey, spec);
+
+            // Same layout as encryptBytes: IV length + IV, then ciphertext and tag written on close
+            DataOutputStream header = new DataOutputStream(out);
+            header.writeInt(iv.length);
+            header.write(iv);
+            return new CipherOutputStream(out, cipher);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("AES encryption failed", e);
+        }
+    }
+
     @Override
     public byte[] decryptBytes(byte[] cipher) {
         try {
@@ -3,6 +3,7 @@ package com.anip.kyc.config.security;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
@@ -44,6 +45,11 @@ public class DevEncryptionService implements EncryptionService {
         return encoder.encode(plain);
     }
 
+    @Override
+    public OutputStream encryptingStream(OutputStream out) {
+        return encoder.wrap(out);
+    }
+
     @Override
     public byte[] decryptBytes(byte[] cipher) {
         if (cipher == null) return null;
@@ -1,5 +1,8 @@
 package com.anip.kyc.config.security;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * Minimal EncryptionService stub used by services for encrypt/decrypt operations.
  * In production this should be replaced by a real implementation wiring keys and secure primitives.
@@ -9,4 +12,10 @@ public interface EncryptionService {
     String decrypt(String cipher);
     byte[] encryptBytes(byte[] plain);
     byte[] decryptBytes(byte[] cipher);
+
+    /**
+     * Chiffrement en flux vers out, au même format que encryptBytes (lisible par decryptBytes).
+     * Le chiffré n'est complet qu'à la fermeture du flux retourné.
+     */
+    OutputStream encryptingStream(OutputStream out) throws IOException;
 }
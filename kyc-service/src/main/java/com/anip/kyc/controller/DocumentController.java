@@ -7,6 +7,7 @@ import com.anip.kyc.service.DocumentService;
 import com.anip.kyc.exception.DocumentProcessingException;
 import com.anip.kyc.exception.DocumentValidationException;
 import com.anip.kyc.exception.UnsupportedDocumentTypeException;
+import com.anip.kyc.exception.ImageQualityException;
 import com.anip.kyc.security.RequiresRole;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -58,6 +59,7 @@ public class DocumentController {
 
     // Configuration limites upload
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10 MB
+    private static final int MAX_BATCH_FILES = 5;
     private static final List<String> ALLOWED_MIME_TYPES = List.of(
             "image/jpeg", "image/png", "image/webp", "application/pdf"
     );
@@ -83,6 +85,7 @@ public class DocumentController {
                     content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = ValidationErrorResponse.class))
             ),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "413", description = "Fichier trop volumineux"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "422", description = "Photo de qualité insuffisante (BLURRY, GLARE, LOW_RESOLUTION, DOCUMENT_TOO_SMALL)"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "429", description = "Limite de taux dépassée"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Erreur de traitement du document")
     })
@@ -144,6 +147,16 @@ public class DocumentController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("DOCUMENT_PROCESSING_ERROR", "Erreur de traitement du document"));
 
+        } catch (java.util.concurrent.ExecutionException e) {
+            if (e.getCause() instanceof ImageQualityException) {
+                logger.info("Photo de document rejetée (qualité) - sessionId: {}, raison: {}", sessionId, e.getCause().getMessage());
+                return ResponseEntity.unprocessableEntity()
+                        .body(ApiResponse.error("POOR_IMAGE_QUALITY", e.getCause().getMessage()));
+            }
+            logger.error("Erreur upload document - sessionId: {}", sessionId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("INTERNAL_ERROR", "Erreur interne du serveur"));
+
         } catch (Exception e) {
             logger.error("Erreur inattendue upload document - sessionId: {}", sessionId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -151,6 +164,69 @@ public class DocumentController {
         }
     }
 
+    @PostMapping(value = "/upload/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAuthority('SCOPE_kyc:document:write')")
+    @Operation(summary = "Upload groupé de documents",
+            description = "Upload de plusieurs fichiers d'une session en une requête (recto, verso, justificatif) : "
+                    + "session vérifiée une fois, fichiers stockés en parallèle puis mis en file de traitement")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "201",
+                    description = "Tous les fichiers ont été acceptés",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = DocumentBatchUploadResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "207", description = "Une partie des fichiers a été rejetée (code par fichier)"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Requête invalide ou session non ouverte aux uploads"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "413", description = "Requête trop volumineuse")
+    })
+    public ResponseEntity<ApiResponse<DocumentBatchUploadResponse>> uploadDocumentsBatch(
+            @Parameter(description = "Fichiers documents (JPEG, PNG, WebP, PDF), partie répétable", required = true)
+            @RequestParam("files") @NotNull List<MultipartFile> files,
+
+            @Parameter(description = "Type de chaque fichier, dans l'ordre des fichiers", required = true)
+            @RequestParam("documentTypes") @NotNull List<String> documentTypes,
+
+            @Parameter(description = "ID de session KYC associée", required = true)
+            @RequestParam("sessionId") @NotNull UUID sessionId,
+
+            @AuthenticationPrincipal Jwt jwt) {
+
+        try {
+            logger.info("Upload groupé initialisé - sessionId: {}, fichiers: {}, utilisateur: {}",
+                    sessionId, files.size(), extractUserId(jwt));
+
+            if (files.isEmpty() || files.size() > MAX_BATCH_FILES) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("INVALID_FILE_COUNT", "Nombre de fichiers invalide (1 à " + MAX_BATCH_FILES + ")"));
+            }
+            for (MultipartFile file : files) {
+                validateUploadFile(file);
+            }
+
+            DocumentBatchUploadResponse response = documentService.uploadDocumentsBatch(sessionId, documentTypes, files);
+
+            logger.info("Upload groupé terminé - sessionId: {}, fichiers: {}, rejetés: {}, durée: {}ms",
+                    sessionId, response.getFileCount(), response.getFailedCount(), response.getProcessingTimeMs());
+
+            if (response.getFailedCount() > 0) {
+                return ResponseEntity.status(HttpStatus.MULTI_STATUS)
+                        .body(ApiResponse.success(response, "Upload partiel : " + response.getFailedCount() + " fichier(s) rejeté(s)"));
+            }
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success(response, "Documents uploadés, traitement en cours"));
+
+        } catch (DocumentValidationException e) {
+            logger.warn("Upload groupé refusé - sessionId: {}, erreur: {}", sessionId, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("DOCUMENT_VALIDATION_FAILED", e.getMessage()));
+
+        } catch (Exception e) {
+            logger.error("Erreur inattendue upload groupé - sessionId: {}", sessionId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("INTERNAL_ERROR", "Erreur interne du serveur"));
+        }
+    }
+
     @GetMapping("/{documentId}")
     @PreAuthorize("hasAuthority('SCOPE_kyc:document:read')")
     @Operation(summary = "Récupération d'un document", description = "Récupère les détails complets d'un document traité avec métadonnées")
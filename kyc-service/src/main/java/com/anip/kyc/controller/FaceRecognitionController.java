@@ -83,24 +83,24 @@ public class FaceRecognitionController {
     }
     
     /**
-     * Détection faciale sur une image
+     * Détection faciale sur une ou plusieurs images
      */
     @PostMapping(value = "/detect", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasAuthority('SCOPE_kyc:face:detect')")
     @Operation(
         summary = "Détection faciale",
-        description = "Détecte et analyse les visages dans une image avec métadonnées de qualité"
+        description = "Détecte les visages d'une ou plusieurs images (boîtes, visage principal, ratio de taille). "
+            + "Les images sont traitées en parallèle sur une résolution réduite."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "200",
             description = "Détection réussie",
-            content = @Content(schema = @Schema(implementation = FaceDetectionResponse.class))
+            content = @Content(schema = @Schema(implementation = FaceBatchDetectionResponse.class))
         ),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
-            responseCode = "200",
-            description = "Comparaison des visages effectuée",
-            content = @Content(schema = @Schema(implementation = FaceRecognitionService.FaceComparisonResult.class))
+            responseCode = "400",
+            description = "Image invalide ou nombre d'images trop élevé"
         ),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "413",
@@ -111,9 +111,9 @@ public class FaceRecognitionController {
             description = "Qualité d'image insuffisante"
         )
     })
-    public ResponseEntity<ApiResponse<FaceDetectionResponse>> detectFace(
-            @Parameter(description = "Image contenant le visage (JPEG, PNG, WebP)", required = true)
-            @RequestParam("image") @NotNull MultipartFile image,
+    public ResponseEntity<ApiResponse<FaceBatchDetectionResponse>> detectFace(
+            @Parameter(description = "Image(s) contenant le visage (JPEG, PNG, WebP), partie répétable", required = true)
+            @RequestParam("image") @NotNull List<MultipartFile> images,
             
             @Parameter(description = "ID de session KYC associée", required = true)
             @RequestParam("sessionId") @NotNull UUID sessionId,
@@ -129,27 +129,38 @@ public class FaceRecognitionController {
             HttpServletRequest request) {
         
         try {
-            logger.info("Détection faciale initiée - sessionId: {}, taille: {}", 
-                       sessionId, image.getSize());
+            logger.info("Détection faciale initiée - sessionId: {}, images: {}", sessionId, images.size());
             
-            // Validation de l'image
-            validateImageFile(image);
-            
-            // Création de la requête de détection
-            FaceDetectionRequest detectionRequest = FaceDetectionRequest.builder()
-                .image(image)
-                .sessionId(sessionId)
-                .confidenceThreshold(confidenceThreshold)
-                .detectMultiple(detectMultiple)
-                .userId(extractUserId(jwt))
-                .clientIp(getClientIpAddress(request))
-                .build();
+            int maxImages = faceRecognitionService.getMaxDetectionImages();
+            if (images.isEmpty() || images.size() > maxImages) {
+                return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("INVALID_IMAGE_COUNT",
+                        "Nombre d'images invalide (1 à " + maxImages + ")"));
+            }
+
+            String userId = extractUserId(jwt);
+            String clientIp = getClientIpAddress(request);
+            List<FaceDetectionRequest> detectionRequests = new java.util.ArrayList<>(images.size());
+            for (MultipartFile image : images) {
+                // Validation de l'image
+                validateImageFile(image);
+
+                // Création de la requête de détection
+                detectionRequests.add(FaceDetectionRequest.builder()
+                    .image(image)
+                    .sessionId(sessionId)
+                    .confidenceThreshold(confidenceThreshold)
+                    .detectMultiple(detectMultiple)
+                    .userId(userId)
+                    .clientIp(clientIp)
+                    .build());
+            }
             
-            // Traitement de la détection faciale
-            FaceDetectionResponse response = faceRecognitionService.detectFaces(detectionRequest);
+            // Traitement parallèle de la détection faciale
+            FaceBatchDetectionResponse response = faceRecognitionService.detectFacesBatch(detectionRequests);
             
-            logger.info("Détection terminée - sessionId: {}, visages détectés: {}, confiance max: {}", 
-                       sessionId, response.getDetectedFaces().size(), response.getMaxConfidence());
+            logger.info("Détection terminée - sessionId: {}, images: {}, visages détectés: {}, durée: {}ms", 
+                       sessionId, response.getImageCount(), response.getTotalFaces(), response.getProcessingTimeMs());
             
             return ResponseEntity.ok(ApiResponse.success(response, "Détection faciale réussie"));
             
@@ -224,6 +235,12 @@ public class FaceRecognitionController {
             
             return ResponseEntity.ok(ApiResponse.success(response, "Comparaison biométrique réussie"));
             
+        } catch (ImageQualityException e) {
+            logger.info("Capture rejetée (qualité) - sessionId: {}, raison: {}", 
+                       comparisonRequest.getSessionId(), e.getMessage());
+            return ResponseEntity.unprocessableEntity()
+                .body(ApiResponse.error("POOR_IMAGE_QUALITY", e.getMessage()));
+                
         } catch (IncomparableFacesException e) {
             logger.warn("Visages non comparables - sessionId: {}, raison: {}", 
                        comparisonRequest.getSessionId(), e.getMessage());
@@ -263,6 +280,10 @@ public class FaceRecognitionController {
             responseCode = "400",
             description = "Image invalide ou test non possible"
         ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "422",
+            description = "Capture rejetée par le contrôle qualité"
+        ),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "409",
             description = "Spoofing détecté"
@@ -325,6 +346,16 @@ public class FaceRecognitionController {
             return ResponseEntity.status(HttpStatus.CONFLICT)
                 .body(ApiResponse.error("SPOOFING_DETECTED", "Tentative de spoofing détectée"));
                 
+        } catch (java.util.concurrent.ExecutionException e) {
+            if (e.getCause() instanceof ImageQualityException) {
+                logger.info("Capture rejetée (qualité) - sessionId: {}, raison: {}", sessionId, e.getCause().getMessage());
+                return ResponseEntity.unprocessableEntity()
+                    .body(ApiResponse.error("POOR_IMAGE_QUALITY", e.getCause().getMessage()));
+            }
+            logger.error("Erreur test vivacité - sessionId: {}", sessionId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("INTERNAL_ERROR", "Erreur interne du serveur"));
+                
         } catch (Exception e) {
             logger.error("Erreur inattendue test vivacité - sessionId: {}", sessionId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -0,0 +1,28 @@
+package com.anip.kyc.dto.document;
+
+import java.util.UUID;
+
+public class DocumentBatchUploadItem {
+    private int fileIndex;
+    private String documentType;
+    private UUID documentId;
+    private String processingStatus;
+    // Renseignés si le fichier est rejeté (mêmes codes que l'upload unitaire)
+    private String errorCode;
+    private String message;
+
+    public int getFileIndex(){ return fileIndex; }
+    public String getDocumentType(){ return documentType; }
+    public UUID getDocumentId(){ return documentId; }
+    public String getProcessingStatus(){ return processingStatus; }
+    public String getErrorCode(){ return errorCode; }
+    public String getMessage(){ return message; }
+    public boolean isAccepted(){ return errorCode == null; }
+
+    public void setFileIndex(int i){ this.fileIndex = i; }
+    public void setDocumentType(String t){ this.documentType = t; }
+    public void setDocumentId(UUID id){ this.documentId = id; }
+    public void setProcessingStatus(String s){ this.processingStatus = s; }
+    public void setErrorCode(String c){ this.errorCode = c; }
+    public void setMessage(String m){ this.message = m; }
+}
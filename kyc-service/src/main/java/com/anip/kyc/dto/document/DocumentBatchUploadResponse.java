@@ -0,0 +1,25 @@
+package com.anip.kyc.dto.document;
+
+import java.util.List;
+
+public class DocumentBatchUploadResponse {
+    private List<DocumentBatchUploadItem> results;
+    private int fileCount;
+    private int failedCount;
+    private long processingTimeMs;
+
+    public static DocumentBatchUploadResponse of(List<DocumentBatchUploadItem> results, long processingTimeMs) {
+        DocumentBatchUploadResponse r = new DocumentBatchUploadResponse();
+        r.results = results;
+        r.fileCount = results.size();
+        r.failedCount = (int) results.stream().filter(item -> !item.isAccepted()).count();
+        r.processingTimeMs = processingTimeMs;
+        return r;
+    }
+
+    // Résultats dans l'ordre des fichiers envoyés
+    public List<DocumentBatchUploadItem> getResults() { return results; }
+    public int getFileCount() { return fileCount; }
+    public int getFailedCount() { return failedCount; }
+    public long getProcessingTimeMs() { return processingTimeMs; }
+}
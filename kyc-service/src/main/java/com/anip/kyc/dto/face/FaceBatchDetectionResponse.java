@@ -0,0 +1,28 @@
+package com.anip.kyc.dto.face;
+
+import java.util.List;
+
+public class FaceBatchDetectionResponse {
+    private List<FaceDetectionResponse> results;
+    private int imageCount;
+    private long processingTimeMs;
+
+    public static FaceBatchDetectionResponse of(List<FaceDetectionResponse> results, long processingTimeMs) {
+        FaceBatchDetectionResponse r = new FaceBatchDetectionResponse();
+        r.results = results;
+        r.imageCount = results.size();
+        r.processingTimeMs = processingTimeMs;
+        return r;
+    }
+
+    // Résultats dans l'ordre des images envoyées
+    public List<FaceDetectionResponse> getResults() { return results; }
+    public int getImageCount() { return imageCount; }
+    public long getProcessingTimeMs() { return processingTimeMs; }
+
+    public int getTotalFaces() {
+        return results == null ? 0 : results.stream()
+            .mapToInt(r -> r.getDetectedFaces() == null ? 0 : r.getDetectedFaces().size())
+            .sum();
+    }
+}
@@ -5,6 +5,14 @@ import java.util.List;
 public class FaceDetectionResponse {
     private List<DetectedFace> detectedFaces;
     private double maxConfidence;
+    private Integer primaryFaceIndex;
+    private int imageIndex;
+    private int imageWidth;
+    private int imageHeight;
+    private String status;
+    private String detector;
+    private String error;
+    private long processingTimeMs;
 
     public static FaceDetectionResponse of(List<DetectedFace> faces, double maxConfidence) {
         FaceDetectionResponse r = new FaceDetectionResponse();
@@ -16,14 +24,50 @@ public class FaceDetectionResponse {
     public List<DetectedFace> getDetectedFaces() { return detectedFaces; }
     public double getMaxConfidence() { return maxConfidence; }
 
+    // Index dans detectedFaces du visage retenu pour la comparaison (null si aucun)
+    public Integer getPrimaryFaceIndex() { return primaryFaceIndex; }
+    public void setPrimaryFaceIndex(Integer primaryFaceIndex) { this.primaryFaceIndex = primaryFaceIndex; }
+    public int getImageIndex() { return imageIndex; }
+    public void setImageIndex(int imageIndex) { this.imageIndex = imageIndex; }
+    public int getImageWidth() { return imageWidth; }
+    public void setImageWidth(int imageWidth) { this.imageWidth = imageWidth; }
+    public int getImageHeight() { return imageHeight; }
+    public void setImageHeight(int imageHeight) { this.imageHeight = imageHeight; }
+    // OK, NO_FACE, MULTIPLE_FACES, INVALID_IMAGE, ERROR
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    // Cause de l'échec quand status = ERROR
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    public String getDetector() { return detector; }
+    public void setDetector(String detector) { this.detector = detector; }
+    public long getProcessingTimeMs() { return processingTimeMs; }
+    public void setProcessingTimeMs(long processingTimeMs) { this.processingTimeMs = processingTimeMs; }
+
     public static class DetectedFace {
         private int x, y, width, height;
         private double confidence;
+        private double sizeRatio;
+
+        public DetectedFace() {}
+
+        public DetectedFace(int x, int y, int width, int height, double confidence, double sizeRatio) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.confidence = confidence;
+            this.sizeRatio = sizeRatio;
+        }
+
         public int getX() { return x; }
         public int getY() { return y; }
         public int getWidth() { return width; }
         public int getHeight() { return height; }
         public double getConfidence() { return confidence; }
         public void setConfidence(double c) { confidence = c; }
+        // Surface du visage rapportée à la surface de l'image (0.0-1.0)
+        public double getSizeRatio() { return sizeRatio; }
+        public void setSizeRatio(double sizeRatio) { this.sizeRatio = sizeRatio; }
     }
 }
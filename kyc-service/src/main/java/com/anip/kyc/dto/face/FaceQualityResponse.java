@@ -1,11 +1,31 @@
 package com.anip.kyc.dto.face;
 
+import java.util.List;
+import java.util.Map;
+
 public class FaceQualityResponse {
     private double qualityScore;
     private String details;
+    private boolean acceptable;
+    private List<String> issues;
+    private List<String> warnings;
+    private Map<String, Double> metrics;
+    private long processingTimeMs;
 
     public double getQualityScore() { return qualityScore; }
     public void setQualityScore(double qualityScore) { this.qualityScore = qualityScore; }
     public String getDetails() { return details; }
     public void setDetails(String details) { this.details = details; }
+    public boolean isAcceptable() { return acceptable; }
+    public void setAcceptable(boolean acceptable) { this.acceptable = acceptable; }
+    // Codes de rejet: NO_FACE, BLURRY, TOO_DARK, OVEREXPOSED, FACE_TOO_SMALL, OFF_CENTER, POSE...
+    public List<String> getIssues() { return issues; }
+    public void setIssues(List<String> issues) { this.issues = issues; }
+    // Signalements non bloquants: MULTIPLE_FACES (le plus grand visage est retenu)
+    public List<String> getWarnings() { return warnings; }
+    public void setWarnings(List<String> warnings) { this.warnings = warnings; }
+    public Map<String, Double> getMetrics() { return metrics; }
+    public void setMetrics(Map<String, Double> metrics) { this.metrics = metrics; }
+    public long getProcessingTimeMs() { return processingTimeMs; }
+    public void setProcessingTimeMs(long processingTimeMs) { this.processingTimeMs = processingTimeMs; }
 }
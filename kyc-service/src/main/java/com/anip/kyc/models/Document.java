@@ -23,7 +23,10 @@ import java.util.UUID;
         @Index(name = "idx_document_session_id", columnList = "session_id"),
         @Index(name = "idx_document_type", columnList = "document_type"),
         @Index(name = "idx_document_status", columnList = "processing_status"),
-        @Index(name = "idx_document_created", columnList = "created_at")
+        @Index(name = "idx_document_created", columnList = "created_at"),
+        @Index(name = "idx_document_queue", columnList = "processing_status, next_attempt_at"),
+        @Index(name = "idx_document_session_file_hash", columnList = "session_id, file_hash"),
+        @Index(name = "idx_document_session_type", columnList = "session_id, document_type")
 })
 public class Document {
 
@@ -49,6 +52,11 @@ public class Document {
     @Column(name = "file_size")
     private Long fileSize;
 
+    // SHA-256 (hex) du fichier d'origine : un contenu identique dans la session reprend le résultat OCR
+    @Size(max = 64)
+    @Column(name = "file_hash", length = 64)
+    private String fileHash;
+
     @Size(max = 100)
     @Column(name = "mime_type", length = 100)
     private String mimeType;
@@ -84,6 +92,27 @@ public class Document {
     @Column(name = "processed_at")
     private LocalDateTime processedAt;
 
+    // File de traitement OCR : tentatives, prochaine échéance et bail du worker en cours
+    @Column(name = "processing_attempts", nullable = false)
+    private int processingAttempts;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Size(max = 100)
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    // Autre face du même document physique (recto / verso)
+    @Column(name = "paired_document_id")
+    private UUID pairedDocumentId;
+
     // Relation avec KycSession
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "session_id", insertable = false, updatable = false)
@@ -128,7 +157,8 @@ public class Document {
         PROCESSING,
         COMPLETED,
         FAILED,
-        REJECTED
+        REJECTED,
+        DEAD_LETTER // Traitement abandonné après épuisement des tentatives
     }
 
     // Getters et Setters
@@ -172,6 +202,14 @@ public class Document {
         this.fileSize = fileSize;
     }
 
+    public String getFileHash() {
+        return fileHash;
+    }
+
+    public void setFileHash(String fileHash) {
+        this.fileHash = fileHash;
+    }
+
     public String getMimeType() {
         return mimeType;
     }
@@ -244,6 +282,54 @@ public class Document {
         this.processedAt = processedAt;
     }
 
+    public int getProcessingAttempts() {
+        return processingAttempts;
+    }
+
+    public void setProcessingAttempts(int processingAttempts) {
+        this.processingAttempts = processingAttempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public UUID getPairedDocumentId() {
+        return pairedDocumentId;
+    }
+
+    public void setPairedDocumentId(UUID pairedDocumentId) {
+        this.pairedDocumentId = pairedDocumentId;
+    }
+
     public KycSession getKycSession() {
         return kycSession;
     }
@@ -266,6 +352,24 @@ public class Document {
         this.updatedAt = LocalDateTime.now();
     }
 
+    public void claim(String owner, LocalDateTime leaseExpiresAt) {
+        this.processingStatus = ProcessingStatus.PROCESSING;
+        this.processingAttempts++;
+        this.leaseOwner = owner;
+        this.leaseExpiresAt = leaseExpiresAt;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void releaseLease() {
+        this.leaseOwner = null;
+        this.leaseExpiresAt = null;
+        this.nextAttemptAt = null;
+    }
+
+    public boolean isLeasedBy(String owner) {
+        return processingStatus == ProcessingStatus.PROCESSING && owner != null && owner.equals(leaseOwner);
+    }
+
     public void markAsCompleted(String extractedText, Double confidenceScore) {
         this.processingStatus = ProcessingStatus.COMPLETED;
         this.extractedText = extractedText;
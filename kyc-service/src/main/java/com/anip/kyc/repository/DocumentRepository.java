@@ -2,12 +2,64 @@ package com.anip.kyc.repository;
 
 import com.anip.kyc.models.Document;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, UUID> {
     List<Document> findBySessionIdOrderByCreatedAtDesc(UUID sessionId);
+
+    long countByProcessingStatus(Document.ProcessingStatus processingStatus);
+
+    // Déduplication par contenu, limitée à la session : résultat OCR réutilisable
+    Optional<Document> findFirstBySessionIdAndFileHashAndDocumentTypeAndProcessingStatusInOrderByProcessedAtDesc(
+        UUID sessionId, String fileHash, Document.DocumentType documentType,
+        Collection<Document.ProcessingStatus> processingStatuses);
+
+    // Autre face (recto / verso) la plus récente d'une session
+    Optional<Document> findFirstBySessionIdAndDocumentTypeAndProcessingStatusInOrderByCreatedAtDesc(
+        UUID sessionId, Document.DocumentType documentType, Collection<Document.ProcessingStatus> processingStatuses);
+
+    // Face liée à ce document alors que celui-ci était traité par un autre worker (liaison dans un seul sens)
+    Optional<Document> findFirstBySessionIdAndPairedDocumentIdOrderByCreatedAtDesc(UUID sessionId, UUID pairedDocumentId);
+
+    /**
+     * Verrouillage des documents à traiter : en attente et échus, ou en cours avec un bail expiré.
+     * SKIP LOCKED permet à plusieurs réplicas de se partager la file sans s'attendre.
+     * À appeler dans une transaction ; les lignes restent verrouillées jusqu'à sa fin.
+     */
+    @Query(value = "SELECT d.document_id FROM documents d "
+        + "WHERE (d.processing_status = 'PENDING' AND (d.next_attempt_at IS NULL OR d.next_attempt_at <= :now)) "
+        + "OR (d.processing_status = 'PROCESSING' AND (d.lease_expires_at IS NULL OR d.lease_expires_at < :now)) "
+        + "ORDER BY d.created_at "
+        + "LIMIT :limit "
+        + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<UUID> lockClaimableDocuments(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Verrouillage d'un document précis s'il est réclamable (même condition que lockClaimableDocuments)
+     */
+    @Query(value = "SELECT d.document_id FROM documents d "
+        + "WHERE d.document_id = :documentId "
+        + "AND ((d.processing_status = 'PENDING' AND (d.next_attempt_at IS NULL OR d.next_attempt_at <= :now)) "
+        + "OR (d.processing_status = 'PROCESSING' AND (d.lease_expires_at IS NULL OR d.lease_expires_at < :now))) "
+        + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<UUID> lockClaimableDocument(@Param("documentId") UUID documentId, @Param("now") LocalDateTime now);
+
+    /**
+     * Prolongation du bail des documents encore détenus par un worker ; retourne le nombre de baux prolongés
+     */
+    @Modifying
+    @Query("UPDATE Document d SET d.leaseExpiresAt = :leaseExpiresAt "
+        + "WHERE d.documentId IN :ids AND d.leaseOwner = :owner AND d.processingStatus = :status")
+    int renewLeases(@Param("ids") Collection<UUID> ids, @Param("owner") String owner,
+                    @Param("status") Document.ProcessingStatus status, @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt);
 }
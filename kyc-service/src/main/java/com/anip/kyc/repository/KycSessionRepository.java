@@ -1,11 +1,15 @@
 package com.anip.kyc.repository;
 
 import com.anip.kyc.models.KycSession;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.UUID;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface KycSessionRepository extends JpaRepository<KycSession, UUID> {
@@ -14,4 +18,9 @@ public interface KycSessionRepository extends JpaRepository<KycSession, UUID> {
     // Find sessions where expiresAt is before now and not already marked expired
     @org.springframework.data.jpa.repository.Query("SELECT k FROM KycSession k WHERE k.expiresAt < CURRENT_TIMESTAMP AND k.sessionStatus <> 'EXPIRED'")
     List<KycSession> findExpiredSessions();
+
+    // Verrou de ligne : sérialise les transitions de statut concurrentes d'une même session
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @org.springframework.data.jpa.repository.Query("SELECT k FROM KycSession k WHERE k.sessionId = :sessionId")
+    Optional<KycSession> findForUpdate(@Param("sessionId") UUID sessionId);
 }
@@ -5,33 +5,69 @@ import com.anip.kyc.models.KycSession;
 import com.anip.kyc.repository.DocumentRepository;
 import com.anip.kyc.repository.KycSessionRepository;
 import com.anip.kyc.exception.DocumentValidationException;
+import com.anip.kyc.exception.ImageQualityException;
 import com.anip.kyc.exception.UnsupportedDocumentTypeException;
+import com.anip.kyc.config.CpuBudgetManager;
+import com.anip.kyc.config.OpenCvNativeLoader;
 import com.anip.kyc.config.security.EncryptionService;
 import com.anip.kyc.dto.DocumentUploadRequest;
 import com.anip.kyc.dto.DocumentValidationResult;
 import com.anip.kyc.dto.ExtractedDocumentData;
+import com.anip.kyc.service.document.BarcodePayloadParser;
+import com.anip.kyc.service.document.BarcodeReader;
+import com.anip.kyc.service.document.DocumentBoundaryDetector;
+import com.anip.kyc.service.document.DocumentFieldExtractor;
+import com.anip.kyc.service.document.FieldRegionPrior;
+import com.anip.kyc.service.document.DocumentIngestor;
+import com.anip.kyc.service.document.DocumentQualityAnalyzer;
+import com.anip.kyc.service.document.DocumentSideMerger;
+import com.anip.kyc.service.document.DocumentTamperAnalyzer;
+import com.anip.kyc.service.document.DocumentTypeClassifier;
+import com.anip.kyc.service.document.MrzParser;
+import com.anip.kyc.service.document.MrzRegionLocator;
+import com.anip.kyc.service.document.OcrTierPolicy;
+import com.anip.kyc.service.document.PdfPageRasterizer;
+import com.anip.kyc.service.document.PreprocessingPlanner;
+import com.anip.kyc.service.document.TesseractEnginePool;
+import com.anip.kyc.service.document.TextRegionDetector;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import net.sourceforge.tess4j.Tesseract;
 import net.sourceforge.tess4j.TesseractException;
 
 import org.opencv.core.*;
@@ -61,15 +97,133 @@ public class DocumentService {
     @Autowired
     private com.fasterxml.jackson.databind.ObjectMapper objectMapper;
 
+    @Autowired
+    private TesseractEnginePool tesseractEnginePool;
+
+    @Autowired
+    private MrzRegionLocator mrzRegionLocator;
+
+    @Autowired
+    private DocumentFieldExtractor documentFieldExtractor;
+
+    @Autowired
+    private PdfPageRasterizer pdfPageRasterizer;
+
+    @Autowired
+    private DocumentIngestor documentIngestor;
+
+    @Autowired
+    private PreprocessingPlanner preprocessingPlanner;
+
+    @Autowired
+    private DocumentBoundaryDetector documentBoundaryDetector;
+
+    @Autowired
+    private DocumentQualityAnalyzer documentQualityAnalyzer;
+
+    @Autowired
+    private DocumentTypeClassifier documentTypeClassifier;
+
+    @Autowired
+    private BarcodeReader barcodeReader;
+
+    @Autowired
+    private BarcodePayloadParser barcodePayloadParser;
+
+    @Autowired
+    private TextRegionDetector textRegionDetector;
+
+    @Autowired
+    private FieldRegionPrior fieldRegionPrior;
+
+    @Autowired
+    private OcrTierPolicy ocrTierPolicy;
+
+    @Autowired
+    private DocumentSideMerger documentSideMerger;
+
+    @Autowired
+    private DocumentTamperAnalyzer documentTamperAnalyzer;
+
+    @Autowired
+    @Qualifier("tamperAnalysisExecutor")
+    private ThreadPoolTaskExecutor tamperAnalysisExecutor;
+
+    @Autowired
+    @Qualifier("ocrPageExecutor")
+    private ThreadPoolTaskExecutor ocrPageExecutor;
+
+    @Autowired
+    private CpuBudgetManager cpuBudget;
+
+    @Autowired
+    @Qualifier("documentUploadExecutor")
+    private ThreadPoolTaskExecutor documentUploadExecutor;
+
+    // Nombre maximum de fichiers par upload groupé
+    @Value("${app.document.upload.batch.max.files:5}")
+    private int maxUploadBatchSize;
+
+    @Autowired
+    @Qualifier("documentProcessingExecutor")
+    private ThreadPoolTaskExecutor documentProcessingExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Lecture de la bande MRZ seule pour les passeports et cartes d'identité TD1
+    @Value("${app.ocr.mrz.enabled:true}")
+    private boolean mrzEnabled;
+
+    // Décodage du code-barres PDF417/QR des versos avant tout OCR
+    @Value("${app.ocr.barcode.enabled:true}")
+    private boolean barcodeEnabled;
+
+    // OCR des lignes de texte détectées plutôt que de la page entière
+    @Value("${app.ocr.regions.enabled:true}")
+    private boolean regionOcrEnabled;
+
+    // Arrêt de l'OCR par régions dès que les champs obligatoires sont lus avec une confiance suffisante (0-100)
+    @Value("${app.ocr.early.stop.enabled:true}")
+    private boolean earlyStopEnabled;
+
+    @Value("${app.ocr.early.stop.min.confidence:70}")
+    private int earlyStopMinConfidence;
+
+    // Rejet immédiat à l'upload des photos floues, à reflets, trop petites ou de résolution insuffisante
+    @Value("${app.document.quality.gate.enabled:true}")
+    private boolean qualityGateEnabled;
+
+    // Vérification du type déclaré avant OCR ; le type classé n'est retenu qu'au-delà de la confiance minimale
+    @Value("${app.document.classifier.enabled:true}")
+    private boolean classifierEnabled;
+
+    @Value("${app.document.classifier.min.confidence:0.8}")
+    private double classifierMinConfidence;
+
+    // Détection de retouches (ELA, copier-déplacer) des pièces d'identité après l'OCR, bornée en durée
+    @Value("${app.document.tamper.enabled:true}")
+    private boolean tamperEnabled;
+
+    @Value("${app.document.tamper.budget.ms:5000}")
+    private long tamperBudgetMs;
+
+    @Value("${app.document.tamper.suspect.score:0.5}")
+    private double tamperSuspectScore;
+
     @Value("${app.storage.documents.path}")
     private String documentStoragePath;
 
-    @Value("${app.ocr.tesseract.datapath}")
-    private String tesseractDataPath;
-
     @Value("${app.ocr.confidence.threshold:0.7}")
     private double ocrConfidenceThreshold;
 
+    // Réutilisation du résultat OCR d'un document de même contenu (hash SHA-256) et de même type
+    @Value("${app.document.dedup.ocr.enabled:true}")
+    private boolean ocrReuseEnabled;
+
     // Types de documents supportés
     private static final Map<String, List<String>> SUPPORTED_MIME_TYPES = Map.of(
         "PASSPORT", Arrays.asList("image/jpeg", "image/png", "image/tiff", "application/pdf"),
@@ -77,51 +231,67 @@ public class DocumentService {
         "DRIVING_LICENSE", Arrays.asList("image/jpeg", "image/png", "image/tiff")
     );
 
+    // Configuration OCR par défaut : français et anglais, bloc de texte uniforme (PSM 6), moteur LSTM (OEM 1)
+    private static final TesseractEnginePool.EngineConfig DEFAULT_OCR_CONFIG = new TesseractEnginePool.EngineConfig(
+        "fra+eng", 6, 1,
+        Map.of("tessedit_char_whitelist",
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789àáâãäåæçèéêëìíîïðñòóôõöøùúûüýþÿ .-/"));
+
+    // OCR d'une ligne de texte détectée (PSM 7), même alphabet que la page
+    private static final TesseractEnginePool.EngineConfig LINE_OCR_CONFIG = new TesseractEnginePool.EngineConfig(
+        "fra+eng", TextRegionDetector.PSM_SINGLE_LINE, 1, DEFAULT_OCR_CONFIG.getVariables());
+
+    // OCR de la bande MRZ : alphabet OCR-B, sans dictionnaire
+    private static final TesseractEnginePool.EngineConfig MRZ_OCR_CONFIG = new TesseractEnginePool.EngineConfig(
+        "eng", 6, 1,
+        Map.of("tessedit_char_whitelist", "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789<",
+            "load_system_dawg", "0",
+            "load_freq_dawg", "0"));
+    private static final double MRZ_OCR_WIDTH = 1200.0;
+    private static final int MRZ_MIN_LINE_LENGTH = 28;
+    private static final double MRZ_MIN_VALIDITY_RATIO = 0.5;
+    private static final java.time.format.DateTimeFormatter MRZ_DATE_FORMAT =
+        java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private static final String DEDUP_STAGE_OCR = "ocr";
+    private static final String ESCALATION_SCOPE_REGION = "region";
+    private static final String ESCALATION_SCOPE_PAGE = "page";
+    private static final Set<Document.DocumentType> TAMPER_ANALYSIS_TYPES = EnumSet.of(
+        Document.DocumentType.PASSPORT, Document.DocumentType.ID_CARD, Document.DocumentType.ID_CARD_FRONT,
+        Document.DocumentType.ID_CARD_BACK, Document.DocumentType.DRIVING_LICENSE,
+        Document.DocumentType.DRIVING_LICENSE_FRONT, Document.DocumentType.DRIVING_LICENSE_BACK);
+    private static final List<Document.ProcessingStatus> REUSABLE_STATUSES =
+        List.of(Document.ProcessingStatus.COMPLETED, Document.ProcessingStatus.FAILED);
+
+    private static final Map<String, String> FILE_EXTENSIONS = Map.of(
+        "image/jpeg", ".jpg",
+        "image/png", ".png",
+        "image/tiff", ".tiff",
+        "application/pdf", ".pdf"
+    );
+
     // Taille maximale des fichiers (10MB)
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
 
-    // Patterns pour validation des données extraites
-    private static final Map<String, Pattern> VALIDATION_PATTERNS = Map.of(
-        "PASSPORT_NUMBER", Pattern.compile("^[A-Z0-9]{6,12}$"),
-        "ID_CARD_NUMBER", Pattern.compile("^[A-Z0-9]{8,15}$"),
-        "DRIVING_LICENSE_NUMBER", Pattern.compile("^[A-Z0-9]{8,20}$"),
-        "DATE", Pattern.compile("^\\d{2}/\\d{2}/\\d{4}$"),
-        "NAME", Pattern.compile("^[A-ZÀÁÂÃÄÅÆÇÈÉÊËÌÍÎÏÐÑÒÓÔÕÖØÙÚÛÜÝÞŸ\\s\\-']{2,50}$")
-    );
 
     static {
-        // Tentative de chargement via nu.pattern.OpenCV si présent (openpnp wrapper).
-        // Si absent, Bytedeco opencv-platform gère le chargement natif automatiquement.
-        try {
-            Class<?> openCvWrapper = Class.forName("nu.pattern.OpenCV");
-            try {
-                java.lang.reflect.Method m = openCvWrapper.getMethod("loadShared");
-                m.invoke(null);
-                logger.info("Loaded OpenCV native library via nu.pattern.OpenCV.loadShared() (DocumentService)");
-            } catch (NoSuchMethodException nsme1) {
-                try {
-                    java.lang.reflect.Method m2 = openCvWrapper.getMethod("loadLocally");
-                    m2.invoke(null);
-                    logger.info("Loaded OpenCV native library via nu.pattern.OpenCV.loadLocally() (DocumentService)");
-                } catch (Throwable nsme2) {
-                    logger.warn("nu.pattern.OpenCV present but no known loader method succeeded in DocumentService: {}", nsme2 == null ? "unknown" : nsme2.getMessage());
-                }
-            } catch (Throwable t) {
-                logger.warn("nu.pattern.OpenCV.loadShared() invocation failed in DocumentService: {}", t.getMessage());
-            }
-        } catch (ClassNotFoundException ignored) {
-            logger.debug("nu.pattern.OpenCV wrapper not found on classpath (DocumentService)");
-        } catch (Throwable t) {
-            logger.warn("Unexpected error while attempting to use nu.pattern.OpenCV in DocumentService: {}", t.getMessage());
-        }
+        OpenCvNativeLoader.load();
+    }
 
-        try {
-            System.loadLibrary(org.opencv.core.Core.NATIVE_LIBRARY_NAME);
-            logger.info("Loaded OpenCV native library via System.loadLibrary (DocumentService): {}", org.opencv.core.Core.NATIVE_LIBRARY_NAME);
-        } catch (UnsatisfiedLinkError ule) {
-            logger.debug("System.loadLibrary failed in DocumentService: {}", ule.getMessage());
-        } catch (Throwable t) {
-            logger.warn("Unexpected error during System.loadLibrary for OpenCV in DocumentService: {}", t.getMessage());
+    private TransactionTemplate transactionTemplate;
+
+    @jakarta.annotation.PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("kyc.document.dedup.hit.ratio", () -> dedupHitRatio(DEDUP_STAGE_OCR))
+            .tag("stage", DEDUP_STAGE_OCR)
+            .description("Part des uploads servis par un résultat OCR de la même session")
+            .register(meterRegistry);
+        for (String scope : List.of(ESCALATION_SCOPE_REGION, ESCALATION_SCOPE_PAGE)) {
+            Gauge.builder("kyc.ocr.escalation.rate", () -> escalationRate(scope))
+                .tag("scope", scope)
+                .description("Part des lectures du niveau rapide relues avec les modèles complets")
+                .register(meterRegistry);
         }
     }
 
@@ -131,50 +301,143 @@ public class DocumentService {
     public CompletableFuture<Document> uploadDocument(UUID sessionId, DocumentUploadRequest request, MultipartFile file) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                // Validation de la session
-                KycSession session = kycSessionRepository.findById(sessionId)
-                    .orElseThrow(() -> new IllegalArgumentException("Session KYC non trouvée: " + sessionId));
+                requireUploadableSession(sessionId);
+                return storeDocument(sessionId, request.getDocumentType(), file);
 
-                if (!session.canUploadDocument()) {
-                    throw new IllegalStateException("La session ne permet pas l'upload de documents: " + session.getSessionStatus());
-                }
+            } catch (ImageQualityException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Erreur lors de l'upload du document - Session: {}, Type: {}", 
+                    sessionId, request.getDocumentType(), e);
+                throw new DocumentValidationException("Erreur lors de l'upload: " + e.getMessage(), e);
+            }
+        }, documentUploadExecutor);
+    }
 
-                // Validation du fichier
-                validateFile(file, request.getDocumentType());
+    /**
+     * Upload de plusieurs fichiers d'une même session (recto, verso, justificatif) : la session est vérifiée
+     * une fois, les fichiers sont contrôlés et stockés en parallèle puis mis en file OCR. Le rejet d'un fichier
+     * n'empêche pas le stockage des autres ; les résultats sont rendus dans l'ordre des fichiers envoyés.
+     */
+    public com.anip.kyc.dto.document.DocumentBatchUploadResponse uploadDocumentsBatch(
+            UUID sessionId, List<String> documentTypes, List<MultipartFile> files) {
+        if (files == null || files.isEmpty() || files.size() > maxUploadBatchSize) {
+            throw new DocumentValidationException("Nombre de fichiers invalide (1 à " + maxUploadBatchSize + ")");
+        }
+        if (documentTypes == null || documentTypes.size() != files.size()) {
+            throw new DocumentValidationException("Un type de document est requis pour chaque fichier");
+        }
+        try {
+            requireUploadableSession(sessionId);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new DocumentValidationException(e.getMessage(), e);
+        }
 
-                // Sauvegarde du fichier
-                String encryptedFilePath = saveEncryptedFile(file, sessionId, request.getDocumentType());
+        long startTime = System.currentTimeMillis();
+        List<CompletableFuture<com.anip.kyc.dto.document.DocumentBatchUploadItem>> futures = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            final int index = i;
+            futures.add(CompletableFuture.supplyAsync(() ->
+                storeBatchItem(index, sessionId, documentTypes.get(index), files.get(index)), documentUploadExecutor));
+        }
 
-                // Calcul du hash du fichier (non utilisé actuellement)
-                // String fileHash = calculateFileHash(file.getBytes());
+        List<com.anip.kyc.dto.document.DocumentBatchUploadItem> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<com.anip.kyc.dto.document.DocumentBatchUploadItem> f : futures) {
+            results.add(f.join());
+        }
+        com.anip.kyc.dto.document.DocumentBatchUploadResponse response =
+            com.anip.kyc.dto.document.DocumentBatchUploadResponse.of(results, System.currentTimeMillis() - startTime);
+        meterRegistry.summary("kyc.document.upload.batch.size").record(files.size());
+        logger.info("Upload groupé - Session: {}, Fichiers: {}, Rejetés: {}, Durée: {}ms",
+            sessionId, response.getFileCount(), response.getFailedCount(), response.getProcessingTimeMs());
+        return response;
+    }
 
-                // Création de l'entité Document
-                Document document = new Document();
-                document.setSessionId(sessionId);
-                document.setDocumentType(Document.DocumentType.valueOf(request.getDocumentType()));
-                // Store encrypted file path (file_path is expected to be encrypted per model comment)
-                document.setFilePath(encryptionService.encrypt(encryptedFilePath));
-                document.setFileSize(file.getSize());
-                document.setMimeType(file.getContentType());
-                document.setProcessingStatus(Document.ProcessingStatus.PENDING);
+    private com.anip.kyc.dto.document.DocumentBatchUploadItem storeBatchItem(int index, UUID sessionId,
+                                                                            String documentType, MultipartFile file) {
+        com.anip.kyc.dto.document.DocumentBatchUploadItem item = new com.anip.kyc.dto.document.DocumentBatchUploadItem();
+        item.setFileIndex(index);
+        item.setDocumentType(documentType);
+        try {
+            Document document = storeDocument(sessionId, documentType, file);
+            item.setDocumentId(document.getDocumentId());
+            item.setProcessingStatus(document.getProcessingStatus().name());
+        } catch (ImageQualityException e) {
+            item.setErrorCode("POOR_IMAGE_QUALITY");
+            item.setMessage(e.getMessage());
+        } catch (UnsupportedDocumentTypeException e) {
+            item.setErrorCode("UNSUPPORTED_DOCUMENT_TYPE");
+            item.setMessage(e.getMessage());
+        } catch (Exception e) {
+            logger.warn("Fichier rejeté dans un upload groupé - Session: {}, Fichier: {}, Type: {}: {}",
+                sessionId, index, documentType, e.getMessage());
+            item.setErrorCode("DOCUMENT_VALIDATION_FAILED");
+            item.setMessage("Erreur lors de l'upload: " + e.getMessage());
+        }
+        return item;
+    }
 
-                // Sauvegarde en base
-                document = documentRepository.save(document);
+    /**
+     * Session existante et ouverte aux uploads
+     */
+    private KycSession requireUploadableSession(UUID sessionId) {
+        KycSession session = kycSessionRepository.findById(sessionId)
+            .orElseThrow(() -> new IllegalArgumentException("Session KYC non trouvée: " + sessionId));
 
-                // Traitement OCR asynchrone
-                processDocumentAsync(document, file.getBytes());
+        if (!session.canUploadDocument()) {
+            throw new IllegalStateException("La session ne permet pas l'upload de documents: " + session.getSessionStatus());
+        }
+        return session;
+    }
 
-                logger.info("Document uploadé avec succès - ID: {}, Session: {}, Type: {}", 
-                    document.getDocumentId(), sessionId, request.getDocumentType());
+    /**
+     * Contrôle, réception et stockage d'un fichier d'une session déjà vérifiée, puis mise en file OCR
+     */
+    private Document storeDocument(UUID sessionId, String documentType, MultipartFile file) throws Exception {
+        // Validation du fichier
+        validateFile(file, documentType);
+
+        // Réception en une passe : type réel, taille, hash et chiffrement vers un fichier temporaire
+        Path sessionDirectory = Paths.get(documentStoragePath, sessionId.toString());
+        Files.createDirectories(sessionDirectory);
+        DocumentIngestor.IngestedFile ingested;
+        try (InputStream in = file.getInputStream()) {
+            ingested = documentIngestor.ingest(in, sessionDirectory, supportedMimeTypes(documentType), MAX_FILE_SIZE);
+        }
 
-                return document;
+        // Conservation du fichier reçu : chaque document a son propre fichier chiffré, supprimé avec lui
+        String fileHash = ingested.getSha256();
+        String encryptedFilePath;
+        try {
+            // Contrôle qualité de la photo sur le fichier reçu (type vérifié), avant stockage et mise en file OCR
+            enforceQualityGate(ingested, Document.DocumentType.valueOf(documentType), sessionId);
+            encryptedFilePath = storeIngestedFile(ingested, sessionDirectory, documentType);
+        } catch (Exception e) {
+            Files.deleteIfExists(ingested.getTempFile());
+            throw e;
+        }
 
-            } catch (Exception e) {
-                logger.error("Erreur lors de l'upload du document - Session: {}, Type: {}", 
-                    sessionId, request.getDocumentType(), e);
-                throw new DocumentValidationException("Erreur lors de l'upload: " + e.getMessage(), e);
-            }
-        });
+        // Création de l'entité Document
+        Document document = new Document();
+        document.setSessionId(sessionId);
+        document.setDocumentType(Document.DocumentType.valueOf(documentType));
+        // Store encrypted file path (file_path is expected to be encrypted per model comment)
+        document.setFilePath(encryptionService.encrypt(encryptedFilePath));
+        document.setFileHash(fileHash);
+        document.setFileSize(ingested.getSize());
+        document.setMimeType(ingested.getMimeType());
+        // Passage par la file persistante (DocumentProcessingQueue), même pour un contenu déjà lu dans la session :
+        // le worker reprend alors le résultat enregistré sans OCR, et l'enregistre comme toute face lue
+        // (liaison recto / verso, validation commune, transition de session sous verrou)
+        document.setProcessingStatus(Document.ProcessingStatus.PENDING);
+
+        // Sauvegarde en base
+        document = documentRepository.save(document);
+
+        logger.info("Document uploadé avec succès - ID: {}, Session: {}, Type: {}",
+            document.getDocumentId(), sessionId, documentType);
+
+        return document;
     }
 
     // --- Adapter methods for controller DTO package com.anip.kyc.dto.document ---
@@ -262,313 +525,1043 @@ public class DocumentService {
     }
 
     /**
-     * Traitement OCR asynchrone d'un document
+     * Traitement OCR d'un document réclamé dans la file persistante (DocumentProcessingQueue).
+     * Le fichier est relu depuis le stockage chiffré. Les erreurs sont propagées à la file,
+     * qui décide du nouvel essai ou de la mise en lettre morte.
+     * Une face recto / verso réclamée avec son autre face est lue en parallèle de celle-ci ;
+     * les deux sont validées ensemble et la session ne change de statut qu'une fois.
      */
-    private void processDocumentAsync(Document document, byte[] fileBytes) {
-        CompletableFuture.runAsync(() -> {
-            try {
-                long startTime = System.currentTimeMillis();
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void processQueuedDocument(UUID documentId, String leaseOwner) throws Exception {
+        Document document = documentRepository.findById(documentId)
+            .orElseThrow(() -> new IllegalArgumentException("Document non trouvé: " + documentId));
+        if (!document.isLeasedBy(leaseOwner)) {
+            logger.warn("Bail perdu avant traitement - Document: {}, Worker: {}", documentId, leaseOwner);
+            return;
+        }
 
-                // Prétraitement de l'image avec OpenCV
-                Mat processedImage = preprocessImage(fileBytes);
+        Document partner = document.getPairedDocumentId() == null ? null
+            : documentRepository.findById(document.getPairedDocumentId())
+                .filter(candidate -> candidate.isLeasedBy(leaseOwner))
+                .orElse(null);
+        if (partner == null) {
+            SideResult result = processSide(document);
+            completeUnit(result, null, leaseOwner);
+            scheduleTamperAnalysis(result);
+            return;
+        }
 
-                // Extraction OCR avec Tesseract
-                String extractedText = performOCR(processedImage);
+        // Autre face lue sur le pool document ; si elle n'a pas démarré quand la première est lue
+        // (pool saturé), elle est lue sur ce thread plutôt que d'attendre une place
+        AtomicBoolean partnerStarted = new AtomicBoolean();
+        CompletableFuture<SideResult> partnerFuture = new CompletableFuture<>();
+        Runnable partnerTask = () -> {
+            if (partnerStarted.compareAndSet(false, true)) {
+                try {
+                    partnerFuture.complete(processSide(partner));
+                } catch (Throwable e) {
+                    partnerFuture.completeExceptionally(e);
+                }
+            }
+        };
+        try {
+            documentProcessingExecutor.execute(partnerTask);
+        } catch (org.springframework.core.task.TaskRejectedException e) {
+            logger.debug("Pool document saturé, faces lues successivement - Document: {}", documentId);
+        }
+        SideResult result = processSide(document);
+        partnerTask.run();
 
-                // Validation et extraction des données structurées
-                ExtractedDocumentData extractedData = extractStructuredData(extractedText, document.getDocumentType());
+        SideResult partnerResult;
+        try {
+            partnerResult = partnerFuture.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+        completeUnit(result, partnerResult, leaseOwner);
+        scheduleTamperAnalysis(result);
+        scheduleTamperAnalysis(partnerResult);
+    }
 
-                // Validation des données extraites
-                DocumentValidationResult validationResult = validateExtractedData(extractedData, document.getDocumentType());
+    /**
+     * Lecture d'une face : résultat réutilisé d'un contenu identique, sinon classification, recadrage
+     * et OCR (code-barres, MRZ, régions ou pleine page), puis validation de la face seule.
+     * Aucune écriture : le résultat est enregistré par completeUnit.
+     * La lecture occupe un créneau document du budget CPU, prêté pendant l'attente des pages et régions.
+     */
+    private SideResult processSide(Document document) throws Exception {
+        return cpuBudget.getDocumentSlots().call(() -> readSide(document));
+    }
 
-                // Mise à jour du document (conformes au modèle Document)
-                // Store extracted text (encrypted) and structured JSON in metadata
-                document.setExtractedText(encryptionService.encrypt(extractedData.toJson()));
-                document.setConfidenceScore(extractedData.getConfidenceScore());
-                document.setProcessingStatus(validationResult.isValid() ? Document.ProcessingStatus.COMPLETED : Document.ProcessingStatus.FAILED);
+    private SideResult readSide(Document document) throws Exception {
+        // Contenu identique déjà lu dans la session : résultat repris sans OCR
+        SideResult reused = reuseProcessedResult(document);
+        dedupCounter(DEDUP_STAGE_OCR, reused != null).increment();
+        if (reused != null) {
+            return reused;
+        }
 
-                Map<String, Object> meta = new HashMap<>();
-                meta.put("ocrTextEncrypted", encryptionService.encrypt(extractedText));
-                meta.put("errors", validationResult.getErrors());
-                meta.put("processingDurationMs", (int)(System.currentTimeMillis() - startTime));
-                try {
-                    document.setMetadata(objectMapper.writeValueAsString(meta));
-                } catch (com.fasterxml.jackson.core.JsonProcessingException jpe) {
-                    logger.warn("Erreur sérialisation metadata OCR", jpe);
-                    document.setMetadata("{}");
+        long startTime = System.currentTimeMillis();
+        Document.DocumentType declaredType = document.getDocumentType();
+        Document.DocumentType documentType = declaredType;
+        byte[] fileBytes = readStoredFile(document);
+
+        String ocrRegion = "FULL_PAGE";
+        String extractedText = null;
+        ExtractedDocumentData extractedData = null;
+        PdfOcrResult pdfResult = null;
+        DocumentBoundaryDetector.Crop crop = null;
+        RegionOcrResult regionResult = null;
+        DocumentTypeClassifier.Classification classification = null;
+        if (PdfPageRasterizer.isPdf(fileBytes)) {
+            // PDF : rasterisation page par page et OCR parallèle des pages
+            ocrRegion = "PDF";
+            pdfResult = performPdfOCR(fileBytes, documentType);
+            extractedText = pdfResult.text.toString();
+            extractedData = extractStructuredData(extractedText, documentType);
+        } else {
+            Mat image = decodeImage(fileBytes);
+            Mat processedImage = null;
+            try {
+                // Vérification du type déclaré sur une vignette : chaque document suit le pipeline de son type réel
+                if (classifierEnabled) {
+                    classification = documentTypeClassifier.classify(image, declaredType);
+                    documentType = routeDocumentType(classification, declaredType);
                 }
-                document.setProcessedAt(java.time.LocalDateTime.now());
-                document.setUpdatedAt(java.time.LocalDateTime.now());
 
-                documentRepository.save(document);
+                // Recadrage sur le document : l'arrière-plan n'est ni prétraité ni lu
+                crop = documentBoundaryDetector.crop(image, documentType);
+                Mat documentImage = crop.getImage();
 
-                // Mise à jour du statut de la session
-                updateSessionStatus(document.getSessionId(), validationResult.isValid());
+                // Code-barres du verso : données exactes sans OCR
+                if (hasBarcode(documentType)) {
+                    extractedData = readBarcode(documentImage, documentType);
+                    if (extractedData != null) {
+                        ocrRegion = "BARCODE";
+                        extractedText = extractedData.getRawText();
+                    }
+                }
 
-                logger.info("Traitement OCR terminé - Document: {}, Confiance: {:.2f}, Statut: {}", 
-                    document.getDocumentId(), extractedData.getConfidenceScore(), document.getProcessingStatus());
+                // OCR limité à la bande MRZ quand le type de document en comporte une
+                if (extractedData == null && hasMrz(documentType)) {
+                    ocrRegion = "MRZ";
+                    List<String> mrzLines = readMrz(documentImage);
+                    if (!mrzLines.isEmpty()) {
+                        extractedText = String.join("\n", mrzLines);
+                        extractedData = extractMrzData(mrzLines, documentType);
+                    }
+                }
 
-                } catch (Exception e) {
-                logger.error("Erreur lors du traitement OCR - Document: {}", document.getDocumentId(), e);
-                
-                // Mise à jour du statut en erreur
-                document.setProcessingStatus(Document.ProcessingStatus.FAILED);
-                Map<String, Object> meta = new HashMap<>();
-                meta.put("error", "Erreur de traitement OCR: " + e.getMessage());
-                try {
-                    document.setMetadata(objectMapper.writeValueAsString(meta));
-                } catch (com.fasterxml.jackson.core.JsonProcessingException jpe) {
-                    logger.warn("Erreur sérialisation metadata erreur OCR", jpe);
-                    document.setMetadata("{}");
+                // Repli sur l'OCR pleine page
+                if (extractedData == null) {
+                    ocrRegion = "FULL_PAGE";
+
+                    // Prétraitement adapté à la qualité estimée de l'image ; le recadrage a une résolution connue
+                    processedImage = crop.isDetected()
+                        ? preprocessingPlanner.preprocess(documentImage, crop.getDpi())
+                        : preprocessingPlanner.preprocess(image, documentType);
+
+                    // Extraction OCR avec Tesseract, ligne par ligne si des régions de texte sont détectées
+                    long ocrStart = System.nanoTime();
+                    if (regionOcrEnabled) {
+                        regionResult = performRegionOCR(processedImage, documentType);
+                        extractedText = regionResult.text;
+                    } else {
+                        extractedText = performOCR(processedImage, documentType);
+                    }
+                    Timer.builder("kyc.ocr.duration")
+                        .tag("cropped", String.valueOf(crop.isDetected()))
+                        .tag("mode", regionOcrEnabled ? "regions" : "page")
+                        .description("Durée de l'OCR pleine page, avec ou sans recadrage du document")
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - ocrStart, TimeUnit.NANOSECONDS);
+
+                    // Validation et extraction des données structurées
+                    extractedData = extractStructuredData(extractedText, documentType);
                 }
-                document.setUpdatedAt(java.time.LocalDateTime.now());
-                documentRepository.save(document);
+            } finally {
+                // Libération aussi en cas d'échec de l'OCR : le worker traite des documents en continu
+                if (processedImage != null) {
+                    processedImage.release();
+                }
+                if (crop != null && crop.isDetected()) {
+                    crop.getImage().release();
+                }
+                image.release();
             }
-        });
+        }
+        meterRegistry.counter("kyc.ocr.region", "region", ocrRegion).increment();
+
+        // Validation des données extraites
+        DocumentValidationResult validationResult = validateExtractedData(extractedData, documentType);
+
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("ocrTextEncrypted", encryptionService.encrypt(extractedText));
+        meta.put("processingDurationMs", (int)(System.currentTimeMillis() - startTime));
+        meta.put("ocrRegion", ocrRegion);
+        if (pdfResult != null) {
+            meta.put("pdfPageCount", pdfResult.pageCount);
+            meta.put("pdfPagesProcessed", pdfResult.pagesProcessed);
+        }
+        if (classification != null) {
+            meta.put("declaredDocumentType", declaredType.name());
+            meta.put("classifiedDocumentType", classification.getType().name());
+            meta.put("classificationConfidence", classification.getConfidence());
+        }
+        if (crop != null) {
+            meta.put("documentCropped", crop.isDetected());
+            meta.put("cropRemovedAreaRatio", Math.round(crop.getRemovedAreaRatio() * 1000) / 1000.0);
+        }
+        if (regionResult != null) {
+            meta.put("ocrRegionCount", regionResult.regionCount);
+            meta.put("ocrRegionsProcessed", regionResult.regionsProcessed);
+            meta.put("ocrEarlyStop", regionResult.earlyStop);
+            meta.put("ocrEscalatedRegions", regionResult.regionsEscalated);
+        }
+        return new SideResult(document, documentType, extractedData, validationResult, meta);
     }
 
     /**
-     * Prétraitement de l'image avec OpenCV
+     * Enregistrement d'une face lue, ou des deux faces d'un document lues ensemble, puis transition
+     * unique du statut de la session. Le verrou de session sérialise les faces traitées par des workers
+     * différents : une face dont l'autre est encore en file laisse la transition à celle-ci, et la
+     * dernière face traitée est validée avec l'autre (fusion et contrôle de cohérence).
      */
-    private Mat preprocessImage(byte[] imageBytes) {
-        // Chargement de l'image
-        Mat image = Imgcodecs.imdecode(new MatOfByte(imageBytes), Imgcodecs.IMREAD_COLOR);
-        
-        if (image.empty()) {
-            throw new DocumentValidationException("Impossible de charger l'image");
-        }
-
-        // Conversion en niveaux de gris
-        Mat gray = new Mat();
-        Imgproc.cvtColor(image, gray, Imgproc.COLOR_BGR2GRAY);
+    private void completeUnit(SideResult result, SideResult partnerResult, String leaseOwner) {
+        transactionTemplate.executeWithoutResult(status -> {
+            kycSessionRepository.findForUpdate(result.sessionId);
+
+            // Le bail a pu expirer et le document être repris par un autre worker pendant l'OCR
+            Document document = documentRepository.findById(result.documentId).orElse(null);
+            if (document == null || !document.isLeasedBy(leaseOwner)) {
+                logger.warn("Bail expiré pendant le traitement, résultat ignoré - Document: {}", result.documentId);
+                return;
+            }
 
-        // Amélioration du contraste
-        Mat enhanced = new Mat();
-        Imgproc.equalizeHist(gray, enhanced);
+            Document counterpart = null;
+            SideResult counterpartResult = null;
+            boolean deferred = false;
+            if (partnerResult != null) {
+                counterpart = documentRepository.findById(partnerResult.documentId)
+                    .filter(candidate -> candidate.isLeasedBy(leaseOwner))
+                    .orElse(null);
+                counterpartResult = counterpart != null ? partnerResult : null;
+            } else {
+                // Autre face traitée séparément : résultat enregistré, ou transition laissée à son traitement
+                counterpart = findCounterpart(document);
+                if (counterpart != null && REUSABLE_STATUSES.contains(counterpart.getProcessingStatus())) {
+                    counterpartResult = storedSide(counterpart);
+                } else if (counterpart != null && (counterpart.getProcessingStatus() == Document.ProcessingStatus.PENDING
+                        || counterpart.getProcessingStatus() == Document.ProcessingStatus.PROCESSING)) {
+                    deferred = true;
+                }
+            }
+            if (counterpartResult != null && DocumentSideMerger.counterpart(result.documentType) != counterpartResult.documentType) {
+                // La classification a changé le type d'une face : plus de recto / verso à réunir
+                counterpartResult = null;
+            }
 
-        // Débruitage
-        Mat denoised = new Mat();
-        Imgproc.bilateralFilter(enhanced, denoised, 9, 75, 75);
+            DocumentValidationResult validation = result.validation;
+            ExtractedDocumentData merged = null;
+            if (counterpartResult != null) {
+                boolean front = DocumentSideMerger.isFront(result.documentType);
+                merged = documentSideMerger.merge(front ? result.data : counterpartResult.data,
+                    front ? counterpartResult.data : result.data);
+                validation = validatePair(merged, front ? result.data : counterpartResult.data,
+                    front ? counterpartResult.data : result.data);
+            }
 
-        // Détection des contours pour améliorer la lisibilité
-        Mat edges = new Mat();
-        Imgproc.Canny(denoised, edges, 50, 150);
+            saveSide(document, result, validation, merged, counterpartResult != null ? counterpart.getDocumentId() : null);
+            if (counterpartResult != null) {
+                if (counterpartResult == partnerResult) {
+                    saveSide(counterpart, partnerResult, validation, merged, document.getDocumentId());
+                } else {
+                    savePairedSide(counterpart, validation, merged, document.getDocumentId());
+                }
+            }
+            String pairing = counterpartResult == null ? (deferred ? "deferred" : "single")
+                : counterpartResult == partnerResult ? "read_together" : "merged_with_stored";
+            meterRegistry.counter("kyc.document.pairing", "result", pairing).increment();
 
-        // Fermeture morphologique pour connecter les caractères
-        Mat kernel = Imgproc.getStructuringElement(Imgproc.MORPH_RECT, new Size(2, 2));
-        Mat closed = new Mat();
-        Imgproc.morphologyEx(edges, closed, Imgproc.MORPH_CLOSE, kernel);
+            if (deferred) {
+                logger.debug("Statut de session laissé à l'autre face - Document: {}, Autre face: {}",
+                    document.getDocumentId(), document.getPairedDocumentId());
+            } else {
+                updateSessionStatus(document.getSessionId(), validation.isValid());
+            }
 
-        // Combinaison de l'image débruitée et des contours
-        Mat result = new Mat();
-        Core.addWeighted(denoised, 0.8, closed, 0.2, 0, result);
+            logger.info("Traitement OCR terminé - Document: {}, Confiance: {}, Statut: {}",
+                document.getDocumentId(), result.data.getConfidenceScore(), document.getProcessingStatus());
+        });
+    }
 
-        logger.debug("Prétraitement d'image terminé - Dimensions: {}x{}", result.width(), result.height());
+    /**
+     * Autre face d'un document recto / verso. Une face réclamée pendant que celle-ci était traitée par
+     * un autre worker n'est liée que dans un sens : le lien est alors complété sur ce document.
+     */
+    private Document findCounterpart(Document document) {
+        if (document.getPairedDocumentId() != null) {
+            return documentRepository.findById(document.getPairedDocumentId()).orElse(null);
+        }
+        Document counterpart = documentRepository
+            .findFirstBySessionIdAndPairedDocumentIdOrderByCreatedAtDesc(document.getSessionId(), document.getDocumentId())
+            .orElse(null);
+        if (counterpart != null) {
+            document.setPairedDocumentId(counterpart.getDocumentId());
+        }
+        return counterpart;
+    }
 
+    /**
+     * Validation d'un document recto / verso : données fusionnées et cohérence des champs lus sur les deux faces
+     */
+    private DocumentValidationResult validatePair(ExtractedDocumentData merged, ExtractedDocumentData front,
+                                                  ExtractedDocumentData back) {
+        DocumentValidationResult result = validateExtractedData(merged, front.getDocumentType());
+        List<String> inconsistencies = documentSideMerger.inconsistencies(front, back);
+        if (!inconsistencies.isEmpty()) {
+            result.getErrors().addAll(inconsistencies);
+            result.setValid(false);
+        }
         return result;
     }
 
     /**
-     * Extraction OCR avec Tesseract
+     * Enregistrement d'une face lue par ce worker, avec le résultat de validation de son document
      */
-    private String performOCR(Mat processedImage) throws TesseractException {
-        Tesseract tesseract = new Tesseract();
-        tesseract.setDatapath(tesseractDataPath);
-        tesseract.setLanguage("fra+eng"); // Support français et anglais
-        tesseract.setPageSegMode(6); // Bloc de texte uniforme
-        tesseract.setOcrEngineMode(1); // Neural nets LSTM engine
+    private void saveSide(Document document, SideResult side, DocumentValidationResult validation,
+                          ExtractedDocumentData merged, UUID pairedDocumentId) {
+        document.setExtractedText(encryptionService.encrypt(side.data.toJson()));
+        document.setConfidenceScore(side.data.getConfidenceScore());
+        document.setProcessingStatus(validation.isValid() ? Document.ProcessingStatus.COMPLETED : Document.ProcessingStatus.FAILED);
+        document.releaseLease();
+        document.setLastError(null);
+        if (side.documentType != document.getDocumentType()) {
+            document.setDocumentType(side.documentType);
+        }
+
+        Map<String, Object> meta = new HashMap<>(side.meta);
+        meta.put("errors", validation.getErrors());
+        meta.put("attempts", document.getProcessingAttempts());
+        putPairMetadata(meta, merged, pairedDocumentId);
+        writeMetadata(document, meta);
+        document.setProcessedAt(LocalDateTime.now());
+        document.setUpdatedAt(LocalDateTime.now());
+        documentRepository.save(document);
+    }
 
-        // Configuration pour améliorer la précision
-        // Some Tesseract bindings expose setTessVariable, others don't; use reflection fallback
-        safeSetTessVariable(tesseract, "tessedit_char_whitelist", 
-            "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789àáâãäåæçèéêëìíîïðñòóôõöøùúûüýþÿ .-/");
+    /**
+     * Autre face traitée auparavant : elle prend le statut et les erreurs de la validation commune
+     */
+    private void savePairedSide(Document document, DocumentValidationResult validation,
+                                ExtractedDocumentData merged, UUID pairedDocumentId) {
+        Map<String, Object> meta = readMetadata(document);
+        meta.put("errors", validation.getErrors());
+        putPairMetadata(meta, merged, pairedDocumentId);
+        writeMetadata(document, meta);
+        document.setPairedDocumentId(pairedDocumentId);
+        document.setProcessingStatus(validation.isValid() ? Document.ProcessingStatus.COMPLETED : Document.ProcessingStatus.FAILED);
+        document.setUpdatedAt(LocalDateTime.now());
+        documentRepository.save(document);
+    }
 
-        // Conversion Mat vers BufferedImage pour Tesseract
-        MatOfByte matOfByte = new MatOfByte();
-        Imgcodecs.imencode(".png", processedImage, matOfByte);
-        byte[] byteArray = matOfByte.toArray();
+    private void putPairMetadata(Map<String, Object> meta, ExtractedDocumentData merged, UUID pairedDocumentId) {
+        if (merged != null) {
+            meta.put("pairedDocumentId", pairedDocumentId.toString());
+            meta.put("pairedDataEncrypted", encryptionService.encrypt(merged.toJson()));
+            meta.put("pairedConfidenceScore", merged.getConfidenceScore());
+        }
+    }
 
+    /**
+     * Analyse de retouches d'une pièce d'identité, en arrière-plan de l'OCR : le résultat OCR et
+     * le statut de session sont déjà enregistrés, l'analyse ne fait que compléter la metadata
+     */
+    private void scheduleTamperAnalysis(SideResult side) {
+        if (!tamperEnabled || !TAMPER_ANALYSIS_TYPES.contains(side.documentType)) {
+            return;
+        }
         try {
-            java.awt.image.BufferedImage bufferedImage = javax.imageio.ImageIO.read(
-                new java.io.ByteArrayInputStream(byteArray));
-            
-            String extractedText = tesseract.doOCR(bufferedImage);
-            
-            logger.debug("OCR effectué - Texte extrait: {} caractères", extractedText.length());
-            
-            return extractedText.trim();
-            
-        } catch (IOException e) {
-            throw new TesseractException("Erreur de conversion d'image pour OCR", e);
+            tamperAnalysisExecutor.execute(() -> runTamperAnalysis(side.documentId));
+        } catch (org.springframework.core.task.TaskRejectedException e) {
+            meterRegistry.counter("kyc.document.tamper", "result", "rejected").increment();
+            logger.warn("File d'analyse de retouches saturée, document non analysé - Document: {}", side.documentId);
         }
     }
 
-    private void safeSetTessVariable(Tesseract tesseract, String key, String value) {
+    /**
+     * ELA et recherche de duplication par tuiles (DocumentTamperAnalyzer) dans la limite de
+     * app.document.tamper.budget.ms ; carte de chaleur et score ajoutés à la metadata du document
+     */
+    private void runTamperAnalysis(UUID documentId) {
         try {
-            java.lang.reflect.Method m = tesseract.getClass().getMethod("setTessVariable", String.class, String.class);
-            m.invoke(tesseract, key, value);
-        } catch (NoSuchMethodException nsme) {
-            // If binding does not support setTessVariable, ignore silently
+            Document document = documentRepository.findById(documentId).orElse(null);
+            // Résultat réutilisé d'un contenu identique : l'analyse a été copiée avec la metadata
+            if (document == null || !REUSABLE_STATUSES.contains(document.getProcessingStatus())
+                    || readMetadata(document).containsKey("tamperScore")) {
+                return;
+            }
+            byte[] content = readStoredFile(document);
+            if (PdfPageRasterizer.isPdf(content)) {
+                meterRegistry.counter("kyc.document.tamper", "result", "skipped").increment();
+                return;
+            }
+            int jpegQuality = DocumentTamperAnalyzer.estimateJpegQuality(content);
+            // Décodage dans un créneau document, prêté aux tuiles pendant l'analyse
+            DocumentTamperAnalyzer.Analysis analysis = cpuBudget.getDocumentSlots().call(() -> {
+                Mat image = Imgcodecs.imdecode(new MatOfByte(content), Imgcodecs.IMREAD_COLOR);
+                try {
+                    return image.empty() ? null : documentTamperAnalyzer.analyze(image, jpegQuality, tamperBudgetMs);
+                } finally {
+                    image.release();
+                }
+            });
+            if (analysis == null) {
+                meterRegistry.counter("kyc.document.tamper", "result", "skipped").increment();
+                return;
+            }
+
+            boolean suspected = analysis.getScore() >= tamperSuspectScore;
+            Timer.builder("kyc.document.tamper.duration")
+                .description("Durée de l'analyse de retouches (ELA et duplication)")
+                .register(meterRegistry)
+                .record(analysis.getElapsedMillis(), TimeUnit.MILLISECONDS);
+            DistributionSummary.builder("kyc.document.tamper.score")
+                .description("Score de retouche des pièces d'identité")
+                .register(meterRegistry)
+                .record(analysis.getScore());
+            meterRegistry.counter("kyc.document.tamper", "result", suspected ? "suspected" : "clean").increment();
+            if (!analysis.isComplete()) {
+                meterRegistry.counter("kyc.document.tamper.budget.exhausted").increment();
+            }
+
+            List<List<Double>> heatMap = new ArrayList<>();
+            for (double[] row : analysis.getHeatMap()) {
+                List<Double> values = new ArrayList<>(row.length);
+                for (double value : row) {
+                    values.add(Math.round(value * 100) / 100.0);
+                }
+                heatMap.add(values);
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                // Même verrou que l'enregistrement des faces : la metadata n'est pas écrasée
+                kycSessionRepository.findForUpdate(document.getSessionId());
+                Document current = documentRepository.findById(documentId).orElse(null);
+                if (current == null) {
+                    return;
+                }
+                Map<String, Object> meta = readMetadata(current);
+                meta.put("tamperScore", Math.round(analysis.getScore() * 1000) / 1000.0);
+                meta.put("tamperSuspected", suspected);
+                meta.put("tamperElaScore", Math.round(analysis.getElaScore() * 1000) / 1000.0);
+                meta.put("tamperCopyMoveScore", Math.round(analysis.getCopyMoveScore() * 1000) / 1000.0);
+                meta.put("tamperCopyMoveMatches", analysis.getCopyMoveMatches());
+                meta.put("tamperJpegQuality", jpegQuality);
+                meta.put("tamperHeatMap", heatMap);
+                meta.put("tamperTileSize", DocumentTamperAnalyzer.TILE_SIZE);
+                meta.put("tamperTileStride", DocumentTamperAnalyzer.TILE_STRIDE);
+                meta.put("tamperTilesAnalyzed", analysis.getTilesAnalyzed());
+                meta.put("tamperComplete", analysis.isComplete());
+                meta.put("tamperDurationMs", analysis.getElapsedMillis());
+                writeMetadata(current, meta);
+                current.setUpdatedAt(LocalDateTime.now());
+                documentRepository.save(current);
+            });
+
+            if (suspected) {
+                logger.warn("Retouche suspectée - Document: {}, Score: {}, ELA: {}, Blocs dupliqués: {}",
+                    documentId, analysis.getScore(), analysis.getElaScore(), analysis.getCopyMoveMatches());
+            } else {
+                logger.debug("Analyse de retouches terminée - Document: {}, Score: {}, Tuiles: {}/{}, Durée: {} ms",
+                    documentId, analysis.getScore(), analysis.getTilesAnalyzed(), analysis.getTilesTotal(),
+                    analysis.getElapsedMillis());
+            }
         } catch (Exception e) {
-            // Log but continue
-            logger.warn("Impossible d'appliquer tess variable: {}", key, e);
+            logger.error("Erreur lors de l'analyse de retouches - Document: {}", documentId, e);
         }
     }
 
     /**
-     * Extraction de données structurées à partir du texte OCR
+     * Face mise en lettre morte : l'autre face, déjà traitée, attendait peut-être celle-ci pour conclure
+     * la session ; elle la conclut seule. Appelé dans la transaction de la file.
      */
-    private ExtractedDocumentData extractStructuredData(String ocrText, Document.DocumentType documentType) {
-        ExtractedDocumentData data = new ExtractedDocumentData();
-        data.setRawText(ocrText);
-        data.setDocumentType(documentType);
+    public void concludeAbandonedPair(Document abandoned) {
+        Optional.ofNullable(findCounterpart(abandoned))
+            .filter(side -> REUSABLE_STATUSES.contains(side.getProcessingStatus()))
+            .ifPresent(side -> {
+                kycSessionRepository.findForUpdate(side.getSessionId());
+                updateSessionStatus(side.getSessionId(), side.getProcessingStatus() == Document.ProcessingStatus.COMPLETED);
+            });
+    }
 
-        double totalConfidence = 0.0;
-        int fieldCount = 0;
-
-        // Support both granular types and legacy aliases
-        switch (documentType) {
-            case PASSPORT:
-                data = extractPassportData(ocrText, data);
-                break;
-            case ID_CARD:
-            case ID_CARD_FRONT:
-            case ID_CARD_BACK:
-                data = extractIdCardData(ocrText, data);
-                break;
-            case DRIVING_LICENSE:
-            case DRIVING_LICENSE_FRONT:
-            case DRIVING_LICENSE_BACK:
-                data = extractDrivingLicenseData(ocrText, data);
-                break;
-            default:
-                // Other types: try a generic extraction
-                data = extractIdCardData(ocrText, data);
-                break;
-        }
-
-        // Calcul de la confiance globale
-        if (fieldCount > 0) {
-            data.setConfidenceScore(totalConfidence / fieldCount);
+    /**
+     * Type suivi pour le traitement : le type classé remplace le type déclaré au-delà de la confiance minimale
+     */
+    private Document.DocumentType routeDocumentType(DocumentTypeClassifier.Classification classification,
+                                                    Document.DocumentType declaredType) {
+        String result;
+        Document.DocumentType routed = declaredType;
+        if (classification.getType() == declaredType) {
+            result = classification.getConfidence() > 0 ? "confirmed" : "uncertain";
+        } else if (classification.getConfidence() >= classifierMinConfidence) {
+            result = "corrected";
+            routed = classification.getType();
+            logger.info("Type de document corrigé - Déclaré: {}, Retenu: {}, Confiance: {}, Indices: {}",
+                declaredType, routed, classification.getConfidence(), classification.getFeatures());
         } else {
-            data.setConfidenceScore(0.0);
+            result = "uncertain";
         }
+        meterRegistry.counter("kyc.document.classification", "declared", declaredType.name(),
+            "classified", routed.name(), "result", result).increment();
+        Timer.builder("kyc.document.classification.duration")
+            .description("Durée de la classification du type de document")
+            .register(meterRegistry)
+            .record(classification.getElapsedMillis(), TimeUnit.MILLISECONDS);
+        return routed;
+    }
 
-        return data;
+    /**
+     * Pré-contrôle qualité d'une photo de document reçue (type vérifié à l'ingestion) : rejet synchrone avec
+     * les codes de DocumentQualityAnalyzer, sur un décodage réduit. Les PDF et contenus non décodables passent.
+     * Déchiffrement et analyse dans un créneau document : les uploads ne s'ajoutent pas au budget CPU de l'OCR.
+     */
+    private void enforceQualityGate(DocumentIngestor.IngestedFile ingested, Document.DocumentType documentType,
+                                    UUID sessionId) throws Exception {
+        if (!qualityGateEnabled || !ingested.getMimeType().startsWith("image/")) {
+            return;
+        }
+        DocumentQualityAnalyzer.Assessment assessment = cpuBudget.getDocumentSlots().call(() -> {
+            byte[] content = encryptionService.decryptBytes(Files.readAllBytes(ingested.getTempFile()));
+            return documentQualityAnalyzer.analyze(content, documentType);
+        });
+        if (assessment == null) {
+            return;
+        }
+        Timer.builder("kyc.document.quality.duration")
+            .description("Durée du contrôle qualité des photos de document")
+            .register(meterRegistry)
+            .record(assessment.getElapsedMillis(), TimeUnit.MILLISECONDS);
+        meterRegistry.counter("kyc.document.quality", "documentType", documentType.name(),
+            "result", assessment.isAcceptable() ? "accepted" : "rejected").increment();
+        if (!assessment.isAcceptable()) {
+            for (String issue : assessment.getIssues()) {
+                meterRegistry.counter("kyc.document.quality.issue", "issue", issue).increment();
+            }
+            logger.info("Photo de document rejetée par le contrôle qualité - Session: {}, Type: {}, Raisons: {}, Mesures: {}",
+                sessionId, documentType, assessment.getIssues(), assessment.getMetrics());
+            throw new ImageQualityException("Qualité de capture insuffisante: " + String.join(", ", assessment.getIssues()));
+        }
     }
 
     /**
-     * Extraction spécifique pour passeport
+     * Lecture et déchiffrement du fichier stocké d'un document
      */
-    private ExtractedDocumentData extractPassportData(String text, ExtractedDocumentData data) {
-        Map<String, Object> fields = new HashMap<>();
-        double confidence = 0.0;
+    private byte[] readStoredFile(Document document) throws IOException {
+        Path filePath = Paths.get(encryptionService.decrypt(document.getFilePath()));
+        return encryptionService.decryptBytes(Files.readAllBytes(filePath));
+    }
 
-        // Recherche du numéro de passeport
-        Pattern passportPattern = Pattern.compile("(?:PASSPORT|PASSEPORT)\\s*[NO|N°]?\\s*([A-Z0-9]{6,12})", 
-            Pattern.CASE_INSENSITIVE);
-        java.util.regex.Matcher matcher = passportPattern.matcher(text);
-        if (matcher.find()) {
-            fields.put("passportNumber", matcher.group(1));
-            confidence += 0.9;
+    /**
+     * Décodage de l'image stockée
+     */
+    private Mat decodeImage(byte[] imageBytes) {
+        Mat image = Imgcodecs.imdecode(new MatOfByte(imageBytes), Imgcodecs.IMREAD_COLOR);
+        if (image.empty()) {
+            throw new DocumentValidationException("Impossible de charger l'image");
         }
+        return image;
+    }
 
-        // Recherche des noms
-        Pattern namePattern = Pattern.compile("(?:NOM|SURNAME|NAME)\\s*[:/]?\\s*([A-ZÀÁÂÃÄÅÆÇÈÉÊËÌÍÎÏÐÑÒÓÔÕÖØÙÚÛÜÝÞŸ\\s\\-']+)", 
-            Pattern.CASE_INSENSITIVE);
-        matcher = namePattern.matcher(text);
-        if (matcher.find()) {
-            fields.put("surname", matcher.group(1).trim());
-            confidence += 0.8;
+    private boolean hasBarcode(Document.DocumentType documentType) {
+        return barcodeEnabled && (documentType == Document.DocumentType.ID_CARD_BACK
+            || documentType == Document.DocumentType.DRIVING_LICENSE_BACK);
+    }
+
+    /**
+     * Lecture du code-barres PDF417/QR et conversion de son contenu en champs structurés.
+     * Retourne null si aucun code n'est décodé ou si les champs obligatoires manquent,
+     * pour repli sur la MRZ puis l'OCR pleine page.
+     */
+    private ExtractedDocumentData readBarcode(Mat image, Document.DocumentType documentType) {
+        Optional<BarcodeReader.Barcode> barcode = barcodeReader.read(image);
+        if (barcode.isEmpty()) {
+            logger.debug("Aucun code-barres lisible, repli sur l'OCR");
+            return null;
         }
 
-        // Recherche des prénoms
-        Pattern givenNamesPattern = Pattern.compile("(?:PRENOM|GIVEN NAMES|PRÉNOMS)\\s*[:/]?\\s*([A-ZÀÁÂÃÄÅÆÇÈÉÊËÌÍÎÏÐÑÒÓÔÕÖØÙÚÛÜÝÞŸ\\s\\-']+)", 
-            Pattern.CASE_INSENSITIVE);
-        matcher = givenNamesPattern.matcher(text);
-        if (matcher.find()) {
-            fields.put("givenNames", matcher.group(1).trim());
-            confidence += 0.8;
+        ExtractedDocumentData data = barcodePayloadParser.parse(barcode.get().getText(), documentType);
+        if (data == null || !documentFieldExtractor.hasRequiredFields(data.getExtractedFields(), documentType)) {
+            logger.debug("Code-barres {} sans les champs obligatoires, repli sur l'OCR", barcode.get().getFormat());
+            return null;
         }
+        data.put("barcodeFormat", barcode.get().getFormat());
+        return data;
+    }
 
-        // Recherche de la date de naissance
-        Pattern birthDatePattern = Pattern.compile("(?:BIRTH|NAISSANCE).*?(\\d{2}/\\d{2}/\\d{4})", 
-            Pattern.CASE_INSENSITIVE);
-        matcher = birthDatePattern.matcher(text);
-        if (matcher.find()) {
-            fields.put("dateOfBirth", matcher.group(1));
-            confidence += 0.7;
+    private boolean hasMrz(Document.DocumentType documentType) {
+        return mrzEnabled && (documentType == Document.DocumentType.PASSPORT
+            || documentType == Document.DocumentType.ID_CARD
+            || documentType == Document.DocumentType.ID_CARD_BACK);
+    }
+
+    /**
+     * Lecture de la bande MRZ seule : localisation, recadrage, binarisation et OCR
+     * avec la liste de caractères OCR-B. Retourne les lignes MRZ plausibles, ou une liste
+     * vide si aucune bande n'est trouvée ou lisible.
+     */
+    private List<String> readMrz(Mat image) throws TesseractException {
+        Optional<Rect> band = mrzRegionLocator.locate(image);
+        if (band.isEmpty()) {
+            logger.debug("Aucune bande MRZ trouvée, OCR pleine page");
+            return Collections.emptyList();
         }
 
-        // Recherche de la date d'expiration
-        Pattern expiryPattern = Pattern.compile("(?:EXPIRY|EXPIRATION|EXPIRE).*?(\\d{2}/\\d{2}/\\d{4})", 
-            Pattern.CASE_INSENSITIVE);
-        matcher = expiryPattern.matcher(text);
-        if (matcher.find()) {
-            fields.put("expiryDate", matcher.group(1));
-            confidence += 0.7;
+        Mat crop = new Mat(image, band.get());
+        Mat gray = new Mat();
+        Imgproc.cvtColor(crop, gray, Imgproc.COLOR_BGR2GRAY);
+        // Mise à l'échelle pour des caractères d'une trentaine de pixels de haut
+        double scale = MRZ_OCR_WIDTH / gray.width();
+        Imgproc.resize(gray, gray, new Size(), scale, scale, scale < 1.0 ? Imgproc.INTER_AREA : Imgproc.INTER_CUBIC);
+        Imgproc.threshold(gray, gray, 0, 255, Imgproc.THRESH_BINARY | Imgproc.THRESH_OTSU);
+
+        String text;
+        try (TesseractEnginePool.Engine engine = tesseractEnginePool.borrow(MRZ_OCR_CONFIG)) {
+            text = engine.recognize(gray);
+        } finally {
+            gray.release();
+            crop.release();
         }
 
-        data.setExtractedFields(fields);
-        data.setConfidenceScore(confidence / 4.2);
+        List<String> lines = new ArrayList<>(3);
+        for (String line : text.split("\\r?\\n")) {
+            String normalized = line.replace(" ", "").toUpperCase();
+            if (normalized.length() >= MRZ_MIN_LINE_LENGTH && normalized.indexOf('<') >= 0) {
+                lines.add(normalized);
+            }
+        }
+        if (lines.size() < 2) {
+            logger.debug("Bande MRZ illisible ({} ligne(s)), OCR pleine page", lines.size());
+            return Collections.emptyList();
+        }
+        return lines;
+    }
+
+    /**
+     * Champs MRZ via MrzParser (chiffres de contrôle vérifiés, validité par champ).
+     * La confiance est la proportion de contrôles réussis. Retourne null si le format
+     * n'est pas reconnu ou si trop de contrôles échouent, pour repli sur l'OCR pleine page.
+     */
+    private ExtractedDocumentData extractMrzData(List<String> lines, Document.DocumentType documentType) {
+        String mrzText = String.join("\n", lines);
+        MrzParser.MrzData mrz = MrzParser.parse(mrzText);
+        if (mrz == null || mrz.getValidityRatio() < MRZ_MIN_VALIDITY_RATIO) {
+            return null;
+        }
 
+        ExtractedDocumentData data = new ExtractedDocumentData();
+        data.setRawText(mrzText);
+        data.setDocumentType(documentType);
+        data.put(documentType == Document.DocumentType.PASSPORT ? "passportNumber" : "idNumber", mrz.getDocumentNumber());
+        data.put("surname", mrz.getSurname());
+        data.put("givenNames", mrz.getGivenNames());
+        putMrzDate(data, "dateOfBirth", mrz.getDateOfBirth());
+        putMrzDate(data, "expiryDate", mrz.getExpiryDate());
+        data.put("nationality", mrz.getNationality());
+        data.put("issuingState", mrz.getIssuingState());
+        data.put("sex", String.valueOf(mrz.getSex()));
+        data.put("mrzFormat", mrz.getFormat().name());
+        data.put("mrzDocumentNumberValid", String.valueOf(mrz.isDocumentNumberValid()));
+        data.put("mrzDateOfBirthValid", String.valueOf(mrz.isDateOfBirthValid()));
+        data.put("mrzExpiryDateValid", String.valueOf(mrz.isExpiryDateValid()));
+        data.put("mrzCompositeValid", String.valueOf(mrz.isCompositeValid()));
+        data.put("mrzValid", String.valueOf(mrz.isValid()));
+        data.setConfidenceScore(mrz.getValidityRatio());
         return data;
     }
 
+    private void putMrzDate(ExtractedDocumentData data, String field, java.time.LocalDate date) {
+        if (date != null) {
+            data.put(field, date.format(MRZ_DATE_FORMAT));
+        }
+    }
+
     /**
-     * Extraction spécifique pour carte d'identité
+     * OCR d'un PDF : les pages sont rendues une à une et reconnues en parallèle sur le pool des pages,
+     * avec au plus autant de pages rendues en mémoire que de threads du pool. Les textes sont fusionnés
+     * dans l'ordre des pages ; le rendu s'arrête dès que les champs obligatoires du type sont trouvés.
      */
-    private ExtractedDocumentData extractIdCardData(String text, ExtractedDocumentData data) {
-        Map<String, Object> fields = new HashMap<>();
-        double confidence = 0.0;
+    private PdfOcrResult performPdfOCR(byte[] pdf, Document.DocumentType documentType) throws Exception {
+        PdfOcrResult result = new PdfOcrResult();
+        List<CompletableFuture<String>> pages = new ArrayList<>();
+        Semaphore inFlight = new Semaphore(ocrPageExecutor.getMaxPoolSize());
+        CpuBudgetManager.Slots slots = cpuBudget.getDocumentSlots();
+
+        result.pageCount = pdfPageRasterizer.render(pdf, (pageIndex, pageCount, page) -> {
+            slots.await(() -> {
+                inFlight.acquire();
+                return null;
+            });
+            pages.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return slots.call(() -> recognizePdfPage(page, documentType));
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                } finally {
+                    page.release();
+                    inFlight.release();
+                }
+            }, ocrPageExecutor));
+            return !mergePdfPages(pages, result, documentType, false);
+        });
 
-        // Recherche du numéro de carte
-        Pattern idPattern = Pattern.compile("(?:CARTE|ID|IDENTITE).*?([A-Z0-9]{8,15})", 
-            Pattern.CASE_INSENSITIVE);
-        java.util.regex.Matcher matcher = idPattern.matcher(text);
-        if (matcher.find()) {
-            fields.put("idNumber", matcher.group(1));
-            confidence += 0.9;
+        if (!result.complete) {
+            mergePdfPages(pages, result, documentType, true);
+        }
+        for (int i = result.pagesProcessed; i < pages.size(); i++) {
+            pages.get(i).cancel(false);
         }
 
-        // Extraction similaire pour nom, prénom, date de naissance
-        // ... (code similaire au passeport)
+        logger.debug("OCR PDF - Pages: {}/{}, Champs obligatoires trouvés: {}",
+            result.pagesProcessed, result.pageCount, result.complete);
+        return result;
+    }
 
-        data.setExtractedFields(fields);
-        data.setConfidenceScore(confidence / 3.5); // Ajustement selon les champs
+    private String recognizePdfPage(Mat page, Document.DocumentType documentType) throws TesseractException {
+        Mat processed = preprocessingPlanner.preprocess(page, pdfPageRasterizer.getDpi());
+        try {
+            return performOCR(processed, documentType);
+        } finally {
+            processed.release();
+        }
+    }
 
-        return data;
+    /**
+     * Fusion, dans l'ordre, des pages reconnues en tête de liste (en attendant chaque page si wait).
+     * Retourne true dès que le texte fusionné contient tous les champs obligatoires.
+     */
+    private boolean mergePdfPages(List<CompletableFuture<String>> pages, PdfOcrResult result,
+                                  Document.DocumentType documentType, boolean wait) throws Exception {
+        while (result.pagesProcessed < pages.size()) {
+            CompletableFuture<String> next = pages.get(result.pagesProcessed);
+            if (!wait && !next.isDone()) {
+                return false;
+            }
+            String pageText;
+            try {
+                pageText = cpuBudget.getDocumentSlots().await(next::join);
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+            if (result.text.length() > 0) {
+                result.text.append('\n');
+            }
+            result.text.append(pageText);
+            result.pagesProcessed++;
+
+            ExtractedDocumentData partial = extractStructuredData(result.text.toString(), documentType);
+            if (documentFieldExtractor.hasRequiredFields(partial.getExtractedFields(), documentType)) {
+                result.complete = true;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class PdfOcrResult {
+        private final StringBuilder text = new StringBuilder();
+        private int pageCount;
+        private int pagesProcessed;
+        private boolean complete;
     }
 
     /**
-     * Extraction spécifique pour permis de conduire
+     * OCR région par région : les lignes détectées sont lues en parallèle (PSM 7, PSM 6 pour un bloc),
+     * les plus vraisemblables d'abord (FieldRegionPrior). Le texte des régions lues, réassemblé en ordre
+     * de lecture, est soumis à l'extracteur après chaque région ; la lecture s'arrête dès que tous les champs
+     * obligatoires sont trouvés dans des régions de confiance suffisante. Photo, hologrammes et fonds ne sont
+     * pas soumis à Tesseract. Repli sur l'OCR pleine page si aucune région n'est détectée.
      */
-    private ExtractedDocumentData extractDrivingLicenseData(String text, ExtractedDocumentData data) {
-        Map<String, Object> fields = new HashMap<>();
-        double confidence = 0.0;
+    private RegionOcrResult performRegionOCR(Mat processedImage, Document.DocumentType documentType) throws Exception {
+        List<TextRegionDetector.TextRegion> regions = textRegionDetector.detect(processedImage);
+        RegionOcrResult result = new RegionOcrResult();
+        result.regionCount = regions.size();
+        if (regions.isEmpty()) {
+            logger.debug("Aucune région de texte détectée, OCR pleine page");
+            result.text = performOCR(processedImage, documentType);
+            return result;
+        }
+        meterRegistry.summary("kyc.ocr.text.regions").record(regions.size());
+
+        List<Integer> order = fieldRegionPrior.order(documentType, regions, processedImage.height());
+        ExecutorCompletionService<RegionText> completion = new ExecutorCompletionService<>(ocrPageExecutor);
+        CpuBudgetManager.Slots slots = cpuBudget.getDocumentSlots();
+        Map<Future<RegionText>, Integer> inFlight = new HashMap<>();
+        RegionText[] texts = new RegionText[regions.size()];
+        int maxInFlight = earlyStopEnabled ? ocrPageExecutor.getMaxPoolSize() : regions.size();
+        int submitted = 0;
+        int fieldsFound = 0;
+        int minFieldConfidence = Integer.MAX_VALUE;
+        long ocrNanos = 0;
+        AtomicBoolean stopped = new AtomicBoolean();
+
+        try {
+            while (result.regionsProcessed < regions.size()) {
+                while (submitted < regions.size() && inFlight.size() < maxInFlight) {
+                    int index = order.get(submitted++);
+                    inFlight.put(completion.submit(() -> stopped.get()
+                        ? RegionText.SKIPPED
+                        : slots.call(() -> recognizeRegion(processedImage, regions.get(index),
+                            ocrTierPolicy.firstTier(), documentType))),
+                        index);
+                }
+                Future<RegionText> done = slots.await(completion::take);
+                int index = inFlight.remove(done);
+                try {
+                    texts[index] = done.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+                result.regionsProcessed++;
+                ocrNanos += texts[index].nanos;
+                if (!earlyStopEnabled || texts[index].text.isEmpty()) {
+                    continue;
+                }
 
-        // Recherche du numéro de permis
-        Pattern licensePattern = Pattern.compile("(?:PERMIS|LICENSE|LICENCE).*?([A-Z0-9]{8,20})", 
-            Pattern.CASE_INSENSITIVE);
-        java.util.regex.Matcher matcher = licensePattern.matcher(text);
-        if (matcher.find()) {
-            fields.put("licenseNumber", matcher.group(1));
-            confidence += 0.9;
+                // Texte des régions lues, en ordre de lecture : un libellé et sa valeur peuvent être sur deux lignes
+                Map<String, String> fields = extractStructuredData(assembleRegions(regions, texts), documentType)
+                    .getExtractedFields();
+                if (fields.size() > fieldsFound) {
+                    fieldsFound = fields.size();
+                    minFieldConfidence = Math.min(minFieldConfidence, texts[index].confidence);
+                    fieldRegionPrior.record(documentType, regions.get(index), processedImage.height());
+                }
+                if (documentFieldExtractor.hasRequiredFields(fields, documentType)
+                        && minFieldConfidence >= earlyStopMinConfidence) {
+                    result.earlyStop = true;
+                    break;
+                }
+            }
+        } finally {
+            // Les régions soumises lisent l'image, libérée par l'appelant : elles sont attendues,
+            // celles qui n'ont pas démarré se terminent sans OCR
+            stopped.set(true);
+            for (int i = 0; i < inFlight.size(); i++) {
+                slots.await(completion::take);
+            }
+        }
+        if (!result.earlyStop) {
+            result.regionsEscalated = escalateRegions(processedImage, regions, texts, documentType);
+        }
+        result.text = assembleRegions(regions, texts);
+
+        if (earlyStopEnabled) {
+            // Temps moteur évité : régions non lues x durée moyenne d'une région de ce document
+            int skipped = regions.size() - result.regionsProcessed;
+            result.savedMillis = result.regionsProcessed == 0 ? 0
+                : skipped * (ocrNanos / 1e6 / result.regionsProcessed);
+            meterRegistry.counter("kyc.ocr.early.stop", "documentType", documentType.name(),
+                "result", result.earlyStop ? "stopped" : "exhausted").increment();
+            DistributionSummary.builder("kyc.ocr.early.stop.saved")
+                .baseUnit("milliseconds")
+                .tag("documentType", documentType.name())
+                .description("Temps OCR estimé évité par l'arrêt anticipé")
+                .register(meterRegistry)
+                .record(result.savedMillis);
         }
+        logger.debug("OCR par régions - Régions lues: {}/{}, Relues: {}, Arrêt anticipé: {}, Temps évité estimé: {} ms",
+            result.regionsProcessed, regions.size(), result.regionsEscalated, result.earlyStop,
+            Math.round(result.savedMillis));
+        return result;
+    }
 
-        // Extraction des catégories
-        Pattern categoryPattern = Pattern.compile("(?:CATEGORIES?|CAT)\\s*[:/]?\\s*([A-Z1-9\\s,]+)", 
-            Pattern.CASE_INSENSITIVE);
-        matcher = categoryPattern.matcher(text);
-        if (matcher.find()) {
-            fields.put("categories", matcher.group(1).trim());
-            confidence += 0.6;
+    /**
+     * Relecture en parallèle, avec les modèles complets, des régions lues au niveau rapide sous le seuil
+     * de confiance ; la lecture de meilleure confiance est conservée. Retourne le nombre de régions relues.
+     */
+    private int escalateRegions(Mat processedImage, List<TextRegionDetector.TextRegion> regions, RegionText[] texts,
+                                Document.DocumentType documentType) throws Exception {
+        if (ocrTierPolicy.firstTier() != OcrTierPolicy.Tier.FAST || !ocrTierPolicy.canEscalate(documentType)) {
+            return 0;
         }
+        Map<Integer, Future<RegionText>> escalated = new LinkedHashMap<>();
+        CpuBudgetManager.Slots slots = cpuBudget.getDocumentSlots();
+        try {
+            for (int i = 0; i < regions.size(); i++) {
+                if (texts[i] == null || texts[i] == RegionText.SKIPPED) {
+                    continue;
+                }
+                boolean escalate = ocrTierPolicy.shouldEscalate(documentType, texts[i].confidence);
+                escalationCounter(ESCALATION_SCOPE_REGION, documentType, escalate).increment();
+                if (escalate) {
+                    TextRegionDetector.TextRegion region = regions.get(i);
+                    escalated.put(i, ocrPageExecutor.submit(() -> slots.call(() ->
+                        recognizeRegion(processedImage, region, OcrTierPolicy.Tier.BEST, documentType))));
+                }
+            }
+            for (Map.Entry<Integer, Future<RegionText>> entry : escalated.entrySet()) {
+                RegionText best;
+                try {
+                    best = slots.await(entry.getValue()::get);
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+                if (best.confidence > texts[entry.getKey()].confidence) {
+                    texts[entry.getKey()] = best;
+                }
+            }
+        } finally {
+            // Les relectures lisent l'image, libérée par l'appelant
+            for (Future<RegionText> future : escalated.values()) {
+                try {
+                    slots.await(future::get);
+                } catch (ExecutionException ignored) {
+                    // erreur déjà remontée
+                }
+            }
+        }
+        return escalated.size();
+    }
 
-        data.setExtractedFields(fields);
-        data.setConfidenceScore(confidence / 1.5);
+    private RegionText recognizeRegion(Mat processedImage, TextRegionDetector.TextRegion region, OcrTierPolicy.Tier tier,
+                                       Document.DocumentType documentType) throws TesseractException {
+        TesseractEnginePool.EngineConfig config = ocrTierPolicy.config(tier, documentType,
+            region.getPageSegMode() == TextRegionDetector.PSM_SINGLE_LINE ? LINE_OCR_CONFIG : DEFAULT_OCR_CONFIG);
+        long start = System.nanoTime();
+        Mat roi = processedImage.submat(region.getBox());
+        try (TesseractEnginePool.Engine engine = tesseractEnginePool.borrow(config)) {
+            String text = engine.recognize(roi).trim();
+            long nanos = System.nanoTime() - start;
+            recordTier(tier, documentType, nanos);
+            return new RegionText(text, engine.getMeanConfidence(), nanos);
+        } finally {
+            roi.release();
+        }
+    }
 
-        return data;
+    /**
+     * Texte des régions lues en ordre de lecture, une ligne par rangée
+     */
+    private static String assembleRegions(List<TextRegionDetector.TextRegion> regions, RegionText[] texts) {
+        StringBuilder text = new StringBuilder();
+        int row = -1;
+        for (int i = 0; i < regions.size(); i++) {
+            if (texts[i] == null || texts[i].text.isEmpty()) {
+                continue;
+            }
+            if (regions.get(i).getRow() != row) {
+                if (text.length() > 0) {
+                    text.append('\n');
+                }
+                row = regions.get(i).getRow();
+            } else {
+                text.append(' ');
+            }
+            text.append(texts[i].text);
+        }
+        return text.toString();
+    }
+
+    private static final class RegionText {
+        private static final RegionText SKIPPED = new RegionText("", 0, 0);
+
+        private final String text;
+        private final int confidence;
+        private final long nanos;
+
+        private RegionText(String text, int confidence, long nanos) {
+            this.text = text;
+            this.confidence = confidence;
+            this.nanos = nanos;
+        }
+    }
+
+    private static final class RegionOcrResult {
+        private String text;
+        private int regionCount;
+        private int regionsProcessed;
+        private boolean earlyStop;
+        private double savedMillis;
+        private int regionsEscalated;
+    }
+
+    /**
+     * Face lue (ou relue depuis le stockage), pas encore enregistrée
+     */
+    private static final class SideResult {
+        private final UUID documentId;
+        private final UUID sessionId;
+        private final Document.DocumentType documentType;
+        private final ExtractedDocumentData data;
+        private final DocumentValidationResult validation;
+        private final Map<String, Object> meta;
+
+        private SideResult(Document document, Document.DocumentType documentType, ExtractedDocumentData data,
+                           DocumentValidationResult validation, Map<String, Object> meta) {
+            this.documentId = document.getDocumentId();
+            this.sessionId = document.getSessionId();
+            this.documentType = documentType;
+            this.data = data;
+            this.validation = validation;
+            this.meta = meta;
+        }
+    }
+
+    /**
+     * Extraction OCR avec Tesseract : lecture au niveau rapide, relue avec les modèles complets
+     * si la confiance moyenne de la page reste sous le seuil
+     */
+    private String performOCR(Mat processedImage, Document.DocumentType documentType) throws TesseractException {
+        OcrTierPolicy.Tier tier = ocrTierPolicy.firstTier();
+        int[] confidence = new int[1];
+        String extractedText = recognizePage(processedImage, tier, documentType, confidence);
+
+        if (tier == OcrTierPolicy.Tier.FAST && ocrTierPolicy.canEscalate(documentType)) {
+            boolean escalate = ocrTierPolicy.shouldEscalate(documentType, confidence[0]);
+            escalationCounter(ESCALATION_SCOPE_PAGE, documentType, escalate).increment();
+            if (escalate) {
+                int fastConfidence = confidence[0];
+                String bestText = recognizePage(processedImage, OcrTierPolicy.Tier.BEST, documentType, confidence);
+                logger.debug("OCR relu avec les modèles complets - Confiance: {} -> {}", fastConfidence, confidence[0]);
+                if (confidence[0] > fastConfidence) {
+                    extractedText = bestText;
+                }
+            }
+        }
+        return extractedText;
+    }
+
+    private String recognizePage(Mat processedImage, OcrTierPolicy.Tier tier, Document.DocumentType documentType,
+                                 int[] confidence) throws TesseractException {
+        long start = System.nanoTime();
+        // Le buffer du Mat en niveaux de gris est transmis tel quel, sans encodage PNG ni BufferedImage
+        try (TesseractEnginePool.Engine engine =
+                 tesseractEnginePool.borrow(ocrTierPolicy.config(tier, documentType, DEFAULT_OCR_CONFIG))) {
+            String extractedText = engine.recognize(processedImage);
+            confidence[0] = engine.getMeanConfidence();
+            recordTier(tier, documentType, System.nanoTime() - start);
+
+            logger.debug("OCR effectué ({}) - Texte extrait: {} caractères, Confiance: {}",
+                tier, extractedText.length(), confidence[0]);
+
+            return extractedText.trim();
+        }
+    }
+
+    private void recordTier(OcrTierPolicy.Tier tier, Document.DocumentType documentType, long nanos) {
+        Timer.builder("kyc.ocr.tier.duration")
+            .tag("tier", tier.name().toLowerCase())
+            .description("Durée d'une reconnaissance Tesseract par niveau de modèles")
+            .register(meterRegistry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("kyc.ocr.tier.recognitions",
+            "tier", tier.name().toLowerCase(), "documentType", documentType.name()).increment();
+    }
+
+    /**
+     * Extraction des données structurées du texte OCR (table de champs du type de document)
+     */
+    private ExtractedDocumentData extractStructuredData(String ocrText, Document.DocumentType documentType) {
+        return documentFieldExtractor.extract(ocrText, documentType);
     }
 
     /**
@@ -583,30 +1576,14 @@ public class DocumentService {
             errors.add("Confiance OCR insuffisante: " + String.format("%.2f", data.getConfidenceScore()));
         }
 
-        // Validations spécifiques par type de document
-        switch (documentType) {
-            case PASSPORT:
-                Map<String, String> passportFields = data.getExtractedFields();
-                validatePassportData(passportFields, errors);
-                break;
-            case ID_CARD:
-            case ID_CARD_FRONT:
-            case ID_CARD_BACK:
-                Map<String, String> idCardFields = data.getExtractedFields();
-                validateIdCardData(idCardFields, errors);
-                break;
-            case DRIVING_LICENSE:
-            case DRIVING_LICENSE_FRONT:
-            case DRIVING_LICENSE_BACK:
-                Map<String, String> dlFields = data.getExtractedFields();
-                validateDrivingLicenseData(dlFields, errors);
-                break;
-            default:
-                Map<String, String> defaultFields = data.getExtractedFields();
-                validateIdCardData(defaultFields, errors);
-                break;
+        // Chiffres de contrôle MRZ
+        if ("false".equals(data.getExtractedFields().get("mrzValid"))) {
+            errors.add("Chiffres de contrôle MRZ invalides");
         }
 
+        // Validations spécifiques par type de document
+        validateFields(data.getExtractedFields(), documentType, errors);
+
         result.setValid(errors.isEmpty());
         result.setErrors(errors);
         result.setConfidenceScore(data.getConfidenceScore());
@@ -615,58 +1592,47 @@ public class DocumentService {
     }
 
     /**
-     * Validation spécifique passeport
+     * Validation des champs selon les définitions du type de document :
+     * présence des champs obligatoires, format, cohérence des dates
      */
-    private void validatePassportData(Map<String, String> fields, List<String> errors) {
-        if (!fields.containsKey("passportNumber")) {
-            errors.add("Numéro de passeport manquant");
-        } else {
-            String passportNumber = fields.get("passportNumber");
-            if (!VALIDATION_PATTERNS.get("PASSPORT_NUMBER").matcher(passportNumber).matches()) {
-                errors.add("Format du numéro de passeport invalide");
+    private void validateFields(Map<String, String> fields, Document.DocumentType documentType, List<String> errors) {
+        for (DocumentFieldExtractor.FieldDefinition field : documentFieldExtractor.getFields(documentType)) {
+            String value = fields.get(field.getName());
+            if (value == null) {
+                if (field.isRequired()) {
+                    errors.add(field.getMissingMessage());
+                }
+                continue;
+            }
+            if (!field.isValidFormat(value)) {
+                errors.add(field.getInvalidMessage());
+                continue;
+            }
+            if (field.getKind() == DocumentFieldExtractor.Kind.DATE) {
+                validateDate(field.getName(), field.getLabel(), value, errors);
             }
         }
-
-        if (!fields.containsKey("surname")) {
-            errors.add("Nom de famille manquant");
-        }
-
-        if (!fields.containsKey("givenNames")) {
-            errors.add("Prénoms manquants");
-        }
-
-        // Validation des dates
-        validateDate(fields, "dateOfBirth", "Date de naissance", errors);
-        validateDate(fields, "expiryDate", "Date d'expiration", errors);
     }
 
     /**
-     * Validation d'une date
+     * Validation logique d'une date JJ/MM/AAAA
      */
-    private void validateDate(Map<String, String> fields, String fieldName, String fieldLabel, List<String> errors) {
-        if (fields.containsKey(fieldName)) {
-            String date = fields.get(fieldName);
-            if (!VALIDATION_PATTERNS.get("DATE").matcher(date).matches()) {
-                errors.add(fieldLabel + " au format invalide");
-            } else {
-                // Validation logique de la date
-                try {
-                    String[] parts = date.split("/");
-                    int day = Integer.parseInt(parts[0]);
-                    int month = Integer.parseInt(parts[1]);
-                    int year = Integer.parseInt(parts[2]);
-                    
-                    if (month < 1 || month > 12 || day < 1 || day > 31) {
-                        errors.add(fieldLabel + " invalide");
-                    }
-                    
-                    if ("expiryDate".equals(fieldName) && year < LocalDateTime.now().getYear()) {
-                        errors.add("Document expiré");
-                    }
-                } catch (NumberFormatException e) {
-                    errors.add(fieldLabel + " au format numérique invalide");
-                }
+    private void validateDate(String fieldName, String fieldLabel, String date, List<String> errors) {
+        try {
+            String[] parts = date.split("/");
+            int day = Integer.parseInt(parts[0]);
+            int month = Integer.parseInt(parts[1]);
+            int year = Integer.parseInt(parts[2]);
+
+            if (month < 1 || month > 12 || day < 1 || day > 31) {
+                errors.add(fieldLabel + " invalide");
             }
+
+            if ("expiryDate".equals(fieldName) && year < LocalDateTime.now().getYear()) {
+                errors.add("Document expiré");
+            }
+        } catch (NumberFormatException e) {
+            errors.add(fieldLabel + " au format numérique invalide");
         }
     }
 
@@ -678,13 +1644,14 @@ public class DocumentService {
             throw new DocumentValidationException("Fichier vide");
         }
 
+        // Rejet immédiat sur la taille annoncée ; la taille réelle est contrôlée pendant la lecture
         if (file.getSize() > MAX_FILE_SIZE) {
             throw new DocumentValidationException("Fichier trop volumineux (max 10MB)");
         }
 
-        String mimeType = file.getContentType();
-        if (mimeType == null || !SUPPORTED_MIME_TYPES.get(documentType).contains(mimeType)) {
-            throw new UnsupportedDocumentTypeException("Type de fichier non supporté: " + mimeType);
+        // Le type réel est déterminé par signature à la lecture (DocumentIngestor)
+        if (supportedMimeTypes(documentType).isEmpty()) {
+            throw new UnsupportedDocumentTypeException("Type de document non supporté: " + documentType);
         }
 
         // Validation de l'extension
@@ -703,42 +1670,145 @@ public class DocumentService {
     }
 
     /**
-     * Sauvegarde chiffrée du fichier
+     * Types MIME acceptés ; les variantes recto/verso suivent leur type de document
      */
-    private String saveEncryptedFile(MultipartFile file, UUID sessionId, String documentType) throws IOException {
-        // Création du répertoire de destination
-        String sessionPath = documentStoragePath + "/" + sessionId.toString();
-        Path directoryPath = Paths.get(sessionPath);
-        Files.createDirectories(directoryPath);
-
-        // Génération du nom de fichier unique
-        String timestamp = String.valueOf(System.currentTimeMillis());
-        String extension = file.getOriginalFilename().substring(file.getOriginalFilename().lastIndexOf('.'));
-        String filename = documentType + "_" + timestamp + extension;
-        
-        Path filePath = directoryPath.resolve(filename);
+    private List<String> supportedMimeTypes(String documentType) {
+        String baseType = documentType.replaceFirst("_(FRONT|BACK)$", "");
+        return SUPPORTED_MIME_TYPES.getOrDefault(baseType, Collections.emptyList());
+    }
 
-        // Chiffrement et sauvegarde du fichier
-        byte[] encryptedContent = encryptionService.encryptBytes(file.getBytes());
-        Files.write(filePath, encryptedContent);
+    /**
+     * Renommage du fichier chiffré reçu vers son nom définitif (type, horodatage, extension du type détecté)
+     */
+    private String storeIngestedFile(DocumentIngestor.IngestedFile ingested, Path directory, String documentType)
+            throws IOException {
+        String filename = documentType + "_" + System.currentTimeMillis() + "_"
+            + ingested.getSha256().substring(0, 8) + FILE_EXTENSIONS.get(ingested.getMimeType());
+        Path filePath = directory.resolve(filename);
+        Files.move(ingested.getTempFile(), filePath, StandardCopyOption.ATOMIC_MOVE);
 
-        logger.debug("Fichier sauvegardé et chiffré: {}", filePath.toString());
+        logger.debug("Fichier sauvegardé et chiffré: {}", filePath);
 
         return filePath.toString();
     }
 
     /**
-     * Calcul du hash SHA-256 du fichier
+     * Résultat OCR d'un document de même contenu et de même type déjà traité dans la même session :
+     * les données extraites d'un document ne sont jamais servies à une autre session.
+     * Retourne null si le document doit passer par l'OCR.
+     */
+    private SideResult reuseProcessedResult(Document document) {
+        if (!ocrReuseEnabled || document.getFileHash() == null) {
+            return null;
+        }
+        Optional<Document> source = documentRepository
+            .findFirstBySessionIdAndFileHashAndDocumentTypeAndProcessingStatusInOrderByProcessedAtDesc(
+                document.getSessionId(), document.getFileHash(), document.getDocumentType(), REUSABLE_STATUSES)
+            .filter(candidate -> !candidate.getDocumentId().equals(document.getDocumentId()));
+        if (source.isEmpty()) {
+            return null;
+        }
+
+        Document processed = source.get();
+        SideResult stored = storedSide(processed);
+        if (stored == null) {
+            return null;
+        }
+        stored.meta.remove("errors");
+        stored.meta.remove("attempts");
+        stored.meta.remove("pairedDocumentId");
+        stored.meta.remove("pairedDataEncrypted");
+        stored.meta.remove("pairedConfidenceScore");
+        stored.meta.put("reusedFromDocumentId", processed.getDocumentId().toString());
+
+        logger.info("Résultat OCR réutilisé - Document: {}, Source: {}", document.getDocumentId(), processed.getDocumentId());
+        return new SideResult(document, document.getDocumentType(), stored.data, stored.validation, stored.meta);
+    }
+
+    /**
+     * Face déjà traitée relue depuis le stockage : données déchiffrées, statut et erreurs enregistrés.
+     * Retourne null si les données ne sont pas relisibles.
      */
-    @SuppressWarnings("unused")
-    private String calculateFileHash(byte[] fileBytes) {
+    private SideResult storedSide(Document document) {
+        if (document.getExtractedText() == null) {
+            return null;
+        }
+        ExtractedDocumentData data = new ExtractedDocumentData();
+        Map<String, Object> meta = readMetadata(document);
+        try {
+            com.fasterxml.jackson.databind.JsonNode json =
+                objectMapper.readTree(encryptionService.decrypt(document.getExtractedText()));
+            data.setRawText(json.path("rawText").isNull() ? null : json.path("rawText").asText(null));
+            data.setConfidenceScore(json.path("confidenceScore").asDouble(0.0));
+            json.path("fields").fields().forEachRemaining(field ->
+                data.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText()));
+        } catch (Exception e) {
+            logger.warn("Données OCR enregistrées illisibles - Document: {}", document.getDocumentId(), e);
+            return null;
+        }
+        data.setDocumentType(document.getDocumentType());
+
+        DocumentValidationResult validation = new DocumentValidationResult();
+        validation.setValid(document.getProcessingStatus() == Document.ProcessingStatus.COMPLETED);
+        validation.setConfidenceScore(data.getConfidenceScore());
+        if (meta.get("errors") instanceof List) {
+            List<String> errors = new ArrayList<>();
+            for (Object error : (List<?>) meta.get("errors")) {
+                errors.add(String.valueOf(error));
+            }
+            validation.setErrors(errors);
+        }
+        return new SideResult(document, document.getDocumentType(), data, validation, meta);
+    }
+
+    private Map<String, Object> readMetadata(Document document) {
+        Map<String, Object> meta = new HashMap<>();
+        if (document.getMetadata() == null) {
+            return meta;
+        }
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = digest.digest(fileBytes);
-            return Base64.getEncoder().encodeToString(hashBytes);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Algorithme SHA-256 non disponible", e);
+            meta.putAll(objectMapper.readValue(document.getMetadata(),
+                new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() { }));
+        } catch (com.fasterxml.jackson.core.JsonProcessingException jpe) {
+            logger.warn("Metadata illisible - Document: {}", document.getDocumentId(), jpe);
         }
+        return meta;
+    }
+
+    private void writeMetadata(Document document, Map<String, Object> meta) {
+        try {
+            document.setMetadata(objectMapper.writeValueAsString(meta));
+        } catch (com.fasterxml.jackson.core.JsonProcessingException jpe) {
+            logger.warn("Erreur sérialisation metadata OCR", jpe);
+            document.setMetadata("{}");
+        }
+    }
+
+    private Counter dedupCounter(String stage, boolean hit) {
+        return meterRegistry.counter("kyc.document.dedup", "stage", stage, "result", hit ? "hit" : "miss");
+    }
+
+    private double dedupHitRatio(String stage) {
+        double hits = dedupCounter(stage, true).count();
+        double total = hits + dedupCounter(stage, false).count();
+        return total == 0 ? 0.0 : hits / total;
+    }
+
+    private Counter escalationCounter(String scope, Document.DocumentType documentType, boolean escalated) {
+        return meterRegistry.counter("kyc.ocr.escalation", "scope", scope, "documentType", documentType.name(),
+            "result", escalated ? "escalated" : "kept");
+    }
+
+    private double escalationRate(String scope) {
+        double escalated = 0;
+        double total = 0;
+        for (Counter counter : meterRegistry.find("kyc.ocr.escalation").tag("scope", scope).counters()) {
+            total += counter.count();
+            if ("escalated".equals(counter.getId().getTag("result"))) {
+                escalated += counter.count();
+            }
+        }
+        return total == 0 ? 0.0 : escalated / total;
     }
 
     /**
@@ -757,15 +1827,6 @@ public class DocumentService {
         }
     }
 
-    // Méthodes utilitaires pour validation carte d'identité et permis de conduire
-    private void validateIdCardData(Map<String, String> fields, List<String> errors) {
-        // Implémentation similaire pour carte d'identité
-    }
-
-    private void validateDrivingLicenseData(Map<String, String> fields, List<String> errors) {
-        // Implémentation similaire pour permis de conduire
-    }
-
     /**
      * Récupération d'un document par ID
      */
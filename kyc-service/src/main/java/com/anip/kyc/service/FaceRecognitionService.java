@@ -8,13 +8,21 @@ import com.anip.kyc.models.Document;
 import com.anip.kyc.repository.FaceMatchRepository;
 import com.anip.kyc.repository.LivenessResultRepository;
 import com.anip.kyc.repository.DocumentRepository;
+import com.anip.kyc.config.OpenCvNativeLoader;
 import com.anip.kyc.config.security.EncryptionService;
 import com.anip.kyc.dto.FaceComparisonRequest;
 import com.anip.kyc.dto.LivenessTestRequest;
 import com.anip.kyc.exception.FaceRecognitionException;
+import com.anip.kyc.exception.ImageQualityException;
 import com.anip.kyc.exception.InvalidImageException;
+import com.anip.kyc.service.document.DocumentBoundaryDetector;
+import com.anip.kyc.service.face.FaceComparisonCache;
+import com.anip.kyc.service.face.FaceDetector;
+import com.anip.kyc.service.face.FaceLandmarkStage;
+import com.anip.kyc.service.face.FaceQualityAnalyzer;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,12 +37,11 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import org.opencv.core.*;
 import org.opencv.imgcodecs.Imgcodecs;
 import org.opencv.imgproc.Imgproc;
-import org.opencv.objdetect.CascadeClassifier;
-import org.opencv.objdetect.Objdetect;
 import org.opencv.dnn.Dnn;
 import org.opencv.dnn.Net;
 
@@ -67,26 +74,51 @@ public class FaceRecognitionService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private FaceDetector faceDetector;
+
+    @Autowired
+    private FaceQualityAnalyzer faceQualityAnalyzer;
+
+    @Autowired
+    private FaceComparisonCache faceComparisonCache;
+
+    @Autowired
+    private FaceLandmarkStage faceLandmarkStage;
+
+    @Autowired
+    private DocumentBoundaryDetector documentBoundaryDetector;
+
+    @Autowired
+    @Qualifier("faceProcessingExecutor")
+    private Executor faceProcessingExecutor;
+
     @Value("${app.opencv.models.path}")
     private String modelsPath;
 
     @Value("${app.face.recognition.model:facenet}")
     private String recognitionModel;
 
+    @Value("${app.face.recognition.model.version:1}")
+    private String recognitionModelVersion;
+
+    // Mémoïsation des comparaisons par (session, document, empreinte de la capture, version du modèle)
+    @Value("${app.face.compare.cache.enabled:true}")
+    private boolean comparisonCacheEnabled;
+
     @Value("${app.face.similarity.threshold:0.8}")
     private double similarityThreshold;
 
     @Value("${app.liveness.confidence.threshold:0.7}")
     private double livenessConfidenceThreshold;
 
-    @Value("${app.face.detection.scale.factor:1.1}")
-    private double scaleFactor;
-
-    @Value("${app.face.detection.min.neighbors:3}")
-    private int minNeighbors;
+    // Rejet immédiat des captures de mauvaise qualité avant comparaison et vivacité
+    @Value("${app.face.quality.gate.enabled:true}")
+    private boolean qualityGateEnabled;
 
-    // Classifieur Haar pour détection de visages
-    private CascadeClassifier faceClassifier;
+    // Nombre maximum d'images par requête de détection
+    @Value("${app.face.detection.max.images:10}")
+    private int maxDetectionImages;
 
     // Réseau de neurones pour reconnaissance faciale
     private Net faceNet;
@@ -95,48 +127,11 @@ public class FaceRecognitionService {
     private static final int FACENET_INPUT_SIZE = 160;
     private static final Size FACE_SIZE = new Size(FACENET_INPUT_SIZE, FACENET_INPUT_SIZE);
 
-    // Seuils de qualité d'image
-    private static final double MIN_FACE_SIZE_RATIO = 0.1; // 10% de l'image minimum
-    private static final double MAX_FACE_SIZE_RATIO = 0.8; // 80% de l'image maximum
+    // Seuils de qualité d'image (bornes de taille du visage : FaceQualityAnalyzer)
     private static final int MIN_IMAGE_RESOLUTION = 200;   // 200x200 minimum
 
     static {
-        // Tentative de chargement via nu.pattern.OpenCV si présent (openpnp wrapper).
-        // Si absent, Bytedeco opencv-platform gère le chargement natif automatiquement.
-        try {
-            Class<?> openCvWrapper = Class.forName("nu.pattern.OpenCV");
-            // Try common loader methods in order of preference and log outcome
-            try {
-                java.lang.reflect.Method m = openCvWrapper.getMethod("loadShared");
-                m.invoke(null);
-                logger.info("Loaded OpenCV native library via nu.pattern.OpenCV.loadShared()");
-            } catch (NoSuchMethodException nsme1) {
-                try {
-                    java.lang.reflect.Method m2 = openCvWrapper.getMethod("loadLocally");
-                    m2.invoke(null);
-                    logger.info("Loaded OpenCV native library via nu.pattern.OpenCV.loadLocally()");
-                } catch (Throwable nsme2) {
-                    logger.warn("nu.pattern.OpenCV present but no known loader method succeeded: {}", nsme2 == null ? "unknown" : nsme2.getMessage());
-                }
-            } catch (Throwable t) {
-                logger.warn("nu.pattern.OpenCV.loadShared() invocation failed: {}", t.getMessage());
-            }
-        } catch (ClassNotFoundException ignored) {
-            // openpnp not on classpath — try other loading strategies below
-            logger.debug("nu.pattern.OpenCV wrapper not found on classpath");
-        } catch (Throwable t) {
-            logger.warn("Unexpected error while attempting to use nu.pattern.OpenCV: {}", t.getMessage());
-        }
-
-        // As a fallback, attempt to load the native library via System.loadLibrary
-        try {
-            System.loadLibrary(org.opencv.core.Core.NATIVE_LIBRARY_NAME);
-            logger.info("Loaded OpenCV native library via System.loadLibrary: {}", org.opencv.core.Core.NATIVE_LIBRARY_NAME);
-        } catch (UnsatisfiedLinkError ule) {
-            logger.debug("System.loadLibrary failed: {}", ule.getMessage());
-        } catch (Throwable t) {
-            logger.warn("Unexpected error during System.loadLibrary for OpenCV: {}", t.getMessage());
-        }
+        OpenCvNativeLoader.load();
     }
 
     /**
@@ -145,13 +140,7 @@ public class FaceRecognitionService {
     @jakarta.annotation.PostConstruct
     public void initializeModels() {
         try {
-            // Chargement du classifieur Haar pour détection de visages
-            String haarCascadePath = modelsPath + "/haarcascade_frontalface_alt.xml";
-            faceClassifier = new CascadeClassifier(haarCascadePath);
-            
-            if (faceClassifier.empty()) {
-                logger.warn("Impossible de charger le classifieur Haar: {}", haarCascadePath);
-            }
+            // La détection de visages est déléguée à FaceDetector (Haar ou SSD)
 
             // Chargement du modèle FaceNet pour reconnaissance
             String faceNetModelPath = modelsPath + "/facenet/opencv_face_detector_uint8.pb";
@@ -179,6 +168,31 @@ public class FaceRecognitionService {
      * Comparaison de visages entre document et capture en direct
      */
     public CompletableFuture<FaceMatch> compareFaces(UUID sessionId, FaceComparisonRequest request) {
+        if (!comparisonCacheEnabled || request == null || request.getDocumentId() == null
+                || request.getLiveCaptureImage() == null || request.getLiveCaptureImage().isEmpty()) {
+            return computeFaceComparison(sessionId, request);
+        }
+
+        // Retry d'une même capture : réutilisation du résultat enregistré ou du calcul en cours
+        String captureDigest;
+        try {
+            captureDigest = calculateBiometricTemplateHash(request.getLiveCaptureImage().getBytes());
+        } catch (IOException e) {
+            return computeFaceComparison(sessionId, request);
+        }
+        FaceComparisonCache.Key key = new FaceComparisonCache.Key(
+            sessionId, request.getDocumentId(), captureDigest, getComparisonModelVersion());
+        return faceComparisonCache.getOrCompute(key, () -> computeFaceComparison(sessionId, request));
+    }
+
+    /**
+     * Version du pipeline de comparaison : un changement de modèle ou de seuil invalide la mémoïsation
+     */
+    private String getComparisonModelVersion() {
+        return recognitionModel + ":" + recognitionModelVersion + ":" + similarityThreshold;
+    }
+
+    private CompletableFuture<FaceMatch> computeFaceComparison(UUID sessionId, FaceComparisonRequest request) {
         return CompletableFuture.supplyAsync(() -> {
             try {
                 long startTime = System.currentTimeMillis();
@@ -186,6 +200,10 @@ public class FaceRecognitionService {
                 // Validation des données d'entrée
                 validateFaceComparisonRequest(request);
 
+                // Chargement et pré-contrôle qualité de la capture avant tout traitement coûteux
+                Mat liveImage = decodeLiveCapture(request.getLiveCaptureImage());
+                List<FaceDetector.FaceBox> liveFaces = enforceQualityGate(liveImage, sessionId);
+
                 // Récupération du document de référence
                 Document referenceDocument = documentRepository.findById(request.getDocumentId())
                     .orElseThrow(() -> new IllegalArgumentException("Document non trouvé: " + request.getDocumentId()));
@@ -193,8 +211,8 @@ public class FaceRecognitionService {
                 // Extraction du visage de référence du document
                 Mat referenceFace = extractFaceFromDocument(referenceDocument);
 
-                // Traitement de l'image de capture en direct
-                Mat liveFace = extractFaceFromLiveCapture(request.getLiveCaptureImage());
+                // Traitement de l'image de capture en direct (boîtes du pré-contrôle réutilisées)
+                Mat liveFace = detectAndExtractFace(liveImage, "live", liveFaces);
 
                 // Calcul de la similarité
                 FaceComparisonResult comparisonResult = calculateFaceSimilarity(referenceFace, liveFace);
@@ -216,13 +234,22 @@ public class FaceRecognitionService {
                 faceMatch.setCreatedAt(LocalDateTime.now());
 
                 // Chiffrement des métadonnées de comparaison
-                String comparisonJson = objectMapper.writeValueAsString(Map.of(
-                    "referenceFaceHash", referenceFaceHash,
-                    "liveFaceHash", liveFaceHash,
-                    "qualityScore", comparisonResult.getQualityScore(),
-                    "antiSpoofingScore", comparisonResult.getAntiSpoofingScore(),
-                    "landmarks", comparisonResult.getFaceLandmarks()
-                ));
+                Map<String, Object> comparisonMetadata = new LinkedHashMap<>();
+                comparisonMetadata.put("referenceFaceHash", referenceFaceHash);
+                comparisonMetadata.put("liveFaceHash", liveFaceHash);
+                comparisonMetadata.put("qualityScore", comparisonResult.getQualityScore());
+                comparisonMetadata.put("antiSpoofingScore", comparisonResult.getAntiSpoofingScore());
+                FaceLandmarkStage.Landmarks landmarks = comparisonResult.getLandmarks();
+                if (faceLandmarkStage.isAuditEnabled() && landmarks != null) {
+                    comparisonMetadata.put("landmarks", landmarks.getPoints());
+                }
+                if (landmarks != null) {
+                    // Coût de l'étape reporté séparément du temps de comparaison
+                    comparisonMetadata.put("stageMetrics", Map.of(
+                        "landmarksMs", landmarks.getElapsedMillis(),
+                        "landmarkExtractor", landmarks.getExtractorName()));
+                }
+                String comparisonJson = objectMapper.writeValueAsString(comparisonMetadata);
                 faceMatch.setComparisonMetadata(encryptionService.encrypt(comparisonJson));
 
                 // Sauvegarde
@@ -233,17 +260,116 @@ public class FaceRecognitionService {
 
                 return faceMatch;
 
+            } catch (ImageQualityException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Erreur lors de la comparaison faciale - Session: {}", sessionId, e);
                 throw new FaceRecognitionException("Erreur de comparaison faciale: " + e.getMessage(), e);
             }
-        });
+        }, faceProcessingExecutor);
     }
 
     // --- Adapter methods for controller DTOs ---
     public com.anip.kyc.dto.face.FaceDetectionResponse detectFaces(com.anip.kyc.dto.face.FaceDetectionRequest request) {
-        // Minimal implementation: return empty list via factory
-        return com.anip.kyc.dto.face.FaceDetectionResponse.of(new java.util.ArrayList<>(), 0.0);
+        long startTime = System.currentTimeMillis();
+        com.anip.kyc.dto.face.FaceDetectionResponse response;
+
+        Mat image;
+        try {
+            image = Imgcodecs.imdecode(new MatOfByte(request.getImage().getBytes()), Imgcodecs.IMREAD_COLOR);
+        } catch (IOException e) {
+            throw new FaceRecognitionException("Lecture de l'image impossible: " + e.getMessage(), e);
+        }
+
+        if (image.empty()) {
+            response = com.anip.kyc.dto.face.FaceDetectionResponse.of(new ArrayList<>(), 0.0);
+            response.setStatus("INVALID_IMAGE");
+        } else {
+            double imageArea = (double) image.width() * image.height();
+            List<com.anip.kyc.dto.face.FaceDetectionResponse.DetectedFace> faces = new ArrayList<>();
+            double maxConfidence = 0.0;
+            for (FaceDetector.FaceBox box : faceDetector.detect(image)) {
+                Rect r = box.getBox();
+                faces.add(new com.anip.kyc.dto.face.FaceDetectionResponse.DetectedFace(
+                    r.x, r.y, r.width, r.height, box.getConfidence(), box.getArea() / imageArea));
+                maxConfidence = Math.max(maxConfidence, box.getConfidence());
+            }
+
+            response = com.anip.kyc.dto.face.FaceDetectionResponse.of(faces, maxConfidence);
+            response.setImageWidth(image.width());
+            response.setImageHeight(image.height());
+
+            // Les boîtes sont triées par surface décroissante : le visage principal est le premier retenu
+            Integer primary = null;
+            for (int i = 0; i < faces.size(); i++) {
+                if (faces.get(i).getConfidence() >= request.getConfidenceThreshold()) {
+                    primary = i;
+                    break;
+                }
+            }
+            response.setPrimaryFaceIndex(primary);
+
+            if (primary == null) {
+                response.setStatus("NO_FACE");
+            } else if (!request.isDetectMultiple() && faces.size() > 1) {
+                response.setStatus("MULTIPLE_FACES");
+            } else {
+                response.setStatus("OK");
+            }
+            image.release();
+        }
+
+        response.setDetector(faceDetector.getDetectorType());
+        response.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+        return response;
+    }
+
+    /**
+     * Détection faciale sur plusieurs images en parallèle (pré-contrôle du cadrage côté mobile)
+     */
+    public com.anip.kyc.dto.face.FaceBatchDetectionResponse detectFacesBatch(
+            List<com.anip.kyc.dto.face.FaceDetectionRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Au moins une image est requise");
+        }
+        if (requests.size() > maxDetectionImages) {
+            throw new IllegalArgumentException("Trop d'images (max " + maxDetectionImages + ")");
+        }
+
+        long startTime = System.currentTimeMillis();
+        List<CompletableFuture<com.anip.kyc.dto.face.FaceDetectionResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            final int index = i;
+            final com.anip.kyc.dto.face.FaceDetectionRequest request = requests.get(i);
+            futures.add(CompletableFuture.supplyAsync(() -> detectFaces(request), faceProcessingExecutor)
+                // Une image illisible ne fait pas échouer le lot : erreur reportée sur son entrée
+                .exceptionally(this::failedDetection)
+                .thenApply(r -> {
+                    r.setImageIndex(index);
+                    return r;
+                }));
+        }
+
+        List<com.anip.kyc.dto.face.FaceDetectionResponse> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<com.anip.kyc.dto.face.FaceDetectionResponse> f : futures) {
+            results.add(f.join());
+        }
+        return com.anip.kyc.dto.face.FaceBatchDetectionResponse.of(results, System.currentTimeMillis() - startTime);
+    }
+
+    public int getMaxDetectionImages() {
+        return maxDetectionImages;
+    }
+
+    private com.anip.kyc.dto.face.FaceDetectionResponse failedDetection(Throwable error) {
+        Throwable cause = error instanceof java.util.concurrent.CompletionException && error.getCause() != null
+            ? error.getCause() : error;
+        logger.warn("Échec de détection sur une image du lot: {}", cause.getMessage());
+        com.anip.kyc.dto.face.FaceDetectionResponse r = com.anip.kyc.dto.face.FaceDetectionResponse.of(new ArrayList<>(), 0.0);
+        r.setStatus("ERROR");
+        r.setError(cause.getMessage());
+        r.setDetector(faceDetector.getDetectorType());
+        return r;
     }
 
     public com.anip.kyc.dto.face.FaceComparisonResponse compareFaces(com.anip.kyc.dto.face.FaceComparisonRequest request) {
@@ -254,6 +380,11 @@ public class FaceRecognitionService {
             resp.setMatchScore(fm.getMatchScore() == null ? 0.0 : fm.getMatchScore());
             resp.setMatch(Boolean.TRUE.equals(fm.getIsMatch()));
             return resp;
+        } catch (java.util.concurrent.ExecutionException e) {
+            if (e.getCause() instanceof ImageQualityException) {
+                throw (ImageQualityException) e.getCause();
+            }
+            throw new com.anip.kyc.exception.FaceRecognitionException("Erreur comparaison wrapper: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new com.anip.kyc.exception.FaceRecognitionException("Erreur comparaison wrapper: " + e.getMessage(), e);
         }
@@ -262,12 +393,21 @@ public class FaceRecognitionService {
     public CompletableFuture<LivenessDetectionResponse> performLivenessDetection(LivenessDetectionRequest request) {
         try {
             com.anip.kyc.dto.LivenessTestRequest internal = new com.anip.kyc.dto.LivenessTestRequest();
-            // best-effort mapping
-            performLivenessTest(request.getSessionId(), internal);
+            // best-effort mapping: types inconnus (ex. COMPREHENSIVE) traités en test passif
+            String testType = request.getTestType();
+            boolean knownType = testType != null && Arrays.stream(LivenessResult.ChallengeType.values())
+                .anyMatch(t -> t.name().equals(testType));
+            internal.setLivenessType(knownType ? testType : "PASSIVE");
+            internal.setImageData(request.getMedia().getBytes());
+            return performLivenessTest(request.getSessionId(), internal).thenApply(result -> {
+                LivenessDetectionResponse resp = new LivenessDetectionResponse();
+                resp.setAlive(Boolean.TRUE.equals(result.getIsLive()));
+                resp.setLivenessScore(result.getLivenessScore() == null ? 0.0 : result.getLivenessScore());
+                return resp;
+            });
         } catch (Exception e) {
             throw new com.anip.kyc.exception.LivenessDetectionException("Erreur wrapper liveness: " + e.getMessage());
         }
-        return null;
     }
 
     public com.anip.kyc.dto.face.BiometricEncodingResponse extractBiometricEncoding(com.anip.kyc.dto.face.BiometricExtractionRequest request) {
@@ -279,8 +419,21 @@ public class FaceRecognitionService {
     }
 
     public com.anip.kyc.dto.face.FaceQualityResponse analyzeFaceQuality(com.anip.kyc.dto.face.FaceQualityRequest request) {
+        Mat image = decodeLiveCapture(request.getImage());
+        FaceQualityAnalyzer.Assessment assessment = faceQualityAnalyzer.analyze(image);
+        image.release();
+
         com.anip.kyc.dto.face.FaceQualityResponse r = new com.anip.kyc.dto.face.FaceQualityResponse();
-        r.setQualityScore(0.0);
+        r.setQualityScore(assessment.getQualityScore());
+        r.setAcceptable(assessment.isAcceptable());
+        r.setIssues(assessment.getIssues());
+        r.setWarnings(assessment.getWarnings());
+        r.setProcessingTimeMs(assessment.getElapsedMillis());
+        if (request.isDetailedAnalysis()) {
+            r.setMetrics(assessment.getMetrics());
+            r.setDetails(assessment.isAcceptable() ? "Qualité suffisante"
+                : "Capture rejetée: " + String.join(", ", assessment.getIssues()));
+        }
         return r;
     }
 
@@ -312,8 +465,20 @@ public class FaceRecognitionService {
                 // Validation de la requête
                 validateLivenessTestRequest(request);
 
-                // Analyse de vivacité selon le type de test
-                LivenessTestResult livenessResult = performLivenessAnalysis(request);
+                // Pré-contrôle qualité avant l'analyse de vivacité, sur l'image décodée une seule fois
+                Mat capture = Imgcodecs.imdecode(new MatOfByte(request.getImageData()), Imgcodecs.IMREAD_COLOR);
+                if (capture.empty()) {
+                    throw new InvalidImageException("Impossible de charger l'image de capture");
+                }
+                LivenessTestResult livenessResult;
+                try {
+                    enforceQualityGate(capture, sessionId);
+
+                    // Analyse de vivacité selon le type de test
+                    livenessResult = performLivenessAnalysis(request, capture);
+                } finally {
+                    capture.release();
+                }
 
                 // Création de l'entité LivenessResult (conforme au modèle)
                 LivenessResult result = new LivenessResult();
@@ -351,11 +516,13 @@ public class FaceRecognitionService {
 
                 return result;
 
+            } catch (ImageQualityException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Erreur lors du test de vivacité - Session: {}", sessionId, e);
                 throw new FaceRecognitionException("Erreur de test de vivacité: " + e.getMessage(), e);
             }
-        });
+        }, faceProcessingExecutor);
     }
 
     /**
@@ -377,88 +544,101 @@ public class FaceRecognitionService {
 
         // Chargement de l'image avec OpenCV
         Mat image = Imgcodecs.imdecode(new MatOfByte(imageData), Imgcodecs.IMREAD_COLOR);
-        if (image.empty()) {
-            throw new InvalidImageException("Impossible de charger l'image du document");
-        }
+        DocumentBoundaryDetector.Crop crop = null;
+        try {
+            if (image.empty()) {
+                throw new InvalidImageException("Impossible de charger l'image du document");
+            }
+
+            // Recadrage sur le document : la photo d'identité est cherchée dans la carte seule
+            crop = documentBoundaryDetector.crop(image, document.getDocumentType());
 
-        // Détection et extraction du visage
-        return detectAndExtractFace(image, "document");
+            // Détection et extraction du visage (copie normalisée, indépendante de l'image source)
+            return detectAndExtractFace(crop.getImage(), "document", null);
+        } finally {
+            if (crop != null && crop.isDetected()) {
+                crop.getImage().release();
+            }
+            image.release();
+        }
     }
 
     /**
-     * Extraction du visage depuis une capture en direct
+     * Chargement d'une capture en direct
      */
-    private Mat extractFaceFromLiveCapture(MultipartFile liveImage) throws IOException {
+    private Mat decodeLiveCapture(MultipartFile liveImage) {
         // Validation de l'image
-        if (liveImage.isEmpty()) {
+        if (liveImage == null || liveImage.isEmpty()) {
             throw new InvalidImageException("Image de capture vide");
         }
 
         // Chargement de l'image
-        Mat image = Imgcodecs.imdecode(new MatOfByte(liveImage.getBytes()), Imgcodecs.IMREAD_COLOR);
+        Mat image;
+        try {
+            image = Imgcodecs.imdecode(new MatOfByte(liveImage.getBytes()), Imgcodecs.IMREAD_COLOR);
+        } catch (IOException e) {
+            throw new InvalidImageException("Impossible de lire l'image de capture");
+        }
         if (image.empty()) {
             throw new InvalidImageException("Impossible de charger l'image de capture");
         }
+        return image;
+    }
 
-        // Détection et extraction du visage
-        return detectAndExtractFace(image, "live");
+    /**
+     * Pré-contrôle qualité : rejette immédiatement les captures floues, mal exposées ou mal cadrées.
+     * Retourne les visages détectés pour l'extraction, null si le contrôle est désactivé.
+     */
+    private List<FaceDetector.FaceBox> enforceQualityGate(Mat image, UUID sessionId) {
+        if (!qualityGateEnabled) {
+            return null;
+        }
+        FaceQualityAnalyzer.Assessment assessment = faceQualityAnalyzer.analyze(image);
+        if (!assessment.isAcceptable()) {
+            logger.info("Capture rejetée par le contrôle qualité - Session: {}, Raisons: {}, Durée: {}ms",
+                sessionId, assessment.getIssues(), assessment.getElapsedMillis());
+            throw new ImageQualityException("Qualité de capture insuffisante: " + String.join(", ", assessment.getIssues()));
+        }
+        return assessment.getFaces();
     }
 
     /**
-     * Détection et extraction du visage principal dans une image
+     * Détection et extraction du visage principal dans une image.
+     * faces : boîtes déjà détectées sur cette image (pré-contrôle qualité), null pour lancer la détection.
      */
-    private Mat detectAndExtractFace(Mat image, String imageType) {
+    private Mat detectAndExtractFace(Mat image, String imageType, List<FaceDetector.FaceBox> faces) {
         // Validation de la résolution minimale
         if (image.width() < MIN_IMAGE_RESOLUTION || image.height() < MIN_IMAGE_RESOLUTION) {
             throw new InvalidImageException("Résolution d'image insuffisante: " + image.width() + "x" + image.height());
         }
 
-        // Conversion en niveaux de gris pour la détection
-        Mat gray = new Mat();
-        Imgproc.cvtColor(image, gray, Imgproc.COLOR_BGR2GRAY);
-
-        // Égalisation de l'histogramme pour améliorer la détection
-        Mat equalizedGray = new Mat();
-        Imgproc.equalizeHist(gray, equalizedGray);
-
-        // Détection des visages
-        MatOfRect faces = new MatOfRect();
-        faceClassifier.detectMultiScale(
-            equalizedGray,
-            faces,
-            scaleFactor,
-            minNeighbors,
-            Objdetect.CASCADE_SCALE_IMAGE,
-            new Size(50, 50),  // Taille minimale
-            new Size()         // Taille maximale (par défaut)
-        );
-
-        Rect[] faceArray = faces.toArray();
-        
-        if (faceArray.length == 0) {
+        // Détection des visages (image réduite, boîtes triées par surface décroissante)
+        if (faces == null) {
+            faces = faceDetector.detect(image);
+        }
+
+        if (faces.isEmpty()) {
             throw new InvalidImageException("Aucun visage détecté dans l'image " + imageType);
         }
 
-        if (faceArray.length > 1) {
+        if (faces.size() > 1) {
             logger.warn("Plusieurs visages détectés dans l'image {} - Utilisation du plus grand", imageType);
         }
 
         // Sélection du visage le plus grand
-        Rect largestFace = Arrays.stream(faceArray)
-            .max(Comparator.comparingInt(rect -> rect.width * rect.height))
-            .orElseThrow(() -> new InvalidImageException("Erreur lors de la sélection du visage"));
+        Rect largestFace = faces.get(0).getBox();
 
         // Validation de la taille du visage
         double faceArea = largestFace.width * largestFace.height;
         double imageArea = image.width() * image.height();
         double faceRatio = faceArea / imageArea;
 
-        if (faceRatio < MIN_FACE_SIZE_RATIO) {
+        if (faceRatio < faceQualityAnalyzer.getMinFaceRatio()) {
             throw new InvalidImageException("Visage trop petit dans l'image " + imageType + " (ratio: " + 
                 String.format("%.3f", faceRatio) + ")");
         }
 
-        if (faceRatio > MAX_FACE_SIZE_RATIO) {
+        if (faceRatio > faceQualityAnalyzer.getMaxFaceRatio()) {
             throw new InvalidImageException("Visage trop grand dans l'image " + imageType + " (ratio: " + 
                 String.format("%.3f", faceRatio) + ")");
         }
@@ -486,6 +666,17 @@ public class FaceRecognitionService {
         FaceComparisonResult result = new FaceComparisonResult();
 
         try {
+            // Points caractéristiques (alignement, audit) et alignement des deux visages sur la ligne des yeux
+            FaceLandmarkStage.Landmarks liveLandmarks = null;
+            if (faceLandmarkStage.isEnabled()) {
+                liveLandmarks = faceLandmarkStage.extract(liveFace);
+                result.setLandmarks(liveLandmarks);
+            }
+            if (faceLandmarkStage.isAlignmentEnabled()) {
+                referenceFace = faceLandmarkStage.align(referenceFace, faceLandmarkStage.extract(referenceFace));
+                liveFace = faceLandmarkStage.align(liveFace, liveLandmarks);
+            }
+
             // Extraction des caractéristiques avec le modèle FaceNet
             Mat referenceFeatures = extractFaceFeatures(referenceFace);
             Mat liveFeatures = extractFaceFeatures(liveFace);
@@ -513,10 +704,6 @@ public class FaceRecognitionService {
             double antiSpoofingScore = calculateAntiSpoofingScore(liveFace);
             result.setAntiSpoofingScore(antiSpoofingScore);
 
-            // Extraction des points caractéristiques pour audit
-            List<Point> landmarks = extractFaceLandmarks(liveFace);
-            result.setFaceLandmarks(landmarks);
-
             logger.debug("Similarité calculée - Cosinus: {:.3f}, Euclidienne: {:.3f}, Final: {:.3f}", 
                 cosineSimilarity, euclideanDistance, result.getMatchScore());
 
@@ -822,50 +1009,15 @@ public class FaceRecognitionService {
         return 1.0 - Math.min(1.0, brightRatio * 10.0);
     }
 
-    /**
-     * Extraction des points caractéristiques du visage
-     */
-    private List<Point> extractFaceLandmarks(Mat face) {
-        List<Point> landmarks = new ArrayList<>();
-        
-        // Implémentation basique - détection des coins d'yeux, nez, bouche
-        // Pour une implémentation complète, utiliser dlib ou des modèles spécialisés
-        
-        try {
-            Mat gray = new Mat();
-            if (face.channels() > 1) {
-                Imgproc.cvtColor(face, gray, Imgproc.COLOR_BGR2GRAY);
-            } else {
-                gray = face.clone();
-            }
-
-            // Détection des coins (Harris corner detection)
-            Mat corners = new Mat();
-            Imgproc.cornerHarris(gray, corners, 2, 3, 0.04);
-
-            // Sélection des meilleurs coins
-            MatOfPoint cornerPoints = new MatOfPoint();
-            Imgproc.goodFeaturesToTrack(gray, cornerPoints, 10, 0.01, 10);
-
-            Point[] points = cornerPoints.toArray();
-            landmarks.addAll(Arrays.asList(points));
-
-        } catch (Exception e) {
-            logger.warn("Erreur lors de l'extraction des points caractéristiques", e);
-        }
-
-        return landmarks;
-    }
-
     /**
      * Analyse de vivacité selon le type de test
      */
-    private LivenessTestResult performLivenessAnalysis(LivenessTestRequest request) {
+    private LivenessTestResult performLivenessAnalysis(LivenessTestRequest request, Mat image) {
         LivenessTestResult result = new LivenessTestResult();
 
         switch (request.getLivenessType()) {
             case "PASSIVE":
-                result = performPassiveLivenessTest(request);
+                result = performPassiveLivenessTest(image);
                 break;
             case "ACTIVE_BLINK":
                 result = performBlinkTest(request);
@@ -889,13 +1041,10 @@ public class FaceRecognitionService {
     /**
      * Test de vivacité passif
      */
-    private LivenessTestResult performPassiveLivenessTest(LivenessTestRequest request) {
+    private LivenessTestResult performPassiveLivenessTest(Mat image) {
         LivenessTestResult result = new LivenessTestResult();
 
         try {
-            // Chargement de l'image
-            Mat image = Imgcodecs.imdecode(new MatOfByte(request.getImageData()), Imgcodecs.IMREAD_COLOR);
-            
             // Analyse anti-spoofing
             double antiSpoofingScore = calculateAntiSpoofingScore(image);
             
@@ -1027,7 +1176,7 @@ public class FaceRecognitionService {
         private double confidenceLevel;
         private double qualityScore;
         private double antiSpoofingScore;
-        private List<Point> faceLandmarks;
+        private FaceLandmarkStage.Landmarks landmarks;
 
         // Getters et setters
         public double getSimilarityScore() { return similarityScore; }
@@ -1046,8 +1195,10 @@ public class FaceRecognitionService {
         public double getAntiSpoofingScore() { return antiSpoofingScore; }
         public void setAntiSpoofingScore(double antiSpoofingScore) { this.antiSpoofingScore = antiSpoofingScore; }
 
-        public List<Point> getFaceLandmarks() { return faceLandmarks; }
-        public void setFaceLandmarks(List<Point> faceLandmarks) { this.faceLandmarks = faceLandmarks; }
+        // Points de la capture, vides si l'étape n'a pas été exécutée
+        public List<Point> getFaceLandmarks() { return landmarks == null ? new ArrayList<>() : landmarks.getPoints(); }
+        public FaceLandmarkStage.Landmarks getLandmarks() { return landmarks; }
+        public void setLandmarks(FaceLandmarkStage.Landmarks landmarks) { this.landmarks = landmarks; }
     }
 
     public static class LivenessTestResult {
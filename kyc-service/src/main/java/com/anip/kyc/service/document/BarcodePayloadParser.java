@@ -0,0 +1,250 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.dto.ExtractedDocumentData;
+import com.anip.kyc.models.Document;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Conversion du contenu d'un code-barres de document en champs structurés (mêmes noms que l'OCR) :
+ * - AAMVA (PDF417 des permis nord-américains) : éléments à trois lettres (DAQ, DCS, DAC, DBB...)
+ * - JSON ou paires clé/valeur (QR des cartes) : clés reconnues par alias, accents et séparateurs ignorés
+ * - texte libre avec libellés : table de champs du DocumentFieldExtractor
+ * Les dates sont ramenées au format dd/MM/yyyy. La confiance est la part des champs attendus trouvés.
+ */
+@Component
+public class BarcodePayloadParser {
+
+    private static final Pattern AAMVA_SUBFILE_START = Pattern.compile("(?:DL|ID)(D[A-Z]{2})");
+    private static final Pattern AAMVA_ELEMENT = Pattern.compile("^(D[A-Z]{2})(.*)$");
+    private static final Pattern ISO_DATE = Pattern.compile("^(\\d{4})[-/.](\\d{2})[-/.](\\d{2})$");
+    private static final Pattern DMY_DATE = Pattern.compile("^(\\d{2})[-/.](\\d{2})[-/.](\\d{4})$");
+    private static final Pattern COMPACT_DATE = Pattern.compile("^\\d{8}$");
+
+    // Alias normalisés (majuscules, sans accents ni séparateurs) -> nom de champ ; "number" : numéro du document
+    private static final Map<String, String> KEY_ALIASES = new HashMap<>();
+
+    static {
+        alias("surname", "NOM", "SURNAME", "LASTNAME", "FAMILYNAME", "NOMDEFAMILLE");
+        alias("givenNames", "PRENOM", "PRENOMS", "GIVENNAMES", "GIVENNAME", "FIRSTNAME", "FIRSTNAMES");
+        alias("dateOfBirth", "DATENAISSANCE", "DATEDENAISSANCE", "NELE", "NEELE", "DOB", "BIRTHDATE", "DATEOFBIRTH");
+        alias("expiryDate", "EXPIRATION", "DATEEXPIRATION", "DATEDEXPIRATION", "EXPIRE", "EXPIRY", "EXPIRYDATE",
+            "VALIDITE", "VALIDJUSQUAU");
+        alias("number", "NUMERO", "NUM", "NO", "NPI", "DOCUMENTNUMBER", "DOCNUMBER", "IDNUMBER", "CARDNUMBER",
+            "NUMEROCARTE", "NUMERODECARTE", "NUMEROPERMIS", "NUMERODEPERMIS", "LICENSENUMBER", "LICENCENUMBER");
+        alias("categories", "CATEGORIES", "CATEGORIE", "CAT", "CLASS", "CLASSES");
+        alias("sex", "SEXE", "SEX", "GENDER");
+        alias("nationality", "NATIONALITE", "NATIONALITY");
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DocumentFieldExtractor documentFieldExtractor;
+
+    /**
+     * Champs extraits du contenu, ou null si aucun champ n'est reconnu
+     */
+    public ExtractedDocumentData parse(String payload, Document.DocumentType documentType) {
+        if (payload == null || payload.isBlank()) {
+            return null;
+        }
+
+        Map<String, String> fields;
+        if (payload.contains("ANSI ") || payload.startsWith("@")) {
+            fields = parseAamva(payload, documentType);
+        } else if (payload.trim().startsWith("{")) {
+            fields = parseJson(payload, documentType);
+        } else {
+            fields = parseKeyValues(payload, documentType);
+        }
+        if (fields.isEmpty()) {
+            // Texte libre avec libellés, comme une page OCR
+            fields = documentFieldExtractor.extract(payload, documentType).getExtractedFields();
+        }
+        if (fields.isEmpty()) {
+            return null;
+        }
+
+        ExtractedDocumentData data = new ExtractedDocumentData();
+        data.setRawText(payload);
+        data.setDocumentType(documentType);
+        int expected = 0;
+        int found = 0;
+        for (DocumentFieldExtractor.FieldDefinition field : documentFieldExtractor.getFields(documentType)) {
+            expected++;
+            if (fields.containsKey(field.getName())) {
+                found++;
+            }
+        }
+        fields.forEach(data::put);
+        data.setConfidenceScore(expected == 0 ? 0.0 : (double) found / expected);
+        return data;
+    }
+
+    /**
+     * Éléments AAMVA : une ligne par élément, le premier suit la désignation du sous-fichier (DL ou ID)
+     */
+    private static Map<String, String> parseAamva(String payload, Document.DocumentType documentType) {
+        Map<String, String> elements = new HashMap<>();
+        for (String line : payload.split("[\\r\\n\\u001e]+")) {
+            if (line.contains("ANSI ")) {
+                Matcher start = AAMVA_SUBFILE_START.matcher(line);
+                if (!start.find()) {
+                    continue;
+                }
+                line = line.substring(start.start(1));
+            }
+            Matcher element = AAMVA_ELEMENT.matcher(line.trim());
+            if (element.matches()) {
+                elements.putIfAbsent(element.group(1), element.group(2).trim());
+            }
+        }
+
+        Map<String, String> fields = new LinkedHashMap<>();
+        putIfPresent(fields, numberField(documentType), elements.get("DAQ"));
+        putIfPresent(fields, "surname", firstNonBlank(elements.get("DCS"), elements.get("DAB")));
+        String givenNames = firstNonBlank(elements.get("DAC"), elements.get("DCT"));
+        if (givenNames != null && elements.get("DAD") != null && !elements.get("DAD").isBlank()) {
+            givenNames = givenNames + " " + elements.get("DAD");
+        }
+        putIfPresent(fields, "givenNames", givenNames == null ? null : givenNames.replace(',', ' ').trim());
+        putIfPresent(fields, "dateOfBirth", aamvaDate(elements.get("DBB")));
+        putIfPresent(fields, "expiryDate", aamvaDate(elements.get("DBA")));
+        putIfPresent(fields, "categories", elements.get("DCA"));
+        String sex = elements.get("DBC");
+        putIfPresent(fields, "sex", "1".equals(sex) ? "M" : "2".equals(sex) ? "F" : sex);
+        putIfPresent(fields, "nationality", elements.get("DCG"));
+        return fields;
+    }
+
+    private Map<String, String> parseJson(String payload, Document.DocumentType documentType) {
+        Map<String, Object> values;
+        try {
+            values = objectMapper.readValue(payload, new TypeReference<Map<String, Object>>() {});
+        } catch (JsonProcessingException e) {
+            return new LinkedHashMap<>();
+        }
+        Map<String, String> fields = new LinkedHashMap<>();
+        values.forEach((key, value) -> {
+            if (value != null && !(value instanceof Map) && !(value instanceof Iterable)) {
+                putAliased(fields, key, value.toString(), documentType);
+            }
+        });
+        return fields;
+    }
+
+    private static Map<String, String> parseKeyValues(String payload, Document.DocumentType documentType) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (String entry : payload.split("[\\r\\n;|]+")) {
+            int separator = indexOfSeparator(entry);
+            if (separator > 0) {
+                putAliased(fields, entry.substring(0, separator), entry.substring(separator + 1), documentType);
+            }
+        }
+        return fields;
+    }
+
+    private static void putAliased(Map<String, String> fields, String key, String value, Document.DocumentType documentType) {
+        String field = KEY_ALIASES.get(normalizeKey(key));
+        if (field == null) {
+            return;
+        }
+        if ("number".equals(field)) {
+            field = numberField(documentType);
+        }
+        if ("dateOfBirth".equals(field) || "expiryDate".equals(field)) {
+            value = normalizeDate(value.trim());
+        }
+        if (!fields.containsKey(field)) {
+            putIfPresent(fields, field, value);
+        }
+    }
+
+    private static int indexOfSeparator(String entry) {
+        int colon = entry.indexOf(':');
+        int equals = entry.indexOf('=');
+        if (colon < 0) {
+            return equals;
+        }
+        return equals < 0 ? colon : Math.min(colon, equals);
+    }
+
+    private static String normalizeKey(String key) {
+        String stripped = Normalizer.normalize(key, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.toUpperCase().replaceAll("[^A-Z0-9]", "");
+    }
+
+    /**
+     * AAMVA : MMJJAAAA (États-Unis) ou AAAAMMJJ (Canada) ; l'année commence par 19 ou 20, jamais un mois
+     */
+    private static String aamvaDate(String value) {
+        if (value == null || !COMPACT_DATE.matcher(value).matches()) {
+            return null;
+        }
+        if (Integer.parseInt(value.substring(0, 2)) > 12) {
+            return value.substring(6, 8) + "/" + value.substring(4, 6) + "/" + value.substring(0, 4);
+        }
+        return value.substring(2, 4) + "/" + value.substring(0, 2) + "/" + value.substring(4, 8);
+    }
+
+    /**
+     * Dates ISO (AAAA-MM-JJ), JJ/MM/AAAA (séparateurs / - .) ou compactes AAAAMMJJ ramenées à JJ/MM/AAAA
+     */
+    static String normalizeDate(String value) {
+        Matcher iso = ISO_DATE.matcher(value);
+        if (iso.matches()) {
+            return iso.group(3) + "/" + iso.group(2) + "/" + iso.group(1);
+        }
+        Matcher dmy = DMY_DATE.matcher(value);
+        if (dmy.matches()) {
+            return dmy.group(1) + "/" + dmy.group(2) + "/" + dmy.group(3);
+        }
+        if (COMPACT_DATE.matcher(value).matches()) {
+            return value.substring(6, 8) + "/" + value.substring(4, 6) + "/" + value.substring(0, 4);
+        }
+        return value;
+    }
+
+    private static String numberField(Document.DocumentType documentType) {
+        switch (documentType) {
+            case PASSPORT:
+                return "passportNumber";
+            case DRIVING_LICENSE:
+            case DRIVING_LICENSE_FRONT:
+            case DRIVING_LICENSE_BACK:
+                return "licenseNumber";
+            default:
+                return "idNumber";
+        }
+    }
+
+    private static void putIfPresent(Map<String, String> fields, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            fields.put(field, value.trim());
+        }
+    }
+
+    private static String firstNonBlank(String first, String second) {
+        return first != null && !first.isBlank() ? first : second;
+    }
+
+    private static void alias(String field, String... keys) {
+        for (String key : keys) {
+            KEY_ALIASES.put(key, field);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.anip.kyc.service.document;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.ReaderException;
+import com.google.zxing.Result;
+import com.google.zxing.common.HybridBinarizer;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Localisation et décodage d'un code-barres PDF417 ou QR (ZXing) sur l'image d'un document.
+ * Le plan de luminance est le buffer du Mat en niveaux de gris, transmis sans conversion en BufferedImage.
+ * Un second essai est fait après rotation d'un quart de tour : le lecteur PDF417 ne gère que 0° et 180°.
+ */
+@Component
+public class BarcodeReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(BarcodeReader.class);
+
+    private static final Map<DecodeHintType, Object> HINTS = new EnumMap<>(DecodeHintType.class);
+
+    static {
+        HINTS.put(DecodeHintType.POSSIBLE_FORMATS, List.of(BarcodeFormat.PDF_417, BarcodeFormat.QR_CODE));
+        HINTS.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+        HINTS.put(DecodeHintType.CHARACTER_SET, "UTF-8");
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.ocr.barcode.try.rotated:true}")
+    private boolean tryRotated;
+
+    /**
+     * Contenu du premier code-barres décodé, si l'image en contient un lisible
+     */
+    public Optional<Barcode> read(Mat image) {
+        long start = System.nanoTime();
+        Mat gray = new Mat();
+        if (image.channels() > 1) {
+            Imgproc.cvtColor(image, gray, Imgproc.COLOR_BGR2GRAY);
+        } else {
+            image.copyTo(gray);
+        }
+
+        Optional<Barcode> barcode = decode(gray);
+        if (barcode.isEmpty() && tryRotated) {
+            Core.rotate(gray, gray, Core.ROTATE_90_CLOCKWISE);
+            barcode = decode(gray);
+        }
+        gray.release();
+
+        Timer.builder("kyc.ocr.barcode.duration")
+            .tag("result", barcode.isPresent() ? "decoded" : "not_found")
+            .description("Durée de la recherche et du décodage de code-barres")
+            .register(meterRegistry)
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        logger.debug("Code-barres - Décodé: {}, Durée: {} ms", barcode.map(Barcode::getFormat).orElse(null),
+            String.format("%.1f", (System.nanoTime() - start) / 1e6));
+        return barcode;
+    }
+
+    private static Optional<Barcode> decode(Mat gray) {
+        int width = gray.width();
+        int height = gray.height();
+        byte[] luminance = new byte[width * height];
+        // Mat continu (copie ou rotation) : une seule lecture du buffer
+        gray.get(0, 0, luminance);
+        PlanarYUVLuminanceSource source = new PlanarYUVLuminanceSource(luminance, width, height, 0, 0, width, height, false);
+
+        // Lecteur non partagé : MultiFormatReader conserve un état entre les appels
+        MultiFormatReader reader = new MultiFormatReader();
+        try {
+            Result result = reader.decode(new BinaryBitmap(new HybridBinarizer(source)), HINTS);
+            return Optional.of(new Barcode(result.getBarcodeFormat().name(), result.getText()));
+        } catch (ReaderException e) {
+            return Optional.empty();
+        } finally {
+            reader.reset();
+        }
+    }
+
+    /**
+     * Code-barres décodé : format (PDF_417, QR_CODE) et contenu texte
+     */
+    public static class Barcode {
+        private final String format;
+        private final String text;
+
+        public Barcode(String format, String text) {
+            this.format = format;
+            this.text = text;
+        }
+
+        public String getFormat() { return format; }
+        public String getText() { return text; }
+    }
+}
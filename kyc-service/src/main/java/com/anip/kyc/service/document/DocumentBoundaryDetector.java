@@ -0,0 +1,316 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.models.Document;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfFloat;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Point;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Détection du contour du document (carte, page de passeport, feuille) sur une image réduite et
+ * redressement par transformation perspective vers la taille canonique du type de document.
+ * Sur une photo de téléphone, la table et l'arrière-plan ne sont ainsi ni prétraités ni lus par l'OCR.
+ *
+ * Détection : flou, Canny à seuils automatiques (médiane), dilatation, puis recherche parmi les plus
+ * grands contours externes d'un quadrilatère convexe dont la surface et les proportions sont plausibles.
+ */
+@Component
+public class DocumentBoundaryDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentBoundaryDetector.class);
+
+    private static final double MM_PER_INCH = 25.4;
+    // Format ID-1 (cartes, permis), page de données TD3 (passeport), A4 (autres)
+    private static final double[] ID1_SIZE_MM = {85.6, 53.98};
+    private static final double[] TD3_SIZE_MM = {125.0, 88.0};
+    private static final double[] A4_SIZE_MM = {297.0, 210.0};
+
+    // Grand côté de travail : la détection n'a pas besoin de la pleine résolution
+    private static final double WORK_SIZE = 640.0;
+    private static final int MAX_CANDIDATES = 5;
+    private static final double APPROX_EPSILON_RATIO = 0.02;
+    private static final double CANNY_SIGMA = 0.33;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.ocr.crop.enabled:true}")
+    private boolean enabled;
+
+    // Résolution de la sortie redressée
+    @Value("${app.ocr.crop.dpi:300}")
+    private double dpi;
+
+    // Surface minimale du quadrilatère par rapport à l'image
+    @Value("${app.ocr.crop.min.area.ratio:0.2}")
+    private double minAreaRatio;
+
+    // Au-delà, le document occupe déjà l'image (scan) : pas de recadrage
+    @Value("${app.ocr.crop.max.area.ratio:0.95}")
+    private double maxAreaRatio;
+
+    // Écart relatif toléré entre les proportions du quadrilatère et celles du format (perspective)
+    @Value("${app.ocr.crop.aspect.tolerance:0.35}")
+    private double aspectTolerance;
+
+    /**
+     * Recadrage redressé du document, ou l'image d'origine si aucun contour plausible n'est trouvé
+     */
+    public Crop crop(Mat image, Document.DocumentType documentType) {
+        if (!enabled) {
+            return new Crop(image, false, 0.0, Double.NaN, 0.0);
+        }
+        long start = System.nanoTime();
+        double[] sizeMm = physicalSize(documentType);
+        Optional<Point[]> corners = detect(image, sizeMm[0] / sizeMm[1]);
+
+        Crop crop;
+        if (corners.isPresent()) {
+            Point[] quad = corners.get();
+            double removed = 1.0 - quadArea(quad) / ((double) image.width() * image.height());
+            crop = new Crop(warp(image, quad, sizeMm), true, removed, dpi, (System.nanoTime() - start) / 1e6);
+        } else {
+            crop = new Crop(image, false, 0.0, Double.NaN, (System.nanoTime() - start) / 1e6);
+        }
+
+        meterRegistry.counter("kyc.document.crop", "result", crop.isDetected() ? "detected" : "not_found").increment();
+        if (crop.isDetected()) {
+            DistributionSummary.builder("kyc.document.crop.removed.area")
+                .description("Part de l'image retirée par le recadrage du document")
+                .register(meterRegistry)
+                .record(crop.getRemovedAreaRatio());
+        }
+        logger.debug("Recadrage document - Type: {}, Détecté: {}, Surface retirée: {}, Durée: {} ms",
+            documentType, crop.isDetected(), String.format("%.2f", crop.getRemovedAreaRatio()),
+            String.format("%.1f", crop.getDetectionMillis()));
+        return crop;
+    }
+
+    /**
+     * Coins du document (haut-gauche, haut-droit, bas-droit, bas-gauche) en coordonnées de l'image d'origine
+     */
+    Optional<Point[]> detect(Mat image, double expectedAspect) {
+        return detect(image, expectedAspect, minAreaRatio);
+    }
+
+    /**
+     * Détection avec une surface minimale propre à l'appelant (contrôle du cadrage d'une petite carte)
+     */
+    Optional<Point[]> detect(Mat image, double expectedAspect, double minArea) {
+        double scale = Math.min(1.0, WORK_SIZE / Math.max(image.width(), image.height()));
+
+        // Échantillonnage sans moyennage : le flou gaussien qui suit suffit à lisser le crénelage
+        Mat gray = new Mat();
+        if (scale < 1.0) {
+            Imgproc.resize(image, gray, new Size(), scale, scale, Imgproc.INTER_NEAREST);
+        } else {
+            image.copyTo(gray);
+        }
+        if (gray.channels() > 1) {
+            Imgproc.cvtColor(gray, gray, Imgproc.COLOR_BGR2GRAY);
+        }
+        Imgproc.GaussianBlur(gray, gray, new Size(5, 5), 0);
+
+        // Seuils de Canny autour de la médiane : robustes aux variations d'exposition
+        double median = median(gray);
+        Mat edges = new Mat();
+        Imgproc.Canny(gray, edges, Math.max(0, (1.0 - CANNY_SIGMA) * median), Math.min(255, (1.0 + CANNY_SIGMA) * median));
+        Mat kernel = Imgproc.getStructuringElement(Imgproc.MORPH_RECT, new Size(3, 3));
+        Imgproc.dilate(edges, edges, kernel);
+
+        List<MatOfPoint> contours = new ArrayList<>();
+        Mat hierarchy = new Mat();
+        Imgproc.findContours(edges, contours, hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+        double imageArea = (double) gray.width() * gray.height();
+        gray.release();
+        edges.release();
+        kernel.release();
+        hierarchy.release();
+
+        contours.sort(Comparator.comparingDouble((MatOfPoint c) -> Imgproc.contourArea(c)).reversed());
+        Optional<Point[]> result = Optional.empty();
+        for (int i = 0; i < Math.min(MAX_CANDIDATES, contours.size()) && result.isEmpty(); i++) {
+            Point[] quad = approximateQuad(contours.get(i));
+            if (quad != null && isPlausible(quad, imageArea, expectedAspect, minArea)) {
+                for (Point p : quad) {
+                    p.x /= scale;
+                    p.y /= scale;
+                }
+                result = Optional.of(quad);
+            }
+        }
+        contours.forEach(Mat::release);
+        return result;
+    }
+
+    /**
+     * Dimensions physiques (grand côté, petit côté) en millimètres du type de document
+     */
+    public static double[] physicalSize(Document.DocumentType documentType) {
+        switch (documentType) {
+            case PASSPORT:
+                return TD3_SIZE_MM.clone();
+            case ID_CARD:
+            case ID_CARD_FRONT:
+            case ID_CARD_BACK:
+            case DRIVING_LICENSE:
+            case DRIVING_LICENSE_FRONT:
+            case DRIVING_LICENSE_BACK:
+                return ID1_SIZE_MM.clone();
+            default:
+                return A4_SIZE_MM.clone();
+        }
+    }
+
+    private static Point[] approximateQuad(MatOfPoint contour) {
+        MatOfPoint2f curve = new MatOfPoint2f(contour.toArray());
+        MatOfPoint2f approx = new MatOfPoint2f();
+        Imgproc.approxPolyDP(curve, approx, APPROX_EPSILON_RATIO * Imgproc.arcLength(curve, true), true);
+        Point[] points = approx.toArray();
+        curve.release();
+        approx.release();
+        if (points.length != 4 || !Imgproc.isContourConvex(new MatOfPoint(points))) {
+            return null;
+        }
+        return orderCorners(points);
+    }
+
+    private boolean isPlausible(Point[] quad, double imageArea, double expectedAspect, double minArea) {
+        double areaRatio = quadArea(quad) / imageArea;
+        if (areaRatio < minArea || areaRatio > maxAreaRatio) {
+            return false;
+        }
+        double width = Math.max(distance(quad[0], quad[1]), distance(quad[3], quad[2]));
+        double height = Math.max(distance(quad[0], quad[3]), distance(quad[1], quad[2]));
+        double aspect = Math.max(width, height) / Math.max(1.0, Math.min(width, height));
+        return Math.abs(aspect - expectedAspect) / expectedAspect <= aspectTolerance;
+    }
+
+    /**
+     * Transformation perspective vers la taille canonique, en conservant l'orientation du quadrilatère
+     */
+    private Mat warp(Mat image, Point[] quad, double[] sizeMm) {
+        double width = Math.max(distance(quad[0], quad[1]), distance(quad[3], quad[2]));
+        double height = Math.max(distance(quad[0], quad[3]), distance(quad[1], quad[2]));
+        double longPx = Math.round(sizeMm[0] / MM_PER_INCH * dpi);
+        double shortPx = Math.round(sizeMm[1] / MM_PER_INCH * dpi);
+        double outWidth = width >= height ? longPx : shortPx;
+        double outHeight = width >= height ? shortPx : longPx;
+
+        MatOfPoint2f source = new MatOfPoint2f(quad);
+        MatOfPoint2f target = new MatOfPoint2f(
+            new Point(0, 0), new Point(outWidth - 1, 0),
+            new Point(outWidth - 1, outHeight - 1), new Point(0, outHeight - 1));
+        Mat transform = Imgproc.getPerspectiveTransform(source, target);
+        Mat warped = new Mat();
+        Imgproc.warpPerspective(image, warped, transform, new Size(outWidth, outHeight), Imgproc.INTER_LINEAR);
+        source.release();
+        target.release();
+        transform.release();
+        return warped;
+    }
+
+    /**
+     * Ordre haut-gauche, haut-droit, bas-droit, bas-gauche (sommes et différences des coordonnées)
+     */
+    static Point[] orderCorners(Point[] points) {
+        Point[] ordered = new Point[4];
+        for (Point p : points) {
+            if (ordered[0] == null || p.x + p.y < ordered[0].x + ordered[0].y) {
+                ordered[0] = p;
+            }
+            if (ordered[2] == null || p.x + p.y > ordered[2].x + ordered[2].y) {
+                ordered[2] = p;
+            }
+            if (ordered[1] == null || p.x - p.y > ordered[1].x - ordered[1].y) {
+                ordered[1] = p;
+            }
+            if (ordered[3] == null || p.x - p.y < ordered[3].x - ordered[3].y) {
+                ordered[3] = p;
+            }
+        }
+        Point[] copy = new Point[4];
+        for (int i = 0; i < 4; i++) {
+            copy[i] = ordered[i].clone();
+        }
+        return copy;
+    }
+
+    private static double quadArea(Point[] quad) {
+        // Formule du lacet
+        double sum = 0;
+        for (int i = 0; i < 4; i++) {
+            Point a = quad[i];
+            Point b = quad[(i + 1) % 4];
+            sum += a.x * b.y - b.x * a.y;
+        }
+        return Math.abs(sum) / 2.0;
+    }
+
+    private static double distance(Point a, Point b) {
+        return Math.hypot(a.x - b.x, a.y - b.y);
+    }
+
+    private static double median(Mat gray) {
+        Mat hist = new Mat();
+        Imgproc.calcHist(List.of(gray), new MatOfInt(0), new Mat(), hist,
+            new MatOfInt(256), new MatOfFloat(0, 256));
+        double half = gray.total() / 2.0;
+        double cumulative = 0;
+        int median = 0;
+        for (int i = 0; i < 256; i++) {
+            cumulative += hist.get(i, 0)[0];
+            if (cumulative >= half) {
+                median = i;
+                break;
+            }
+        }
+        hist.release();
+        return median;
+    }
+
+    /**
+     * Document recadré ; si detected est faux, image est l'image d'origine (même instance)
+     */
+    public static class Crop {
+        private final Mat image;
+        private final boolean detected;
+        private final double removedAreaRatio;
+        private final double dpi;
+        private final double detectionMillis;
+
+        public Crop(Mat image, boolean detected, double removedAreaRatio, double dpi, double detectionMillis) {
+            this.image = image;
+            this.detected = detected;
+            this.removedAreaRatio = removedAreaRatio;
+            this.dpi = dpi;
+            this.detectionMillis = detectionMillis;
+        }
+
+        public Mat getImage() { return image; }
+        public boolean isDetected() { return detected; }
+        public double getRemovedAreaRatio() { return removedAreaRatio; }
+        public double getDpi() { return dpi; }
+        public double getDetectionMillis() { return detectionMillis; }
+    }
+}
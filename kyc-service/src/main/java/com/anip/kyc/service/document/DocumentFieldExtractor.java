@@ -0,0 +1,348 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.dto.ExtractedDocumentData;
+import com.anip.kyc.models.Document;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extraction des champs du texte OCR pleine page, pilotée par une table de champs par type de document.
+ * Les tables et les automates sont construits une seule fois au démarrage :
+ * - un automate Aho-Corasick par type localise tous les libellés (NOM, SURNAME, BIRTH...) en une passe
+ * - chaque valeur est lue par un motif précompilé ancré à la fin de son libellé (lookingAt)
+ * Les mêmes définitions (champ obligatoire, format attendu) servent à la validation.
+ */
+@Component
+public class DocumentFieldExtractor {
+
+    public enum Kind { TEXT, DATE }
+
+    private static final int ALPHABET_SIZE = 0x180;
+    // Un libellé suivi d'un autre libellé du même champ (ex. "NOM/SURNAME") n'est pas retenu
+    private static final int CHAINED_LABEL_GAP = 3;
+
+    private static final String NAME_CHARS = "A-ZÀÁÂÃÄÅÆÇÈÉÊËÌÍÎÏÐÑÒÓÔÕÖØÙÚÛÜÝÞŸ";
+
+    // Motifs de valeur, appliqués à partir de la fin du libellé
+    private static final Pattern NAME_VALUE = Pattern.compile(
+        "\\s*[:/]?\\s*([" + NAME_CHARS + "][" + NAME_CHARS + "\\h\\-']*)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DATE_VALUE = Pattern.compile(
+        "[^\\n]*?(\\d{2}/\\d{2}/\\d{4})");
+    private static final Pattern PASSPORT_NUMBER_VALUE = Pattern.compile(
+        "\\s*(?:N°|NO|N)?\\s*[:.]?\\s*((?=[A-Z]*\\d)[A-Z0-9]{6,12})\\b", Pattern.CASE_INSENSITIVE);
+    // Numéros : sur la ligne du libellé ou la suivante, au moins un chiffre
+    private static final Pattern ID_NUMBER_VALUE = Pattern.compile(
+        "[^\\n]*?(?:\\n[^\\n]*?)??\\b((?=[A-Z]*\\d)[A-Z0-9]{8,15})\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern LICENSE_NUMBER_VALUE = Pattern.compile(
+        "[^\\n]*?(?:\\n[^\\n]*?)??\\b((?=[A-Z]*\\d)[A-Z0-9]{8,20})\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CATEGORIES_VALUE = Pattern.compile(
+        "\\s*[:/]?\\s*([A-Z1-9][A-Z1-9\\h,]*)", Pattern.CASE_INSENSITIVE);
+
+    // Formats attendus pour la validation
+    private static final Pattern PASSPORT_NUMBER_FORMAT = Pattern.compile("^[A-Z0-9]{6,12}$");
+    private static final Pattern ID_CARD_NUMBER_FORMAT = Pattern.compile("^[A-Z0-9]{8,15}$");
+    private static final Pattern DRIVING_LICENSE_NUMBER_FORMAT = Pattern.compile("^[A-Z0-9]{8,20}$");
+    private static final Pattern DATE_FORMAT = Pattern.compile("^\\d{2}/\\d{2}/\\d{4}$");
+
+    private static final FieldDefinition SURNAME = new FieldDefinition(
+        "surname", "Nom de famille", Kind.TEXT, 0.8, true,
+        "Nom de famille manquant", null, null, NAME_VALUE, "NOM", "SURNAME", "NAME");
+    private static final FieldDefinition GIVEN_NAMES = new FieldDefinition(
+        "givenNames", "Prénoms", Kind.TEXT, 0.8, true,
+        "Prénoms manquants", null, null, NAME_VALUE, "PRENOM", "PRENOMS", "PRÉNOM", "PRÉNOMS", "GIVEN NAMES");
+    private static final FieldDefinition DATE_OF_BIRTH = new FieldDefinition(
+        "dateOfBirth", "Date de naissance", Kind.DATE, 0.7, false,
+        "Date de naissance manquante", "Date de naissance au format invalide", DATE_FORMAT, DATE_VALUE,
+        "BIRTH", "NAISSANCE");
+    private static final FieldDefinition EXPIRY_DATE = new FieldDefinition(
+        "expiryDate", "Date d'expiration", Kind.DATE, 0.7, false,
+        "Date d'expiration manquante", "Date d'expiration au format invalide", DATE_FORMAT, DATE_VALUE,
+        "EXPIRY", "EXPIRATION", "EXPIRE");
+    private static final FieldDefinition PASSPORT_NUMBER = new FieldDefinition(
+        "passportNumber", "Numéro de passeport", Kind.TEXT, 0.9, true,
+        "Numéro de passeport manquant", "Format du numéro de passeport invalide", PASSPORT_NUMBER_FORMAT,
+        PASSPORT_NUMBER_VALUE, "PASSPORT", "PASSEPORT");
+    private static final FieldDefinition ID_NUMBER = new FieldDefinition(
+        "idNumber", "Numéro de carte d'identité", Kind.TEXT, 0.9, true,
+        "Numéro de carte d'identité manquant", "Format du numéro de carte d'identité invalide", ID_CARD_NUMBER_FORMAT,
+        ID_NUMBER_VALUE, "CARTE", "ID", "IDENTITE", "IDENTITÉ");
+    private static final FieldDefinition LICENSE_NUMBER = new FieldDefinition(
+        "licenseNumber", "Numéro de permis", Kind.TEXT, 0.9, true,
+        "Numéro de permis manquant", "Format du numéro de permis invalide", DRIVING_LICENSE_NUMBER_FORMAT,
+        LICENSE_NUMBER_VALUE, "PERMIS", "LICENSE", "LICENCE");
+    private static final FieldDefinition CATEGORIES = new FieldDefinition(
+        "categories", "Catégories de permis", Kind.TEXT, 0.6, false,
+        "Catégories de permis manquantes", null, null, CATEGORIES_VALUE,
+        "CATEGORIES", "CATEGORIE", "CATÉGORIES", "CATÉGORIE", "CAT");
+
+    private final Map<Document.DocumentType, FieldTable> tables = new EnumMap<>(Document.DocumentType.class);
+
+    public DocumentFieldExtractor() {
+        FieldTable passport = new FieldTable(List.of(
+            PASSPORT_NUMBER, SURNAME, GIVEN_NAMES, DATE_OF_BIRTH, EXPIRY_DATE));
+        FieldTable idCard = new FieldTable(List.of(
+            ID_NUMBER, SURNAME, GIVEN_NAMES, DATE_OF_BIRTH, EXPIRY_DATE));
+        // Verso : les noms figurent au recto (ou dans la MRZ), seul le numéro est exigé
+        FieldTable idCardBack = new FieldTable(List.of(
+            ID_NUMBER, SURNAME.optional(), GIVEN_NAMES.optional(), DATE_OF_BIRTH, EXPIRY_DATE));
+        FieldTable drivingLicense = new FieldTable(List.of(
+            LICENSE_NUMBER, CATEGORIES, DATE_OF_BIRTH, EXPIRY_DATE));
+
+        for (Document.DocumentType type : Document.DocumentType.values()) {
+            switch (type) {
+                case PASSPORT:
+                    tables.put(type, passport);
+                    break;
+                case ID_CARD_BACK:
+                    tables.put(type, idCardBack);
+                    break;
+                case DRIVING_LICENSE:
+                case DRIVING_LICENSE_FRONT:
+                case DRIVING_LICENSE_BACK:
+                    tables.put(type, drivingLicense);
+                    break;
+                default:
+                    // Autres types : extraction générique de carte d'identité
+                    tables.put(type, idCard);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Définitions des champs attendus pour un type de document
+     */
+    public List<FieldDefinition> getFields(Document.DocumentType documentType) {
+        return tables.get(documentType).fields;
+    }
+
+    /**
+     * Vrai si tous les champs obligatoires du type de document sont présents
+     */
+    public boolean hasRequiredFields(Map<String, String> fields, Document.DocumentType documentType) {
+        for (FieldDefinition field : tables.get(documentType).fields) {
+            if (field.required && !fields.containsKey(field.name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Extraction en une passe : localisation des libellés puis lecture des valeurs.
+     * Pour chaque champ, le premier libellé (le plus à gauche) suivi d'une valeur valide l'emporte.
+     * La confiance est la somme des poids des champs trouvés rapportée au poids total de la table.
+     */
+    public ExtractedDocumentData extract(String text, Document.DocumentType documentType) {
+        FieldTable table = tables.get(documentType);
+        ExtractedDocumentData data = new ExtractedDocumentData();
+        data.setRawText(text);
+        data.setDocumentType(documentType);
+        if (text == null || text.isEmpty()) {
+            return data;
+        }
+
+        List<List<int[]>> hits = table.automaton.scan(text, table.fields.size());
+
+        double confidence = 0.0;
+        for (int f = 0; f < table.fields.size(); f++) {
+            List<int[]> fieldHits = hits.get(f);
+            if (fieldHits.isEmpty()) {
+                continue;
+            }
+            fieldHits.sort((a, b) -> Integer.compare(a[0], b[0]));
+            FieldDefinition field = table.fields.get(f);
+            Matcher matcher = field.valuePattern.matcher(text);
+            for (int h = 0; h < fieldHits.size(); h++) {
+                int[] hit = fieldHits.get(h);
+                if (h + 1 < fieldHits.size() && fieldHits.get(h + 1)[0] >= hit[1]
+                        && fieldHits.get(h + 1)[0] <= hit[1] + CHAINED_LABEL_GAP) {
+                    continue;
+                }
+                matcher.region(hit[1], text.length());
+                if (matcher.lookingAt()) {
+                    data.put(field.name, matcher.group(1).trim());
+                    confidence += field.weight;
+                    break;
+                }
+            }
+        }
+        data.setConfidenceScore(confidence / table.totalWeight);
+        return data;
+    }
+
+    /**
+     * Définition d'un champ : libellés, motif de valeur, poids de confiance et règles de validation
+     */
+    public static final class FieldDefinition {
+        private final String name;
+        private final String label;
+        private final Kind kind;
+        private final double weight;
+        private final boolean required;
+        private final String missingMessage;
+        private final String invalidMessage;
+        private final Pattern format;
+        private final Pattern valuePattern;
+        private final String[] labels;
+
+        private FieldDefinition(String name, String label, Kind kind, double weight, boolean required, String missingMessage,
+                                String invalidMessage, Pattern format, Pattern valuePattern, String... labels) {
+            this.name = name;
+            this.label = label;
+            this.kind = kind;
+            this.weight = weight;
+            this.required = required;
+            this.missingMessage = missingMessage;
+            this.invalidMessage = invalidMessage;
+            this.format = format;
+            this.valuePattern = valuePattern;
+            this.labels = labels;
+        }
+
+        private FieldDefinition optional() {
+            return new FieldDefinition(name, label, kind, weight, false, missingMessage, invalidMessage, format,
+                valuePattern, labels);
+        }
+
+        public String getName() { return name; }
+        public String getLabel() { return label; }
+        public Kind getKind() { return kind; }
+        public boolean isRequired() { return required; }
+        public String getMissingMessage() { return missingMessage; }
+        public String getInvalidMessage() { return invalidMessage; }
+
+        /**
+         * Vrai si la valeur respecte le format attendu (ou si aucun format n'est imposé)
+         */
+        public boolean isValidFormat(String value) {
+            return format == null || format.matcher(value).matches();
+        }
+    }
+
+    private static final class FieldTable {
+        private final List<FieldDefinition> fields;
+        private final LabelAutomaton automaton;
+        private final double totalWeight;
+
+        private FieldTable(List<FieldDefinition> fields) {
+            this.fields = fields;
+            this.automaton = new LabelAutomaton(fields);
+            this.totalWeight = fields.stream().mapToDouble(f -> f.weight).sum();
+        }
+    }
+
+    /**
+     * Automate Aho-Corasick sur les libellés en majuscules, compilé en table de transitions complète
+     * (pas de liens d'échec à suivre pendant le parcours). Un libellé n'est retenu que s'il forme un mot entier.
+     */
+    private static final class LabelAutomaton {
+        // Symbole de chaque caractère des libellés (-1 si absent) : Latin-1 et Latin étendu A suffisent
+        private final int[] alphabet = new int[ALPHABET_SIZE];
+        private final int[][] transitions;
+        // Par état : couples (champ, longueur du libellé) reconnus en ce point
+        private final int[][] outputs;
+
+        private LabelAutomaton(List<FieldDefinition> fields) {
+            Arrays.fill(alphabet, -1);
+            int symbols = 0;
+            List<Map<Integer, Integer>> gotoFunction = new ArrayList<>();
+            List<List<int[]>> nodeOutputs = new ArrayList<>();
+            gotoFunction.add(new HashMap<>());
+            nodeOutputs.add(new ArrayList<>());
+
+            for (int f = 0; f < fields.size(); f++) {
+                for (String label : fields.get(f).labels) {
+                    int state = 0;
+                    for (int i = 0; i < label.length(); i++) {
+                        char c = label.charAt(i);
+                        if (alphabet[c] < 0) {
+                            alphabet[c] = symbols++;
+                        }
+                        int symbol = alphabet[c];
+                        Integer next = gotoFunction.get(state).get(symbol);
+                        if (next == null) {
+                            next = gotoFunction.size();
+                            gotoFunction.add(new HashMap<>());
+                            nodeOutputs.add(new ArrayList<>());
+                            gotoFunction.get(state).put(symbol, next);
+                        }
+                        state = next;
+                    }
+                    nodeOutputs.get(state).add(new int[] {f, label.length()});
+                }
+            }
+
+            int states = gotoFunction.size();
+            transitions = new int[states][symbols];
+            int[] failure = new int[states];
+
+            // Parcours en largeur : liens d'échec et transitions complètes
+            Queue<Integer> queue = new ArrayDeque<>();
+            for (int s = 0; s < symbols; s++) {
+                Integer next = gotoFunction.get(0).get(s);
+                if (next != null) {
+                    transitions[0][s] = next;
+                    queue.add(next);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                nodeOutputs.get(state).addAll(nodeOutputs.get(failure[state]));
+                for (int s = 0; s < symbols; s++) {
+                    Integer next = gotoFunction.get(state).get(s);
+                    if (next != null) {
+                        failure[next] = transitions[failure[state]][s];
+                        transitions[state][s] = next;
+                        queue.add(next);
+                    } else {
+                        transitions[state][s] = transitions[failure[state]][s];
+                    }
+                }
+            }
+
+            outputs = new int[states][];
+            for (int s = 0; s < states; s++) {
+                outputs[s] = nodeOutputs.get(s).stream().flatMapToInt(Arrays::stream).toArray();
+            }
+        }
+
+        /**
+         * Occurrences [début, fin[ des libellés, regroupées par champ
+         */
+        private List<List<int[]>> scan(CharSequence text, int fieldCount) {
+            List<List<int[]>> hits = new ArrayList<>(fieldCount);
+            for (int f = 0; f < fieldCount; f++) {
+                hits.add(new ArrayList<>(2));
+            }
+
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = Character.toUpperCase(text.charAt(i));
+                int symbol = c < ALPHABET_SIZE ? alphabet[c] : -1;
+                state = symbol < 0 ? 0 : transitions[state][symbol];
+                int[] out = outputs[state];
+                for (int o = 0; o < out.length; o += 2) {
+                    int start = i + 1 - out[o + 1];
+                    boolean wordStart = start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1));
+                    boolean wordEnd = i + 1 == text.length() || !Character.isLetterOrDigit(text.charAt(i + 1));
+                    if (wordStart && wordEnd) {
+                        hits.get(out[o]).add(new int[] {start, i + 1});
+                    }
+                }
+            }
+            return hits;
+        }
+    }
+}
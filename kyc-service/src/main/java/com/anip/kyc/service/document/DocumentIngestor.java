@@ -0,0 +1,138 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.config.security.EncryptionService;
+import com.anip.kyc.exception.DocumentValidationException;
+import com.anip.kyc.exception.UnsupportedDocumentTypeException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+
+/**
+ * Réception d'un upload en une seule lecture du flux, avec un tampon fixe :
+ * - type réel déterminé par signature (magic bytes) sur le premier bloc
+ * - taille maximale vérifiée au fil de la lecture
+ * - hash SHA-256 du contenu d'origine
+ * - chiffrement par blocs vers un fichier temporaire du répertoire de stockage
+ * Le fichier temporaire est supprimé en cas d'échec ; sinon il appartient à l'appelant.
+ */
+@Component
+public class DocumentIngestor {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final String TEMP_PREFIX = "upload-";
+    private static final String TEMP_SUFFIX = ".part";
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    /**
+     * Lecture, contrôle, hash et chiffrement de in vers un fichier temporaire de directory
+     */
+    public IngestedFile ingest(InputStream in, Path directory, Collection<String> allowedMimeTypes, long maxSize)
+            throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[BUFFER_SIZE];
+
+        // Premier bloc : identification du type avant d'écrire quoi que ce soit
+        int head = in.readNBytes(buffer, 0, buffer.length);
+        if (head == 0) {
+            throw new DocumentValidationException("Fichier vide");
+        }
+        String mimeType = sniffMimeType(buffer, head);
+        if (mimeType == null || !allowedMimeTypes.contains(mimeType)) {
+            throw new UnsupportedDocumentTypeException("Type de fichier non supporté: "
+                + (mimeType == null ? "inconnu" : mimeType));
+        }
+
+        Path tempFile = Files.createTempFile(directory, TEMP_PREFIX, TEMP_SUFFIX);
+        long size = 0;
+        try (OutputStream out = encryptionService.encryptingStream(Files.newOutputStream(tempFile))) {
+            int read = head;
+            while (read > 0) {
+                size += read;
+                if (size > maxSize) {
+                    throw new DocumentValidationException("Fichier trop volumineux (max " + (maxSize / (1024 * 1024)) + "MB)");
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+                read = in.read(buffer);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+
+        return new IngestedFile(tempFile, HexFormat.of().formatHex(digest.digest()), size, mimeType);
+    }
+
+    /**
+     * Type MIME d'après la signature du fichier (JPEG, PNG, TIFF, PDF), ou null si inconnu
+     */
+    static String sniffMimeType(byte[] head, int length) {
+        if (startsWith(head, length, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(head, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(head, length, 'I', 'I', 0x2A, 0x00) || startsWith(head, length, 'M', 'M', 0x00, 0x2A)) {
+            return "image/tiff";
+        }
+        if (startsWith(head, length, '%', 'P', 'D', 'F', '-')) {
+            return "application/pdf";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] head, int length, int... signature) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((head[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Algorithme SHA-256 non disponible", e);
+        }
+    }
+
+    /**
+     * Upload reçu : fichier temporaire chiffré, hash et taille du contenu d'origine, type détecté
+     */
+    public static class IngestedFile {
+        private final Path tempFile;
+        private final String sha256;
+        private final long size;
+        private final String mimeType;
+
+        public IngestedFile(Path tempFile, String sha256, long size, String mimeType) {
+            this.tempFile = tempFile;
+            this.sha256 = sha256;
+            this.size = size;
+            this.mimeType = mimeType;
+        }
+
+        public Path getTempFile() { return tempFile; }
+        public String getSha256() { return sha256; }
+        public long getSize() { return size; }
+        public String getMimeType() { return mimeType; }
+    }
+}
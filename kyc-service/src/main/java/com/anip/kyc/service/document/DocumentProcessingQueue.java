@@ -0,0 +1,394 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.exception.DocumentNotProcessableException;
+import com.anip.kyc.exception.DocumentValidationException;
+import com.anip.kyc.exception.InvalidImageException;
+import com.anip.kyc.exception.UnsupportedDocumentTypeException;
+import com.anip.kyc.models.Document;
+import com.anip.kyc.repository.DocumentRepository;
+import com.anip.kyc.service.DocumentService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.nio.file.NoSuchFileException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
+
+/**
+ * File persistante de traitement OCR, portée par Document.ProcessingStatus.
+ * PENDING : en attente (next_attempt_at = prochaine échéance)
+ * PROCESSING : réclamé par un worker jusqu'à lease_expires_at ; un bail expiré est repris.
+ *   Le worker prolonge le bail de ses documents en cours toutes les app.ocr.queue.heartbeat.interval.ms.
+ * COMPLETED / FAILED : traité (données valides ou non)
+ * DEAD_LETTER : abandonné après app.ocr.queue.max.attempts tentatives, ou dès la première erreur
+ *   définitive (fichier illisible ou absent, type non supporté, PDF protégé)
+ *
+ * Chaque réplica interroge la table (SELECT ... FOR UPDATE SKIP LOCKED) et ne réclame
+ * que ce que son pool document peut traiter : la file ne vit plus en mémoire.
+ */
+@Component
+public class DocumentProcessingQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentProcessingQueue.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final List<Document.ProcessingStatus> PAIRABLE_STATUSES = List.of(
+        Document.ProcessingStatus.PENDING, Document.ProcessingStatus.PROCESSING,
+        Document.ProcessingStatus.COMPLETED, Document.ProcessingStatus.FAILED);
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    @Qualifier("documentProcessingExecutor")
+    private ThreadPoolTaskExecutor documentProcessingExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private com.fasterxml.jackson.databind.ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.ocr.queue.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.ocr.queue.lease.seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${app.ocr.queue.max.attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.ocr.queue.backoff.initial.ms:5000}")
+    private long initialBackoffMs;
+
+    @Value("${app.ocr.queue.backoff.max.ms:600000}")
+    private long maxBackoffMs;
+
+    // Lecture commune du recto et du verso d'un même document
+    @Value("${app.document.pairing.enabled:true}")
+    private boolean pairingEnabled;
+
+    private final String workerId = createWorkerId();
+
+    // Documents réclamés par ce worker et non encore traités, dont le bail est prolongé
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    private TransactionTemplate transactionTemplate;
+
+    private Counter completedCounter;
+    private Counter retriedCounter;
+    private Counter deadLetteredCounter;
+    private Counter pairedCounter;
+
+    @jakarta.annotation.PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        completedCounter = outcomeCounter("completed");
+        retriedCounter = outcomeCounter("retried");
+        deadLetteredCounter = outcomeCounter("dead_lettered");
+        pairedCounter = Counter.builder("kyc.ocr.queue.paired")
+            .description("Faces recto / verso réclamées avec leur autre face")
+            .register(meterRegistry);
+        Gauge.builder("kyc.ocr.queue.depth", documentRepository,
+                r -> r.countByProcessingStatus(Document.ProcessingStatus.PENDING))
+            .description("Documents en attente de traitement OCR")
+            .register(meterRegistry);
+
+        logger.info("File OCR - Worker: {}, bail: {}s, tentatives max: {}", workerId, leaseSeconds, maxAttempts);
+    }
+
+    /**
+     * Réclamation périodique d'autant de documents que de threads OCR libres
+     */
+    @Scheduled(fixedDelayString = "${app.ocr.queue.poll.interval.ms:1000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        int capacity = documentProcessingExecutor.getMaxPoolSize() - documentProcessingExecutor.getActiveCount()
+            - documentProcessingExecutor.getThreadPoolExecutor().getQueue().size();
+        if (capacity <= 0) {
+            return;
+        }
+
+        Map<UUID, UUID> claimed;
+        try {
+            claimed = claim(capacity);
+        } catch (Exception e) {
+            logger.error("Erreur lors de la réclamation de documents à traiter", e);
+            return;
+        }
+
+        for (Map.Entry<UUID, UUID> unit : claimed.entrySet()) {
+            UUID documentId = unit.getKey();
+            UUID partnerId = unit.getValue();
+            track(documentId, partnerId, true);
+            try {
+                documentProcessingExecutor.execute(() -> process(documentId, partnerId));
+            } catch (TaskRejectedException e) {
+                // Le bail expirera et le document sera repris
+                track(documentId, partnerId, false);
+                logger.warn("Pool OCR saturé, document laissé en file - Document: {}", documentId);
+            }
+        }
+    }
+
+    /**
+     * Prolongation du bail des documents en cours de traitement par ce worker : un OCR plus long
+     * que le bail n'est pas repris par un autre réplica tant que ce worker est vivant
+     */
+    @Scheduled(fixedDelayString = "${app.ocr.queue.heartbeat.interval.ms:60000}")
+    public void renewLeases() {
+        if (!enabled || inFlight.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = new ArrayList<>(inFlight);
+        try {
+            Integer renewed = transactionTemplate.execute(status -> documentRepository.renewLeases(
+                ids, workerId, Document.ProcessingStatus.PROCESSING, LocalDateTime.now().plusSeconds(leaseSeconds)));
+            if (renewed != null && renewed < ids.size()) {
+                logger.warn("Bail perdu pour {} document(s) en cours - Worker: {}", ids.size() - renewed, workerId);
+            }
+        } catch (Exception e) {
+            logger.error("Erreur lors de la prolongation des baux OCR", e);
+        }
+    }
+
+    private void track(UUID documentId, UUID partnerId, boolean active) {
+        for (UUID id : new UUID[]{documentId, partnerId}) {
+            if (id == null) {
+                continue;
+            }
+            if (active) {
+                inFlight.add(id);
+            } else {
+                inFlight.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Réclamation de documents à traiter : document réclamé -> autre face réclamée avec lui (ou null)
+     */
+    private Map<UUID, UUID> claim(int limit) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<UUID> ids = documentRepository.lockClaimableDocuments(now, limit);
+            Map<UUID, UUID> claimed = new LinkedHashMap<>();
+            Set<UUID> partners = new HashSet<>();
+            for (Document document : documentRepository.findAllById(ids)) {
+                if (partners.contains(document.getDocumentId())) {
+                    // Déjà réclamé avec son autre face
+                    continue;
+                }
+                if (document.getProcessingAttempts() >= maxAttempts) {
+                    // Worker disparu à chaque tentative (crash, OOM) : inutile de réessayer
+                    deadLetter(document, "Bail expiré après " + document.getProcessingAttempts() + " tentatives");
+                    continue;
+                }
+                document.claim(workerId, now.plusSeconds(leaseSeconds));
+                Document partner = claimCounterpart(document, now);
+                claimed.put(document.getDocumentId(), partner != null ? partner.getDocumentId() : null);
+                if (partner != null) {
+                    partners.add(partner.getDocumentId());
+                }
+            }
+            return claimed;
+        });
+    }
+
+    /**
+     * Liaison d'une face recto / verso à l'autre face la plus récente de la session.
+     * Si celle-ci est elle aussi en attente, elle est réclamée avec la première : les deux faces
+     * sont lues ensemble par le même worker et la session ne change de statut qu'une fois.
+     */
+    private Document claimCounterpart(Document document, LocalDateTime now) {
+        Document.DocumentType counterpartType = DocumentSideMerger.counterpart(document.getDocumentType());
+        if (!pairingEnabled || counterpartType == null) {
+            return null;
+        }
+        Document counterpart = documentRepository
+            .findFirstBySessionIdAndDocumentTypeAndProcessingStatusInOrderByCreatedAtDesc(
+                document.getSessionId(), counterpartType, PAIRABLE_STATUSES)
+            .orElse(null);
+        if (counterpart == null) {
+            return null;
+        }
+        document.setPairedDocumentId(counterpart.getDocumentId());
+
+        // Autre face déjà traitée ou verrouillée par un autre worker : fusion à la fin du traitement.
+        // Sa ligne n'est pas modifiée ici (un autre worker peut l'enregistrer) : lien retrouvé par completeUnit
+        if (counterpart.getProcessingAttempts() >= maxAttempts
+                || documentRepository.lockClaimableDocument(counterpart.getDocumentId(), now).isEmpty()) {
+            return null;
+        }
+        counterpart.setPairedDocumentId(document.getDocumentId());
+        counterpart.claim(workerId, now.plusSeconds(leaseSeconds));
+        pairedCounter.increment();
+        logger.debug("Recto et verso réclamés ensemble - Documents: {}, {}",
+            document.getDocumentId(), counterpart.getDocumentId());
+        return counterpart;
+    }
+
+    private void process(UUID documentId, UUID partnerId) {
+        try {
+            documentService.processQueuedDocument(documentId, workerId);
+            completedCounter.increment();
+        } catch (Exception e) {
+            logger.error("Erreur lors du traitement OCR - Document: {}", documentId, e);
+            try {
+                transactionTemplate.executeWithoutResult(status -> handleFailure(documentId, e));
+            } catch (Exception inner) {
+                logger.error("Impossible d'enregistrer l'échec OCR - Document: {}", documentId, inner);
+            }
+        } finally {
+            track(documentId, partnerId, false);
+        }
+    }
+
+    private void handleFailure(UUID documentId, Exception error) {
+        Document document = documentRepository.findById(documentId).orElse(null);
+        if (document == null || !document.isLeasedBy(workerId)) {
+            return;
+        }
+
+        String message = "Erreur de traitement OCR: " + error.getMessage();
+        boolean permanent = isPermanent(error);
+        scheduleRetry(document, message, permanent);
+
+        // Les deux faces réclamées ensemble échouent ensemble ; une erreur définitive ne vise que la face en cause
+        if (document.getPairedDocumentId() != null) {
+            documentRepository.findById(document.getPairedDocumentId())
+                .filter(partner -> partner.isLeasedBy(workerId))
+                .ifPresent(partner -> scheduleRetry(partner, message, false));
+        }
+    }
+
+    /**
+     * Erreur qu'un nouvel essai ne corrigera pas : contenu du fichier ou type en cause
+     */
+    static boolean isPermanent(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DocumentValidationException
+                    || cause instanceof UnsupportedDocumentTypeException
+                    || cause instanceof InvalidImageException
+                    || cause instanceof DocumentNotProcessableException
+                    || cause instanceof NoSuchFileException
+                    || cause instanceof InvalidPasswordException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void scheduleRetry(Document document, String message, boolean permanent) {
+        UUID documentId = document.getDocumentId();
+        if (permanent || document.getProcessingAttempts() >= maxAttempts) {
+            deadLetter(document, message);
+            return;
+        }
+
+        long backoffMs = backoffMillis(document.getProcessingAttempts());
+        document.setProcessingStatus(Document.ProcessingStatus.PENDING);
+        document.releaseLease();
+        document.setNextAttemptAt(LocalDateTime.now().plusNanos(backoffMs * 1_000_000));
+        document.setLastError(truncate(message));
+        document.setUpdatedAt(LocalDateTime.now());
+        retriedCounter.increment();
+
+        logger.info("Nouvel essai OCR planifié - Document: {}, Tentative: {}/{}, Dans: {} ms",
+            documentId, document.getProcessingAttempts(), maxAttempts, backoffMs);
+    }
+
+    private void deadLetter(Document document, String reason) {
+        document.setProcessingStatus(Document.ProcessingStatus.DEAD_LETTER);
+        document.releaseLease();
+        document.setLastError(truncate(reason));
+        // Les données des étapes précédentes (analyse de falsification...) sont conservées
+        Map<String, Object> meta = new HashMap<>();
+        try {
+            if (document.getMetadata() != null) {
+                meta.putAll(objectMapper.readValue(document.getMetadata(),
+                    new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() { }));
+            }
+        } catch (com.fasterxml.jackson.core.JsonProcessingException jpe) {
+            logger.warn("Metadata illisible - Document: {}", document.getDocumentId(), jpe);
+        }
+        meta.put("error", reason);
+        meta.put("attempts", document.getProcessingAttempts());
+        try {
+            document.setMetadata(objectMapper.writeValueAsString(meta));
+        } catch (com.fasterxml.jackson.core.JsonProcessingException jpe) {
+            logger.warn("Erreur sérialisation metadata erreur OCR", jpe);
+        }
+        document.setProcessedAt(LocalDateTime.now());
+        document.setUpdatedAt(LocalDateTime.now());
+        deadLetteredCounter.increment();
+
+        logger.error("Document placé en lettre morte - Document: {}, Raison: {}", document.getDocumentId(), reason);
+
+        // L'autre face, déjà traitée, attendait celle-ci pour conclure la session
+        documentService.concludeAbandonedPair(document);
+    }
+
+    /**
+     * Attente exponentielle bornée : initial, 2x, 4x... jusqu'à app.ocr.queue.backoff.max.ms
+     */
+    private long backoffMillis(int attempts) {
+        int exponent = Math.min(Math.max(0, attempts - 1), 20);
+        return Math.min(maxBackoffMs, initialBackoffMs * (1L << exponent));
+    }
+
+    private Counter outcomeCounter(String outcome) {
+        return Counter.builder("kyc.ocr.queue.jobs")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    private static String createWorkerId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "kyc-service";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
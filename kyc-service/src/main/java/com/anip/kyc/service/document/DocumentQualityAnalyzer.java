@@ -0,0 +1,277 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.models.Document;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfDouble;
+import org.opencv.core.MatOfFloat;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Contrôle rapide de la qualité d'une photo de document à l'upload, avant toute mise en file OCR.
+ * Les mesures portent sur la zone du document (contour détecté, sinon l'image entière), réduite en niveaux
+ * de gris à une largeur fixe :
+ * - netteté : variance du Laplacien
+ * - reflets : proportion de pixels saturés nettement plus clairs que le fond du document (médiane)
+ * - résolution effective : DPI du document d'après ses dimensions physiques
+ * - cadrage : surface du document rapportée à l'image
+ * Un fichier encodé est décodé à taille réduite (IMREAD_REDUCED_*, mise à l'échelle DCT pour le JPEG) :
+ * la mesure se fait de toute façon sur une vignette, et la résolution effective est corrigée du facteur.
+ */
+@Component
+public class DocumentQualityAnalyzer {
+
+    // Codes de rejet exploitables par le client mobile
+    public static final String BLURRY = "BLURRY";
+    public static final String GLARE = "GLARE";
+    public static final String LOW_RESOLUTION = "LOW_RESOLUTION";
+    public static final String DOCUMENT_TOO_SMALL = "DOCUMENT_TOO_SMALL";
+
+    private static final double MM_PER_INCH = 25.4;
+    private static final double ANALYSIS_WIDTH = 800.0;
+    private static final int GLARE_LEVEL = 250;
+    // Un reflet est nettement plus clair que le papier : un scan sur fond blanc n'en comporte pas
+    private static final int GLARE_MARGIN = 20;
+    // Surface minimale d'un contour retenu : en deçà, le document n'est plus distinguable du décor
+    private static final double DETECTION_MIN_AREA = 0.03;
+    // Grand côté minimal de l'image réduite : la zone du document reste plus large que ANALYSIS_WIDTH
+    static final int DECODE_MIN_SIDE = 1600;
+    private static final int[] DECODE_REDUCTIONS = {8, 4, 2};
+    private static final int[] DECODE_FLAGS = {
+        Imgcodecs.IMREAD_REDUCED_COLOR_8, Imgcodecs.IMREAD_REDUCED_COLOR_4, Imgcodecs.IMREAD_REDUCED_COLOR_2};
+
+    @Autowired
+    private DocumentBoundaryDetector documentBoundaryDetector;
+
+    @Value("${app.document.quality.min.sharpness:100}")
+    private double minSharpness;
+
+    @Value("${app.document.quality.max.glare.ratio:0.03}")
+    private double maxGlareRatio;
+
+    @Value("${app.document.quality.min.dpi:150}")
+    private double minDpi;
+
+    @Value("${app.document.quality.min.fill.ratio:0.15}")
+    private double minFillRatio;
+
+    /**
+     * Analyse d'une image encodée (JPEG, PNG, TIFF), décodée à taille réduite.
+     * Retourne null si le contenu n'est pas une image décodable.
+     */
+    public Assessment analyze(byte[] content, Document.DocumentType documentType) {
+        int reduction = reductionFactor(content);
+        int flag = Imgcodecs.IMREAD_COLOR;
+        for (int i = 0; i < DECODE_REDUCTIONS.length; i++) {
+            if (DECODE_REDUCTIONS[i] == reduction) {
+                flag = DECODE_FLAGS[i];
+            }
+        }
+        MatOfByte encoded = new MatOfByte(content);
+        Mat image = Imgcodecs.imdecode(encoded, flag);
+        encoded.release();
+        try {
+            return image.empty() ? null : analyze(image, documentType, reduction);
+        } finally {
+            image.release();
+        }
+    }
+
+    /**
+     * Analyse d'une image décodée (BGR ou niveaux de gris) pour le type de document déclaré
+     */
+    public Assessment analyze(Mat image, Document.DocumentType documentType) {
+        return analyze(image, documentType, 1);
+    }
+
+    /**
+     * Facteur de réduction au décodage (1, 2, 4 ou 8) d'après les dimensions lues dans l'en-tête,
+     * 1 si l'en-tête n'est pas lisible
+     */
+    static int reductionFactor(byte[] content) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return 1;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return reductionFactor(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            return 1;
+        }
+    }
+
+    static int reductionFactor(int width, int height) {
+        int longSide = Math.max(width, height);
+        for (int reduction : DECODE_REDUCTIONS) {
+            if (longSide / reduction >= DECODE_MIN_SIDE) {
+                return reduction;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Analyse d'une image décodée avec un facteur de réduction : les pixels de l'original valent reduction pixels
+     */
+    private Assessment analyze(Mat image, Document.DocumentType documentType, int reduction) {
+        long startTime = System.nanoTime();
+        Assessment assessment = new Assessment();
+
+        double[] sizeMm = DocumentBoundaryDetector.physicalSize(documentType);
+        Optional<Point[]> corners = documentBoundaryDetector.detect(image, sizeMm[0] / sizeMm[1], DETECTION_MIN_AREA);
+        double imageArea = (double) image.width() * image.height();
+        Rect region;
+        double fillRatio;
+        double dpi;
+        if (corners.isPresent()) {
+            Point[] quad = corners.get();
+            MatOfPoint contour = new MatOfPoint(quad);
+            fillRatio = Imgproc.contourArea(contour) / imageArea;
+            region = clip(Imgproc.boundingRect(contour), image);
+            contour.release();
+            double longSidePx = Math.max(Math.max(distance(quad[0], quad[1]), distance(quad[3], quad[2])),
+                Math.max(distance(quad[0], quad[3]), distance(quad[1], quad[2])));
+            dpi = longSidePx * reduction / (sizeMm[0] / MM_PER_INCH);
+        } else {
+            // Aucun contour : document cadré au plus près (scan) ou introuvable, l'image entière est mesurée
+            fillRatio = 1.0;
+            region = new Rect(0, 0, image.width(), image.height());
+            dpi = PreprocessingPlanner.estimateDpi(image, documentType) * reduction;
+        }
+        assessment.documentDetected = corners.isPresent();
+
+        // Zone du document réduite en niveaux de gris
+        Mat roi = new Mat(image, region);
+        Mat gray = new Mat();
+        double scale = Math.min(1.0, ANALYSIS_WIDTH / region.width);
+        Imgproc.resize(roi, gray, new Size(), scale, scale, Imgproc.INTER_AREA);
+        roi.release();
+        if (gray.channels() > 1) {
+            Imgproc.cvtColor(gray, gray, Imgproc.COLOR_BGR2GRAY);
+        }
+
+        double sharpness = laplacianVariance(gray);
+        double glareRatio = glareRatio(gray);
+        gray.release();
+
+        if (sharpness < minSharpness) {
+            assessment.issues.add(BLURRY);
+        }
+        if (glareRatio > maxGlareRatio) {
+            assessment.issues.add(GLARE);
+        }
+        if (dpi < minDpi) {
+            assessment.issues.add(LOW_RESOLUTION);
+        }
+        if (fillRatio < minFillRatio) {
+            assessment.issues.add(DOCUMENT_TOO_SMALL);
+        }
+
+        Map<String, Double> metrics = assessment.metrics;
+        metrics.put("sharpness", sharpness);
+        metrics.put("glareRatio", glareRatio);
+        metrics.put("effectiveDpi", dpi);
+        metrics.put("fillRatio", fillRatio);
+
+        assessment.elapsedNanos = System.nanoTime() - startTime;
+        return assessment;
+    }
+
+    private static double laplacianVariance(Mat gray) {
+        Mat laplacian = new Mat();
+        Imgproc.Laplacian(gray, laplacian, CvType.CV_64F);
+        MatOfDouble mean = new MatOfDouble();
+        MatOfDouble stddev = new MatOfDouble();
+        Core.meanStdDev(laplacian, mean, stddev);
+        double sd = stddev.toArray()[0];
+        laplacian.release();
+        mean.release();
+        stddev.release();
+        return sd * sd;
+    }
+
+    /**
+     * Proportion de pixels quasi saturés et plus clairs que la médiane du document d'au moins GLARE_MARGIN
+     */
+    static double glareRatio(Mat gray) {
+        Mat hist = new Mat();
+        Imgproc.calcHist(List.of(gray), new MatOfInt(0), new Mat(), hist, new MatOfInt(256), new MatOfFloat(0, 256));
+        float[] bins = new float[256];
+        hist.get(0, 0, bins);
+        hist.release();
+
+        double total = gray.total();
+        double cumulative = 0;
+        int median = 255;
+        for (int i = 0; i < bins.length; i++) {
+            cumulative += bins[i];
+            if (cumulative >= total / 2) {
+                median = i;
+                break;
+            }
+        }
+        double glare = 0;
+        for (int i = Math.max(GLARE_LEVEL, median + GLARE_MARGIN); i < bins.length; i++) {
+            glare += bins[i];
+        }
+        return glare / total;
+    }
+
+    private static Rect clip(Rect box, Mat image) {
+        int x = Math.max(0, box.x);
+        int y = Math.max(0, box.y);
+        return new Rect(x, y, Math.min(image.width(), box.x + box.width) - x, Math.min(image.height(), box.y + box.height) - y);
+    }
+
+    private static double distance(Point a, Point b) {
+        return Math.hypot(a.x - b.x, a.y - b.y);
+    }
+
+    /**
+     * Verdict de qualité d'une photo de document
+     */
+    public static class Assessment {
+        private boolean documentDetected;
+        private final List<String> issues = new ArrayList<>();
+        private final Map<String, Double> metrics = new LinkedHashMap<>();
+        private long elapsedNanos;
+
+        public boolean isAcceptable() { return issues.isEmpty(); }
+        public boolean isDocumentDetected() { return documentDetected; }
+        public List<String> getIssues() { return issues; }
+        public Map<String, Double> getMetrics() { return metrics; }
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+    }
+}
@@ -0,0 +1,130 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.dto.ExtractedDocumentData;
+import com.anip.kyc.models.Document;
+
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recto et verso d'un même document physique (carte d'identité, permis de conduire) :
+ * fusion des champs lus sur chaque face et contrôle de cohérence entre les deux.
+ *
+ * Le recto fait foi, sauf pour les champs lus par machine au verso (MRZ, code-barres) :
+ * leurs chiffres de contrôle les rendent plus fiables que l'OCR des libellés.
+ */
+@Component
+public class DocumentSideMerger {
+
+    // Champs portés par les deux faces, comparés après normalisation
+    private static final Map<String, String> SHARED_FIELDS = new LinkedHashMap<>();
+
+    static {
+        SHARED_FIELDS.put("idNumber", "Numéro de carte d'identité");
+        SHARED_FIELDS.put("licenseNumber", "Numéro de permis");
+        SHARED_FIELDS.put("surname", "Nom de famille");
+        SHARED_FIELDS.put("givenNames", "Prénoms");
+        SHARED_FIELDS.put("dateOfBirth", "Date de naissance");
+        SHARED_FIELDS.put("expiryDate", "Date d'expiration");
+    }
+
+    // Prénoms tronqués par la MRZ : un préfixe suffit
+    private static final List<String> TRUNCATED_FIELDS = List.of("surname", "givenNames");
+
+    /**
+     * Autre face d'un type recto / verso, null pour un document à une seule face
+     */
+    public static Document.DocumentType counterpart(Document.DocumentType type) {
+        if (type == null) {
+            return null;
+        }
+        switch (type) {
+            case ID_CARD_FRONT:
+                return Document.DocumentType.ID_CARD_BACK;
+            case ID_CARD_BACK:
+                return Document.DocumentType.ID_CARD_FRONT;
+            case DRIVING_LICENSE_FRONT:
+                return Document.DocumentType.DRIVING_LICENSE_BACK;
+            case DRIVING_LICENSE_BACK:
+                return Document.DocumentType.DRIVING_LICENSE_FRONT;
+            default:
+                return null;
+        }
+    }
+
+    public static boolean isFront(Document.DocumentType type) {
+        return type == Document.DocumentType.ID_CARD_FRONT || type == Document.DocumentType.DRIVING_LICENSE_FRONT;
+    }
+
+    /**
+     * Données du document entier ; la confiance est la moyenne de celles des deux faces
+     */
+    public ExtractedDocumentData merge(ExtractedDocumentData front, ExtractedDocumentData back) {
+        ExtractedDocumentData merged = new ExtractedDocumentData();
+        merged.setDocumentType(front.getDocumentType());
+        merged.getExtractedFields().putAll(front.getExtractedFields());
+
+        boolean machineReadable = isMachineReadable(back);
+        for (Map.Entry<String, String> field : back.getExtractedFields().entrySet()) {
+            if (field.getValue() == null) {
+                continue;
+            }
+            if (!merged.getExtractedFields().containsKey(field.getKey())
+                    || (machineReadable && SHARED_FIELDS.containsKey(field.getKey()))) {
+                merged.put(field.getKey(), field.getValue());
+            }
+        }
+
+        merged.setRawText(joinRawText(front.getRawText(), back.getRawText()));
+        merged.setConfidenceScore((front.getConfidenceScore() + back.getConfidenceScore()) / 2);
+        return merged;
+    }
+
+    /**
+     * Champs lus sur les deux faces dont les valeurs divergent
+     */
+    public List<String> inconsistencies(ExtractedDocumentData front, ExtractedDocumentData back) {
+        List<String> errors = new ArrayList<>();
+        for (Map.Entry<String, String> field : SHARED_FIELDS.entrySet()) {
+            String frontValue = normalize(front.getExtractedFields().get(field.getKey()));
+            String backValue = normalize(back.getExtractedFields().get(field.getKey()));
+            if (frontValue.isEmpty() || backValue.isEmpty() || frontValue.equals(backValue)) {
+                continue;
+            }
+            if (TRUNCATED_FIELDS.contains(field.getKey())
+                    && (frontValue.startsWith(backValue) || backValue.startsWith(frontValue))) {
+                continue;
+            }
+            errors.add("Incohérence recto/verso: " + field.getValue());
+        }
+        return errors;
+    }
+
+    private static boolean isMachineReadable(ExtractedDocumentData data) {
+        Map<String, String> fields = data.getExtractedFields();
+        return fields.containsKey("mrzFormat") || fields.containsKey("barcodeFormat");
+    }
+
+    /**
+     * Majuscules sans accents ni séparateurs (espaces, tirets, remplissage MRZ '<')
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value.toUpperCase(), Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "").replaceAll("[^A-Z0-9]", "");
+    }
+
+    private static String joinRawText(String front, String back) {
+        if (front == null) {
+            return back;
+        }
+        return back == null ? front : front + "\n" + back;
+    }
+}
@@ -0,0 +1,513 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.config.CpuBudgetManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.Rect;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Détection de retouches sur l'image pleine résolution d'un document, par tuiles chevauchantes
+ * analysées en parallèle (ForkJoinPool dédié, chaque tuile dans un créneau document du budget CPU) :
+ * - ELA (error level analysis) : résidu moyen d'une recompression JPEG de la tuile ; une zone collée
+ *   n'a pas le même historique de compression que le reste et s'écarte de la médiane des tuiles
+ * - copier-déplacer : coefficients DCT basse fréquence quantifiés des blocs texturés ; des blocs
+ *   identiques décalés d'un même vecteur signalent une zone dupliquée dans l'image
+ *
+ * Les tuiles sont alignées sur la grille 8x8 du JPEG d'origine. Chaque tuile ne produit que les blocs dont
+ * le coin supérieur gauche est dans sa partie propre : le chevauchement sert aux blocs à cheval sur deux tuiles.
+ * Les tuiles non démarrées à l'échéance du budget sont ignorées et l'analyse est marquée incomplète.
+ *
+ * Carte de chaleur et score entre 0 et 1 ; 0.5 correspond au seuil de suspicion de chaque méthode.
+ */
+@Component
+public class DocumentTamperAnalyzer {
+
+    public static final int TILE_SIZE = 256;
+    public static final int TILE_STRIDE = 192;
+    private static final int TILE_OVERLAP = TILE_SIZE - TILE_STRIDE;
+    static final int BLOCK_SIZE = 16;
+    private static final int BLOCK_STEP = 8;
+    // Blocs quasi uniformes (fond, aplats) : identiques partout, exclus de la recherche de duplication
+    private static final double FLAT_BLOCK_STDDEV = 4.0;
+    // Un motif répété (guilloches, texte) ne doit pas dominer : groupes de blocs identiques bornés
+    private static final int MAX_MATCH_GROUP = 8;
+    // Coefficients DCT retenus (u, v) et pas de quantification
+    private static final int[][] DCT_COEFFICIENTS = {{0, 0}, {0, 1}, {1, 0}, {1, 1}, {0, 2}, {2, 0}, {1, 2}, {2, 1}};
+    private static final double DC_QUANTIZATION = 32.0;
+    private static final double AC_QUANTIZATION = 16.0;
+    // Écart absolu médian minimal : des tuiles toutes identiques ne rendent pas le moindre écart significatif
+    private static final double MIN_RESIDUAL_SPREAD = 0.5;
+    private static final double MAD_TO_SIGMA = 1.4826;
+
+    private static final double[][] DCT_BASIS = dctBasis();
+
+    private static final int DQT_MARKER = 0xDB;
+    private static final int SOS_MARKER = 0xDA;
+    // Table de luminance de référence (norme JPEG, annexe K), base de l'échelle de qualité IJG
+    private static final int STANDARD_LUMINANCE_SUM = Arrays.stream(new int[]{
+        16, 11, 10, 16, 24, 40, 51, 61, 12, 12, 14, 19, 26, 58, 60, 55,
+        14, 13, 16, 24, 40, 57, 69, 56, 14, 17, 22, 29, 51, 87, 80, 62,
+        18, 22, 37, 56, 68, 109, 103, 77, 24, 35, 55, 64, 81, 104, 113, 92,
+        49, 64, 78, 87, 103, 121, 120, 101, 72, 92, 95, 98, 112, 100, 103, 99}).sum();
+
+    @Autowired
+    @Qualifier("tamperAnalysisPool")
+    private ForkJoinPool tamperAnalysisPool;
+
+    @Autowired
+    private CpuBudgetManager cpuBudget;
+
+    // Écart du résidu ELA à la médiane des tuiles, en écarts-types robustes, au seuil de suspicion
+    @Value("${app.document.tamper.ela.threshold:6}")
+    private double elaThreshold;
+
+    // Blocs décalés d'un même vecteur au seuil de suspicion, et décalage minimal en pixels
+    @Value("${app.document.tamper.copy.move.min.matches:24}")
+    private int copyMoveMinMatches;
+
+    // Surface dupliquée minimale rapportée à l'image : à haute résolution, un mot répété
+    // (même police, même taille) produit à lui seul des dizaines de blocs identiques
+    @Value("${app.document.tamper.copy.move.min.area.ratio:0.002}")
+    private double copyMoveMinAreaRatio;
+
+    @Value("${app.document.tamper.copy.move.min.shift:48}")
+    private int copyMoveMinShift;
+
+    /**
+     * Analyse d'une image décodée (BGR ou niveaux de gris) dans la limite de budgetMillis.
+     * jpegQuality : qualité estimée du fichier d'origine (estimateJpegQuality) ; à cette qualité, les zones qui ont
+     * l'historique de compression du document ne changent presque pas. 0 pour un fichier non JPEG : sans
+     * historique de compression, l'ELA ne mesure que la texture et seule la recherche de duplication est faite.
+     */
+    public Analysis analyze(Mat image, int jpegQuality, long budgetMillis) {
+        long start = System.nanoTime();
+        int quality = jpegQuality;
+        Mat gray = new Mat();
+        if (image.channels() > 1) {
+            Imgproc.cvtColor(image, gray, Imgproc.COLOR_BGR2GRAY);
+        } else {
+            image.copyTo(gray);
+        }
+
+        int cols = tileCount(image.width());
+        int rows = tileCount(image.height());
+        TileResult[] tiles = new TileResult[rows * cols];
+        long deadline = start + budgetMillis * 1_000_000L;
+        CpuBudgetManager.Slots slots = cpuBudget.getDocumentSlots();
+        try {
+            // Créneau de l'appelant prêté aux tuiles pendant l'attente
+            slots.await(() -> tamperAnalysisPool.invoke(
+                new TileTask(slots, image, gray, quality, cols, rows, tiles, 0, tiles.length, deadline)));
+        } catch (Exception e) {
+            throw new IllegalStateException("Analyse de retouches interrompue", e);
+        } finally {
+            gray.release();
+        }
+
+        Analysis analysis = new Analysis(rows, cols);
+        double[] residuals = Arrays.stream(tiles).filter(tile -> tile != null)
+            .mapToDouble(tile -> tile.residual).toArray();
+        analysis.tilesAnalyzed = residuals.length;
+        analysis.elaScore = quality > 0 ? scoreResiduals(tiles, residuals, analysis.heatMap) : 0.0;
+        analysis.copyMoveScore = scoreCopyMove(tiles, cols, rows, (double) image.width() * image.height(), analysis);
+        analysis.score = Math.max(analysis.elaScore, analysis.copyMoveScore);
+        analysis.elapsedNanos = System.nanoTime() - start;
+        return analysis;
+    }
+
+    /**
+     * Tuiles nécessaires pour couvrir une dimension, la dernière éventuellement plus courte
+     */
+    static int tileCount(int length) {
+        return Math.max(1, (int) Math.ceil((length - TILE_OVERLAP) / (double) TILE_STRIDE));
+    }
+
+    /**
+     * Écart robuste de chaque tuile à la médiane des résidus ; chaleur = écart / (2 x seuil), bornée à 1
+     */
+    private double scoreResiduals(TileResult[] tiles, double[] residuals, double[][] heatMap) {
+        if (residuals.length == 0) {
+            return 0.0;
+        }
+        double median = median(residuals.clone());
+        double[] deviations = new double[residuals.length];
+        for (int i = 0; i < residuals.length; i++) {
+            deviations[i] = Math.abs(residuals[i] - median);
+        }
+        double sigma = Math.max(MIN_RESIDUAL_SPREAD, MAD_TO_SIGMA * median(deviations));
+
+        int cols = heatMap[0].length;
+        double score = 0.0;
+        for (int i = 0; i < tiles.length; i++) {
+            if (tiles[i] == null) {
+                continue;
+            }
+            double heat = clamp((tiles[i].residual - median) / sigma / (2 * elaThreshold));
+            heatMap[i / cols][i % cols] = heat;
+            score = Math.max(score, heat);
+        }
+        return score;
+    }
+
+    /**
+     * Vecteur de décalage le plus fréquent entre blocs identiques ; ses blocs sont reportés sur la carte de chaleur
+     */
+    private double scoreCopyMove(TileResult[] tiles, int cols, int rows, double imageArea, Analysis analysis) {
+        Map<BlockKey, List<int[]>> groups = new HashMap<>();
+        for (TileResult tile : tiles) {
+            if (tile == null) {
+                continue;
+            }
+            for (int i = 0; i < tile.keys.size(); i++) {
+                groups.computeIfAbsent(tile.keys.get(i), key -> new ArrayList<>(2)).add(tile.positions.get(i));
+            }
+        }
+
+        long minShiftSquared = (long) copyMoveMinShift * copyMoveMinShift;
+        Map<Long, List<int[]>> shifts = new HashMap<>();
+        for (List<int[]> group : groups.values()) {
+            if (group.size() < 2 || group.size() > MAX_MATCH_GROUP) {
+                continue;
+            }
+            for (int a = 0; a < group.size(); a++) {
+                for (int b = a + 1; b < group.size(); b++) {
+                    int[] first = group.get(a);
+                    int[] second = group.get(b);
+                    int dx = second[0] - first[0];
+                    int dy = second[1] - first[1];
+                    if ((long) dx * dx + (long) dy * dy < minShiftSquared) {
+                        continue;
+                    }
+                    // Même vecteur quel que soit l'ordre des blocs
+                    if (dx < 0 || (dx == 0 && dy < 0)) {
+                        dx = -dx;
+                        dy = -dy;
+                        int[] swap = first;
+                        first = second;
+                        second = swap;
+                    }
+                    long shift = ((long) dx << 32) ^ (dy & 0xffffffffL);
+                    List<int[]> pairs = shifts.computeIfAbsent(shift, key -> new ArrayList<>());
+                    pairs.add(first);
+                    pairs.add(second);
+                }
+            }
+        }
+
+        List<int[]> best = shifts.values().stream()
+            .max((x, y) -> Integer.compare(x.size(), y.size()))
+            .orElse(List.of());
+        analysis.copyMoveMatches = best.size() / 2;
+        // Chaque bloc apparié représente BLOCK_STEP² pixels de la zone dupliquée
+        double minMatches = Math.max(copyMoveMinMatches, copyMoveMinAreaRatio * imageArea / (BLOCK_STEP * BLOCK_STEP));
+        double score = clamp(analysis.copyMoveMatches / (2.0 * minMatches));
+        if (analysis.copyMoveMatches >= minMatches) {
+            for (int[] block : best) {
+                int row = Math.min(rows - 1, block[1] / TILE_STRIDE);
+                int col = Math.min(cols - 1, block[0] / TILE_STRIDE);
+                analysis.heatMap[row][col] = Math.max(analysis.heatMap[row][col], score);
+            }
+        }
+        return score;
+    }
+
+    private TileResult analyzeTile(Mat image, Mat gray, int quality, int row, int col, int cols, int rows) {
+        int x = col * TILE_STRIDE;
+        int y = row * TILE_STRIDE;
+        Rect rect = new Rect(x, y, Math.min(TILE_SIZE, image.width() - x), Math.min(TILE_SIZE, image.height() - y));
+        TileResult result = new TileResult();
+        if (quality > 0) {
+            result.residual = elaResidual(image.submat(rect), quality);
+        }
+
+        // Partie propre de la tuile : coins de blocs jusqu'à la tuile suivante, ou jusqu'au bord pour la dernière
+        int coreRight = col == cols - 1 ? image.width() : x + TILE_STRIDE;
+        int coreBottom = row == rows - 1 ? image.height() : y + TILE_STRIDE;
+        Mat tile = gray.submat(rect);
+        byte[] pixels = new byte[rect.width * rect.height];
+        if (tile.isContinuous()) {
+            tile.get(0, 0, pixels);
+        } else {
+            Mat copy = tile.clone();
+            copy.get(0, 0, pixels);
+            copy.release();
+        }
+        tile.release();
+        for (int by = y; by < coreBottom && by + BLOCK_SIZE <= image.height(); by += BLOCK_STEP) {
+            for (int bx = x; bx < coreRight && bx + BLOCK_SIZE <= image.width(); bx += BLOCK_STEP) {
+                BlockKey key = blockKey(pixels, rect.width, bx - x, by - y);
+                if (key != null) {
+                    result.keys.add(key);
+                    result.positions.add(new int[]{bx, by});
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Résidu maximal, en moyenne par bloc, entre la tuile et sa recompression JPEG
+     */
+    private static double elaResidual(Mat tile, int quality) {
+        Mat source = tile.clone();
+        tile.release();
+        MatOfByte jpeg = new MatOfByte();
+        Imgcodecs.imencode(".jpg", source, jpeg, new MatOfInt(Imgcodecs.IMWRITE_JPEG_QUALITY, quality));
+        Mat recompressed = Imgcodecs.imdecode(jpeg,
+            source.channels() == 1 ? Imgcodecs.IMREAD_GRAYSCALE : Imgcodecs.IMREAD_COLOR);
+        Mat difference = new Mat();
+        Core.absdiff(source, recompressed, difference);
+        if (difference.channels() > 1) {
+            Imgproc.cvtColor(difference, difference, Imgproc.COLOR_BGR2GRAY);
+        }
+        difference.convertTo(difference, CvType.CV_32F);
+        // Résidu moyen par bloc : une zone collée plus petite que la tuile n'est pas diluée
+        Mat blocks = new Mat();
+        Imgproc.resize(difference, blocks, new Size(Math.max(1, source.width() / BLOCK_SIZE),
+            Math.max(1, source.height() / BLOCK_SIZE)), 0, 0, Imgproc.INTER_AREA);
+        double residual = Core.minMaxLoc(blocks).maxVal;
+        source.release();
+        jpeg.release();
+        recompressed.release();
+        difference.release();
+        blocks.release();
+        return residual;
+    }
+
+    /**
+     * Coefficients DCT basse fréquence quantifiés d'un bloc 16x16, null pour un bloc quasi uniforme
+     */
+    static BlockKey blockKey(byte[] pixels, int stride, int x, int y) {
+        double sum = 0;
+        double sumSquares = 0;
+        for (int j = 0; j < BLOCK_SIZE; j++) {
+            int offset = (y + j) * stride + x;
+            for (int i = 0; i < BLOCK_SIZE; i++) {
+                int value = pixels[offset + i] & 0xff;
+                sum += value;
+                sumSquares += value * value;
+            }
+        }
+        double count = BLOCK_SIZE * BLOCK_SIZE;
+        double variance = sumSquares / count - (sum / count) * (sum / count);
+        if (variance < FLAT_BLOCK_STDDEV * FLAT_BLOCK_STDDEV) {
+            return null;
+        }
+
+        int[] coefficients = new int[DCT_COEFFICIENTS.length];
+        for (int k = 0; k < DCT_COEFFICIENTS.length; k++) {
+            double[] rowBasis = DCT_BASIS[DCT_COEFFICIENTS[k][0]];
+            double[] colBasis = DCT_BASIS[DCT_COEFFICIENTS[k][1]];
+            double coefficient = 0;
+            for (int j = 0; j < BLOCK_SIZE; j++) {
+                int offset = (y + j) * stride + x;
+                double line = 0;
+                for (int i = 0; i < BLOCK_SIZE; i++) {
+                    line += (pixels[offset + i] & 0xff) * colBasis[i];
+                }
+                coefficient += line * rowBasis[j];
+            }
+            coefficients[k] = (int) Math.round(coefficient / (k == 0 ? DC_QUANTIZATION : AC_QUANTIZATION));
+        }
+        return new BlockKey(coefficients);
+    }
+
+    /**
+     * Qualité (1-100, échelle IJG) d'un fichier JPEG d'après sa table de quantification de luminance,
+     * 0 si le contenu n'est pas un JPEG ou si la table est absente
+     */
+    public static int estimateJpegQuality(byte[] content) {
+        if (content == null || content.length < 4 || (content[0] & 0xff) != 0xFF || (content[1] & 0xff) != 0xD8) {
+            return 0;
+        }
+        int offset = 2;
+        while (offset + 4 <= content.length && (content[offset] & 0xff) == 0xFF) {
+            int marker = content[offset + 1] & 0xff;
+            int length = ((content[offset + 2] & 0xff) << 8) | (content[offset + 3] & 0xff);
+            if (marker == SOS_MARKER) {
+                break;
+            }
+            if (marker == DQT_MARKER) {
+                int table = offset + 4;
+                int end = Math.min(content.length, offset + 2 + length);
+                while (table < end) {
+                    boolean wide = (content[table] >> 4) != 0;
+                    int id = content[table] & 0x0f;
+                    int size = wide ? 128 : 64;
+                    if (table + 1 + size > end) {
+                        return 0;
+                    }
+                    if (id == 0) {
+                        long sum = 0;
+                        for (int i = 0; i < 64; i++) {
+                            sum += wide ? ((content[table + 1 + 2 * i] & 0xff) << 8) | (content[table + 2 + 2 * i] & 0xff)
+                                : content[table + 1 + i] & 0xff;
+                        }
+                        double scale = 100.0 * sum / STANDARD_LUMINANCE_SUM;
+                        double quality = scale <= 100 ? (200 - scale) / 2 : 5000 / scale;
+                        return (int) Math.max(1, Math.min(100, Math.round(quality)));
+                    }
+                    table += 1 + size;
+                }
+            }
+            offset += 2 + length;
+        }
+        return 0;
+    }
+
+    /**
+     * Base DCT-II orthonormée de taille BLOCK_SIZE (fréquences 0 à 2)
+     */
+    private static double[][] dctBasis() {
+        double[][] basis = new double[3][BLOCK_SIZE];
+        for (int u = 0; u < basis.length; u++) {
+            double alpha = Math.sqrt((u == 0 ? 1.0 : 2.0) / BLOCK_SIZE);
+            for (int i = 0; i < BLOCK_SIZE; i++) {
+                basis[u][i] = alpha * Math.cos(Math.PI * (2 * i + 1) * u / (2.0 * BLOCK_SIZE));
+            }
+        }
+        return basis;
+    }
+
+    private static double median(double[] values) {
+        Arrays.sort(values);
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0.0, Math.min(1.0, value));
+    }
+
+    /**
+     * Découpe récursive de la grille de tuiles ; chaque tuile vérifie l'échéance avant d'attendre un créneau
+     * puis avant de démarrer
+     */
+    private final class TileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient CpuBudgetManager.Slots slots;
+        private final transient Mat image;
+        private final transient Mat gray;
+        private final int quality;
+        private final int cols;
+        private final int rows;
+        private final transient TileResult[] results;
+        private final int from;
+        private final int to;
+        private final long deadline;
+
+        private TileTask(CpuBudgetManager.Slots slots, Mat image, Mat gray, int quality, int cols, int rows,
+                         TileResult[] results, int from, int to, long deadline) {
+            this.slots = slots;
+            this.image = image;
+            this.gray = gray;
+            this.quality = quality;
+            this.cols = cols;
+            this.rows = rows;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new TileTask(slots, image, gray, quality, cols, rows, results, from, middle, deadline),
+                    new TileTask(slots, image, gray, quality, cols, rows, results, middle, to, deadline));
+                return;
+            }
+            if (System.nanoTime() >= deadline) {
+                return;
+            }
+            try {
+                // Créneau attendu au plus jusqu'à l'échéance : l'OCR en cours ne prolonge pas l'analyse
+                slots.runBefore(deadline, () -> {
+                    if (System.nanoTime() < deadline) {
+                        results[from] = analyzeTile(image, gray, quality, from / cols, from % cols, cols, rows);
+                    }
+                });
+            } catch (InterruptedException e) {
+                // Tuile ignorée : l'analyse est marquée incomplète
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class TileResult {
+        private double residual;
+        private final List<BlockKey> keys = new ArrayList<>();
+        private final List<int[]> positions = new ArrayList<>();
+    }
+
+    static final class BlockKey {
+        private final int[] coefficients;
+        private final int hash;
+
+        private BlockKey(int[] coefficients) {
+            this.coefficients = coefficients;
+            this.hash = Arrays.hashCode(coefficients);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof BlockKey && Arrays.equals(coefficients, ((BlockKey) other).coefficients);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Score global, scores par méthode et carte de chaleur (une valeur par tuile, lignes puis colonnes)
+     */
+    public static class Analysis {
+        private final double[][] heatMap;
+        private final int tilesTotal;
+        private int tilesAnalyzed;
+        private double score;
+        private double elaScore;
+        private double copyMoveScore;
+        private int copyMoveMatches;
+        private long elapsedNanos;
+
+        private Analysis(int rows, int cols) {
+            this.heatMap = new double[rows][cols];
+            this.tilesTotal = rows * cols;
+        }
+
+        public double[][] getHeatMap() { return heatMap; }
+        public int getTilesTotal() { return tilesTotal; }
+        public int getTilesAnalyzed() { return tilesAnalyzed; }
+        public boolean isComplete() { return tilesAnalyzed == tilesTotal; }
+        public double getScore() { return score; }
+        public double getElaScore() { return elaScore; }
+        public double getCopyMoveScore() { return copyMoveScore; }
+        public int getCopyMoveMatches() { return copyMoveMatches; }
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+    }
+}
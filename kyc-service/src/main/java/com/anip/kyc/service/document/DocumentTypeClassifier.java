@@ -0,0 +1,176 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.models.Document;
+import com.anip.kyc.service.face.FaceDetector;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Vérification rapide du type de document déclaré, sur une vignette, avant les étapes coûteuses :
+ * - format : proportions du contour détecté (ID-1 1,59 ; passeport TD3 et A4 1,41), sinon de l'image
+ * - MRZ : présence et hauteur relative de la bande (MrzRegionLocator) ; TD1 au verso des cartes, TD3 en passeport
+ * - mise en page : présence d'un visage (photo d'identité) au recto
+ *
+ * Le type retenu reste dans la famille déclarée quand les indices ne permettent pas de distinguer une carte
+ * d'identité d'un permis de conduire. Sans indice suffisant, le type déclaré est retourné avec une confiance nulle.
+ */
+@Component
+public class DocumentTypeClassifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentTypeClassifier.class);
+
+    private static final double THUMBNAIL_SIZE = 640.0;
+    // Seuil entre le format ID-1 (85,6 x 54 mm) et les formats TD3 / A4
+    private static final double CARD_MIN_ASPECT = 1.5;
+    private static final double BOOKLET_MIN_ASPECT = 1.25;
+    private static final double CARD_MAX_ASPECT = 1.8;
+    // Bande MRZ TD3 (2 lignes) : moins d'un quart de la hauteur de la page ; TD1 (3 lignes) : environ un tiers
+    private static final double TD3_MAX_BAND_RATIO = 0.22;
+
+    @Autowired
+    private DocumentBoundaryDetector documentBoundaryDetector;
+
+    @Autowired
+    private MrzRegionLocator mrzRegionLocator;
+
+    @Autowired
+    private FaceDetector faceDetector;
+
+    /**
+     * Type le plus vraisemblable d'une image décodée, au regard du type déclaré
+     */
+    public Classification classify(Mat image, Document.DocumentType declared) {
+        long start = System.nanoTime();
+        double scale = Math.min(1.0, THUMBNAIL_SIZE / Math.max(image.width(), image.height()));
+        Mat thumbnail = new Mat();
+        Imgproc.resize(image, thumbnail, new Size(), scale, scale, Imgproc.INTER_AREA);
+
+        // Zone du document : contour détecté, sinon vignette entière (scan ou document cadré au plus près)
+        double[] sizeMm = DocumentBoundaryDetector.physicalSize(declared);
+        Optional<Point[]> corners = documentBoundaryDetector.detect(thumbnail, sizeMm[0] / sizeMm[1]);
+        Rect region;
+        double aspect;
+        if (corners.isPresent()) {
+            Point[] quad = corners.get();
+            MatOfPoint contour = new MatOfPoint(quad);
+            region = clip(Imgproc.boundingRect(contour), thumbnail);
+            contour.release();
+            double width = Math.max(distance(quad[0], quad[1]), distance(quad[3], quad[2]));
+            double height = Math.max(distance(quad[0], quad[3]), distance(quad[1], quad[2]));
+            aspect = Math.max(width, height) / Math.max(1.0, Math.min(width, height));
+        } else {
+            region = new Rect(0, 0, thumbnail.width(), thumbnail.height());
+            aspect = (double) Math.max(region.width, region.height) / Math.max(1, Math.min(region.width, region.height));
+        }
+
+        Mat documentArea = new Mat(thumbnail, region);
+        Optional<Rect> mrz = mrzRegionLocator.locate(documentArea);
+        Boolean face = hasFace(documentArea);
+        documentArea.release();
+        thumbnail.release();
+
+        Map<String, Object> features = new LinkedHashMap<>();
+        features.put("aspectRatio", Math.round(aspect * 100) / 100.0);
+        features.put("boundaryDetected", corners.isPresent());
+        features.put("mrz", mrz.isPresent());
+        features.put("face", face);
+
+        Classification classification = decide(declared, aspect, corners.isPresent(),
+            mrz.map(band -> (double) band.height / region.height).orElse(null), face, features);
+        classification.elapsedNanos = System.nanoTime() - start;
+        logger.debug("Classification document - Déclaré: {}, Retenu: {}, Confiance: {}, Indices: {}, Durée: {} ms",
+            declared, classification.type, classification.confidence, features, classification.getElapsedMillis());
+        return classification;
+    }
+
+    /**
+     * Règles de décision ; mrzBandRatio = hauteur de la bande MRZ rapportée au document (null sans MRZ),
+     * face = null si le détecteur de visages est indisponible
+     */
+    static Classification decide(Document.DocumentType declared, double aspect, boolean boundaryDetected,
+                                 Double mrzBandRatio, Boolean face, Map<String, Object> features) {
+        boolean card = aspect >= CARD_MIN_ASPECT && aspect <= CARD_MAX_ASPECT;
+        boolean booklet = aspect >= BOOKLET_MIN_ASPECT && aspect < CARD_MIN_ASPECT;
+        // Les proportions d'un contour détecté sont plus fiables que celles de l'image entière
+        double shapeConfidence = boundaryDetected ? 1.0 : 0.85;
+        boolean drivingLicense = isDrivingLicense(declared);
+
+        Document.DocumentType type = declared;
+        double confidence = 0.0;
+        if (mrzBandRatio != null && (booklet || (!card && mrzBandRatio < TD3_MAX_BAND_RATIO))) {
+            type = Document.DocumentType.PASSPORT;
+            confidence = booklet ? 0.9 * shapeConfidence : 0.75;
+        } else if (mrzBandRatio != null && card) {
+            type = drivingLicense ? Document.DocumentType.DRIVING_LICENSE_BACK : Document.DocumentType.ID_CARD_BACK;
+            confidence = 0.9 * shapeConfidence;
+        } else if (card && Boolean.TRUE.equals(face)) {
+            type = drivingLicense ? Document.DocumentType.DRIVING_LICENSE_FRONT : Document.DocumentType.ID_CARD_FRONT;
+            confidence = 0.85 * shapeConfidence;
+        } else if (card && Boolean.FALSE.equals(face)) {
+            type = drivingLicense ? Document.DocumentType.DRIVING_LICENSE_BACK : Document.DocumentType.ID_CARD_BACK;
+            confidence = 0.7 * shapeConfidence;
+        }
+        return new Classification(type, Math.round(confidence * 100) / 100.0, features);
+    }
+
+    private Boolean hasFace(Mat documentArea) {
+        try {
+            return !faceDetector.detect(documentArea).isEmpty();
+        } catch (IllegalStateException e) {
+            // Modèles de détection absents : la mise en page n'est pas évaluée
+            return null;
+        }
+    }
+
+    private static boolean isDrivingLicense(Document.DocumentType type) {
+        return type == Document.DocumentType.DRIVING_LICENSE
+            || type == Document.DocumentType.DRIVING_LICENSE_FRONT
+            || type == Document.DocumentType.DRIVING_LICENSE_BACK;
+    }
+
+    private static Rect clip(Rect box, Mat image) {
+        int x = Math.max(0, box.x);
+        int y = Math.max(0, box.y);
+        return new Rect(x, y, Math.min(image.width(), box.x + box.width) - x, Math.min(image.height(), box.y + box.height) - y);
+    }
+
+    private static double distance(Point a, Point b) {
+        return Math.hypot(a.x - b.x, a.y - b.y);
+    }
+
+    /**
+     * Type retenu, confiance (0.0-1.0) et indices mesurés
+     */
+    public static class Classification {
+        private final Document.DocumentType type;
+        private final double confidence;
+        private final Map<String, Object> features;
+        private long elapsedNanos;
+
+        public Classification(Document.DocumentType type, double confidence, Map<String, Object> features) {
+            this.type = type;
+            this.confidence = confidence;
+            this.features = features;
+        }
+
+        public Document.DocumentType getType() { return type; }
+        public double getConfidence() { return confidence; }
+        public Map<String, Object> getFeatures() { return features; }
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+    }
+}
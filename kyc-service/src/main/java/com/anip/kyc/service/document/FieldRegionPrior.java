@@ -0,0 +1,59 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.models.Document;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ordre de lecture des régions de texte par vraisemblance, appris en ligne par type de document :
+ * le document redressé est découpé en bandes horizontales, et chaque région qui a fait apparaître un nouveau
+ * champ incrémente sa bande. Les régions des bandes les plus productives sont lues en premier ; à égalité
+ * (et au démarrage, sans historique), l'ordre de lecture naturel est conservé.
+ */
+@Component
+public class FieldRegionPrior {
+
+    static final int BANDS = 8;
+
+    private final Map<Document.DocumentType, AtomicLongArray> hits = new EnumMap<>(Document.DocumentType.class);
+
+    public FieldRegionPrior() {
+        for (Document.DocumentType type : Document.DocumentType.values()) {
+            hits.put(type, new AtomicLongArray(BANDS));
+        }
+    }
+
+    /**
+     * Indices des régions, de la plus à la moins vraisemblable
+     */
+    public List<Integer> order(Document.DocumentType documentType, List<TextRegionDetector.TextRegion> regions,
+                               int imageHeight) {
+        AtomicLongArray counts = hits.get(documentType);
+        List<Integer> indices = new ArrayList<>(regions.size());
+        for (int i = 0; i < regions.size(); i++) {
+            indices.add(i);
+        }
+        indices.sort(Comparator.comparingLong((Integer i) -> -counts.get(band(regions.get(i), imageHeight)))
+            .thenComparingInt(i -> i));
+        return indices;
+    }
+
+    /**
+     * Une région a fait apparaître au moins un nouveau champ
+     */
+    public void record(Document.DocumentType documentType, TextRegionDetector.TextRegion region, int imageHeight) {
+        hits.get(documentType).incrementAndGet(band(region, imageHeight));
+    }
+
+    static int band(TextRegionDetector.TextRegion region, int imageHeight) {
+        double center = region.getBox().y + region.getBox().height / 2.0;
+        return Math.min(BANDS - 1, Math.max(0, (int) (center / imageHeight * BANDS)));
+    }
+}
@@ -0,0 +1,402 @@
+package com.anip.kyc.service.document;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Analyseur MRZ ICAO 9303 (TD1 : 3 x 30, TD2 : 2 x 36, TD3 : 2 x 44).
+ * Travaille directement sur le CharSequence OCR par positions, sans expression régulière
+ * ni sous-chaîne : seuls les champs texte demandés sont matérialisés (à la demande).
+ * Tous les chiffres de contrôle sont vérifiés et la validité est reportée par champ.
+ *
+ * Dans les champs numériques (dates, chiffres de contrôle), les confusions OCR courantes
+ * sont corrigées : O/Q/D → 0, I/L → 1, Z → 2, S → 5, G → 6, B → 8.
+ */
+public final class MrzParser {
+
+    public enum Format { TD1, TD2, TD3 }
+
+    private static final int[] WEIGHTS = {7, 3, 1};
+    private static final int MAX_LINES = 3;
+
+    private MrzParser() {
+    }
+
+    /**
+     * Analyse d'un texte MRZ (lignes séparées par des retours à la ligne).
+     * Retourne null si la structure ne correspond à aucun format.
+     */
+    public static MrzData parse(CharSequence text) {
+        int[] starts = new int[MAX_LINES];
+        int[] ends = new int[MAX_LINES];
+        int lineCount = 0;
+
+        // Découpage en lignes non vides, espaces de fin ignorés
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            int start = i;
+            while (i < length && text.charAt(i) != '\n') {
+                i++;
+            }
+            int end = i;
+            while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+                end--;
+            }
+            while (start < end && Character.isWhitespace(text.charAt(start))) {
+                start++;
+            }
+            if (end > start) {
+                if (lineCount == MAX_LINES) {
+                    return null;
+                }
+                starts[lineCount] = start;
+                ends[lineCount] = end;
+                lineCount++;
+            }
+            i++;
+        }
+
+        if (lineCount == 3 && allLength(starts, ends, 3, 30)) {
+            return parseTd1(text, starts);
+        }
+        if (lineCount == 2 && allLength(starts, ends, 2, 36)) {
+            return parseTd2or3(text, starts, Format.TD2);
+        }
+        if (lineCount == 2 && allLength(starts, ends, 2, 44)) {
+            return parseTd2or3(text, starts, Format.TD3);
+        }
+        return null;
+    }
+
+    private static boolean allLength(int[] starts, int[] ends, int count, int expected) {
+        for (int l = 0; l < count; l++) {
+            if (ends[l] - starts[l] != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MrzData parseTd1(CharSequence text, int[] starts) {
+        int l1 = starts[0];
+        int l2 = starts[1];
+        int l3 = starts[2];
+        MrzData d = new MrzData(text, Format.TD1);
+        d.documentCodeStart = l1;
+        d.issuingStateStart = l1 + 2;
+
+        // Numéro de document : 9 caractères, prolongé dans la zone optionnelle si le contrôle vaut '<'
+        d.documentNumberStart = l1 + 5;
+        d.documentNumberEnd = l1 + 14;
+        int documentNumberCheck = l1 + 14;
+        if (text.charAt(l1 + 14) == '<') {
+            int p = l1 + 15;
+            while (p < l1 + 30 && text.charAt(p) != '<') {
+                p++;
+            }
+            if (p > l1 + 15) {
+                d.documentNumberExtStart = l1 + 15;
+                d.documentNumberExtEnd = p - 1;
+                documentNumberCheck = p - 1;
+                d.documentNumberValid = checkDigit(text, l1 + 5, l1 + 14, text.charAt(documentNumberCheck), l1 + 15, p - 1);
+            } else {
+                d.documentNumberValid = false;
+            }
+        } else {
+            d.documentNumberValid = checkDigit(text, l1 + 5, l1 + 14, text.charAt(documentNumberCheck));
+        }
+
+        d.dateOfBirthStart = l2;
+        d.dateOfBirthValid = numericCheckDigit(text, l2, l2 + 6, text.charAt(l2 + 6));
+        d.sex = text.charAt(l2 + 7);
+        d.expiryDateStart = l2 + 8;
+        d.expiryDateValid = numericCheckDigit(text, l2 + 8, l2 + 14, text.charAt(l2 + 14));
+        d.nationalityStart = l2 + 15;
+        d.optionalStart = l1 + 15;
+        d.optionalEnd = l1 + 30;
+        d.optionalValid = true;
+
+        // Composite : ligne 1 [5-29], ligne 2 [0-6], [8-14], [18-28]
+        int sum = weightedSum(text, l1 + 5, l1 + 30, 0, 0, false);
+        sum = weightedSum(text, l2, l2 + 7, sum, 25, true);
+        sum = weightedSum(text, l2 + 8, l2 + 15, sum, 32, true);
+        sum = weightedSum(text, l2 + 18, l2 + 29, sum, 39, false);
+        d.compositeValid = matches(sum, text.charAt(l2 + 29));
+
+        d.namesStart = l3;
+        d.namesEnd = l3 + 30;
+        return d;
+    }
+
+    private static MrzData parseTd2or3(CharSequence text, int[] starts, Format format) {
+        int l1 = starts[0];
+        int l2 = starts[1];
+        int width = format == Format.TD3 ? 44 : 36;
+        MrzData d = new MrzData(text, format);
+        d.documentCodeStart = l1;
+        d.issuingStateStart = l1 + 2;
+        d.namesStart = l1 + 5;
+        d.namesEnd = l1 + width;
+
+        d.documentNumberStart = l2;
+        d.documentNumberEnd = l2 + 9;
+        d.documentNumberValid = checkDigit(text, l2, l2 + 9, text.charAt(l2 + 9));
+        d.nationalityStart = l2 + 10;
+        d.dateOfBirthStart = l2 + 13;
+        d.dateOfBirthValid = numericCheckDigit(text, l2 + 13, l2 + 19, text.charAt(l2 + 19));
+        d.sex = text.charAt(l2 + 20);
+        d.expiryDateStart = l2 + 21;
+        d.expiryDateValid = numericCheckDigit(text, l2 + 21, l2 + 27, text.charAt(l2 + 27));
+
+        int composite;
+        if (format == Format.TD3) {
+            // Numéro personnel [28-41] et son contrôle [42] ; '<' accepté pour un champ vide
+            d.optionalStart = l2 + 28;
+            d.optionalEnd = l2 + 42;
+            char personalCheck = text.charAt(l2 + 42);
+            d.optionalValid = personalCheck == '<' && isFiller(text, l2 + 28, l2 + 42)
+                || checkDigit(text, l2 + 28, l2 + 42, personalCheck);
+            composite = l2 + 43;
+        } else {
+            d.optionalStart = l2 + 28;
+            d.optionalEnd = l2 + 35;
+            d.optionalValid = true;
+            composite = l2 + 35;
+        }
+
+        // Composite : [0-9], [13-19], [21-composite[
+        int sum = weightedSum(text, l2, l2 + 10, 0, 0, false);
+        sum = weightedSum(text, l2 + 13, l2 + 20, sum, 10, true);
+        sum = weightedSum(text, l2 + 21, l2 + 28, sum, 17, true);
+        sum = weightedSum(text, l2 + 28, composite, sum, 24, false);
+        d.compositeValid = matches(sum, text.charAt(composite));
+        return d;
+    }
+
+    private static boolean checkDigit(CharSequence text, int from, int to, char check) {
+        return matches(weightedSum(text, from, to, 0, 0, false), check);
+    }
+
+    private static boolean checkDigit(CharSequence text, int from, int to, char check, int from2, int to2) {
+        int sum = weightedSum(text, from, to, 0, 0, false);
+        sum = weightedSum(text, from2, to2, sum, to - from, false);
+        return matches(sum, check);
+    }
+
+    private static boolean numericCheckDigit(CharSequence text, int from, int to, char check) {
+        return matches(weightedSum(text, from, to, 0, 0, true), check);
+    }
+
+    /**
+     * Somme pondérée 7-3-1 ; offset = position du premier caractère dans la séquence contrôlée.
+     * Pour un segment numérique, les confusions lettre/chiffre sont corrigées.
+     */
+    private static int weightedSum(CharSequence text, int from, int to, int sum, int offset, boolean numeric) {
+        if (sum < 0) {
+            return sum;
+        }
+        for (int p = from; p < to; p++) {
+            char c = text.charAt(p);
+            int value = numeric && c != '<' ? digit(c) : value(c);
+            if (value < 0) {
+                return -1_000_000;
+            }
+            sum += value * WEIGHTS[(p - from + offset) % 3];
+        }
+        return sum;
+    }
+
+    private static boolean matches(int sum, char check) {
+        int digit = digit(check);
+        return sum >= 0 && digit >= 0 && sum % 10 == digit;
+    }
+
+    private static boolean isFiller(CharSequence text, int from, int to) {
+        for (int p = from; p < to; p++) {
+            if (text.charAt(p) != '<') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Valeur ICAO d'un caractère : chiffres 0-9, lettres 10-35, '<' 0
+     */
+    private static int value(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 10;
+        }
+        return c == '<' ? 0 : -1;
+    }
+
+    /**
+     * Chiffre attendu (date, contrôle), avec correction des confusions OCR lettre/chiffre
+     */
+    static int digit(char c) {
+        switch (c) {
+            case 'O': case 'Q': case 'D': return 0;
+            case 'I': case 'L': return 1;
+            case 'Z': return 2;
+            case 'S': return 5;
+            case 'G': return 6;
+            case 'B': return 8;
+            default: return c >= '0' && c <= '9' ? c - '0' : -1;
+        }
+    }
+
+    /**
+     * Résultat d'analyse : positions des champs dans le texte source et validité par champ
+     */
+    public static final class MrzData {
+        private final CharSequence text;
+        private final Format format;
+        private int documentCodeStart;
+        private int issuingStateStart;
+        private int documentNumberStart;
+        private int documentNumberEnd;
+        private int documentNumberExtStart;
+        private int documentNumberExtEnd;
+        private int nationalityStart;
+        private int dateOfBirthStart;
+        private int expiryDateStart;
+        private int optionalStart;
+        private int optionalEnd;
+        private int namesStart;
+        private int namesEnd;
+        private char sex;
+        private boolean documentNumberValid;
+        private boolean dateOfBirthValid;
+        private boolean expiryDateValid;
+        private boolean optionalValid;
+        private boolean compositeValid;
+
+        private MrzData(CharSequence text, Format format) {
+            this.text = text;
+            this.format = format;
+        }
+
+        public Format getFormat() { return format; }
+        public String getDocumentCode() { return field(documentCodeStart, documentCodeStart + 2); }
+        public String getIssuingState() { return field(issuingStateStart, issuingStateStart + 3); }
+        public String getDocumentNumber() {
+            String number = field(documentNumberStart, documentNumberEnd);
+            return documentNumberExtEnd > documentNumberExtStart
+                ? number + field(documentNumberExtStart, documentNumberExtEnd) : number;
+        }
+        public String getNationality() { return field(nationalityStart, nationalityStart + 3); }
+        public String getOptionalData() { return field(optionalStart, optionalEnd); }
+        public LocalDate getDateOfBirth() { return date(dateOfBirthStart, false); }
+        public LocalDate getExpiryDate() { return date(expiryDateStart, true); }
+
+        /**
+         * Sexe : M, F ou X (non spécifié)
+         */
+        public char getSex() { return sex == 'M' || sex == 'F' ? sex : 'X'; }
+
+        public String getSurname() {
+            int separator = nameSeparator();
+            return name(namesStart, separator < 0 ? namesEnd : separator);
+        }
+
+        public String getGivenNames() {
+            int separator = nameSeparator();
+            return separator < 0 ? "" : name(separator + 2, namesEnd);
+        }
+
+        public boolean isDocumentNumberValid() { return documentNumberValid; }
+        public boolean isDateOfBirthValid() { return dateOfBirthValid && getDateOfBirth() != null; }
+        public boolean isExpiryDateValid() { return expiryDateValid && getExpiryDate() != null; }
+        public boolean isOptionalDataValid() { return optionalValid; }
+        public boolean isCompositeValid() { return compositeValid; }
+        public boolean isSexValid() { return sex == 'M' || sex == 'F' || sex == '<'; }
+
+        public boolean isValid() {
+            return isDocumentNumberValid() && isDateOfBirthValid() && isExpiryDateValid()
+                && optionalValid && compositeValid && isSexValid();
+        }
+
+        /**
+         * Proportion de contrôles réussis (0.0-1.0), utilisée comme score de confiance
+         */
+        public double getValidityRatio() {
+            int passed = (isDocumentNumberValid() ? 1 : 0) + (isDateOfBirthValid() ? 1 : 0)
+                + (isExpiryDateValid() ? 1 : 0) + (optionalValid ? 1 : 0)
+                + (compositeValid ? 1 : 0) + (isSexValid() ? 1 : 0);
+            return passed / 6.0;
+        }
+
+        private int nameSeparator() {
+            for (int p = namesStart; p + 1 < namesEnd; p++) {
+                if (text.charAt(p) == '<' && text.charAt(p + 1) == '<') {
+                    return p;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Champ sans les caractères de remplissage de fin
+         */
+        private String field(int from, int to) {
+            while (to > from && text.charAt(to - 1) == '<') {
+                to--;
+            }
+            StringBuilder sb = new StringBuilder(to - from);
+            for (int p = from; p < to; p++) {
+                sb.append(text.charAt(p));
+            }
+            return sb.toString();
+        }
+
+        /**
+         * Nom : '<' remplacés par des espaces, espaces multiples et de bord supprimés
+         */
+        private String name(int from, int to) {
+            StringBuilder sb = new StringBuilder(to - from);
+            boolean pendingSpace = false;
+            for (int p = from; p < to; p++) {
+                char c = text.charAt(p);
+                if (c == '<') {
+                    pendingSpace = sb.length() > 0;
+                } else {
+                    if (pendingSpace) {
+                        sb.append(' ');
+                        pendingSpace = false;
+                    }
+                    sb.append(c);
+                }
+            }
+            return sb.toString();
+        }
+
+        /**
+         * Date AAMMJJ ; siècle : expiration toujours 20xx, naissance 19xx si postérieure à l'année courante
+         */
+        private LocalDate date(int from, boolean expiry) {
+            int yy = twoDigits(from);
+            int mm = twoDigits(from + 2);
+            int dd = twoDigits(from + 4);
+            if (yy < 0 || mm < 0 || dd < 0) {
+                return null;
+            }
+            int currentYy = LocalDate.now().getYear() % 100;
+            int year = (expiry || yy <= currentYy ? 2000 : 1900) + yy;
+            try {
+                return LocalDate.of(year, mm, dd);
+            } catch (DateTimeException e) {
+                return null;
+            }
+        }
+
+        private int twoDigits(int p) {
+            int high = digit(text.charAt(p));
+            int low = digit(text.charAt(p + 1));
+            return high < 0 || low < 0 ? -1 : high * 10 + low;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.anip.kyc.service.document;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Localisation de la zone de lecture automatique (MRZ) par morphologie sur une image réduite.
+ * Les lignes MRZ forment une bande sombre, large et peu haute en bas du document :
+ * black-hat pour isoler le texte sombre, gradient horizontal, fermetures successives pour
+ * fusionner les caractères puis les lignes, et sélection d'un contour très allongé
+ * couvrant l'essentiel de la largeur.
+ */
+@Component
+public class MrzRegionLocator {
+
+    // Largeur de travail : les noyaux ci-dessous sont dimensionnés pour cette échelle
+    private static final double WORK_WIDTH = 600.0;
+    private static final Size RECT_KERNEL = new Size(13, 5);
+    private static final Size SQUARE_KERNEL = new Size(21, 21);
+    private static final double BORDER_RATIO = 0.05;
+    private static final double PADDING_RATIO = 0.03;
+
+    @Value("${app.ocr.mrz.min.aspect.ratio:5.0}")
+    private double minAspectRatio;
+
+    @Value("${app.ocr.mrz.min.width.ratio:0.75}")
+    private double minWidthRatio;
+
+    /**
+     * Bande MRZ en coordonnées de l'image d'origine, si elle est trouvée
+     */
+    public Optional<Rect> locate(Mat image) {
+        double scale = Math.min(1.0, WORK_WIDTH / image.width());
+
+        Mat gray = new Mat();
+        if (image.channels() > 1) {
+            Imgproc.cvtColor(image, gray, Imgproc.COLOR_BGR2GRAY);
+        } else {
+            image.copyTo(gray);
+        }
+        if (scale < 1.0) {
+            Imgproc.resize(gray, gray, new Size(), scale, scale, Imgproc.INTER_AREA);
+        }
+        int width = gray.width();
+        int height = gray.height();
+
+        Mat rectKernel = Imgproc.getStructuringElement(Imgproc.MORPH_RECT, RECT_KERNEL);
+        Mat squareKernel = Imgproc.getStructuringElement(Imgproc.MORPH_RECT, SQUARE_KERNEL);
+
+        // Texte sombre sur fond clair
+        Imgproc.GaussianBlur(gray, gray, new Size(3, 3), 0);
+        Mat blackhat = new Mat();
+        Imgproc.morphologyEx(gray, blackhat, Imgproc.MORPH_BLACKHAT, rectKernel);
+
+        // Gradient horizontal (Scharr) normalisé sur 8 bits
+        Mat gradient = new Mat();
+        Imgproc.Sobel(blackhat, gradient, CvType.CV_32F, 1, 0, -1);
+        Core.absdiff(gradient, Scalar.all(0), gradient);
+        Core.normalize(gradient, gradient, 0, 255, Core.NORM_MINMAX);
+        gradient.convertTo(gradient, CvType.CV_8U);
+
+        // Fusion des caractères en lignes, puis des lignes en bande
+        Mat mask = new Mat();
+        Imgproc.morphologyEx(gradient, gradient, Imgproc.MORPH_CLOSE, rectKernel);
+        Imgproc.threshold(gradient, mask, 0, 255, Imgproc.THRESH_BINARY | Imgproc.THRESH_OTSU);
+        Imgproc.morphologyEx(mask, mask, Imgproc.MORPH_CLOSE, squareKernel);
+        Imgproc.erode(mask, mask, new Mat(), new Point(-1, -1), 4);
+
+        // Les bords de l'image produisent souvent de faux gradients
+        int border = (int) (width * BORDER_RATIO);
+        if (border > 0) {
+            mask.colRange(0, border).setTo(Scalar.all(0));
+            mask.colRange(width - border, width).setTo(Scalar.all(0));
+        }
+
+        List<MatOfPoint> contours = new ArrayList<>();
+        Imgproc.findContours(mask, contours, new Mat(), Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+        contours.sort(Comparator.comparingDouble((MatOfPoint c) -> Imgproc.contourArea(c)).reversed());
+
+        Rect band = null;
+        for (MatOfPoint contour : contours) {
+            Rect r = Imgproc.boundingRect(contour);
+            double aspectRatio = (double) r.width / r.height;
+            double widthRatio = (double) r.width / width;
+            boolean lowerPart = r.y + r.height / 2.0 > height * 0.4;
+            if (aspectRatio > minAspectRatio && widthRatio > minWidthRatio && lowerPart) {
+                band = r;
+                break;
+            }
+        }
+
+        gray.release();
+        blackhat.release();
+        gradient.release();
+        mask.release();
+        rectKernel.release();
+        squareKernel.release();
+        for (MatOfPoint contour : contours) {
+            contour.release();
+        }
+
+        if (band == null) {
+            return Optional.empty();
+        }
+        return Optional.of(pad(band, scale, image.width(), image.height()));
+    }
+
+    /**
+     * Marge autour de la bande (l'érosion rogne les caractères) et retour à l'échelle d'origine
+     */
+    private Rect pad(Rect band, double scale, int imageWidth, int imageHeight) {
+        int padX = (int) ((band.x + band.width) * PADDING_RATIO);
+        int padY = (int) ((band.y + band.height) * PADDING_RATIO);
+        int x = (int) Math.max(0, (band.x - padX) / scale);
+        int y = (int) Math.max(0, (band.y - padY) / scale);
+        int right = (int) Math.min(imageWidth, (band.x + band.width + padX) / scale);
+        int bottom = (int) Math.min(imageHeight, (band.y + band.height + padY) / scale);
+        return new Rect(x, y, right - x, bottom - y);
+    }
+}
@@ -0,0 +1,141 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.models.Document;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Politique d'OCR à deux niveaux : une première lecture avec les modèles rapides (tessdata_fast) et un jeu
+ * de langues réduit par type de document, puis une relecture avec les modèles complets (tessdata_best) et
+ * les langues supplémentaires, réservée au texte dont la confiance reste sous app.ocr.confidence.threshold.
+ *
+ * - répertoires de traineddata : app.ocr.tiers.fast.datapath, app.ocr.tiers.best.datapath
+ *   (vide = app.ocr.tesseract.datapath)
+ * - langues par type : app.ocr.tiers.fast.languages / app.ocr.tiers.best.languages, sous la forme
+ *   PASSPORT:eng,ID_CARD_FRONT:fra ; les types absents prennent la langue par défaut du niveau
+ * - types sans relecture : app.ocr.tiers.escalation.disabled (liste de types)
+ */
+@Component
+public class OcrTierPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(OcrTierPolicy.class);
+
+    public enum Tier {
+        FAST, BEST
+    }
+
+    @Value("${app.ocr.tiers.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.ocr.tiers.fast.datapath:}")
+    private String fastDataPath;
+
+    @Value("${app.ocr.tiers.best.datapath:}")
+    private String bestDataPath;
+
+    @Value("${app.ocr.tiers.fast.default.language:fra}")
+    private String fastDefaultLanguage;
+
+    @Value("${app.ocr.tiers.best.default.language:fra+eng}")
+    private String bestDefaultLanguage;
+
+    @Value("${app.ocr.tiers.fast.languages:}")
+    private String fastLanguagesSpec;
+
+    @Value("${app.ocr.tiers.best.languages:}")
+    private String bestLanguagesSpec;
+
+    @Value("${app.ocr.tiers.escalation.disabled:}")
+    private String escalationDisabledSpec;
+
+    @Value("${app.ocr.confidence.threshold:0.7}")
+    private double confidenceThreshold;
+
+    private final Map<Document.DocumentType, String> fastLanguages = new EnumMap<>(Document.DocumentType.class);
+    private final Map<Document.DocumentType, String> bestLanguages = new EnumMap<>(Document.DocumentType.class);
+    private final Set<Document.DocumentType> escalationDisabled = EnumSet.noneOf(Document.DocumentType.class);
+
+    @jakarta.annotation.PostConstruct
+    public void init() {
+        fastLanguages.putAll(parseLanguages(fastLanguagesSpec));
+        bestLanguages.putAll(parseLanguages(bestLanguagesSpec));
+        for (String type : escalationDisabledSpec.split(",")) {
+            if (!type.isBlank()) {
+                escalationDisabled.add(Document.DocumentType.valueOf(type.trim()));
+            }
+        }
+        logger.info("OCR à deux niveaux: {} - Rapide: {} ({}), Complet: {} ({}), seuil de relecture {}",
+            enabled ? "activé" : "désactivé", fastDefaultLanguage, dataPathLabel(fastDataPath),
+            bestDefaultLanguage, dataPathLabel(bestDataPath), Math.round(confidenceThreshold * 100));
+    }
+
+    /**
+     * Configuration moteur du niveau pour un type de document ; sans niveaux, le niveau complet est utilisé seul
+     */
+    public TesseractEnginePool.EngineConfig config(Tier tier, Document.DocumentType documentType,
+                                                   TesseractEnginePool.EngineConfig base) {
+        Tier effective = enabled ? tier : Tier.BEST;
+        String dataPath = effective == Tier.FAST ? fastDataPath : bestDataPath;
+        return new TesseractEnginePool.EngineConfig(dataPath == null || dataPath.isBlank() ? null : dataPath.trim(),
+            language(effective, documentType), base.getPageSegMode(), base.getEngineMode(), base.getVariables());
+    }
+
+    /**
+     * Niveau de la première lecture
+     */
+    public Tier firstTier() {
+        return enabled ? Tier.FAST : Tier.BEST;
+    }
+
+    /**
+     * Relecture avec le niveau complet d'un texte lu avec le niveau rapide à la confiance donnée (0-100)
+     */
+    public boolean shouldEscalate(Document.DocumentType documentType, int confidence) {
+        return canEscalate(documentType) && confidence < confidenceThreshold * 100;
+    }
+
+    /**
+     * La relecture n'a de sens que si le niveau complet diffère du niveau rapide (modèles ou langues)
+     */
+    public boolean canEscalate(Document.DocumentType documentType) {
+        return enabled
+            && !escalationDisabled.contains(documentType)
+            && !(fastDataPath.trim().equals(bestDataPath.trim())
+                && language(Tier.FAST, documentType).equals(language(Tier.BEST, documentType)));
+    }
+
+    String language(Tier tier, Document.DocumentType documentType) {
+        return tier == Tier.FAST
+            ? fastLanguages.getOrDefault(documentType, fastDefaultLanguage)
+            : bestLanguages.getOrDefault(documentType, bestDefaultLanguage);
+    }
+
+    static Map<Document.DocumentType, String> parseLanguages(String spec) {
+        Map<Document.DocumentType, String> languages = new EnumMap<>(Document.DocumentType.class);
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf(':');
+            if (separator <= 0 || separator == entry.length() - 1) {
+                throw new IllegalStateException("Langues OCR par type invalides (TYPE:langues attendu): " + entry.trim());
+            }
+            languages.put(Document.DocumentType.valueOf(entry.substring(0, separator).trim()),
+                entry.substring(separator + 1).trim());
+        }
+        return languages;
+    }
+
+    private static String dataPathLabel(String dataPath) {
+        return dataPath.isBlank() ? "traineddata par défaut" : dataPath;
+    }
+}
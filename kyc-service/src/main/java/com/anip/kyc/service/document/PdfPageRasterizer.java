@@ -0,0 +1,94 @@
+package com.anip.kyc.service.document;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.IOException;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+/**
+ * Rasterisation page par page d'un PDF en niveaux de gris à la résolution cible.
+ * Les flux du document sont mis en cache dans un fichier temporaire (pas en mémoire) et une seule
+ * page est rendue à la fois : le consommateur décide de continuer ou non après chaque page.
+ */
+@Component
+public class PdfPageRasterizer {
+
+    private static final byte[] PDF_MAGIC = {'%', 'P', 'D', 'F', '-'};
+
+    @Value("${app.ocr.pdf.dpi:300}")
+    private float dpi;
+
+    @Value("${app.ocr.pdf.max.pages:10}")
+    private int maxPages;
+
+    /**
+     * Résolution de rendu des pages
+     */
+    public float getDpi() {
+        return dpi;
+    }
+
+    /**
+     * Réception d'une page rendue ; la page appartient au consommateur (à libérer).
+     * Retourne false pour arrêter la rasterisation.
+     */
+    @FunctionalInterface
+    public interface PageConsumer {
+        boolean accept(int pageIndex, int pageCount, Mat page) throws Exception;
+    }
+
+    /**
+     * Détection par signature (%PDF-) plutôt que par type MIME déclaré
+     */
+    public static boolean isPdf(byte[] content) {
+        if (content == null || content.length < PDF_MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < PDF_MAGIC.length; i++) {
+            if (content[i] != PDF_MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rend les pages dans l'ordre jusqu'à app.ocr.pdf.max.pages ou jusqu'à l'arrêt demandé.
+     * Retourne le nombre total de pages du document.
+     */
+    public int render(byte[] pdf, PageConsumer consumer) throws Exception {
+        try (PDDocument document = Loader.loadPDF(pdf, "", null, null, IOUtils.createTempFileOnlyStreamCache())) {
+            PDFRenderer renderer = new PDFRenderer(document);
+            int pageCount = document.getNumberOfPages();
+            int pages = Math.min(pageCount, maxPages);
+            for (int i = 0; i < pages; i++) {
+                Mat page = toMat(renderer.renderImageWithDPI(i, dpi, ImageType.GRAY));
+                if (!consumer.accept(i, pageCount, page)) {
+                    break;
+                }
+            }
+            return pageCount;
+        }
+    }
+
+    private static Mat toMat(BufferedImage image) throws IOException {
+        if (image.getType() != BufferedImage.TYPE_BYTE_GRAY) {
+            throw new IOException("Type d'image PDF inattendu: " + image.getType());
+        }
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        Mat mat = new Mat(image.getHeight(), image.getWidth(), CvType.CV_8UC1);
+        mat.put(0, 0, pixels);
+        return mat;
+    }
+}
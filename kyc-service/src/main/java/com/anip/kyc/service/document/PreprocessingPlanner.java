@@ -0,0 +1,272 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.models.Document;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfFloat;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Planification du prétraitement OCR d'après une estimation rapide de la qualité de l'image :
+ * - bruit : écart-type estimé (Immerkær) sur un extrait central en pleine résolution
+ * - contraste : écart entre les centiles 2 et 98 de l'histogramme d'une vignette
+ * - résolution : DPI déduit des dimensions physiques du type de document (document cadré)
+ *
+ * L'image est d'abord rééchantillonnée vers app.ocr.preprocess.target.dpi, puis reçoit :
+ * - GRAY : niveaux de gris seuls (scan propre et contrasté, pas de débruitage)
+ * - CONTRAST : égalisation d'histogramme (image propre mais terne)
+ * - FULL : égalisation, filtre bilatéral, contours et fermeture morphologique (image bruitée)
+ */
+@Component
+public class PreprocessingPlanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreprocessingPlanner.class);
+
+    public enum Plan { GRAY, CONTRAST, FULL }
+
+    private static final double MM_PER_INCH = 25.4;
+
+    private static final int NOISE_PATCH = 512;
+    private static final double THUMBNAIL_WIDTH = 400.0;
+    // Pas de rééchantillonnage pour un écart de moins de 15 % à la résolution cible
+    private static final double SCALE_TOLERANCE = 0.15;
+    private static final double MAX_SCALE = 4.0;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.ocr.preprocess.mode:adaptive}")
+    private String mode;
+
+    @Value("${app.ocr.preprocess.target.dpi:300}")
+    private double targetDpi;
+
+    // Réduction bornée : le DPI estimé suppose un document qui occupe toute l'image
+    @Value("${app.ocr.preprocess.min.scale:0.5}")
+    private double minScale;
+
+    @Value("${app.ocr.preprocess.noise.threshold:6.0}")
+    private double noiseThreshold;
+
+    @Value("${app.ocr.preprocess.contrast.threshold:120}")
+    private double contrastThreshold;
+
+    /**
+     * Estimation et choix du plan
+     */
+    public Estimate estimate(Mat image, double sourceDpi) {
+        long start = System.nanoTime();
+        // Aucune conversion en pleine résolution : extrait central et vignette seulement
+        double noise = estimateNoise(image);
+        double contrast = estimateContrast(image);
+
+        Plan plan;
+        if ("full".equalsIgnoreCase(mode) || noise >= noiseThreshold) {
+            plan = Plan.FULL;
+        } else if (contrast < contrastThreshold) {
+            plan = Plan.CONTRAST;
+        } else {
+            plan = Plan.GRAY;
+        }
+
+        double scale = Math.max(minScale, Math.min(MAX_SCALE, targetDpi / sourceDpi));
+        if (Math.abs(scale - 1.0) < SCALE_TOLERANCE) {
+            scale = 1.0;
+        }
+        return new Estimate(plan, noise, contrast, sourceDpi, scale, (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Prétraitement d'une photo ou d'un scan : DPI déduit du type de document
+     */
+    public Mat preprocess(Mat image, Document.DocumentType documentType) {
+        return preprocess(image, estimateDpi(image, documentType));
+    }
+
+    /**
+     * Prétraitement d'une image de résolution connue (page PDF rendue)
+     */
+    public Mat preprocess(Mat image, double sourceDpi) {
+        Estimate estimate = estimate(image, sourceDpi);
+        long start = System.nanoTime();
+        Mat result = apply(image, estimate.getPlan(), estimate.getScale());
+        Timer.builder("kyc.ocr.preprocess.duration")
+            .tag("plan", estimate.getPlan().name())
+            .description("Durée du prétraitement OCR par plan")
+            .register(meterRegistry)
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        logger.debug("Prétraitement {} - Bruit: {}, Contraste: {}, DPI: {} -> échelle {}, Estimation: {} ms, Dimensions: {}x{}",
+            estimate.getPlan(), String.format("%.1f", estimate.getNoise()), String.format("%.0f", estimate.getContrast()),
+            String.format("%.0f", estimate.getSourceDpi()), String.format("%.2f", estimate.getScale()),
+            String.format("%.1f", estimate.getEstimationMillis()), result.width(), result.height());
+        return result;
+    }
+
+    /**
+     * Application d'un plan : rééchantillonnage puis chaîne du plan ; retourne une image 8 bits en niveaux de gris
+     */
+    public Mat apply(Mat image, Plan plan, double scale) {
+        Mat gray = toGray(image);
+        if (scale != 1.0) {
+            Imgproc.resize(gray, gray, new Size(), scale, scale, scale < 1.0 ? Imgproc.INTER_AREA : Imgproc.INTER_CUBIC);
+        }
+        if (plan == Plan.GRAY) {
+            return gray;
+        }
+
+        // Amélioration du contraste
+        Mat enhanced = new Mat();
+        Imgproc.equalizeHist(gray, enhanced);
+        gray.release();
+        if (plan == Plan.CONTRAST) {
+            return enhanced;
+        }
+
+        // Débruitage
+        Mat denoised = new Mat();
+        Imgproc.bilateralFilter(enhanced, denoised, 9, 75, 75);
+        enhanced.release();
+
+        // Détection des contours pour améliorer la lisibilité
+        Mat edges = new Mat();
+        Imgproc.Canny(denoised, edges, 50, 150);
+
+        // Fermeture morphologique pour connecter les caractères
+        Mat kernel = Imgproc.getStructuringElement(Imgproc.MORPH_RECT, new Size(2, 2));
+        Mat closed = new Mat();
+        Imgproc.morphologyEx(edges, closed, Imgproc.MORPH_CLOSE, kernel);
+
+        // Combinaison de l'image débruitée et des contours
+        Mat result = new Mat();
+        Core.addWeighted(denoised, 0.8, closed, 0.2, 0, result);
+
+        denoised.release();
+        edges.release();
+        kernel.release();
+        closed.release();
+        return result;
+    }
+
+    /**
+     * DPI de l'image en supposant que le document l'occupe entièrement
+     */
+    public static double estimateDpi(Mat image, Document.DocumentType documentType) {
+        // Portrait ou paysage : le grand côté de l'image correspond au grand côté du document
+        double longSideMm = DocumentBoundaryDetector.physicalSize(documentType)[0];
+        return Math.max(image.width(), image.height()) / (longSideMm / MM_PER_INCH);
+    }
+
+    private static Mat toGray(Mat image) {
+        Mat gray = new Mat();
+        if (image.channels() == 1) {
+            image.copyTo(gray);
+        } else {
+            Imgproc.cvtColor(image, gray, Imgproc.COLOR_BGR2GRAY);
+        }
+        return gray;
+    }
+
+    /**
+     * Estimation rapide de l'écart-type du bruit (Immerkær, 1996) sur l'extrait central
+     */
+    private static double estimateNoise(Mat image) {
+        int w = Math.min(NOISE_PATCH, image.width());
+        int h = Math.min(NOISE_PATCH, image.height());
+        if (w < 3 || h < 3) {
+            return 0.0;
+        }
+        Mat region = new Mat(image, new Rect((image.width() - w) / 2, (image.height() - h) / 2, w, h));
+        Mat patch = toGray(region);
+        region.release();
+        Mat kernel = new Mat(3, 3, CvType.CV_32F);
+        kernel.put(0, 0, 1, -2, 1, -2, 4, -2, 1, -2, 1);
+        Mat response = new Mat();
+        Imgproc.filter2D(patch, response, CvType.CV_32F, kernel);
+        Core.absdiff(response, Scalar.all(0), response);
+        double sum = Core.sumElems(response).val[0];
+        patch.release();
+        kernel.release();
+        response.release();
+        return Math.sqrt(Math.PI / 2.0) * sum / (6.0 * w * h);
+    }
+
+    /**
+     * Écart entre les centiles 2 et 98 des niveaux de gris, sur une vignette échantillonnée (sans moyennage)
+     */
+    private static double estimateContrast(Mat image) {
+        Mat resized = new Mat();
+        double scale = Math.min(1.0, THUMBNAIL_WIDTH / image.width());
+        Imgproc.resize(image, resized, new Size(), scale, scale, Imgproc.INTER_NEAREST);
+        Mat thumbnail = toGray(resized);
+        resized.release();
+        Mat hist = new Mat();
+        Imgproc.calcHist(List.of(thumbnail), new MatOfInt(0), new Mat(), hist,
+            new MatOfInt(256), new MatOfFloat(0, 256));
+        double total = thumbnail.total();
+        thumbnail.release();
+
+        int low = -1;
+        int high = 255;
+        double cumulative = 0;
+        for (int i = 0; i < 256; i++) {
+            cumulative += hist.get(i, 0)[0];
+            if (low < 0 && cumulative >= total * 0.02) {
+                low = i;
+            }
+            if (cumulative >= total * 0.98) {
+                high = i;
+                break;
+            }
+        }
+        hist.release();
+        return high - Math.max(low, 0);
+    }
+
+    /**
+     * Mesures de qualité et plan retenu
+     */
+    public static class Estimate {
+        private final Plan plan;
+        private final double noise;
+        private final double contrast;
+        private final double sourceDpi;
+        private final double scale;
+        private final double estimationMillis;
+
+        public Estimate(Plan plan, double noise, double contrast, double sourceDpi, double scale, double estimationMillis) {
+            this.plan = plan;
+            this.noise = noise;
+            this.contrast = contrast;
+            this.sourceDpi = sourceDpi;
+            this.scale = scale;
+            this.estimationMillis = estimationMillis;
+        }
+
+        public Plan getPlan() { return plan; }
+        public double getNoise() { return noise; }
+        public double getContrast() { return contrast; }
+        public double getSourceDpi() { return sourceDpi; }
+        public double getScale() { return scale; }
+        public double getEstimationMillis() { return estimationMillis; }
+    }
+}
@@ -0,0 +1,491 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.config.CpuBudgetManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.jna.Pointer;
+
+import net.sourceforge.tess4j.ITessAPI;
+import net.sourceforge.tess4j.TessAPI1;
+import net.sourceforge.tess4j.TesseractException;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Pool borné de moteurs Tesseract initialisés, par configuration (langues, PSM, OEM, variables).
+ * Le wrapper Tess4J Tesseract réinitialise le moteur (rechargement des traineddata) à chaque doOCR :
+ * les moteurs sont ici tenus ouverts via l'API C (TessBaseAPI) et réutilisés entre documents.
+ *
+ * - taille max par configuration : app.ocr.pool.max.engines (0 = pool document du budget CPU)
+ * - total de moteurs natifs toutes configurations : app.ocr.pool.max.total.engines (0 = 2 x taille par configuration) ;
+ *   à la limite, les moteurs inactifs de la configuration la moins récemment utilisée sont détruits
+ * - recyclage après app.ocr.pool.max.pages pages pour contenir les fuites natives
+ * - contrôle de santé à l'emprunt (langues chargées) ; un moteur en erreur est détruit
+ * - métriques : kyc.ocr.pool.wait, kyc.ocr.pool.engines{state}, kyc.ocr.pool.recycled{reason} (evicted : éviction LRU)
+ */
+@Component
+public class TesseractEnginePool {
+
+    private static final Logger logger = LoggerFactory.getLogger(TesseractEnginePool.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CpuBudgetManager cpuBudget;
+
+    @Value("${app.ocr.tesseract.datapath}")
+    private String tesseractDataPath;
+
+    @Value("${app.ocr.pool.max.engines:0}")
+    private int configuredMaxEngines;
+
+    @Value("${app.ocr.pool.max.total.engines:0}")
+    private int configuredMaxTotalEngines;
+
+    @Value("${app.ocr.pool.max.pages:200}")
+    private int maxPagesPerEngine;
+
+    @Value("${app.ocr.pool.borrow.timeout.ms:30000}")
+    private long borrowTimeoutMs;
+
+    private int maxEnginesPerConfig;
+    private int maxTotalEngines;
+
+    // Opérations natives ; remplaçables pour les tests
+    private EngineFactory engineFactory = new TessApiEngineFactory();
+
+    // Moteurs existants (actifs et inactifs), bornés par maxTotalEngines ; garde aussi les attentes de place
+    private final Object capacityLock = new Object();
+    private int totalEngines;
+
+    private final Map<EngineConfig, Partition> partitions = new ConcurrentHashMap<>();
+
+    private final AtomicInteger idleEngines = new AtomicInteger();
+    private final AtomicInteger activeEngines = new AtomicInteger();
+
+    private Timer waitTimer;
+    private Counter createdCounter;
+
+    @jakarta.annotation.PostConstruct
+    public void init() {
+        maxEnginesPerConfig = configuredMaxEngines > 0 ? configuredMaxEngines : cpuBudget.getDocumentThreads();
+        maxTotalEngines = Math.max(maxEnginesPerConfig,
+            configuredMaxTotalEngines > 0 ? configuredMaxTotalEngines : 2 * maxEnginesPerConfig);
+
+        waitTimer = Timer.builder("kyc.ocr.pool.wait")
+            .description("Attente d'un moteur Tesseract disponible")
+            .register(meterRegistry);
+        createdCounter = Counter.builder("kyc.ocr.pool.created")
+            .description("Moteurs Tesseract initialisés")
+            .register(meterRegistry);
+        Gauge.builder("kyc.ocr.pool.engines", idleEngines, AtomicInteger::get)
+            .tag("state", "idle")
+            .register(meterRegistry);
+        Gauge.builder("kyc.ocr.pool.engines", activeEngines, AtomicInteger::get)
+            .tag("state", "active")
+            .register(meterRegistry);
+
+        logger.info("Pool Tesseract: {} moteur(s) max par configuration, {} au total, recyclage après {} pages",
+            maxEnginesPerConfig, maxTotalEngines, maxPagesPerEngine);
+    }
+
+    /**
+     * Emprunt d'un moteur pour une configuration ; à restituer via Engine.close() (try-with-resources)
+     */
+    public Engine borrow(EngineConfig config) throws TesseractException {
+        Partition partition = partitions.computeIfAbsent(config, c -> new Partition());
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMs);
+        boolean acquired;
+        try {
+            acquired = partition.permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TesseractException("Attente d'un moteur OCR interrompue", e);
+        }
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            throw new TesseractException("Aucun moteur OCR disponible après " + borrowTimeoutMs + " ms");
+        }
+
+        partition.lastBorrowNanos = System.nanoTime();
+        try {
+            Engine engine = partition.idle.pollFirst();
+            if (engine != null) {
+                idleEngines.decrementAndGet();
+            }
+            if (engine != null && !isHealthy(engine)) {
+                recycle(engine, "health");
+                engine = null;
+            }
+            if (engine == null) {
+                reserveCapacity(deadline);
+                try {
+                    engine = create(config, partition);
+                } catch (RuntimeException | TesseractException e) {
+                    releaseCapacity();
+                    throw e;
+                }
+            }
+            engine.released = false;
+            activeEngines.incrementAndGet();
+            return engine;
+        } catch (RuntimeException | TesseractException e) {
+            partition.permits.release();
+            throw e;
+        }
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void shutdown() {
+        for (Partition partition : partitions.values()) {
+            Engine engine;
+            while ((engine = partition.idle.pollFirst()) != null) {
+                idleEngines.decrementAndGet();
+                destroy(engine);
+                releaseCapacity();
+            }
+        }
+    }
+
+    private void release(Engine engine) {
+        activeEngines.decrementAndGet();
+        Partition partition = engine.partition;
+        try {
+            if (engine.broken) {
+                recycle(engine, "error");
+            } else if (engine.pages >= maxPagesPerEngine) {
+                recycle(engine, "pages");
+            } else {
+                engineFactory.clear(engine.handle);
+                partition.idle.offerFirst(engine);
+                idleEngines.incrementAndGet();
+                synchronized (capacityLock) {
+                    // Moteur inactif : évictable par un emprunt en attente de place
+                    capacityLock.notifyAll();
+                }
+            }
+        } finally {
+            partition.permits.release();
+        }
+    }
+
+    /**
+     * Réserve la place d'un nouveau moteur sous la limite globale. À la limite, détruit le moteur inactif le plus
+     * ancien de la configuration la moins récemment empruntée ; sans moteur inactif, attend une restitution.
+     */
+    private void reserveCapacity(long deadline) throws TesseractException {
+        while (true) {
+            Engine victim;
+            synchronized (capacityLock) {
+                if (totalEngines < maxTotalEngines) {
+                    totalEngines++;
+                    return;
+                }
+                victim = pollLeastRecentlyUsedIdle();
+                if (victim == null) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new TesseractException("Limite de " + maxTotalEngines + " moteurs OCR atteinte après "
+                            + borrowTimeoutMs + " ms");
+                    }
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(capacityLock, remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new TesseractException("Attente d'un moteur OCR interrompue", e);
+                    }
+                    continue;
+                }
+            }
+            recycle(victim, "evicted");
+        }
+    }
+
+    private Engine pollLeastRecentlyUsedIdle() {
+        Partition oldest = null;
+        for (Partition partition : partitions.values()) {
+            if (!partition.idle.isEmpty() && (oldest == null || partition.lastBorrowNanos - oldest.lastBorrowNanos < 0)) {
+                oldest = partition;
+            }
+        }
+        Engine engine = oldest != null ? oldest.idle.pollLast() : null;
+        if (engine != null) {
+            idleEngines.decrementAndGet();
+        }
+        return engine;
+    }
+
+    private void releaseCapacity() {
+        synchronized (capacityLock) {
+            totalEngines--;
+            capacityLock.notifyAll();
+        }
+    }
+
+    private Engine create(EngineConfig config, Partition partition) throws TesseractException {
+        String dataPath = config.dataPath != null ? config.dataPath : tesseractDataPath;
+        ITessAPI.TessBaseAPI handle = engineFactory.create(dataPath, config);
+        createdCounter.increment();
+        logger.debug("Moteur Tesseract initialisé - Langues: {}", config.language);
+        return new Engine(handle, config, partition);
+    }
+
+    private boolean isHealthy(Engine engine) {
+        try {
+            return engineFactory.isHealthy(engine.handle, engine.config);
+        } catch (Throwable t) {
+            logger.warn("Contrôle de santé du moteur Tesseract en échec: {}", t.getMessage());
+            return false;
+        }
+    }
+
+    private void recycle(Engine engine, String reason) {
+        Counter.builder("kyc.ocr.pool.recycled")
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment();
+        destroy(engine);
+        releaseCapacity();
+    }
+
+    private void destroy(Engine engine) {
+        try {
+            engineFactory.destroy(engine.handle);
+        } catch (Throwable t) {
+            logger.warn("Erreur lors de la libération d'un moteur Tesseract: {}", t.getMessage());
+        }
+    }
+
+    /**
+     * Moteurs existants, actifs et inactifs
+     */
+    int getTotalEngines() {
+        synchronized (capacityLock) {
+            return totalEngines;
+        }
+    }
+
+    private class Partition {
+        private final Semaphore permits = new Semaphore(maxEnginesPerConfig, true);
+        private final LinkedBlockingDeque<Engine> idle = new LinkedBlockingDeque<>();
+        private volatile long lastBorrowNanos = System.nanoTime();
+    }
+
+    /**
+     * Cycle de vie natif d'un moteur
+     */
+    interface EngineFactory {
+        ITessAPI.TessBaseAPI create(String dataPath, EngineConfig config) throws TesseractException;
+
+        boolean isHealthy(ITessAPI.TessBaseAPI handle, EngineConfig config);
+
+        void clear(ITessAPI.TessBaseAPI handle);
+
+        void destroy(ITessAPI.TessBaseAPI handle);
+    }
+
+    private static final class TessApiEngineFactory implements EngineFactory {
+        @Override
+        public ITessAPI.TessBaseAPI create(String dataPath, EngineConfig config) throws TesseractException {
+            ITessAPI.TessBaseAPI handle = TessAPI1.TessBaseAPICreate();
+            int rc = TessAPI1.TessBaseAPIInit2(handle, dataPath, config.language, config.engineMode);
+            if (rc != 0) {
+                TessAPI1.TessBaseAPIDelete(handle);
+                throw new TesseractException("Initialisation Tesseract impossible (" + config.language + ", code " + rc + ")");
+            }
+            TessAPI1.TessBaseAPISetPageSegMode(handle, config.pageSegMode);
+            for (Map.Entry<String, String> variable : config.variables.entrySet()) {
+                if (TessAPI1.TessBaseAPISetVariable(handle, variable.getKey(), variable.getValue()) == 0) {
+                    logger.warn("Impossible d'appliquer tess variable: {}", variable.getKey());
+                }
+            }
+            return handle;
+        }
+
+        @Override
+        public boolean isHealthy(ITessAPI.TessBaseAPI handle, EngineConfig config) {
+            return config.language.equals(TessAPI1.TessBaseAPIGetInitLanguagesAsString(handle));
+        }
+
+        @Override
+        public void clear(ITessAPI.TessBaseAPI handle) {
+            TessAPI1.TessBaseAPIClear(handle);
+        }
+
+        @Override
+        public void destroy(ITessAPI.TessBaseAPI handle) {
+            TessAPI1.TessBaseAPIEnd(handle);
+            TessAPI1.TessBaseAPIDelete(handle);
+        }
+    }
+
+    /**
+     * Moteur emprunté ; une instance n'est utilisée que par un thread à la fois
+     */
+    public class Engine implements AutoCloseable {
+        private final ITessAPI.TessBaseAPI handle;
+        private final EngineConfig config;
+        private final Partition partition;
+        private int pages;
+        private boolean broken;
+        private boolean released;
+
+        private Engine(ITessAPI.TessBaseAPI handle, EngineConfig config, Partition partition) {
+            this.handle = handle;
+            this.config = config;
+            this.partition = partition;
+        }
+
+        /**
+         * OCR d'une image brute (pixels contigus, bpp bits par pixel, bytesPerLine octets par ligne)
+         */
+        public String recognize(ByteBuffer pixels, int width, int height, int bpp, int bytesPerLine) throws TesseractException {
+            pages++;
+            try {
+                TessAPI1.TessBaseAPISetImage(handle, pixels, width, height, bpp / 8, bytesPerLine);
+                Pointer text = TessAPI1.TessBaseAPIGetUTF8Text(handle);
+                if (text == null) {
+                    throw new TesseractException("Reconnaissance Tesseract sans résultat");
+                }
+                try {
+                    return text.getString(0, "UTF-8");
+                } finally {
+                    TessAPI1.TessDeleteText(text);
+                }
+            } catch (TesseractException e) {
+                broken = true;
+                throw e;
+            } catch (RuntimeException | Error e) {
+                broken = true;
+                throw new TesseractException("Erreur du moteur Tesseract: " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * OCR d'une image OpenCV sans encodage intermédiaire : le buffer natif du Mat (8 bits, niveaux de gris)
+         * est transmis directement à Tesseract, qui en fait sa propre copie dans SetImage.
+         * Les images couleur ou non contiguës sont d'abord converties.
+         */
+        public String recognize(Mat image) throws TesseractException {
+            Mat pixels = image;
+            if (image.channels() != 1) {
+                pixels = new Mat();
+                Imgproc.cvtColor(image, pixels, image.channels() == 4 ? Imgproc.COLOR_BGRA2GRAY : Imgproc.COLOR_BGR2GRAY);
+            }
+            if (pixels.depth() != CvType.CV_8U) {
+                Mat converted = new Mat();
+                pixels.convertTo(converted, CvType.CV_8U);
+                if (pixels != image) {
+                    pixels.release();
+                }
+                pixels = converted;
+            }
+            if (!pixels.isContinuous()) {
+                Mat continuous = pixels.clone();
+                if (pixels != image) {
+                    pixels.release();
+                }
+                pixels = continuous;
+            }
+
+            try {
+                ByteBuffer buffer = new Pointer(pixels.dataAddr()).getByteBuffer(0, pixels.total() * pixels.elemSize());
+                return recognize(buffer, pixels.cols(), pixels.rows(), 8, (int) pixels.step1(0));
+            } finally {
+                if (pixels != image) {
+                    pixels.release();
+                }
+            }
+        }
+
+        /**
+         * Confiance moyenne (0-100) de la dernière reconnaissance
+         */
+        public int getMeanConfidence() {
+            return TessAPI1.TessBaseAPIMeanTextConf(handle);
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(this);
+            }
+        }
+    }
+
+    /**
+     * Configuration d'un moteur : clé du pool. dataPath désigne un répertoire de traineddata propre à la
+     * configuration (null = app.ocr.tesseract.datapath).
+     */
+    public static final class EngineConfig {
+        private final String dataPath;
+        private final String language;
+        private final int pageSegMode;
+        private final int engineMode;
+        private final Map<String, String> variables;
+
+        public EngineConfig(String language, int pageSegMode, int engineMode, Map<String, String> variables) {
+            this(null, language, pageSegMode, engineMode, variables);
+        }
+
+        public EngineConfig(String dataPath, String language, int pageSegMode, int engineMode,
+                            Map<String, String> variables) {
+            this.dataPath = dataPath;
+            this.language = language;
+            this.pageSegMode = pageSegMode;
+            this.engineMode = engineMode;
+            this.variables = Collections.unmodifiableMap(new TreeMap<>(variables));
+        }
+
+        public String getDataPath() { return dataPath; }
+        public String getLanguage() { return language; }
+        public int getPageSegMode() { return pageSegMode; }
+        public int getEngineMode() { return engineMode; }
+        public Map<String, String> getVariables() { return variables; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof EngineConfig)) return false;
+            EngineConfig other = (EngineConfig) o;
+            return pageSegMode == other.pageSegMode
+                && engineMode == other.engineMode
+                && Objects.equals(dataPath, other.dataPath)
+                && language.equals(other.language)
+                && variables.equals(other.variables);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dataPath, language, pageSegMode, engineMode, variables);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.anip.kyc.service.document;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfFloat;
+import org.opencv.core.MatOfRotatedRect;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Rect;
+import org.opencv.core.RotatedRect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.dnn.TextDetectionModel_EAST;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Détection des lignes de texte d'un document redressé, pour un OCR région par région :
+ * - morphology (défaut) : gradient morphologique, binarisation d'Otsu et fermeture horizontale qui fusionne
+ *   les caractères d'une ligne ; les blocs trop hauts ou trop peu allongés (photo, hologramme) sont écartés
+ * - east : modèle EAST via OpenCV DNN (frozen_east_text_detection.pb sous app.opencv.models.path/east),
+ *   repli sur la morphologie si le modèle est absent
+ * Les boîtes de mots voisines sont fusionnées en lignes, puis ordonnées en ordre de lecture
+ * (rangées de haut en bas, puis de gauche à droite).
+ */
+@Component
+public class TextRegionDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(TextRegionDetector.class);
+
+    public static final String DETECTOR_MORPHOLOGY = "morphology";
+    public static final String DETECTOR_EAST = "east";
+
+    // Tesseract : ligne unique ou bloc de texte uniforme
+    public static final int PSM_SINGLE_LINE = 7;
+    public static final int PSM_BLOCK = 6;
+
+    // Largeur de travail : les noyaux ci-dessous sont dimensionnés pour cette échelle
+    private static final double WORK_WIDTH = 1000.0;
+    private static final Size GRADIENT_KERNEL = new Size(3, 3);
+    private static final Size LINE_KERNEL = new Size(17, 3);
+    private static final int MIN_LINE_HEIGHT = 8;
+    private static final double MAX_LINE_HEIGHT_RATIO = 0.2;
+    private static final double MIN_ASPECT_RATIO = 1.2;
+    private static final double MIN_FILL_RATIO = 0.25;
+    // Hauteur au-delà de laquelle une région est lue comme un bloc (multiple de la hauteur de ligne médiane)
+    private static final double BLOCK_HEIGHT_RATIO = 2.2;
+    private static final double PADDING_RATIO = 0.25;
+
+    // EAST : moyenne des canaux utilisée à l'entraînement
+    private static final Scalar EAST_MEAN = new Scalar(123.68, 116.78, 103.94);
+
+    @Value("${app.opencv.models.path}")
+    private String modelsPath;
+
+    @Value("${app.ocr.text.detector:morphology}")
+    private String detectorType;
+
+    @Value("${app.ocr.text.east.input.size:640}")
+    private int eastInputSize;
+
+    @Value("${app.ocr.text.east.confidence:0.5}")
+    private float eastConfidence;
+
+    // Un modèle par thread : les modèles DNN ne sont pas partagés entre threads
+    private final ThreadLocal<TextDetectionModel_EAST> eastModels = ThreadLocal.withInitial(this::loadEast);
+
+    @jakarta.annotation.PostConstruct
+    public void init() {
+        if (!DETECTOR_MORPHOLOGY.equals(detectorType) && !DETECTOR_EAST.equals(detectorType)) {
+            logger.warn("Détecteur de texte inconnu '{}', utilisation de '{}'", detectorType, DETECTOR_MORPHOLOGY);
+            detectorType = DETECTOR_MORPHOLOGY;
+        }
+        logger.info("Détecteur de régions de texte: {}", detectorType);
+    }
+
+    /**
+     * Lignes de texte d'une image BGR ou niveaux de gris, en coordonnées de l'image et en ordre de lecture
+     */
+    public List<TextRegion> detect(Mat image) {
+        List<Rect> boxes = null;
+        if (DETECTOR_EAST.equals(detectorType)) {
+            TextDetectionModel_EAST model = eastModels.get();
+            if (model != null) {
+                boxes = detectWithEast(model, image);
+            }
+        }
+        if (boxes == null) {
+            boxes = detectWithMorphology(image);
+        }
+        return order(mergeLines(boxes), image.width(), image.height());
+    }
+
+    private List<Rect> detectWithMorphology(Mat image) {
+        double scale = Math.min(1.0, WORK_WIDTH / image.width());
+        Mat gray = new Mat();
+        if (image.channels() > 1) {
+            Imgproc.cvtColor(image, gray, Imgproc.COLOR_BGR2GRAY);
+        } else {
+            image.copyTo(gray);
+        }
+        if (scale < 1.0) {
+            Imgproc.resize(gray, gray, new Size(), scale, scale, Imgproc.INTER_AREA);
+        }
+
+        // Gradient morphologique : contours des caractères quel que soit le contraste fond/encre
+        Mat gradientKernel = Imgproc.getStructuringElement(Imgproc.MORPH_ELLIPSE, GRADIENT_KERNEL);
+        Mat gradient = new Mat();
+        Imgproc.morphologyEx(gray, gradient, Imgproc.MORPH_GRADIENT, gradientKernel);
+        Mat binary = new Mat();
+        Imgproc.threshold(gradient, binary, 0, 255, Imgproc.THRESH_BINARY | Imgproc.THRESH_OTSU);
+
+        // Fermeture horizontale : caractères puis mots d'une même ligne
+        Mat lineKernel = Imgproc.getStructuringElement(Imgproc.MORPH_RECT, LINE_KERNEL);
+        Mat closed = new Mat();
+        Imgproc.morphologyEx(binary, closed, Imgproc.MORPH_CLOSE, lineKernel);
+
+        List<MatOfPoint> contours = new ArrayList<>();
+        Mat hierarchy = new Mat();
+        Imgproc.findContours(closed, contours, hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+
+        int maxHeight = (int) (gray.height() * MAX_LINE_HEIGHT_RATIO);
+        List<Rect> boxes = new ArrayList<>();
+        for (MatOfPoint contour : contours) {
+            Rect r = Imgproc.boundingRect(contour);
+            contour.release();
+            if (r.height < MIN_LINE_HEIGHT || r.height > maxHeight || r.width < r.height * MIN_ASPECT_RATIO) {
+                continue;
+            }
+            // Part de pixels de contour : faible pour un aplat ou un cadre, élevée pour du texte
+            Mat region = binary.submat(r);
+            double fill = Core.countNonZero(region) / r.area();
+            region.release();
+            if (fill < MIN_FILL_RATIO) {
+                continue;
+            }
+            boxes.add(unscale(r, scale));
+        }
+
+        gray.release();
+        gradientKernel.release();
+        gradient.release();
+        binary.release();
+        lineKernel.release();
+        closed.release();
+        hierarchy.release();
+        return boxes;
+    }
+
+    private List<Rect> detectWithEast(TextDetectionModel_EAST model, Mat image) {
+        Mat bgr = image;
+        if (image.channels() == 1) {
+            bgr = new Mat();
+            Imgproc.cvtColor(image, bgr, Imgproc.COLOR_GRAY2BGR);
+        }
+        // Entrée carrée multiple de 32 ; les boîtes sont rendues en coordonnées de l'image
+        int size = Math.max(32, eastInputSize / 32 * 32);
+        model.setInputParams(1.0, new Size(size, size), EAST_MEAN, true);
+
+        MatOfRotatedRect detections = new MatOfRotatedRect();
+        MatOfFloat confidences = new MatOfFloat();
+        model.detectTextRectangles(bgr, detections, confidences);
+        List<Rect> boxes = new ArrayList<>();
+        for (RotatedRect detection : detections.toArray()) {
+            boxes.add(detection.boundingRect());
+        }
+
+        if (bgr != image) {
+            bgr.release();
+        }
+        detections.release();
+        confidences.release();
+        return boxes;
+    }
+
+    /**
+     * Fusion des boîtes qui se chevauchent verticalement et sont séparées d'un écart de mot
+     */
+    static List<Rect> mergeLines(List<Rect> boxes) {
+        List<Rect> sorted = new ArrayList<>(boxes);
+        sorted.sort(Comparator.comparingInt((Rect r) -> r.x));
+        List<Rect> lines = new ArrayList<>();
+        for (Rect box : sorted) {
+            Rect target = null;
+            for (Rect line : lines) {
+                int overlap = Math.min(line.y + line.height, box.y + box.height) - Math.max(line.y, box.y);
+                int gap = box.x - (line.x + line.width);
+                int height = Math.min(line.height, box.height);
+                if (overlap > height / 2 && gap < height * 1.5) {
+                    target = line;
+                    break;
+                }
+            }
+            if (target == null) {
+                lines.add(box.clone());
+            } else {
+                int x2 = Math.max(target.x + target.width, box.x + box.width);
+                int y2 = Math.max(target.y + target.height, box.y + box.height);
+                target.x = Math.min(target.x, box.x);
+                target.y = Math.min(target.y, box.y);
+                target.width = x2 - target.x;
+                target.height = y2 - target.y;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Marge, mode de segmentation, rangée et tri en ordre de lecture
+     */
+    private static List<TextRegion> order(List<Rect> lines, int width, int height) {
+        if (lines.isEmpty()) {
+            return new ArrayList<>();
+        }
+        int[] heights = lines.stream().mapToInt(r -> r.height).sorted().toArray();
+        int medianHeight = heights[heights.length / 2];
+
+        lines.sort(Comparator.comparingDouble((Rect r) -> r.y + r.height / 2.0));
+        List<TextRegion> regions = new ArrayList<>(lines.size());
+        int row = -1;
+        double rowCenter = Double.NEGATIVE_INFINITY;
+        for (Rect line : lines) {
+            double center = line.y + line.height / 2.0;
+            if (center - rowCenter > medianHeight / 2.0) {
+                row++;
+                rowCenter = center;
+            }
+            int pad = (int) Math.round(Math.min(line.height, medianHeight) * PADDING_RATIO);
+            int x = Math.max(0, line.x - pad);
+            int y = Math.max(0, line.y - pad);
+            Rect padded = new Rect(x, y, Math.min(width, line.x + line.width + pad) - x,
+                Math.min(height, line.y + line.height + pad) - y);
+            int pageSegMode = line.height > medianHeight * BLOCK_HEIGHT_RATIO ? PSM_BLOCK : PSM_SINGLE_LINE;
+            regions.add(new TextRegion(padded, row, pageSegMode));
+        }
+        regions.sort(Comparator.comparingInt(TextRegion::getRow).thenComparingInt(r -> r.getBox().x));
+        return regions;
+    }
+
+    private static Rect unscale(Rect rect, double scale) {
+        if (scale >= 1.0) {
+            return rect;
+        }
+        return new Rect(
+            (int) Math.round(rect.x / scale),
+            (int) Math.round(rect.y / scale),
+            (int) Math.round(rect.width / scale),
+            (int) Math.round(rect.height / scale));
+    }
+
+    private TextDetectionModel_EAST loadEast() {
+        String modelPath = modelsPath + "/east/frozen_east_text_detection.pb";
+        if (!new File(modelPath).isFile()) {
+            logger.warn("Modèle EAST introuvable ({}), repli sur la détection morphologique", modelPath);
+            return null;
+        }
+        try {
+            TextDetectionModel_EAST model = new TextDetectionModel_EAST(modelPath);
+            model.setConfidenceThreshold(eastConfidence).setNMSThreshold(0.4f);
+            return model;
+        } catch (Exception e) {
+            logger.warn("Erreur lors du chargement du modèle EAST, repli sur la détection morphologique: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Région de texte : boîte (avec marge), rangée en ordre de lecture et mode de segmentation Tesseract
+     */
+    public static class TextRegion {
+        private final Rect box;
+        private final int row;
+        private final int pageSegMode;
+
+        public TextRegion(Rect box, int row, int pageSegMode) {
+            this.box = box;
+            this.row = row;
+            this.pageSegMode = pageSegMode;
+        }
+
+        public Rect getBox() { return box; }
+        public int getRow() { return row; }
+        public int getPageSegMode() { return pageSegMode; }
+    }
+}
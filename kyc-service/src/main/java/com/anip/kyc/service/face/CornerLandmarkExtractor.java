@@ -0,0 +1,46 @@
+package com.anip.kyc.service.face;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Point;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Extracteur basique (défaut) : coins les plus marqués du visage (Shi-Tomasi).
+ * Ne correspond pas à des points anatomiques ; utiliser l'extracteur dnn pour l'alignement.
+ */
+@Component
+@ConditionalOnProperty(name = "app.face.landmarks.extractor", havingValue = "corners", matchIfMissing = true)
+public class CornerLandmarkExtractor implements FaceLandmarkExtractor {
+
+    private static final int MAX_CORNERS = 10;
+
+    @Override
+    public String getName() {
+        return "corners";
+    }
+
+    @Override
+    public List<Point> extract(Mat face) {
+        Mat gray = new Mat();
+        if (face.channels() > 1) {
+            Imgproc.cvtColor(face, gray, Imgproc.COLOR_BGR2GRAY);
+        } else {
+            face.copyTo(gray);
+        }
+
+        MatOfPoint cornerPoints = new MatOfPoint();
+        Imgproc.goodFeaturesToTrack(gray, cornerPoints, MAX_CORNERS, 0.01, 10);
+        List<Point> points = Arrays.asList(cornerPoints.toArray());
+
+        gray.release();
+        cornerPoints.release();
+        return points;
+    }
+}
@@ -0,0 +1,96 @@
+package com.anip.kyc.service.face;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.dnn.Dnn;
+import org.opencv.dnn.Net;
+
+/**
+ * Extracteur par régression DNN (modèle facemark exporté en ONNX, ex. 68 points).
+ * Le modèle reçoit le visage en RGB [0,1] (app.face.landmarks.input.size) et retourne
+ * 2N coordonnées normalisées [x0, y0, x1, y1, ...], ramenées aux dimensions du visage.
+ * Le visage fourni est soit déjà normalisé (CV_32F [0,1], extraction de la comparaison), soit en 8 bits.
+ * Net n'est pas sûr en accès concurrent : une instance par thread.
+ */
+@Component
+@ConditionalOnProperty(name = "app.face.landmarks.extractor", havingValue = "dnn")
+public class DnnLandmarkExtractor implements FaceLandmarkExtractor {
+
+    private static final Logger logger = LoggerFactory.getLogger(DnnLandmarkExtractor.class);
+
+    @Value("${app.face.landmarks.model:${app.opencv.models.path}/landmarks/face_landmarks.onnx}")
+    private String modelPath;
+
+    @Value("${app.face.landmarks.input.size:112}")
+    private int inputSize;
+
+    private final ThreadLocal<Net> nets = ThreadLocal.withInitial(this::loadNet);
+
+    @Override
+    public String getName() {
+        return "dnn";
+    }
+
+    @Override
+    public boolean isAnatomical() {
+        return true;
+    }
+
+    @Override
+    public List<Point> extract(Mat face) {
+        Net net = nets.get();
+        if (net.empty()) {
+            return new ArrayList<>();
+        }
+
+        Mat blob = toBlob(face, inputSize);
+        net.setInput(blob);
+        Mat output = net.forward();
+
+        float[] coords = new float[(int) output.total()];
+        output.reshape(1, 1).get(0, 0, coords);
+
+        List<Point> points = new ArrayList<>(coords.length / 2);
+        for (int i = 0; i + 1 < coords.length; i += 2) {
+            points.add(new Point(coords[i] * face.width(), coords[i + 1] * face.height()));
+        }
+
+        blob.release();
+        output.release();
+        return points;
+    }
+
+    /**
+     * Entrée du réseau en RGB [0,1] : seules les images 8 bits sont mises à l'échelle
+     */
+    static Mat toBlob(Mat face, int inputSize) {
+        double scale = CvType.depth(face.type()) == CvType.CV_8U ? 1.0 / 255.0 : 1.0;
+        return Dnn.blobFromImage(face, scale, new Size(inputSize, inputSize), new Scalar(0, 0, 0), true, false);
+    }
+
+    private Net loadNet() {
+        try {
+            Net net = Dnn.readNet(modelPath);
+            if (net.empty()) {
+                logger.warn("Impossible de charger le modèle de points caractéristiques: {}", modelPath);
+            }
+            return net;
+        } catch (Exception e) {
+            logger.warn("Erreur lors du chargement du modèle de points caractéristiques {}: {}", modelPath, e.getMessage());
+            return new Net();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.anip.kyc.service.face;
+
+import com.anip.kyc.models.FaceMatch;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Mémoïsation idempotente des comparaisons faciales.
+ * Clé : (session, documentId, SHA-256 de la capture, version du modèle). Une requête identique dans le TTL
+ * retourne le FaceMatch déjà enregistré ; une requête identique arrivant pendant le calcul
+ * se rattache au même futur au lieu de relancer le pipeline (retries des clients mobiles).
+ * Les calculs en échec ne sont pas conservés.
+ *
+ * Table en ordre d'accès : au-delà de max.entries, les entrées terminées les moins récemment
+ * utilisées sont évincées depuis la tête, sans parcourir toute la table.
+ * Métriques : kyc.face.compare.cache.requests{result=hit|miss}, kyc.face.compare.cache.size.
+ */
+@Component
+public class FaceComparisonCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FaceComparisonCache.class);
+
+    @Value("${app.face.compare.cache.ttl.seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${app.face.compare.cache.max.entries:1000}")
+    private int maxEntries;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Accès protégés par le verrou de l'instance
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @jakarta.annotation.PostConstruct
+    public void init() {
+        FunctionCounter.builder("kyc.face.compare.cache.requests", hits, AtomicLong::get)
+            .tag("result", "hit")
+            .description("Comparaisons faciales servies par la mémoïsation")
+            .register(meterRegistry);
+        FunctionCounter.builder("kyc.face.compare.cache.requests", misses, AtomicLong::get)
+            .tag("result", "miss")
+            .description("Comparaisons faciales calculées")
+            .register(meterRegistry);
+        Gauge.builder("kyc.face.compare.cache.size", this, FaceComparisonCache::size)
+            .description("Comparaisons faciales mémoïsées")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Retourne le résultat mémoïsé (terminé ou en cours) ou lance le calcul
+     */
+    public CompletableFuture<FaceMatch> getOrCompute(Key key, Supplier<CompletableFuture<FaceMatch>> computation) {
+        long now = System.currentTimeMillis();
+        Entry created = new Entry(now);
+
+        synchronized (this) {
+            Entry existing = entries.get(key);
+            if (existing != null && !existing.isExpired(now, ttlSeconds)) {
+                hits.incrementAndGet();
+                logger.debug("Comparaison faciale mémoïsée réutilisée - Document: {}", key.documentId);
+                return existing.future;
+            }
+            entries.put(key, created);
+            misses.incrementAndGet();
+            evictIfNeeded();
+        }
+
+        CompletableFuture<FaceMatch> computed;
+        try {
+            computed = computation.get();
+        } catch (RuntimeException e) {
+            // Calcul non lancé (exécuteur saturé) : l'entrée publiée ne doit pas rester en attente
+            fail(key, created, e);
+            return created.future;
+        }
+        computed.whenComplete((match, error) -> {
+            if (error != null) {
+                fail(key, created, error);
+            } else {
+                created.future.complete(match);
+            }
+        });
+        return created.future;
+    }
+
+    /**
+     * Ne pas mémoïser les échecs : le prochain retry relance le calcul
+     */
+    private void fail(Key key, Entry created, Throwable error) {
+        synchronized (this) {
+            entries.remove(key, created);
+        }
+        created.future.completeExceptionally(error);
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Éviction des entrées terminées les moins récemment utilisées ; les calculs en cours,
+     * en nombre borné par l'exécuteur, sont sautés
+     */
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            if (eldest.next().getValue().future.isDone()) {
+                eldest.remove();
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final long createdAt;
+        private final CompletableFuture<FaceMatch> future = new CompletableFuture<>();
+
+        private Entry(long createdAt) {
+            this.createdAt = createdAt;
+        }
+
+        private boolean isExpired(long now, long ttlSeconds) {
+            return future.isDone() && now - createdAt > ttlSeconds * 1000;
+        }
+    }
+
+    /**
+     * Clé de mémoïsation d'une comparaison
+     */
+    public static final class Key {
+        private final UUID sessionId;
+        private final UUID documentId;
+        private final String captureDigest;
+        private final String modelVersion;
+
+        public Key(UUID sessionId, UUID documentId, String captureDigest, String modelVersion) {
+            this.sessionId = sessionId;
+            this.documentId = documentId;
+            this.captureDigest = captureDigest;
+            this.modelVersion = modelVersion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return Objects.equals(sessionId, other.sessionId)
+                && documentId.equals(other.documentId)
+                && captureDigest.equals(other.captureDigest)
+                && modelVersion.equals(other.modelVersion);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sessionId, documentId, captureDigest, modelVersion);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.anip.kyc.service.face;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.MatOfRect;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.dnn.Dnn;
+import org.opencv.dnn.Net;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.objdetect.CascadeClassifier;
+import org.opencv.objdetect.Objdetect;
+
+/**
+ * Détecteur de visages partagé par les endpoints de détection et de comparaison.
+ * La détection est effectuée sur une copie réduite de l'image (app.face.detection.max.dimension),
+ * les boîtes sont ensuite ramenées aux coordonnées de l'image d'origine.
+ *
+ * Détecteurs disponibles (app.face.detection.detector):
+ * - haar : classifieur Haar en cascade (défaut, le plus rapide sur CPU)
+ * - dnn  : détecteur SSD OpenCV (opencv_face_detector_uint8.pb)
+ *
+ * CascadeClassifier et Net ne sont pas sûrs en accès concurrent : une instance par thread.
+ */
+@Component
+public class FaceDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(FaceDetector.class);
+
+    public static final String DETECTOR_HAAR = "haar";
+    public static final String DETECTOR_DNN = "dnn";
+
+    // Taille d'entrée du détecteur SSD
+    private static final Size SSD_INPUT_SIZE = new Size(300, 300);
+    private static final Scalar SSD_MEAN = new Scalar(104.0, 177.0, 123.0);
+
+    // Taille minimale d'un visage dans l'image d'origine (pixels)
+    private static final int MIN_FACE_SIZE = 50;
+    // Fenêtre de base du classifieur Haar
+    private static final int HAAR_WINDOW_SIZE = 20;
+
+    @Value("${app.opencv.models.path}")
+    private String modelsPath;
+
+    @Value("${app.face.detection.detector:haar}")
+    private String detectorType;
+
+    @Value("${app.face.detection.max.dimension:640}")
+    private int maxDimension;
+
+    @Value("${app.face.detection.scale.factor:1.1}")
+    private double scaleFactor;
+
+    @Value("${app.face.detection.min.neighbors:3}")
+    private int minNeighbors;
+
+    @Value("${app.face.detection.dnn.confidence:0.5}")
+    private double dnnConfidenceThreshold;
+
+    private final ThreadLocal<CascadeClassifier> cascades = ThreadLocal.withInitial(this::loadCascade);
+    private final ThreadLocal<Net> ssdNets = ThreadLocal.withInitial(this::loadSsdNet);
+
+    @jakarta.annotation.PostConstruct
+    public void init() {
+        if (!DETECTOR_HAAR.equals(detectorType) && !DETECTOR_DNN.equals(detectorType)) {
+            logger.warn("Détecteur de visages inconnu '{}', utilisation de '{}'", detectorType, DETECTOR_HAAR);
+            detectorType = DETECTOR_HAAR;
+        }
+        logger.info("Détecteur de visages: {}, dimension max: {}px", detectorType, maxDimension);
+    }
+
+    public String getDetectorType() {
+        return detectorType;
+    }
+
+    /**
+     * Détection de tous les visages d'une image BGR ou niveaux de gris.
+     * Les boîtes retournées sont en coordonnées de l'image d'origine, triées par surface décroissante.
+     */
+    public List<FaceBox> detect(Mat image) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(image.width(), image.height()));
+
+        Mat working = image;
+        if (scale < 1.0) {
+            working = new Mat();
+            Imgproc.resize(image, working, new Size(), scale, scale, Imgproc.INTER_AREA);
+        }
+
+        List<FaceBox> boxes;
+        if (DETECTOR_DNN.equals(detectorType) && !ssdNets.get().empty()) {
+            boxes = detectWithSsd(working, scale);
+        } else {
+            boxes = detectWithHaar(working, scale);
+        }
+
+        if (working != image) {
+            working.release();
+        }
+
+        boxes.sort(Comparator.comparingDouble((FaceBox b) -> b.getArea()).reversed());
+        return clip(boxes, image.width(), image.height());
+    }
+
+    private List<FaceBox> detectWithHaar(Mat working, double scale) {
+        CascadeClassifier classifier = cascades.get();
+        if (classifier.empty()) {
+            throw new IllegalStateException("Classifieur Haar indisponible");
+        }
+
+        Mat gray = new Mat();
+        if (working.channels() > 1) {
+            Imgproc.cvtColor(working, gray, Imgproc.COLOR_BGR2GRAY);
+        } else {
+            working.copyTo(gray);
+        }
+        Imgproc.equalizeHist(gray, gray);
+
+        int minSize = Math.max(HAAR_WINDOW_SIZE, (int) Math.round(MIN_FACE_SIZE * scale));
+        MatOfRect faces = new MatOfRect();
+        MatOfInt numDetections = new MatOfInt();
+        classifier.detectMultiScale2(gray, faces, numDetections, scaleFactor, minNeighbors,
+            Objdetect.CASCADE_SCALE_IMAGE, new Size(minSize, minSize), new Size());
+
+        Rect[] rects = faces.toArray();
+        int[] neighbors = numDetections.toArray();
+        List<FaceBox> boxes = new ArrayList<>(rects.length);
+        for (int i = 0; i < rects.length; i++) {
+            // Le nombre de détections voisines sert de confiance: n / (n + 1)
+            int n = i < neighbors.length ? neighbors[i] : minNeighbors;
+            boxes.add(new FaceBox(unscale(rects[i], scale), n / (n + 1.0)));
+        }
+
+        gray.release();
+        faces.release();
+        numDetections.release();
+        return boxes;
+    }
+
+    private List<FaceBox> detectWithSsd(Mat working, double scale) {
+        Mat bgr = working;
+        if (working.channels() == 1) {
+            bgr = new Mat();
+            Imgproc.cvtColor(working, bgr, Imgproc.COLOR_GRAY2BGR);
+        }
+
+        Net net = ssdNets.get();
+        Mat blob = Dnn.blobFromImage(bgr, 1.0, SSD_INPUT_SIZE, SSD_MEAN, false, false);
+        net.setInput(blob);
+        Mat output = net.forward();
+
+        // Sortie [1, 1, N, 7] : [_, classe, confiance, x1, y1, x2, y2] normalisés
+        Mat detections = output.reshape(1, (int) (output.total() / 7));
+        List<FaceBox> boxes = new ArrayList<>();
+        int width = bgr.width();
+        int height = bgr.height();
+        float[] row = new float[7];
+        for (int i = 0; i < detections.rows(); i++) {
+            detections.get(i, 0, row);
+            double confidence = row[2];
+            if (confidence < dnnConfidenceThreshold) {
+                continue;
+            }
+            int x1 = (int) (row[3] * width);
+            int y1 = (int) (row[4] * height);
+            int x2 = (int) (row[5] * width);
+            int y2 = (int) (row[6] * height);
+            if (x2 <= x1 || y2 <= y1) {
+                continue;
+            }
+            boxes.add(new FaceBox(unscale(new Rect(x1, y1, x2 - x1, y2 - y1), scale), confidence));
+        }
+
+        if (bgr != working) {
+            bgr.release();
+        }
+        blob.release();
+        output.release();
+        return boxes;
+    }
+
+    private Rect unscale(Rect rect, double scale) {
+        if (scale >= 1.0) {
+            return rect;
+        }
+        return new Rect(
+            (int) Math.round(rect.x / scale),
+            (int) Math.round(rect.y / scale),
+            (int) Math.round(rect.width / scale),
+            (int) Math.round(rect.height / scale));
+    }
+
+    private List<FaceBox> clip(List<FaceBox> boxes, int width, int height) {
+        List<FaceBox> clipped = new ArrayList<>(boxes.size());
+        for (FaceBox b : boxes) {
+            Rect r = b.getBox();
+            int x = Math.max(0, r.x);
+            int y = Math.max(0, r.y);
+            int w = Math.min(width - x, r.width - (x - r.x));
+            int h = Math.min(height - y, r.height - (y - r.y));
+            if (w > 0 && h > 0) {
+                clipped.add(new FaceBox(new Rect(x, y, w, h), b.getConfidence()));
+            }
+        }
+        return clipped;
+    }
+
+    private CascadeClassifier loadCascade() {
+        String haarCascadePath = modelsPath + "/haarcascade_frontalface_alt.xml";
+        CascadeClassifier classifier = new CascadeClassifier(haarCascadePath);
+        if (classifier.empty()) {
+            logger.warn("Impossible de charger le classifieur Haar: {}", haarCascadePath);
+        }
+        return classifier;
+    }
+
+    private Net loadSsdNet() {
+        String modelPath = modelsPath + "/facenet/opencv_face_detector_uint8.pb";
+        String configPath = modelsPath + "/facenet/opencv_face_detector.pbtxt";
+        try {
+            Net net = Dnn.readNetFromTensorflow(modelPath, configPath);
+            if (net.empty()) {
+                logger.warn("Impossible de charger le détecteur SSD, repli sur Haar");
+            }
+            return net;
+        } catch (Exception e) {
+            logger.warn("Erreur lors du chargement du détecteur SSD, repli sur Haar: {}", e.getMessage());
+            return new Net();
+        }
+    }
+
+    /**
+     * Boîte englobante d'un visage détecté
+     */
+    public static class FaceBox {
+        private final Rect box;
+        private final double confidence;
+
+        public FaceBox(Rect box, double confidence) {
+            this.box = box;
+            this.confidence = confidence;
+        }
+
+        public Rect getBox() { return box; }
+        public double getConfidence() { return confidence; }
+        public double getArea() { return (double) box.width * box.height; }
+    }
+}
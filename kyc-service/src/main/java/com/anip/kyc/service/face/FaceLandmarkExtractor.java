@@ -0,0 +1,30 @@
+package com.anip.kyc.service.face;
+
+import java.util.List;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+
+/**
+ * Extracteur de points caractéristiques d'un visage normalisé.
+ * Implémentation sélectionnée par app.face.landmarks.extractor (corners | dnn).
+ */
+public interface FaceLandmarkExtractor {
+
+    /**
+     * Nom de l'extracteur, reporté dans les métriques et métadonnées d'audit
+     */
+    String getName();
+
+    /**
+     * Points caractéristiques en coordonnées du visage fourni (CV_32F normalisé [0,1] ou 8 bits)
+     */
+    List<Point> extract(Mat face);
+
+    /**
+     * Points anatomiques (disposition 68 points) utilisables pour l'alignement
+     */
+    default boolean isAnatomical() {
+        return false;
+    }
+}
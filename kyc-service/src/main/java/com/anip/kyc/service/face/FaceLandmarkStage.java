@@ -0,0 +1,161 @@
+package com.anip.kyc.service.face;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Étape d'extraction des points caractéristiques, utilisée pour aligner les visages avant comparaison.
+ * Avec un extracteur anatomique (dnn, 68 points), chaque visage est tourné pour mettre la ligne des yeux
+ * à l'horizontale ; les points sont aussi joints à l'audit si app.face.landmarks.audit.enabled.
+ * Sans extracteur anatomique ni audit, l'étape n'est pas exécutée.
+ * Le coût est mesuré séparément : kyc.face.stage.duration{stage=landmarks}.
+ */
+@Component
+public class FaceLandmarkStage {
+
+    private static final Logger logger = LoggerFactory.getLogger(FaceLandmarkStage.class);
+
+    // Disposition 68 points (iBUG 300-W) : contours des yeux gauche et droit
+    static final int LANDMARK_COUNT = 68;
+    private static final int LEFT_EYE_FROM = 36;
+    private static final int RIGHT_EYE_FROM = 42;
+    private static final int EYE_POINTS = 6;
+
+    // Au-delà, l'estimation des yeux est jugée aberrante et le visage n'est pas tourné
+    private static final double MAX_ROLL_DEGREES = 45.0;
+
+    @Autowired
+    private FaceLandmarkExtractor extractor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.face.landmarks.audit.enabled:false}")
+    private boolean auditEnabled;
+
+    private Timer stageTimer;
+
+    @jakarta.annotation.PostConstruct
+    public void init() {
+        stageTimer = Timer.builder("kyc.face.stage.duration")
+            .tag("stage", "landmarks")
+            .tag("extractor", extractor.getName())
+            .description("Durée de l'extraction des points caractéristiques")
+            .register(meterRegistry);
+        logger.info("Points caractéristiques: extracteur {}, alignement {}, audit {}", extractor.getName(),
+            isAlignmentEnabled() ? "activé" : "désactivé", auditEnabled ? "activé" : "désactivé");
+    }
+
+    /**
+     * Les points doivent-ils être joints aux métadonnées d'audit de la comparaison
+     */
+    public boolean isAuditEnabled() {
+        return auditEnabled;
+    }
+
+    /**
+     * Alignement possible : l'extracteur fournit des points anatomiques
+     */
+    public boolean isAlignmentEnabled() {
+        return extractor.isAnatomical();
+    }
+
+    /**
+     * L'étape a-t-elle un consommateur (alignement ou audit)
+     */
+    public boolean isEnabled() {
+        return auditEnabled || isAlignmentEnabled();
+    }
+
+    /**
+     * Points caractéristiques d'un visage normalisé (CV_32F [0,1] ou 8 bits)
+     */
+    public Landmarks extract(Mat face) {
+        long start = System.nanoTime();
+        List<Point> points;
+        try {
+            points = extractor.extract(face);
+        } catch (Exception e) {
+            logger.warn("Erreur lors de l'extraction des points caractéristiques", e);
+            points = new ArrayList<>();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        stageTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        return new Landmarks(points, elapsedNanos, extractor.getName());
+    }
+
+    /**
+     * Visage tourné autour du milieu des yeux pour les mettre à l'horizontale, mêmes dimensions.
+     * Retourne le visage fourni tel quel sans points anatomiques exploitables.
+     */
+    public Mat align(Mat face, Landmarks landmarks) {
+        if (landmarks == null || !isAlignmentEnabled() || landmarks.getPoints().size() != LANDMARK_COUNT) {
+            return face;
+        }
+        Point leftEye = centroid(landmarks.getPoints(), LEFT_EYE_FROM);
+        Point rightEye = centroid(landmarks.getPoints(), RIGHT_EYE_FROM);
+        double roll = rollDegrees(leftEye, rightEye);
+        if (Math.abs(roll) > MAX_ROLL_DEGREES) {
+            return face;
+        }
+
+        Point center = new Point((leftEye.x + rightEye.x) / 2, (leftEye.y + rightEye.y) / 2);
+        Mat rotation = Imgproc.getRotationMatrix2D(center, roll, 1.0);
+        Mat aligned = new Mat();
+        Imgproc.warpAffine(face, aligned, rotation, face.size(), Imgproc.INTER_LINEAR, Core.BORDER_REPLICATE);
+        rotation.release();
+        return aligned;
+    }
+
+    /**
+     * Inclinaison de la ligne des yeux en degrés (positive : œil droit de l'image plus bas)
+     */
+    static double rollDegrees(Point leftEye, Point rightEye) {
+        return Math.toDegrees(Math.atan2(rightEye.y - leftEye.y, rightEye.x - leftEye.x));
+    }
+
+    private static Point centroid(List<Point> points, int from) {
+        double x = 0.0;
+        double y = 0.0;
+        for (int i = from; i < from + EYE_POINTS; i++) {
+            x += points.get(i).x;
+            y += points.get(i).y;
+        }
+        return new Point(x / EYE_POINTS, y / EYE_POINTS);
+    }
+
+    /**
+     * Points calculés et coût de l'extraction ; ne retient pas l'image du visage
+     */
+    public static class Landmarks {
+        private final List<Point> points;
+        private final long elapsedNanos;
+        private final String extractorName;
+
+        private Landmarks(List<Point> points, long elapsedNanos, String extractorName) {
+            this.points = points;
+            this.elapsedNanos = elapsedNanos;
+            this.extractorName = extractorName;
+        }
+
+        public List<Point> getPoints() { return points; }
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+        public String getExtractorName() { return extractorName; }
+    }
+}
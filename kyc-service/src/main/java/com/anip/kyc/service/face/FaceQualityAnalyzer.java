@@ -0,0 +1,272 @@
+package com.anip.kyc.service.face;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfDouble;
+import org.opencv.core.MatOfFloat;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.Rect;
+import org.opencv.core.Size;
+import org.opencv.core.CvType;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Analyse rapide de la qualité d'une capture faciale (pré-contrôle avant comparaison et vivacité).
+ * Les mesures sont calculées sur un recadrage du visage réduit en niveaux de gris (112x112) :
+ * - netteté : variance du Laplacien
+ * - exposition : luminosité moyenne et proportion de pixels écrêtés (histogramme)
+ * - taille du visage : surface de la boîte rapportée à l'image
+ * - cadrage et pose : décentrage, ratio de la boîte et symétrie gauche/droite
+ *
+ * Même politique que la comparaison : le plus grand visage est retenu, plusieurs visages ne sont
+ * qu'un avertissement, et les bornes de taille du visage sont celles de l'extraction.
+ * Les boîtes détectées sont conservées dans le verdict pour ne pas relancer la détection ensuite.
+ */
+@Component
+public class FaceQualityAnalyzer {
+
+    // Codes de rejet exploitables par le client mobile
+    public static final String NO_FACE = "NO_FACE";
+    public static final String MULTIPLE_FACES = "MULTIPLE_FACES";
+    public static final String BLURRY = "BLURRY";
+    public static final String TOO_DARK = "TOO_DARK";
+    public static final String OVEREXPOSED = "OVEREXPOSED";
+    public static final String FACE_TOO_SMALL = "FACE_TOO_SMALL";
+    public static final String FACE_TOO_LARGE = "FACE_TOO_LARGE";
+    public static final String OFF_CENTER = "OFF_CENTER";
+    public static final String POSE = "POSE";
+
+    private static final Size ANALYSIS_SIZE = new Size(112, 112);
+    private static final int DARK_LEVEL = 25;
+    private static final int BRIGHT_LEVEL = 230;
+
+    // Bornes de la surface du visage rapportée à l'image, partagées avec l'extraction du visage
+    public static final double MIN_FACE_SIZE_RATIO = 0.1;
+    public static final double MAX_FACE_SIZE_RATIO = 0.8;
+
+    @Autowired
+    private FaceDetector faceDetector;
+
+    @Value("${app.face.quality.min.sharpness:50}")
+    private double minSharpness;
+
+    @Value("${app.face.quality.min.brightness:60}")
+    private double minBrightness;
+
+    @Value("${app.face.quality.max.brightness:200}")
+    private double maxBrightness;
+
+    @Value("${app.face.quality.max.clipped.ratio:0.25}")
+    private double maxClippedRatio;
+
+    @Value("${app.face.quality.min.face.ratio:" + MIN_FACE_SIZE_RATIO + "}")
+    private double minFaceRatio;
+
+    @Value("${app.face.quality.max.face.ratio:" + MAX_FACE_SIZE_RATIO + "}")
+    private double maxFaceRatio;
+
+    @Value("${app.face.quality.max.center.offset:0.25}")
+    private double maxCenterOffset;
+
+    @Value("${app.face.quality.min.symmetry:0.6}")
+    private double minSymmetry;
+
+    /**
+     * Analyse d'une image BGR décodée
+     */
+    public Assessment analyze(Mat image) {
+        long startTime = System.nanoTime();
+        return analyze(image, faceDetector.detect(image), startTime);
+    }
+
+    /**
+     * Analyse avec des boîtes déjà détectées (triées par surface décroissante)
+     */
+    public Assessment analyze(Mat image, List<FaceDetector.FaceBox> faces) {
+        return analyze(image, faces, System.nanoTime());
+    }
+
+    public double getMinFaceRatio() {
+        return minFaceRatio;
+    }
+
+    public double getMaxFaceRatio() {
+        return maxFaceRatio;
+    }
+
+    private Assessment analyze(Mat image, List<FaceDetector.FaceBox> faces, long startTime) {
+        Assessment assessment = new Assessment();
+        assessment.faces = faces;
+        assessment.faceCount = faces.size();
+        if (faces.isEmpty()) {
+            assessment.issues.add(NO_FACE);
+            assessment.elapsedNanos = System.nanoTime() - startTime;
+            return assessment;
+        }
+        if (faces.size() > 1) {
+            // La comparaison retient le plus grand visage : signalé sans rejeter la capture
+            assessment.warnings.add(MULTIPLE_FACES);
+        }
+
+        Rect face = faces.get(0).getBox();
+        assessment.faceBox = face;
+
+        // Taille et cadrage à partir de la boîte
+        double imageArea = (double) image.width() * image.height();
+        double faceRatio = (double) face.width * face.height / imageArea;
+        double dx = (face.x + face.width / 2.0) / image.width() - 0.5;
+        double dy = (face.y + face.height / 2.0) / image.height() - 0.5;
+        double centerOffset = Math.sqrt(dx * dx + dy * dy);
+        double aspect = (double) face.width / face.height;
+
+        // Recadrage réduit en niveaux de gris
+        Mat crop = new Mat(image, face);
+        Mat small = new Mat();
+        Imgproc.resize(crop, small, ANALYSIS_SIZE, 0, 0, Imgproc.INTER_AREA);
+        Mat gray = new Mat();
+        if (small.channels() > 1) {
+            Imgproc.cvtColor(small, gray, Imgproc.COLOR_BGR2GRAY);
+        } else {
+            small.copyTo(gray);
+        }
+
+        double sharpness = laplacianVariance(gray);
+        double[] exposure = exposure(gray);
+        double brightness = exposure[0];
+        double darkRatio = exposure[1];
+        double brightRatio = exposure[2];
+        double symmetry = symmetry(gray);
+
+        crop.release();
+        small.release();
+        gray.release();
+
+        if (sharpness < minSharpness) {
+            assessment.issues.add(BLURRY);
+        }
+        if (brightness < minBrightness || darkRatio > maxClippedRatio) {
+            assessment.issues.add(TOO_DARK);
+        }
+        if (brightness > maxBrightness || brightRatio > maxClippedRatio) {
+            assessment.issues.add(OVEREXPOSED);
+        }
+        if (faceRatio < minFaceRatio) {
+            assessment.issues.add(FACE_TOO_SMALL);
+        }
+        if (faceRatio > maxFaceRatio) {
+            assessment.issues.add(FACE_TOO_LARGE);
+        }
+        if (centerOffset > maxCenterOffset) {
+            assessment.issues.add(OFF_CENTER);
+        }
+        if (aspect < 0.6 || aspect > 1.4 || symmetry < minSymmetry) {
+            assessment.issues.add(POSE);
+        }
+
+        // Score global pondéré (0.0-1.0)
+        double sharpnessScore = Math.min(1.0, sharpness / (minSharpness * 4));
+        double exposureScore = Math.max(0.0, 1.0 - Math.abs(brightness - 128.0) / 128.0 - darkRatio - brightRatio);
+        double framingScore = Math.max(0.0, 1.0 - centerOffset / (maxCenterOffset * 2));
+        double poseScore = Math.max(0.0, symmetry);
+        assessment.qualityScore = (sharpnessScore * 0.35) + (exposureScore * 0.25)
+            + (framingScore * 0.2) + (poseScore * 0.2);
+
+        Map<String, Double> metrics = assessment.metrics;
+        metrics.put("sharpness", sharpness);
+        metrics.put("brightness", brightness);
+        metrics.put("darkRatio", darkRatio);
+        metrics.put("brightRatio", brightRatio);
+        metrics.put("faceSizeRatio", faceRatio);
+        metrics.put("centerOffset", centerOffset);
+        metrics.put("boxAspectRatio", aspect);
+        metrics.put("symmetry", symmetry);
+
+        assessment.elapsedNanos = System.nanoTime() - startTime;
+        return assessment;
+    }
+
+    private double laplacianVariance(Mat gray) {
+        Mat laplacian = new Mat();
+        Imgproc.Laplacian(gray, laplacian, CvType.CV_64F);
+        MatOfDouble mean = new MatOfDouble();
+        MatOfDouble stddev = new MatOfDouble();
+        Core.meanStdDev(laplacian, mean, stddev);
+        double sd = stddev.toArray()[0];
+        laplacian.release();
+        return sd * sd;
+    }
+
+    /**
+     * Luminosité moyenne, proportion de pixels sombres et proportion de pixels écrêtés
+     */
+    private double[] exposure(Mat gray) {
+        Mat hist = new Mat();
+        Imgproc.calcHist(List.of(gray), new MatOfInt(0), new Mat(), hist, new MatOfInt(256), new MatOfFloat(0, 256));
+        float[] bins = new float[256];
+        hist.get(0, 0, bins);
+        hist.release();
+
+        double total = gray.total();
+        double sum = 0.0;
+        double dark = 0.0;
+        double bright = 0.0;
+        for (int i = 0; i < bins.length; i++) {
+            sum += i * bins[i];
+            if (i <= DARK_LEVEL) {
+                dark += bins[i];
+            } else if (i >= BRIGHT_LEVEL) {
+                bright += bins[i];
+            }
+        }
+        return new double[] {sum / total, dark / total, bright / total};
+    }
+
+    /**
+     * Symétrie gauche/droite du visage (1.0 = parfaitement symétrique), indicateur de rotation de la tête
+     */
+    private double symmetry(Mat gray) {
+        Mat flipped = new Mat();
+        Core.flip(gray, flipped, 1);
+        Mat diff = new Mat();
+        Core.absdiff(gray, flipped, diff);
+        double meanDiff = Core.mean(diff).val[0];
+        flipped.release();
+        diff.release();
+        return Math.max(0.0, 1.0 - meanDiff / 64.0);
+    }
+
+    /**
+     * Verdict de qualité d'une capture
+     */
+    public static class Assessment {
+        private double qualityScore;
+        private int faceCount;
+        private Rect faceBox;
+        private List<FaceDetector.FaceBox> faces = new ArrayList<>();
+        private final List<String> issues = new ArrayList<>();
+        private final List<String> warnings = new ArrayList<>();
+        private final Map<String, Double> metrics = new LinkedHashMap<>();
+        private long elapsedNanos;
+
+        public boolean isAcceptable() { return issues.isEmpty(); }
+        public double getQualityScore() { return qualityScore; }
+        public int getFaceCount() { return faceCount; }
+        public Rect getFaceBox() { return faceBox; }
+        // Boîtes détectées, réutilisables pour l'extraction du visage
+        public List<FaceDetector.FaceBox> getFaces() { return faces; }
+        public List<String> getIssues() { return issues; }
+        // Signalements non bloquants (MULTIPLE_FACES)
+        public List<String> getWarnings() { return warnings; }
+        public Map<String, Double> getMetrics() { return metrics; }
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+    }
+}
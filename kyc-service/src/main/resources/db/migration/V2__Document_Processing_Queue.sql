@@ -0,0 +1,15 @@
+-- V2__Document_Processing_Queue.sql
+-- File de traitement OCR persistante portée par la table documents
+-- Les workers réclament les documents PENDING (ou PROCESSING avec bail expiré)
+-- via SELECT ... FOR UPDATE SKIP LOCKED.
+
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS processing_status VARCHAR(30) NOT NULL DEFAULT 'PENDING';
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS processing_attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP;
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS lease_owner VARCHAR(100);
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS lease_expires_at TIMESTAMP;
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS last_error TEXT;
+
+-- Index partiel : seuls les documents encore dans la file sont parcourus par les workers
+CREATE INDEX IF NOT EXISTS idx_document_queue ON documents(processing_status, next_attempt_at)
+    WHERE processing_status IN ('PENDING', 'PROCESSING');
@@ -0,0 +1,7 @@
+-- V3__Document_File_Hash.sql
+-- Hash SHA-256 du fichier d'origine, propre à chaque document (qui conserve son fichier chiffré) :
+-- il permet de reprendre le résultat OCR d'un contenu identique déjà lu dans la même session.
+-- Un même contenu peut donc figurer sur plusieurs documents : la contrainte d'unicité du schéma initial est levée.
+
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS file_hash VARCHAR(64);
+ALTER TABLE documents DROP CONSTRAINT IF EXISTS documents_file_hash_key;
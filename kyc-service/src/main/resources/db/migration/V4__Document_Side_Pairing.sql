@@ -0,0 +1,7 @@
+-- V4__Document_Side_Pairing.sql
+-- Recto et verso d'un même document physique (carte d'identité, permis de conduire) :
+-- chaque face désigne l'autre, pour une lecture commune et une seule validation de session.
+
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS paired_document_id UUID;
+
+CREATE INDEX IF NOT EXISTS idx_document_session_type ON documents(session_id, document_type);
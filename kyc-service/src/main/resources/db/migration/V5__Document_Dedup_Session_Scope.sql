@@ -0,0 +1,5 @@
+-- V5__Document_Dedup_Session_Scope.sql
+-- Déduplication limitée à la session : chaque document conserve son propre fichier chiffré,
+-- et seul un résultat OCR de la même session est réutilisé pour un contenu identique.
+
+CREATE INDEX IF NOT EXISTS idx_document_session_file_hash ON documents(session_id, file_hash);
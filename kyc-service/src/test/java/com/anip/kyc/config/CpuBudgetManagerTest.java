@@ -0,0 +1,156 @@
+package com.anip.kyc.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CpuBudgetManagerTest {
+
+    @Test
+    public void splitsBudgetBetweenPools() {
+        CpuBudgetManager.Split split = CpuBudgetManager.split(8, 0.5, 1);
+
+        assertEquals(4, split.getDocumentThreads());
+        assertEquals(4, split.getFaceThreads());
+        assertEquals(1, split.getNativeThreads());
+        assertFalse(split.isSharedPool());
+    }
+
+    @Test
+    public void reservesNativeThreadsPerTask() {
+        CpuBudgetManager.Split split = CpuBudgetManager.split(8, 0.5, 2);
+
+        assertEquals(2, split.getDocumentThreads());
+        assertEquals(2, split.getFaceThreads());
+        assertEquals(8, split.getJavaThreads() * split.getNativeThreads());
+    }
+
+    @Test
+    public void sharesSinglePoolOnOneCore() {
+        CpuBudgetManager.Split split = CpuBudgetManager.split(1, 0.5, 1);
+
+        assertTrue(split.isSharedPool());
+        assertEquals(1, split.getJavaThreads());
+        assertEquals(1, split.getNativeThreads());
+    }
+
+    @Test
+    public void keepsOneThreadPerPoolWhateverTheShare() {
+        CpuBudgetManager.Split documentOnly = CpuBudgetManager.split(4, 1.0, 1);
+        assertEquals(3, documentOnly.getDocumentThreads());
+        assertEquals(1, documentOnly.getFaceThreads());
+
+        CpuBudgetManager.Split faceOnly = CpuBudgetManager.split(4, 0.0, 1);
+        assertEquals(1, faceOnly.getDocumentThreads());
+        assertEquals(3, faceOnly.getFaceThreads());
+
+        CpuBudgetManager.Split odd = CpuBudgetManager.split(3, 0.5, 1);
+        assertEquals(2, odd.getDocumentThreads());
+        assertEquals(1, odd.getFaceThreads());
+    }
+
+    @Test
+    public void neverExceedsBudget() {
+        for (int budget = 1; budget <= 64; budget++) {
+            for (int nativeThreads = 0; nativeThreads <= budget + 2; nativeThreads++) {
+                for (double share : new double[]{0.0, 0.25, 0.5, 0.75, 1.0}) {
+                    CpuBudgetManager.Split split = CpuBudgetManager.split(budget, share, nativeThreads);
+                    assertTrue(split.getJavaThreads() * split.getNativeThreads() <= budget,
+                        budget + "/" + nativeThreads + "/" + share);
+                    assertTrue(split.getDocumentThreads() >= 1 && split.getFaceThreads() >= 1);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void nestedTasksRunInLentSlots() throws Exception {
+        CpuBudgetManager.Slots slots = new CpuBudgetManager.Slots(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        ExecutorService pages = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> documents = new ArrayList<>();
+            for (int d = 0; d < 2; d++) {
+                documents.add(workers.submit(() -> slots.call(() -> {
+                    busy(running, peak);
+                    List<Future<Integer>> tasks = new ArrayList<>();
+                    for (int p = 0; p < 4; p++) {
+                        tasks.add(pages.submit(() -> slots.call(() -> busy(running, peak))));
+                    }
+                    int done = 0;
+                    for (Future<Integer> task : tasks) {
+                        done += slots.await(task::get);
+                    }
+                    return done;
+                })));
+            }
+            for (Future<Integer> document : documents) {
+                assertEquals(4, document.get());
+            }
+        } finally {
+            workers.shutdown();
+            pages.shutdown();
+        }
+
+        // Workers et pages confondus : jamais plus de traitements simultanés que de créneaux
+        assertTrue(peak.get() <= 2, String.valueOf(peak.get()));
+        assertEquals(2, slots.getAvailable());
+    }
+
+    @Test
+    public void callerHoldingSlotRunsNestedTaskDirectly() throws Exception {
+        CpuBudgetManager.Slots slots = new CpuBudgetManager.Slots(1);
+
+        // Tâche imbriquée exécutée par l'appelant (pool saturé) : pas de seconde acquisition
+        int result = slots.call(() -> slots.call(() -> 42));
+
+        assertEquals(42, result);
+        assertEquals(1, slots.getAvailable());
+    }
+
+    @Test
+    public void givesUpWhenNoSlotFreesBeforeDeadline() throws Exception {
+        CpuBudgetManager.Slots slots = new CpuBudgetManager.Slots(1);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService ocr = Executors.newSingleThreadExecutor();
+        AtomicInteger runs = new AtomicInteger();
+        try {
+            ocr.submit(() -> slots.call(() -> {
+                held.countDown();
+                return release.await(10, TimeUnit.SECONDS);
+            }));
+            held.await();
+
+            assertFalse(slots.runBefore(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50), runs::incrementAndGet));
+            assertEquals(0, runs.get());
+        } finally {
+            release.countDown();
+            ocr.shutdown();
+        }
+
+        assertTrue(slots.runBefore(System.nanoTime() + TimeUnit.SECONDS.toNanos(10), runs::incrementAndGet));
+        assertEquals(1, runs.get());
+        assertEquals(1, slots.getAvailable());
+    }
+
+    private static int busy(AtomicInteger running, AtomicInteger peak) throws InterruptedException {
+        peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+        Thread.sleep(20);
+        running.decrementAndGet();
+        return 1;
+    }
+}
@@ -0,0 +1,158 @@
+package com.anip.kyc.service;
+
+import com.anip.kyc.config.CpuBudgetManager;
+import com.anip.kyc.config.security.EncryptionService;
+import com.anip.kyc.dto.ExtractedDocumentData;
+import com.anip.kyc.models.Document;
+import com.anip.kyc.models.KycSession;
+import com.anip.kyc.repository.DocumentRepository;
+import com.anip.kyc.repository.KycSessionRepository;
+import com.anip.kyc.service.document.DocumentFieldExtractor;
+import com.anip.kyc.service.document.DocumentSideMerger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DocumentServiceTest {
+
+    private final Map<UUID, Document> documents = new HashMap<>();
+    private final UUID sessionId = UUID.randomUUID();
+
+    private KycSession session;
+    private KycSessionRepository sessionRepository;
+    private SimpleMeterRegistry registry;
+    private DocumentService service;
+
+    @BeforeEach
+    void setUp() {
+        documents.clear();
+        DocumentRepository repository = mock(DocumentRepository.class);
+        when(repository.findById(any())).thenAnswer(call -> Optional.ofNullable(documents.get(call.getArgument(0))));
+        when(repository.save(any())).thenAnswer(call -> call.getArgument(0));
+        when(repository.findFirstBySessionIdAndFileHashAndDocumentTypeAndProcessingStatusInOrderByProcessedAtDesc(
+                any(), any(), any(), any())).thenAnswer(call -> {
+            Collection<?> statuses = call.getArgument(3);
+            return documents.values().stream()
+                .filter(document -> document.getSessionId().equals(call.getArgument(0))
+                    && Objects.equals(document.getFileHash(), call.getArgument(1))
+                    && document.getDocumentType() == call.getArgument(2)
+                    && statuses.contains(document.getProcessingStatus()))
+                .findFirst();
+        });
+        when(repository.findFirstBySessionIdAndPairedDocumentIdOrderByCreatedAtDesc(any(), any()))
+            .thenAnswer(call -> documents.values().stream()
+                .filter(document -> document.getSessionId().equals(call.getArgument(0))
+                    && call.getArgument(1).equals(document.getPairedDocumentId()))
+                .findFirst());
+
+        session = new KycSession("utilisateur", null);
+        sessionRepository = mock(KycSessionRepository.class);
+        when(sessionRepository.findForUpdate(sessionId)).thenReturn(Optional.of(session));
+        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
+
+        // Chiffrement neutre : les données enregistrées restent lisibles
+        EncryptionService encryption = mock(EncryptionService.class);
+        when(encryption.encrypt(any())).thenAnswer(call -> call.getArgument(0));
+        when(encryption.decrypt(any())).thenAnswer(call -> call.getArgument(0));
+
+        CpuBudgetManager cpuBudget = mock(CpuBudgetManager.class);
+        when(cpuBudget.getDocumentSlots()).thenReturn(new CpuBudgetManager.Slots(2));
+        registry = new SimpleMeterRegistry();
+
+        service = new DocumentService();
+        ReflectionTestUtils.setField(service, "documentRepository", repository);
+        ReflectionTestUtils.setField(service, "kycSessionRepository", sessionRepository);
+        ReflectionTestUtils.setField(service, "encryptionService", encryption);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "documentFieldExtractor", mock(DocumentFieldExtractor.class));
+        ReflectionTestUtils.setField(service, "documentSideMerger", new DocumentSideMerger());
+        ReflectionTestUtils.setField(service, "cpuBudget", cpuBudget);
+        ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "meterRegistry", registry);
+        ReflectionTestUtils.setField(service, "ocrReuseEnabled", true);
+        ReflectionTestUtils.setField(service, "ocrConfidenceThreshold", 0.7);
+        service.init();
+    }
+
+    @Test
+    public void mergesSideLinkedWhileCounterpartWasProcessedElsewhere() throws Exception {
+        // Résultats déjà lus dans la session : les deux faces sont reprises sans OCR
+        stored(Document.DocumentType.ID_CARD_FRONT, "recto", "AB123456");
+        stored(Document.DocumentType.ID_CARD_BACK, "verso", "ZZ999999");
+
+        // Recto en cours chez un autre worker quand le verso est réclamé : liaison du verso seulement
+        Document front = queued(Document.DocumentType.ID_CARD_FRONT, "recto", "worker-1");
+        Document back = queued(Document.DocumentType.ID_CARD_BACK, "verso", "worker-2");
+        back.setPairedDocumentId(front.getDocumentId());
+
+        // Verso terminé le premier : transition laissée au recto
+        service.processQueuedDocument(back.getDocumentId(), "worker-2");
+        assertEquals(1.0, pairing("deferred"));
+        verify(sessionRepository, never()).save(any());
+
+        // Recto terminé ensuite : validé avec le verso enregistré
+        service.processQueuedDocument(front.getDocumentId(), "worker-1");
+
+        assertEquals(back.getDocumentId(), front.getPairedDocumentId());
+        assertEquals(1.0, pairing("merged_with_stored"));
+        assertEquals(0.0, pairing("single"));
+        assertEquals(Document.ProcessingStatus.FAILED, front.getProcessingStatus());
+        assertEquals(Document.ProcessingStatus.FAILED, back.getProcessingStatus());
+        assertTrue(back.getMetadata().contains("Incohérence recto/verso"), back.getMetadata());
+        // Une seule transition de session, avec la validation commune
+        verify(sessionRepository, times(1)).save(session);
+        assertEquals(KycSession.SessionStatus.REJECTED, session.getSessionStatus());
+    }
+
+    private double pairing(String result) {
+        return registry.counter("kyc.document.pairing", "result", result).count();
+    }
+
+    private void stored(Document.DocumentType type, String hash, String idNumber) {
+        ExtractedDocumentData data = new ExtractedDocumentData();
+        data.setDocumentType(type);
+        data.setConfidenceScore(0.9);
+        data.put("idNumber", idNumber);
+        Document document = document(type, hash);
+        document.setExtractedText(data.toJson());
+        document.setProcessingStatus(Document.ProcessingStatus.COMPLETED);
+        document.setProcessedAt(LocalDateTime.now());
+    }
+
+    private Document queued(Document.DocumentType type, String hash, String worker) {
+        Document document = document(type, hash);
+        document.claim(worker, LocalDateTime.now().plusSeconds(300));
+        return document;
+    }
+
+    private Document document(Document.DocumentType type, String hash) {
+        Document document = new Document(sessionId, type, "chemin", "image/jpeg", 1024L);
+        document.setDocumentId(UUID.randomUUID());
+        document.setFileHash(hash);
+        documents.put(document.getDocumentId(), document);
+        return document;
+    }
+}
@@ -0,0 +1,130 @@
+package com.anip.kyc.service;
+
+import com.anip.kyc.config.OpenCvNativeLoader;
+import com.anip.kyc.dto.face.FaceBatchDetectionResponse;
+import com.anip.kyc.dto.face.FaceDetectionRequest;
+import com.anip.kyc.dto.face.FaceDetectionResponse;
+import com.anip.kyc.service.face.FaceDetector;
+import com.anip.kyc.service.face.FaceQualityAnalyzerTest;
+import com.anip.kyc.service.face.FaceSceneFactory;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FaceRecognitionServiceTest {
+
+    private static final Rect FACE = new Rect(100, 80, 200, 240);
+
+    private static final AtomicInteger detections = new AtomicInteger();
+    private static FaceRecognitionService service;
+
+    @BeforeAll
+    static void setUp() {
+        OpenCvNativeLoader.load();
+        service = new FaceRecognitionService();
+        FaceDetector detector = new FaceDetector() {
+            @Override
+            public List<FaceBox> detect(Mat image) {
+                detections.incrementAndGet();
+                return List.of(new FaceBox(FACE, 0.9));
+            }
+
+            @Override
+            public String getDetectorType() {
+                return DETECTOR_HAAR;
+            }
+        };
+        ReflectionTestUtils.setField(service, "faceDetector", detector);
+        ReflectionTestUtils.setField(service, "faceQualityAnalyzer", FaceQualityAnalyzerTest.newAnalyzer(detector));
+        ReflectionTestUtils.setField(service, "qualityGateEnabled", true);
+        ReflectionTestUtils.setField(service, "faceProcessingExecutor", Executors.newFixedThreadPool(2));
+        ReflectionTestUtils.setField(service, "maxDetectionImages", 3);
+    }
+
+    @Test
+    public void reportsFailedImageWithoutFailingBatch() {
+        MockMultipartFile unreadable = new MockMultipartFile("image", "capture.jpg", "image/jpeg", new byte[]{1}) {
+            @Override
+            public byte[] getBytes() throws IOException {
+                throw new IOException("flux interrompu");
+            }
+        };
+
+        FaceBatchDetectionResponse response = service.detectFacesBatch(List.of(
+            request(new MockMultipartFile("image", "a.jpg", "image/jpeg", jpeg())),
+            request(unreadable),
+            request(new MockMultipartFile("image", "c.jpg", "image/jpeg", new byte[]{0, 1, 2, 3}))));
+
+        assertEquals(3, response.getImageCount());
+        List<FaceDetectionResponse> results = response.getResults();
+        assertEquals("OK", results.get(0).getStatus());
+        assertNull(results.get(0).getError());
+        assertEquals(1, response.getTotalFaces());
+        assertEquals("ERROR", results.get(1).getStatus());
+        assertEquals(1, results.get(1).getImageIndex());
+        assertTrue(results.get(1).getError().contains("flux interrompu"), results.get(1).getError());
+        assertEquals("INVALID_IMAGE", results.get(2).getStatus());
+        assertEquals(2, results.get(2).getImageIndex());
+    }
+
+    @Test
+    public void rejectsBatchAboveConfiguredLimit() {
+        MockMultipartFile image = new MockMultipartFile("image", "a.jpg", "image/jpeg", jpeg());
+        FaceDetectionRequest request = request(image);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> service.detectFacesBatch(List.of(request, request, request, request)));
+        assertEquals(3, service.getMaxDetectionImages());
+    }
+
+    @Test
+    public void extractsLiveFaceFromQualityGateDetection() {
+        Mat capture = FaceSceneFactory.capture(FACE);
+        detections.set(0);
+
+        List<FaceDetector.FaceBox> faces = ReflectionTestUtils.invokeMethod(
+            service, "enforceQualityGate", capture, UUID.randomUUID());
+        Mat face = ReflectionTestUtils.invokeMethod(service, "detectAndExtractFace", capture, "live", faces);
+
+        // Une seule détection par capture : celle du pré-contrôle
+        assertEquals(1, detections.get());
+        assertEquals(160, face.width());
+        assertEquals(CvType.CV_32FC3, face.type());
+        face.release();
+        capture.release();
+    }
+
+    private static FaceDetectionRequest request(MockMultipartFile image) {
+        return FaceDetectionRequest.builder().image(image).confidenceThreshold(0.7).build();
+    }
+
+    private static byte[] jpeg() {
+        Mat image = new Mat(480, 640, CvType.CV_8UC3, new Scalar(90, 120, 160));
+        MatOfByte bytes = new MatOfByte();
+        Imgcodecs.imencode(".jpg", image, bytes);
+        byte[] data = bytes.toArray();
+        image.release();
+        bytes.release();
+        return data;
+    }
+}
@@ -0,0 +1,85 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.config.OpenCvNativeLoader;
+import com.anip.kyc.models.Document;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import com.google.zxing.BarcodeFormat;
+
+import org.opencv.core.Mat;
+
+/**
+ * Durée du décodage PDF417/QR sur un verso de carte à 300 DPI, code trouvé ou absent, et, si des traineddata
+ * sont fournis (-Dtessdata=...), durée de l'OCR pleine page qu'il remplace.
+ *
+ * Exécution : mvn test -Dtest=BarcodeDecodeBenchmarkTest -Dbenchmark=true [-Dtessdata=/usr/share/tessdata]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class BarcodeDecodeBenchmarkTest {
+
+    private static final int ITERATIONS = 20;
+
+    private static BarcodeReader reader;
+    private static TesseractEnginePool enginePool;
+
+    @BeforeAll
+    static void setUp() {
+        OpenCvNativeLoader.load();
+        reader = BarcodeReaderTest.newReader();
+
+        String tessdata = System.getProperty("tessdata");
+        if (tessdata != null) {
+            enginePool = new TesseractEnginePool();
+            ReflectionTestUtils.setField(enginePool, "meterRegistry", new SimpleMeterRegistry());
+            ReflectionTestUtils.setField(enginePool, "tesseractDataPath", tessdata);
+            ReflectionTestUtils.setField(enginePool, "configuredMaxEngines", 1);
+            ReflectionTestUtils.setField(enginePool, "maxPagesPerEngine", 1000);
+            ReflectionTestUtils.setField(enginePool, "borrowTimeoutMs", 30000L);
+            enginePool.init();
+        }
+    }
+
+    @Test
+    public void compareBarcodeAndOcr() throws Exception {
+        Mat pdf417 = BarcodeReaderTest.cardBack(BarcodeFormat.PDF_417, BarcodePayloadParserTest.AAMVA_PAYLOAD, 900, 260);
+        Mat qr = BarcodeReaderTest.cardBack(BarcodeFormat.QR_CODE, "NPI:1234567890;Nom:DURAND;Prénoms:Claire Marie", 360, 360);
+        Mat none = DocumentSceneFactory.card();
+
+        measure("PDF417     ", pdf417);
+        measure("QR         ", qr);
+        measure("sans code  ", none);
+
+        if (enginePool != null) {
+            PreprocessingPlanner planner = new PreprocessingPlanner();
+            Mat gray = planner.apply(pdf417, PreprocessingPlanner.Plan.GRAY, 1.0);
+            long start = System.nanoTime();
+            try (TesseractEnginePool.Engine engine = enginePool.borrow(
+                    new TesseractEnginePool.EngineConfig("fra+eng", 6, 1, Map.of()))) {
+                engine.recognize(gray);
+            }
+            System.out.printf("OCR pleine page du verso %s : %.0f ms%n", Document.DocumentType.DRIVING_LICENSE_BACK,
+                (System.nanoTime() - start) / 1e6);
+            gray.release();
+        }
+        pdf417.release();
+        qr.release();
+        none.release();
+    }
+
+    private static void measure(String label, Mat image) {
+        boolean decoded = reader.read(image).isPresent();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            reader.read(image);
+        }
+        System.out.printf("%s décodé %-5s %.1f ms%n", label, decoded, (System.nanoTime() - start) / 1e6 / ITERATIONS);
+    }
+}
@@ -0,0 +1,92 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.dto.ExtractedDocumentData;
+import com.anip.kyc.models.Document;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BarcodePayloadParserTest {
+
+    // Exemple de la norme AAMVA DL/ID 2020 (annexe D), abrégé
+    static final String AAMVA_PAYLOAD = "@\n\u001e\rANSI 636014040002DL00410278ZC03190008DLDAQT64235789\n"
+        + "DCSSAMPLE\nDDEN\nDACMICHAEL\nDDFN\nDADJOHN\nDDGN\nDCUJR\nDCAD\nDCBK\nDCDPH\n"
+        + "DBD06062016\nDBB06061986\nDBA12102024\nDBC1\nDAU068 in\nDAYBRO\n"
+        + "DAG2300 WEST BROAD STREET\nDAIRICHMOND\nDAJVA\nDAK232690000  \nDCF2424244747474786102204\nDCGUSA\r";
+
+    private static BarcodePayloadParser parser;
+
+    @BeforeAll
+    static void setUp() {
+        parser = new BarcodePayloadParser();
+        ReflectionTestUtils.setField(parser, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(parser, "documentFieldExtractor", new DocumentFieldExtractor());
+    }
+
+    @Test
+    public void parsesAamvaLicence() {
+        ExtractedDocumentData data = parser.parse(AAMVA_PAYLOAD, Document.DocumentType.DRIVING_LICENSE_BACK);
+        Map<String, String> fields = data.getExtractedFields();
+
+        assertEquals("T64235789", fields.get("licenseNumber"));
+        assertEquals("SAMPLE", fields.get("surname"));
+        assertEquals("MICHAEL JOHN", fields.get("givenNames"));
+        assertEquals("06/06/1986", fields.get("dateOfBirth"));
+        assertEquals("10/12/2024", fields.get("expiryDate"));
+        assertEquals("D", fields.get("categories"));
+        assertEquals("M", fields.get("sex"));
+        assertEquals(1.0, data.getConfidenceScore());
+    }
+
+    @Test
+    public void parsesKeyValueQrPayload() {
+        String payload = "NPI:1234567890;Nom:DURAND;Prénoms:Claire Marie;Date de naissance:1990-02-14;"
+            + "Date d'expiration:2031-06-01;Sexe:F";
+        ExtractedDocumentData data = parser.parse(payload, Document.DocumentType.ID_CARD_BACK);
+        Map<String, String> fields = data.getExtractedFields();
+
+        assertEquals("1234567890", fields.get("idNumber"));
+        assertEquals("DURAND", fields.get("surname"));
+        assertEquals("Claire Marie", fields.get("givenNames"));
+        assertEquals("14/02/1990", fields.get("dateOfBirth"));
+        assertEquals("01/06/2031", fields.get("expiryDate"));
+        assertEquals("F", fields.get("sex"));
+    }
+
+    @Test
+    public void parsesJsonQrPayload() {
+        String payload = "{\"documentNumber\":\"B1234567\",\"lastName\":\"KOFFI\",\"firstName\":\"Ama\","
+            + "\"birthDate\":\"20000101\",\"categories\":\"B\",\"photo\":{\"hash\":\"ab\"}}";
+        ExtractedDocumentData data = parser.parse(payload, Document.DocumentType.DRIVING_LICENSE_BACK);
+        Map<String, String> fields = data.getExtractedFields();
+
+        assertEquals("B1234567", fields.get("licenseNumber"));
+        assertEquals("KOFFI", fields.get("surname"));
+        assertEquals("01/01/2000", fields.get("dateOfBirth"));
+        assertEquals("B", fields.get("categories"));
+    }
+
+    @Test
+    public void fallsBackToLabelledText() {
+        String payload = "CARTE D'IDENTITE N° X4RT56T90\nEXPIRATION 01/06/2031";
+        ExtractedDocumentData data = parser.parse(payload, Document.DocumentType.ID_CARD_BACK);
+
+        assertEquals("X4RT56T90", data.getExtractedFields().get("idNumber"));
+        assertTrue(data.getConfidenceScore() > 0.0);
+    }
+
+    @Test
+    public void returnsNullForUnrelatedPayload() {
+        assertNull(parser.parse("https://example.org/verify/abc", Document.DocumentType.ID_CARD_BACK));
+        assertNull(parser.parse("", Document.DocumentType.ID_CARD_BACK));
+    }
+}
@@ -0,0 +1,116 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.config.OpenCvNativeLoader;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Optional;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.common.BitMatrix;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BarcodeReaderTest {
+
+    private static BarcodeReader reader;
+
+    @BeforeAll
+    static void setUp() {
+        OpenCvNativeLoader.load();
+        reader = newReader();
+    }
+
+    static BarcodeReader newReader() {
+        BarcodeReader reader = new BarcodeReader();
+        ReflectionTestUtils.setField(reader, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(reader, "tryRotated", true);
+        return reader;
+    }
+
+    @Test
+    public void decodesPdf417OnCardBack() throws Exception {
+        Mat back = cardBack(BarcodeFormat.PDF_417, BarcodePayloadParserTest.AAMVA_PAYLOAD, 900, 260);
+
+        Optional<BarcodeReader.Barcode> barcode = reader.read(back);
+
+        assertTrue(barcode.isPresent());
+        assertEquals("PDF_417", barcode.get().getFormat());
+        assertEquals(BarcodePayloadParserTest.AAMVA_PAYLOAD, barcode.get().getText());
+        back.release();
+    }
+
+    @Test
+    public void decodesQrCode() throws Exception {
+        String payload = "NPI:1234567890;Nom:DURAND;Prénoms:Claire Marie";
+        Mat back = cardBack(BarcodeFormat.QR_CODE, payload, 360, 360);
+
+        Optional<BarcodeReader.Barcode> barcode = reader.read(back);
+
+        assertTrue(barcode.isPresent());
+        assertEquals("QR_CODE", barcode.get().getFormat());
+        assertEquals(payload, barcode.get().getText());
+        back.release();
+    }
+
+    @Test
+    public void decodesRotatedPdf417() throws Exception {
+        Mat back = cardBack(BarcodeFormat.PDF_417, BarcodePayloadParserTest.AAMVA_PAYLOAD, 900, 260);
+        Core.rotate(back, back, Core.ROTATE_90_COUNTERCLOCKWISE);
+
+        assertTrue(reader.read(back).isPresent());
+        back.release();
+    }
+
+    @Test
+    public void returnsEmptyWithoutBarcode() {
+        Mat blank = new Mat(638, 1011, CvType.CV_8UC3, new Scalar(235, 235, 235));
+        Imgproc.putText(blank, "REPUBLIQUE DU BENIN", new Point(40, 100),
+            Imgproc.FONT_HERSHEY_SIMPLEX, 1.2, new Scalar(30, 30, 30), 2);
+
+        assertTrue(reader.read(blank).isEmpty());
+        blank.release();
+    }
+
+    /**
+     * Verso de carte ID-1 à 300 DPI (BGR) avec le code-barres en bas
+     */
+    static Mat cardBack(BarcodeFormat format, String payload, int width, int height) throws Exception {
+        BitMatrix matrix = new MultiFormatWriter().encode(payload, format, width, height,
+            Map.of(EncodeHintType.CHARACTER_SET, "UTF-8", EncodeHintType.MARGIN, 2));
+        Mat code = new Mat(matrix.getHeight(), matrix.getWidth(), CvType.CV_8UC1);
+        byte[] row = new byte[matrix.getWidth()];
+        for (int y = 0; y < matrix.getHeight(); y++) {
+            for (int x = 0; x < matrix.getWidth(); x++) {
+                row[x] = (byte) (matrix.get(x, y) ? 0 : 255);
+            }
+            code.put(y, 0, row);
+        }
+
+        Mat back = new Mat(638, 1011, CvType.CV_8UC1, Scalar.all(235));
+        Imgproc.putText(back, "REPUBLIQUE DU BENIN", new Point(40, 70),
+            Imgproc.FONT_HERSHEY_SIMPLEX, 1.0, Scalar.all(30), 2);
+        int x = (back.width() - code.width()) / 2;
+        int y = back.height() - code.height() - 40;
+        code.copyTo(back.submat(new Rect(x, y, code.width(), code.height())));
+        code.release();
+        Imgproc.cvtColor(back, back, Imgproc.COLOR_GRAY2BGR);
+        return back;
+    }
+}
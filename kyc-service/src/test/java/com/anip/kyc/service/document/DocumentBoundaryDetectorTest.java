@@ -0,0 +1,113 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.config.OpenCvNativeLoader;
+import com.anip.kyc.models.Document;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DocumentBoundaryDetectorTest {
+
+    private static DocumentBoundaryDetector detector;
+
+    @BeforeAll
+    static void setUp() {
+        OpenCvNativeLoader.load();
+        detector = newDetector();
+    }
+
+    static DocumentBoundaryDetector newDetector() {
+        DocumentBoundaryDetector detector = new DocumentBoundaryDetector();
+        ReflectionTestUtils.setField(detector, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(detector, "enabled", true);
+        ReflectionTestUtils.setField(detector, "dpi", 300.0);
+        ReflectionTestUtils.setField(detector, "minAreaRatio", 0.2);
+        ReflectionTestUtils.setField(detector, "maxAreaRatio", 0.95);
+        ReflectionTestUtils.setField(detector, "aspectTolerance", 0.35);
+        return detector;
+    }
+
+    @Test
+    public void cropsTiltedCardToCanonicalSize() {
+        Point[] quad = {new Point(420, 380), new Point(1480, 300), new Point(1530, 980), new Point(390, 1010)};
+        Mat photo = DocumentSceneFactory.photo(2000, 1500, quad);
+
+        DocumentBoundaryDetector.Crop crop = detector.crop(photo, Document.DocumentType.ID_CARD_FRONT);
+
+        assertTrue(crop.isDetected());
+        assertEquals(1011, crop.getImage().width());
+        assertEquals(638, crop.getImage().height());
+        assertEquals(300.0, crop.getDpi());
+        double expectedRemoved = 1.0 - DocumentSceneFactory.area(quad) / (2000.0 * 1500.0);
+        assertEquals(expectedRemoved, crop.getRemovedAreaRatio(), 0.03);
+
+        // Le contenu redressé est celui de la carte (fond clair), pas celui de la table
+        assertTrue(Core.mean(crop.getImage()).val[0] > 180);
+        crop.getImage().release();
+        photo.release();
+    }
+
+    @Test
+    public void keepsPortraitOrientation() {
+        Point[] quad = {new Point(500, 200), new Point(1000, 220), new Point(980, 1010), new Point(480, 990)};
+        Mat photo = DocumentSceneFactory.photo(1500, 1200, quad);
+
+        DocumentBoundaryDetector.Crop crop = detector.crop(photo, Document.DocumentType.DRIVING_LICENSE);
+
+        assertTrue(crop.isDetected());
+        assertEquals(638, crop.getImage().width());
+        assertEquals(1011, crop.getImage().height());
+        crop.getImage().release();
+        photo.release();
+    }
+
+    @Test
+    public void leavesFullFrameScanUntouched() {
+        Mat scan = new Mat(638, 1011, CvType.CV_8UC3, new Scalar(235, 235, 235));
+
+        DocumentBoundaryDetector.Crop crop = detector.crop(scan, Document.DocumentType.ID_CARD);
+
+        assertFalse(crop.isDetected());
+        assertSame(scan, crop.getImage());
+        assertEquals(0.0, crop.getRemovedAreaRatio());
+        scan.release();
+    }
+
+    @Test
+    public void rejectsQuadrilateralWithWrongProportions() {
+        // Bande très allongée : ni une carte ni une page
+        Point[] quad = {new Point(200, 600), new Point(1800, 600), new Point(1800, 900), new Point(200, 900)};
+        Mat photo = DocumentSceneFactory.photo(2000, 1500, quad);
+
+        DocumentBoundaryDetector.Crop crop = detector.crop(photo, Document.DocumentType.ID_CARD);
+
+        assertFalse(crop.isDetected());
+        photo.release();
+    }
+
+    @Test
+    public void ordersCorners() {
+        Point[] ordered = DocumentBoundaryDetector.orderCorners(new Point[] {
+            new Point(90, 95), new Point(10, 12), new Point(8, 88), new Point(92, 5)
+        });
+
+        assertEquals(new Point(10, 12), ordered[0]);
+        assertEquals(new Point(92, 5), ordered[1]);
+        assertEquals(new Point(90, 95), ordered[2]);
+        assertEquals(new Point(8, 88), ordered[3]);
+    }
+}
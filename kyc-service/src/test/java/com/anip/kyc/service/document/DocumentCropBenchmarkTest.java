@@ -0,0 +1,117 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.config.OpenCvNativeLoader;
+import com.anip.kyc.models.Document;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+
+/**
+ * Photo de téléphone synthétique (4000x3000, carte inclinée sur une table) : surface retirée par le recadrage,
+ * durée de détection et de redressement, durée de prétraitement et, si des traineddata sont fournis
+ * (-Dtessdata=...), durée OCR et champs extraits avec et sans recadrage.
+ *
+ * Exécution : mvn test -Dtest=DocumentCropBenchmarkTest -Dbenchmark=true [-Dtessdata=/usr/share/tessdata]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class DocumentCropBenchmarkTest {
+
+    private static final int ITERATIONS = 10;
+    private static final Document.DocumentType TYPE = Document.DocumentType.ID_CARD_FRONT;
+
+    private static DocumentBoundaryDetector detector;
+    private static PreprocessingPlanner planner;
+    private static TesseractEnginePool enginePool;
+    private static final DocumentFieldExtractor extractor = new DocumentFieldExtractor();
+
+    @BeforeAll
+    static void setUp() {
+        OpenCvNativeLoader.load();
+        detector = DocumentBoundaryDetectorTest.newDetector();
+        planner = new PreprocessingPlanner();
+        ReflectionTestUtils.setField(planner, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(planner, "mode", "adaptive");
+        ReflectionTestUtils.setField(planner, "targetDpi", 300.0);
+        ReflectionTestUtils.setField(planner, "minScale", 0.5);
+        ReflectionTestUtils.setField(planner, "noiseThreshold", 6.0);
+        ReflectionTestUtils.setField(planner, "contrastThreshold", 120.0);
+
+        String tessdata = System.getProperty("tessdata");
+        if (tessdata != null) {
+            enginePool = new TesseractEnginePool();
+            ReflectionTestUtils.setField(enginePool, "meterRegistry", new SimpleMeterRegistry());
+            ReflectionTestUtils.setField(enginePool, "tesseractDataPath", tessdata);
+            ReflectionTestUtils.setField(enginePool, "configuredMaxEngines", 1);
+            ReflectionTestUtils.setField(enginePool, "maxPagesPerEngine", 1000);
+            ReflectionTestUtils.setField(enginePool, "borrowTimeoutMs", 30000L);
+            enginePool.init();
+        }
+    }
+
+    @Test
+    public void compareFullFrameAndCrop() throws Exception {
+        Point[] quad = {new Point(760, 820), new Point(3180, 640), new Point(3290, 2240), new Point(700, 2330)};
+        Mat photo = DocumentSceneFactory.photo(4000, 3000, quad);
+
+        DocumentBoundaryDetector.Crop crop = null;
+        double cropMs = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (crop != null && crop.isDetected()) {
+                crop.getImage().release();
+            }
+            long start = System.nanoTime();
+            crop = detector.crop(photo, TYPE);
+            cropMs += (System.nanoTime() - start) / 1e6 / ITERATIONS;
+        }
+        System.out.printf("Recadrage: détecté %s, surface retirée %.0f %%, %dx%d -> %dx%d, détection + redressement %.1f ms%n",
+            crop.isDetected(), crop.getRemovedAreaRatio() * 100, photo.width(), photo.height(),
+            crop.getImage().width(), crop.getImage().height(), cropMs);
+
+        // Sans recadrage, le DPI est surestimé (document supposé plein cadre) : l'image est réduite à min.scale
+        measure("image entière", photo, PreprocessingPlanner.estimateDpi(photo, TYPE));
+        measure("recadrage   ", crop.getImage(), crop.getDpi());
+
+        if (crop.isDetected()) {
+            crop.getImage().release();
+        }
+        photo.release();
+    }
+
+    private void measure(String label, Mat image, double dpi) throws Exception {
+        planner.preprocess(image, dpi).release();
+        long start = System.nanoTime();
+        Mat processed = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (processed != null) {
+                processed.release();
+            }
+            processed = planner.preprocess(image, dpi);
+        }
+        double preprocessMs = (System.nanoTime() - start) / 1e6 / ITERATIONS;
+
+        String ocr = "";
+        if (enginePool != null) {
+            TesseractEnginePool.EngineConfig config = new TesseractEnginePool.EngineConfig("fra+eng", 6, 1, Map.of());
+            start = System.nanoTime();
+            String text;
+            try (TesseractEnginePool.Engine engine = enginePool.borrow(config)) {
+                text = engine.recognize(processed);
+            }
+            double ocrMs = (System.nanoTime() - start) / 1e6;
+            int fields = extractor.extract(text, TYPE).getExtractedFields().size();
+            ocr = String.format(", OCR %.0f ms, champs %d/%d", ocrMs, fields, extractor.getFields(TYPE).size());
+        }
+        System.out.printf("%s - OCR sur %dx%d (%.1f Mpx), prétraitement %.1f ms%s%n", label,
+            processed.width(), processed.height(), processed.total() / 1e6, preprocessMs, ocr);
+        processed.release();
+    }
+}
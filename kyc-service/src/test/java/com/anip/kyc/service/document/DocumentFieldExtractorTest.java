@@ -0,0 +1,65 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.dto.ExtractedDocumentData;
+import com.anip.kyc.models.Document;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DocumentFieldExtractorTest {
+
+    private final DocumentFieldExtractor extractor = new DocumentFieldExtractor();
+
+    @Test
+    public void extractsPassportFieldsFromBilingualLabels() {
+        String text = "REPUBLIQUE FRANCAISE PASSEPORT N° 12AB34567\n"
+            + "Nom/Surname: MARTIN\n"
+            + "Prénoms/Given names: CLAIRE MARIE\n"
+            + "Date de naissance/Date of birth 14/02/1990\n"
+            + "Date d'expiration/Date of expiry 01/06/2031\n";
+
+        ExtractedDocumentData data = extractor.extract(text, Document.DocumentType.PASSPORT);
+        Map<String, String> fields = data.getExtractedFields();
+
+        assertEquals("12AB34567", fields.get("passportNumber"));
+        assertEquals("MARTIN", fields.get("surname"));
+        assertEquals("CLAIRE MARIE", fields.get("givenNames"));
+        assertEquals("14/02/1990", fields.get("dateOfBirth"));
+        assertEquals("01/06/2031", fields.get("expiryDate"));
+        assertEquals(1.0, data.getConfidenceScore(), 1e-9);
+    }
+
+    @Test
+    public void ignoresLabelsInsideWordsAndNumbersWithoutDigits() {
+        String text = "CARTE NATIONALE D'IDENTITE\nN° X4RT56T90\nNOM: DURAND\n";
+
+        Map<String, String> fields = extractor.extract(text, Document.DocumentType.ID_CARD).getExtractedFields();
+
+        assertEquals("X4RT56T90", fields.get("idNumber"));
+        assertEquals("DURAND", fields.get("surname"));
+        assertFalse(fields.containsKey("givenNames"));
+    }
+
+    @Test
+    public void extractsDrivingLicenseFields() {
+        String text = "PERMIS DE CONDUIRE 123456789012\nCATEGORIES: AM, B1, B\n";
+
+        Map<String, String> fields = extractor.extract(text, Document.DocumentType.DRIVING_LICENSE_FRONT)
+            .getExtractedFields();
+
+        assertEquals("123456789012", fields.get("licenseNumber"));
+        assertEquals("AM, B1, B", fields.get("categories"));
+    }
+
+    @Test
+    public void backOfIdCardOnlyRequiresNumber() {
+        assertTrue(extractor.getFields(Document.DocumentType.ID_CARD_BACK).stream()
+            .filter(DocumentFieldExtractor.FieldDefinition::isRequired)
+            .allMatch(f -> f.getName().equals("idNumber")));
+    }
+}
@@ -0,0 +1,88 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.config.security.AesGcmEncryptionService;
+import com.anip.kyc.config.security.EncryptionService;
+import com.anip.kyc.exception.DocumentValidationException;
+import com.anip.kyc.exception.UnsupportedDocumentTypeException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DocumentIngestorTest {
+
+    private static final List<String> IMAGES = List.of("image/jpeg", "image/png");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void streamsHashAndCiphertextReadableByDecryptBytes() throws Exception {
+        EncryptionService encryption = aesGcm();
+        DocumentIngestor ingestor = ingestor(encryption);
+        byte[] content = jpeg(100_000);
+
+        DocumentIngestor.IngestedFile ingested = ingestor.ingest(
+            new ByteArrayInputStream(content), directory, IMAGES, 1024 * 1024);
+
+        assertEquals("image/jpeg", ingested.getMimeType());
+        assertEquals(content.length, ingested.getSize());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)), ingested.getSha256());
+        assertArrayEquals(content, encryption.decryptBytes(Files.readAllBytes(ingested.getTempFile())));
+    }
+
+    @Test
+    public void rejectsOversizedUploadAndRemovesTempFile() throws Exception {
+        DocumentIngestor ingestor = ingestor(aesGcm());
+
+        assertThrows(DocumentValidationException.class, () -> ingestor.ingest(
+            new ByteArrayInputStream(jpeg(64 * 1024)), directory, IMAGES, 32 * 1024));
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void rejectsContentWhoseSignatureIsNotAllowed() {
+        DocumentIngestor ingestor = ingestor(aesGcm());
+        byte[] pdf = "%PDF-1.7\n...".getBytes();
+
+        assertThrows(UnsupportedDocumentTypeException.class, () -> ingestor.ingest(
+            new ByteArrayInputStream(pdf), directory, IMAGES, 1024));
+    }
+
+    private static DocumentIngestor ingestor(EncryptionService encryption) {
+        DocumentIngestor ingestor = new DocumentIngestor();
+        ReflectionTestUtils.setField(ingestor, "encryptionService", encryption);
+        return ingestor;
+    }
+
+    private static EncryptionService aesGcm() {
+        AesGcmEncryptionService service = new AesGcmEncryptionService();
+        ReflectionTestUtils.setField(service, "base64Key", Base64.getEncoder().encodeToString(new byte[32]));
+        service.init();
+        return service;
+    }
+
+    private static byte[] jpeg(int length) {
+        byte[] content = new byte[length];
+        new Random(42).nextBytes(content);
+        content[0] = (byte) 0xFF;
+        content[1] = (byte) 0xD8;
+        content[2] = (byte) 0xFF;
+        return content;
+    }
+}
@@ -0,0 +1,209 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.exception.DocumentValidationException;
+import com.anip.kyc.models.Document;
+import com.anip.kyc.repository.DocumentRepository;
+import com.anip.kyc.service.DocumentService;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DocumentProcessingQueueTest {
+
+    private final Map<UUID, Document> documents = new HashMap<>();
+
+    private DocumentRepository repository;
+    private DocumentService documentService;
+    private SimpleMeterRegistry registry;
+    private DocumentProcessingQueue queue;
+    private String workerId;
+
+    @BeforeEach
+    void setUp() {
+        documents.clear();
+        repository = mock(DocumentRepository.class);
+        when(repository.findById(any())).thenAnswer(call -> Optional.ofNullable(documents.get(call.getArgument(0))));
+        when(repository.findAllById(any())).thenAnswer(call -> {
+            Iterable<UUID> ids = call.getArgument(0);
+            List<Document> found = new ArrayList<>();
+            ids.forEach(id -> found.add(documents.get(id)));
+            return found;
+        });
+        documentService = mock(DocumentService.class);
+        registry = new SimpleMeterRegistry();
+
+        queue = new DocumentProcessingQueue();
+        ReflectionTestUtils.setField(queue, "documentRepository", repository);
+        ReflectionTestUtils.setField(queue, "documentService", documentService);
+        ReflectionTestUtils.setField(queue, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(queue, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(queue, "meterRegistry", registry);
+        ReflectionTestUtils.setField(queue, "enabled", true);
+        ReflectionTestUtils.setField(queue, "leaseSeconds", 300L);
+        ReflectionTestUtils.setField(queue, "maxAttempts", 3);
+        ReflectionTestUtils.setField(queue, "initialBackoffMs", 5000L);
+        ReflectionTestUtils.setField(queue, "maxBackoffMs", 600000L);
+        ReflectionTestUtils.setField(queue, "pairingEnabled", false);
+        queue.init();
+        workerId = (String) ReflectionTestUtils.getField(queue, "workerId");
+    }
+
+    @Test
+    public void claimsPendingDocumentsWithLease() {
+        Document pending = document(0);
+        Document exhausted = document(3);
+        when(repository.lockClaimableDocuments(any(), eq(5)))
+            .thenReturn(List.of(pending.getDocumentId(), exhausted.getDocumentId()));
+
+        Map<UUID, UUID> claimed = ReflectionTestUtils.invokeMethod(queue, "claim", 5);
+
+        assertEquals(List.of(pending.getDocumentId()), List.copyOf(claimed.keySet()));
+        assertTrue(pending.isLeasedBy(workerId));
+        assertEquals(1, pending.getProcessingAttempts());
+        assertTrue(pending.getLeaseExpiresAt().isAfter(LocalDateTime.now().plusSeconds(290)));
+        // Bail expiré à chaque tentative : abandonné sans nouvel essai
+        assertEquals(Document.ProcessingStatus.DEAD_LETTER, exhausted.getProcessingStatus());
+        assertNull(exhausted.getLeaseOwner());
+    }
+
+    @Test
+    public void retriesTransientFailureWithExponentialBackoff() throws Exception {
+        Document document = claimed(2);
+        doThrow(new IOException("stockage indisponible"))
+            .when(documentService).processQueuedDocument(document.getDocumentId(), workerId);
+
+        process(document);
+
+        assertEquals(Document.ProcessingStatus.PENDING, document.getProcessingStatus());
+        assertNull(document.getLeaseOwner());
+        assertTrue(document.getLastError().contains("stockage indisponible"));
+        // Deuxième tentative : 2 x l'attente initiale
+        long backoffMs = ChronoUnit.MILLIS.between(LocalDateTime.now(), document.getNextAttemptAt());
+        assertTrue(backoffMs > 9000 && backoffMs <= 10000, String.valueOf(backoffMs));
+        assertEquals(1.0, registry.get("kyc.ocr.queue.jobs").tag("outcome", "retried").counter().count());
+    }
+
+    @Test
+    public void deadLettersPermanentFailureImmediately() throws Exception {
+        Document document = claimed(1);
+        document.setMetadata("{\"tamper\":{\"score\":0.1}}");
+        doThrow(new CompletionException(new DocumentValidationException("Impossible de charger l'image")))
+            .when(documentService).processQueuedDocument(document.getDocumentId(), workerId);
+
+        process(document);
+
+        assertEquals(Document.ProcessingStatus.DEAD_LETTER, document.getProcessingStatus());
+        assertNull(document.getLeaseOwner());
+        assertNotNull(document.getProcessedAt());
+        Map<?, ?> meta = new ObjectMapper().readValue(document.getMetadata(), Map.class);
+        assertTrue(meta.containsKey("tamper"), document.getMetadata());
+        assertEquals(1, meta.get("attempts"));
+        assertTrue(String.valueOf(meta.get("error")).contains("Impossible de charger l'image"));
+        verify(documentService).concludeAbandonedPair(document);
+    }
+
+    @Test
+    public void deadLettersAfterLastAttempt() throws Exception {
+        Document document = claimed(3);
+        doThrow(new IOException("délai dépassé"))
+            .when(documentService).processQueuedDocument(document.getDocumentId(), workerId);
+
+        process(document);
+
+        assertEquals(Document.ProcessingStatus.DEAD_LETTER, document.getProcessingStatus());
+        assertEquals(1.0, registry.get("kyc.ocr.queue.jobs").tag("outcome", "dead_lettered").counter().count());
+    }
+
+    @Test
+    public void ignoresFailureAfterLeaseLost() throws Exception {
+        Document document = claimed(1);
+        document.setLeaseOwner("autre-worker");
+        doThrow(new IOException("délai dépassé"))
+            .when(documentService).processQueuedDocument(document.getDocumentId(), workerId);
+
+        process(document);
+
+        assertEquals(Document.ProcessingStatus.PROCESSING, document.getProcessingStatus());
+        assertEquals("autre-worker", document.getLeaseOwner());
+    }
+
+    @Test
+    public void renewsLeasesOfDocumentsInFlight() {
+        queue.renewLeases();
+        verify(repository, never()).renewLeases(any(), anyString(), any(), any());
+
+        UUID documentId = UUID.randomUUID();
+        UUID partnerId = UUID.randomUUID();
+        ReflectionTestUtils.invokeMethod(queue, "track", documentId, partnerId, true);
+        when(repository.renewLeases(any(), eq(workerId), eq(Document.ProcessingStatus.PROCESSING), any())).thenReturn(2);
+        queue.renewLeases();
+        verify(repository).renewLeases(
+            ArgumentMatchers.<Collection<UUID>>argThat(ids -> ids.size() == 2
+                && ids.contains(documentId) && ids.contains(partnerId)),
+            eq(workerId), eq(Document.ProcessingStatus.PROCESSING), any());
+
+        // Fin du traitement : plus de prolongation
+        ReflectionTestUtils.invokeMethod(queue, "process", documentId, partnerId);
+        assertTrue(((Collection<?>) ReflectionTestUtils.getField(queue, "inFlight")).isEmpty());
+    }
+
+    @Test
+    public void classifiesPermanentErrors() {
+        assertTrue(DocumentProcessingQueue.isPermanent(new DocumentValidationException("Fichier vide")));
+        assertTrue(DocumentProcessingQueue.isPermanent(new RuntimeException(new NoSuchFileException("/x"))));
+        assertFalse(DocumentProcessingQueue.isPermanent(new IOException("Connexion perdue")));
+        assertFalse(DocumentProcessingQueue.isPermanent(new IllegalStateException()));
+    }
+
+    private void process(Document document) {
+        ReflectionTestUtils.invokeMethod(queue, "process", document.getDocumentId(), (UUID) null);
+    }
+
+    private Document claimed(int attempts) {
+        Document document = document(attempts - 1);
+        document.claim(workerId, LocalDateTime.now().plusSeconds(300));
+        return document;
+    }
+
+    private Document document(int attempts) {
+        Document document = new Document(UUID.randomUUID(), Document.DocumentType.PASSPORT, "chemin", "image/jpeg", 1024L);
+        document.setDocumentId(UUID.randomUUID());
+        document.setProcessingAttempts(attempts);
+        documents.put(document.getDocumentId(), document);
+        return document;
+    }
+}
@@ -0,0 +1,135 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.config.OpenCvNativeLoader;
+import com.anip.kyc.models.Document;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DocumentQualityAnalyzerTest {
+
+    private static final Point[] CARD = {
+        new Point(420, 380), new Point(1480, 300), new Point(1530, 980), new Point(390, 1010)};
+
+    private static DocumentQualityAnalyzer analyzer;
+
+    @BeforeAll
+    static void setUp() {
+        OpenCvNativeLoader.load();
+        analyzer = newAnalyzer();
+    }
+
+    static DocumentQualityAnalyzer newAnalyzer() {
+        DocumentQualityAnalyzer analyzer = new DocumentQualityAnalyzer();
+        ReflectionTestUtils.setField(analyzer, "documentBoundaryDetector", DocumentBoundaryDetectorTest.newDetector());
+        ReflectionTestUtils.setField(analyzer, "minSharpness", 100.0);
+        ReflectionTestUtils.setField(analyzer, "maxGlareRatio", 0.03);
+        ReflectionTestUtils.setField(analyzer, "minDpi", 150.0);
+        ReflectionTestUtils.setField(analyzer, "minFillRatio", 0.15);
+        return analyzer;
+    }
+
+    @Test
+    public void acceptsSharpWellFramedPhoto() {
+        Mat photo = DocumentSceneFactory.photo(2000, 1500, CARD);
+
+        DocumentQualityAnalyzer.Assessment assessment = analyzer.analyze(photo, Document.DocumentType.ID_CARD_FRONT);
+
+        assertTrue(assessment.isAcceptable(), "Rejet inattendu : " + assessment.getIssues() + " " + assessment.getMetrics());
+        assertTrue(assessment.isDocumentDetected());
+        photo.release();
+    }
+
+    @Test
+    public void rejectsBlurredPhoto() {
+        Mat photo = DocumentSceneFactory.photo(2000, 1500, CARD);
+        Imgproc.GaussianBlur(photo, photo, new Size(0, 0), 6);
+
+        DocumentQualityAnalyzer.Assessment assessment = analyzer.analyze(photo, Document.DocumentType.ID_CARD_FRONT);
+
+        assertTrue(assessment.getIssues().contains(DocumentQualityAnalyzer.BLURRY), assessment.getMetrics().toString());
+        photo.release();
+    }
+
+    @Test
+    public void rejectsSpecularGlare() {
+        Mat photo = DocumentSceneFactory.photo(2000, 1500, CARD);
+        Imgproc.circle(photo, new Point(900, 650), 150, Scalar.all(255), -1);
+
+        DocumentQualityAnalyzer.Assessment assessment = analyzer.analyze(photo, Document.DocumentType.ID_CARD_FRONT);
+
+        assertEquals(List.of(DocumentQualityAnalyzer.GLARE), assessment.getIssues(), assessment.getMetrics().toString());
+        photo.release();
+    }
+
+    @Test
+    public void rejectsSmallLowResolutionDocument() {
+        Point[] quad = {new Point(300, 260), new Point(620, 250), new Point(630, 455), new Point(295, 460)};
+        Mat photo = DocumentSceneFactory.photo(1000, 750, quad);
+
+        DocumentQualityAnalyzer.Assessment assessment = analyzer.analyze(photo, Document.DocumentType.ID_CARD_FRONT);
+
+        assertTrue(assessment.getIssues().contains(DocumentQualityAnalyzer.LOW_RESOLUTION), assessment.getMetrics().toString());
+        assertTrue(assessment.getIssues().contains(DocumentQualityAnalyzer.DOCUMENT_TOO_SMALL), assessment.getMetrics().toString());
+        photo.release();
+    }
+
+    @Test
+    public void whitePaperIsNotGlare() {
+        Mat scan = DocumentSceneFactory.card();
+        scan.setTo(Scalar.all(255));
+        Imgproc.putText(scan, DocumentSceneFactory.LINES[1], new Point(40, 80), Imgproc.FONT_HERSHEY_SIMPLEX,
+            1.1, Scalar.all(30), 2);
+
+        assertEquals(0.0, DocumentQualityAnalyzer.glareRatio(scan));
+        scan.release();
+    }
+
+    @Test
+    public void measuresReducedDecodeAtOriginalResolution() {
+        Point[] card = new Point[CARD.length];
+        for (int i = 0; i < CARD.length; i++) {
+            card[i] = new Point(CARD[i].x * 2, CARD[i].y * 2);
+        }
+        Mat photo = DocumentSceneFactory.photo(4000, 3000, card);
+        MatOfByte jpeg = new MatOfByte();
+        Imgcodecs.imencode(".jpg", photo, jpeg);
+        byte[] content = jpeg.toArray();
+        jpeg.release();
+
+        DocumentQualityAnalyzer.Assessment full = analyzer.analyze(photo, Document.DocumentType.ID_CARD_FRONT);
+        DocumentQualityAnalyzer.Assessment reduced = analyzer.analyze(content, Document.DocumentType.ID_CARD_FRONT);
+
+        assertEquals(2, DocumentQualityAnalyzer.reductionFactor(content));
+        assertTrue(reduced.isAcceptable(), reduced.getIssues() + " " + reduced.getMetrics());
+        assertEquals(full.getMetrics().get("effectiveDpi"), reduced.getMetrics().get("effectiveDpi"),
+            full.getMetrics().get("effectiveDpi") * 0.02);
+        assertEquals(full.getMetrics().get("fillRatio"), reduced.getMetrics().get("fillRatio"), 0.02);
+        photo.release();
+    }
+
+    @Test
+    public void keepsSmallImagesAtFullResolution() {
+        assertEquals(1, DocumentQualityAnalyzer.reductionFactor(2000, 1500));
+        assertEquals(2, DocumentQualityAnalyzer.reductionFactor(4000, 3000));
+        assertEquals(4, DocumentQualityAnalyzer.reductionFactor(3000, 6400));
+        assertEquals(8, DocumentQualityAnalyzer.reductionFactor(16000, 12000));
+        assertEquals(1, DocumentQualityAnalyzer.reductionFactor(new byte[]{1, 2, 3}));
+        assertNull(analyzer.analyze(new byte[]{1, 2, 3}, Document.DocumentType.ID_CARD_FRONT));
+    }
+}
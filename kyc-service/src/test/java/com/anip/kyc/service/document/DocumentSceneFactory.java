@@ -0,0 +1,97 @@
+package com.anip.kyc.service.document;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Photos synthétiques d'un document posé sur une table : carte claire avec texte, projetée en perspective
+ * sur un fond texturé plus sombre
+ */
+final class DocumentSceneFactory {
+
+    static final String[] LINES = {
+        "CARTE NATIONALE D'IDENTITE N° X4RT56T90",
+        "NOM: DURAND",
+        "PRENOMS: CLAIRE MARIE",
+        "NE(E) LE / NAISSANCE 14/02/1990",
+        "EXPIRATION 01/06/2031"
+    };
+
+    // Emplacement de la photo d'identité sur la carte
+    static final Rect PHOTO = new Rect(760, 130, 220, 280);
+
+    private DocumentSceneFactory() {
+    }
+
+    /**
+     * Carte ID-1 à 300 DPI en niveaux de gris (1011x638)
+     */
+    static Mat card() {
+        Mat card = new Mat(638, 1011, CvType.CV_8UC1, Scalar.all(235));
+        for (int i = 0; i < LINES.length; i++) {
+            Imgproc.putText(card, LINES[i], new Point(40, 80 + i * 90),
+                Imgproc.FONT_HERSHEY_SIMPLEX, 1.1, Scalar.all(30), 2);
+        }
+        return card;
+    }
+
+    /**
+     * Carte avec une photo d'identité (texture aléatoire lissée) à droite du texte
+     */
+    static Mat cardWithPhoto() {
+        Mat card = card();
+        Mat photo = card.submat(PHOTO);
+        Core.randu(photo, 40, 200);
+        Imgproc.GaussianBlur(photo, photo, new Size(9, 9), 0);
+        photo.release();
+        return card;
+    }
+
+    /**
+     * Photo BGR de width x height où la carte occupe le quadrilatère quad (haut-gauche, haut-droit, bas-droit, bas-gauche)
+     */
+    static Mat photo(int width, int height, Point[] quad) {
+        Mat scene = new Mat(height, width, CvType.CV_8UC1);
+        Core.randu(scene, 60, 110);
+        Imgproc.GaussianBlur(scene, scene, new Size(7, 7), 0);
+
+        Mat card = card();
+        boolean portrait = distance(quad[0], quad[3]) > distance(quad[0], quad[1]);
+        if (portrait) {
+            Core.rotate(card, card, Core.ROTATE_90_CLOCKWISE);
+        }
+        MatOfPoint2f source = new MatOfPoint2f(new Point(0, 0), new Point(card.width() - 1, 0),
+            new Point(card.width() - 1, card.height() - 1), new Point(0, card.height() - 1));
+        MatOfPoint2f target = new MatOfPoint2f(quad);
+        Mat transform = Imgproc.getPerspectiveTransform(source, target);
+        Imgproc.warpPerspective(card, scene, transform, scene.size(), Imgproc.INTER_LINEAR, Core.BORDER_TRANSPARENT);
+
+        Imgproc.cvtColor(scene, scene, Imgproc.COLOR_GRAY2BGR);
+        card.release();
+        source.release();
+        target.release();
+        transform.release();
+        return scene;
+    }
+
+    static double area(Point[] quad) {
+        double sum = 0;
+        for (int i = 0; i < quad.length; i++) {
+            Point a = quad[i];
+            Point b = quad[(i + 1) % quad.length];
+            sum += a.x * b.y - b.x * a.y;
+        }
+        return Math.abs(sum) / 2.0;
+    }
+
+    private static double distance(Point a, Point b) {
+        return Math.hypot(a.x - b.x, a.y - b.y);
+    }
+}
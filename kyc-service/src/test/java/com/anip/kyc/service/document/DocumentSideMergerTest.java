@@ -0,0 +1,67 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.dto.ExtractedDocumentData;
+import com.anip.kyc.models.Document;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DocumentSideMergerTest {
+
+    private final DocumentSideMerger merger = new DocumentSideMerger();
+
+    @Test
+    public void mapsSidesOfTheSameDocument() {
+        assertEquals(Document.DocumentType.ID_CARD_BACK, DocumentSideMerger.counterpart(Document.DocumentType.ID_CARD_FRONT));
+        assertEquals(Document.DocumentType.DRIVING_LICENSE_FRONT,
+            DocumentSideMerger.counterpart(Document.DocumentType.DRIVING_LICENSE_BACK));
+        assertNull(DocumentSideMerger.counterpart(Document.DocumentType.PASSPORT));
+        assertNull(DocumentSideMerger.counterpart(Document.DocumentType.ID_CARD));
+    }
+
+    @Test
+    public void mergesFrontWithMachineReadableBack() {
+        ExtractedDocumentData front = side(Document.DocumentType.ID_CARD_FRONT, 0.6, Map.of(
+            "surname", "ERIKSS0N", "givenNames", "ANNA MARIA", "dateOfBirth", "12/08/1974"));
+        ExtractedDocumentData back = side(Document.DocumentType.ID_CARD_BACK, 1.0, Map.of(
+            "idNumber", "D23145890", "surname", "ERIKSSON", "expiryDate", "15/04/2012", "mrzFormat", "TD1"));
+
+        ExtractedDocumentData merged = merger.merge(front, back);
+
+        assertEquals(Document.DocumentType.ID_CARD_FRONT, merged.getDocumentType());
+        // Champ lu dans la MRZ : prioritaire sur l'OCR du recto
+        assertEquals("ERIKSSON", merged.getExtractedFields().get("surname"));
+        assertEquals("ANNA MARIA", merged.getExtractedFields().get("givenNames"));
+        assertEquals("D23145890", merged.getExtractedFields().get("idNumber"));
+        assertEquals("15/04/2012", merged.getExtractedFields().get("expiryDate"));
+        assertEquals(0.8, merged.getConfidenceScore(), 1e-9);
+    }
+
+    @Test
+    public void reportsFieldsThatDifferBetweenSides() {
+        ExtractedDocumentData front = side(Document.DocumentType.ID_CARD_FRONT, 0.9, Map.of(
+            "idNumber", "D23145890", "surname", "Eriksson", "givenNames", "ANNA MARIA", "dateOfBirth", "12/08/1974"));
+        ExtractedDocumentData back = side(Document.DocumentType.ID_CARD_BACK, 1.0, Map.of(
+            "idNumber", "D23145890", "surname", "ERIKSSON", "givenNames", "ANNA<MAR", "dateOfBirth", "21/08/1974"));
+
+        List<String> errors = merger.inconsistencies(front, back);
+
+        // Casse et prénoms tronqués par la MRZ tolérés ; date de naissance divergente
+        assertEquals(List.of("Incohérence recto/verso: Date de naissance"), errors);
+        assertTrue(merger.inconsistencies(front, front).isEmpty());
+    }
+
+    private static ExtractedDocumentData side(Document.DocumentType type, double confidence, Map<String, Object> fields) {
+        ExtractedDocumentData data = new ExtractedDocumentData();
+        data.setDocumentType(type);
+        data.setConfidenceScore(confidence);
+        data.setExtractedFields(fields);
+        return data;
+    }
+}
@@ -0,0 +1,192 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.config.CpuBudgetManager;
+import com.anip.kyc.config.OpenCvNativeLoader;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.Rect;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DocumentTamperAnalyzerTest {
+
+    private static ForkJoinPool pool;
+    private static CpuBudgetManager.Slots slots;
+    private static DocumentTamperAnalyzer analyzer;
+
+    @BeforeAll
+    static void setUp() {
+        OpenCvNativeLoader.load();
+        pool = new ForkJoinPool(4);
+        analyzer = new DocumentTamperAnalyzer();
+        CpuBudgetManager cpuBudget = mock(CpuBudgetManager.class);
+        slots = new CpuBudgetManager.Slots(2);
+        when(cpuBudget.getDocumentSlots()).thenReturn(slots);
+        ReflectionTestUtils.setField(analyzer, "tamperAnalysisPool", pool);
+        ReflectionTestUtils.setField(analyzer, "cpuBudget", cpuBudget);
+        ReflectionTestUtils.setField(analyzer, "elaThreshold", 6.0);
+        ReflectionTestUtils.setField(analyzer, "copyMoveMinMatches", 24);
+        ReflectionTestUtils.setField(analyzer, "copyMoveMinShift", 48);
+        ReflectionTestUtils.setField(analyzer, "copyMoveMinAreaRatio", 0.002);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void authenticScanIsNotSuspected() {
+        Mat scan = jpeg(DocumentSceneFactory.cardWithPhoto(), 75);
+
+        DocumentTamperAnalyzer.Analysis analysis = analyzer.analyze(scan, 75, 10_000);
+
+        assertTrue(analysis.getScore() < 0.5, describe(analysis));
+        assertTrue(analysis.isComplete());
+        assertEquals(15, analysis.getTilesTotal());
+        scan.release();
+    }
+
+    @Test
+    public void locatesSplicedRegion() {
+        Mat scan = jpeg(DocumentSceneFactory.cardWithPhoto(), 75);
+        // Zone collée sans l'historique de compression du reste du document
+        Mat patch = scan.submat(new Rect(400, 420, 160, 120));
+        Core.randu(patch, 40, 200);
+        patch.release();
+
+        DocumentTamperAnalyzer.Analysis analysis = analyzer.analyze(scan, 75, 10_000);
+
+        assertTrue(analysis.getElaScore() >= 0.5, describe(analysis));
+        double[][] heatMap = analysis.getHeatMap();
+        assertTrue(heatMap[2][2] >= 0.5, describe(analysis));
+        assertTrue(heatMap[0][0] < 0.5, describe(analysis));
+        scan.release();
+    }
+
+    @Test
+    public void detectsCopyMove() {
+        Mat card = DocumentSceneFactory.cardWithPhoto();
+        // Portion de la photo d'identité dupliquée sur le texte
+        Mat source = card.submat(new Rect(784, 160, 120, 120));
+        Mat target = card.submat(new Rect(304, 400, 120, 120));
+        source.copyTo(target);
+        source.release();
+        target.release();
+        Mat scan = jpeg(card, 90);
+
+        DocumentTamperAnalyzer.Analysis analysis = analyzer.analyze(scan, 90, 10_000);
+
+        assertTrue(analysis.getCopyMoveMatches() >= 24, describe(analysis));
+        assertTrue(analysis.getScore() >= 0.5, describe(analysis));
+        scan.release();
+    }
+
+    @Test
+    public void stopsAtBudget() {
+        Mat scan = jpeg(DocumentSceneFactory.cardWithPhoto(), 75);
+
+        DocumentTamperAnalyzer.Analysis analysis = analyzer.analyze(scan, 75, 0);
+
+        assertFalse(analysis.isComplete());
+        assertEquals(0, analysis.getTilesAnalyzed());
+        assertEquals(0.0, analysis.getScore());
+        scan.release();
+    }
+
+    @Test
+    public void stopsAtBudgetWhileSlotsAreBusy() throws Exception {
+        Mat scan = jpeg(DocumentSceneFactory.cardWithPhoto(), 75);
+        CountDownLatch held = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService ocr = Executors.newFixedThreadPool(2);
+        try {
+            // Tous les créneaux document occupés par l'OCR pendant toute l'analyse
+            for (int i = 0; i < 2; i++) {
+                ocr.submit(() -> slots.call(() -> {
+                    held.countDown();
+                    return release.await(10, TimeUnit.SECONDS);
+                }));
+            }
+            held.await();
+
+            long start = System.nanoTime();
+            DocumentTamperAnalyzer.Analysis analysis = analyzer.analyze(scan, 75, 200);
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertFalse(analysis.isComplete());
+            assertEquals(0, analysis.getTilesAnalyzed());
+            assertTrue(elapsedMs < 2000, String.valueOf(elapsedMs));
+        } finally {
+            release.countDown();
+            ocr.shutdown();
+            scan.release();
+        }
+    }
+
+    @Test
+    public void estimatesQualityFromQuantizationTable() {
+        Mat card = DocumentSceneFactory.card();
+        for (int quality : new int[]{60, 75, 92}) {
+            MatOfByte bytes = new MatOfByte();
+            Imgcodecs.imencode(".jpg", card, bytes, new MatOfInt(Imgcodecs.IMWRITE_JPEG_QUALITY, quality));
+            assertEquals(quality, DocumentTamperAnalyzer.estimateJpegQuality(bytes.toArray()), 1);
+            bytes.release();
+        }
+        MatOfByte png = new MatOfByte();
+        Imgcodecs.imencode(".png", card, png);
+        assertEquals(0, DocumentTamperAnalyzer.estimateJpegQuality(png.toArray()));
+        png.release();
+        card.release();
+    }
+
+    @Test
+    public void coversImageWithOverlappingTiles() {
+        assertEquals(1, DocumentTamperAnalyzer.tileCount(200));
+        assertEquals(1, DocumentTamperAnalyzer.tileCount(256));
+        assertEquals(5, DocumentTamperAnalyzer.tileCount(1011));
+        // Dernière tuile : commence avant la fin de l'image, couvre jusqu'au bord
+        int tiles = DocumentTamperAnalyzer.tileCount(1011);
+        assertTrue((tiles - 1) * DocumentTamperAnalyzer.TILE_STRIDE < 1011);
+        assertTrue((tiles - 1) * DocumentTamperAnalyzer.TILE_STRIDE + DocumentTamperAnalyzer.TILE_SIZE >= 1011);
+    }
+
+    private static Mat jpeg(Mat image, int quality) {
+        MatOfByte bytes = new MatOfByte();
+        Imgcodecs.imencode(".jpg", image, bytes, new MatOfInt(Imgcodecs.IMWRITE_JPEG_QUALITY, quality));
+        Mat decoded = Imgcodecs.imdecode(bytes, Imgcodecs.IMREAD_GRAYSCALE);
+        image.release();
+        bytes.release();
+        return decoded;
+    }
+
+    private static String describe(DocumentTamperAnalyzer.Analysis analysis) {
+        StringBuilder text = new StringBuilder("score=").append(analysis.getScore())
+            .append(" ela=").append(analysis.getElaScore())
+            .append(" copyMove=").append(analysis.getCopyMoveMatches());
+        for (double[] row : analysis.getHeatMap()) {
+            text.append(' ').append(Arrays.toString(row));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,102 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.config.OpenCvNativeLoader;
+import com.anip.kyc.models.Document;
+import com.anip.kyc.service.face.FaceDetector;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DocumentTypeClassifierTest {
+
+    private static final String[] TD1 = {
+        "I<UTOD231458907<<<<<<<<<<<<<<<",
+        "7408122F1204159UTO<<<<<<<<<<<6",
+        "ERIKSSON<<ANNA<MARIA<<<<<<<<<<"
+    };
+
+    @BeforeAll
+    static void setUp() {
+        OpenCvNativeLoader.load();
+    }
+
+    @Test
+    public void recognisesCardBackFromTd1Mrz() {
+        Mat back = DocumentSceneFactory.card();
+        back.setTo(Scalar.all(235));
+        for (int i = 0; i < TD1.length; i++) {
+            Imgproc.putText(back, TD1[i], new Point(45, 470 + i * 55), Imgproc.FONT_HERSHEY_SIMPLEX,
+                1.25, Scalar.all(20), 3);
+        }
+
+        DocumentTypeClassifier.Classification classification =
+            newClassifier(false).classify(back, Document.DocumentType.ID_CARD_FRONT);
+
+        assertEquals(Document.DocumentType.ID_CARD_BACK, classification.getType(), classification.getFeatures().toString());
+        assertTrue(classification.getConfidence() >= 0.75);
+        back.release();
+    }
+
+    @Test
+    public void recognisesFrontFromPortraitInPhoto() {
+        Point[] quad = {new Point(420, 380), new Point(1480, 300), new Point(1530, 980), new Point(390, 1010)};
+        Mat photo = DocumentSceneFactory.photo(2000, 1500, quad);
+
+        DocumentTypeClassifier.Classification classification =
+            newClassifier(true).classify(photo, Document.DocumentType.ID_CARD);
+
+        assertEquals(Document.DocumentType.ID_CARD_FRONT, classification.getType(), classification.getFeatures().toString());
+        assertEquals(true, classification.getFeatures().get("boundaryDetected"));
+        photo.release();
+    }
+
+    @Test
+    public void decidesFromFeatures() {
+        // Bande MRZ basse sur une page au format TD3
+        assertEquals(Document.DocumentType.PASSPORT,
+            DocumentTypeClassifier.decide(Document.DocumentType.ID_CARD_FRONT, 1.42, true, 0.15, true, Map.of()).getType());
+        // Permis de conduire : la famille déclarée est conservée
+        assertEquals(Document.DocumentType.DRIVING_LICENSE_BACK,
+            DocumentTypeClassifier.decide(Document.DocumentType.DRIVING_LICENSE_FRONT, 1.6, true, null, false, Map.of()).getType());
+        // Page A4 sans indice : type déclaré, confiance nulle
+        DocumentTypeClassifier.Classification page =
+            DocumentTypeClassifier.decide(Document.DocumentType.UTILITY_BILL, 1.41, false, null, false, Map.of());
+        assertEquals(Document.DocumentType.UTILITY_BILL, page.getType());
+        assertEquals(0.0, page.getConfidence());
+        // Détecteur de visages indisponible : pas de décision recto / verso
+        assertEquals(0.0,
+            DocumentTypeClassifier.decide(Document.DocumentType.ID_CARD, 1.6, true, null, null, Map.of()).getConfidence());
+    }
+
+    private static DocumentTypeClassifier newClassifier(boolean face) {
+        MrzRegionLocator mrzRegionLocator = new MrzRegionLocator();
+        ReflectionTestUtils.setField(mrzRegionLocator, "minAspectRatio", 5.0);
+        ReflectionTestUtils.setField(mrzRegionLocator, "minWidthRatio", 0.75);
+
+        FaceDetector faceDetector = new FaceDetector() {
+            @Override
+            public List<FaceBox> detect(Mat image) {
+                return face ? List.of(new FaceBox(new Rect(0, 0, 40, 50), 0.9)) : List.of();
+            }
+        };
+
+        DocumentTypeClassifier classifier = new DocumentTypeClassifier();
+        ReflectionTestUtils.setField(classifier, "documentBoundaryDetector", DocumentBoundaryDetectorTest.newDetector());
+        ReflectionTestUtils.setField(classifier, "mrzRegionLocator", mrzRegionLocator);
+        ReflectionTestUtils.setField(classifier, "faceDetector", faceDetector);
+        return classifier;
+    }
+}
@@ -0,0 +1,51 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.models.Document;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import org.opencv.core.Rect;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FieldRegionPriorTest {
+
+    private static final int HEIGHT = 640;
+
+    private static final List<TextRegionDetector.TextRegion> REGIONS = List.of(
+        region(40, 0),
+        region(200, 1),
+        region(360, 2),
+        region(520, 3));
+
+    @Test
+    public void keepsReadingOrderWithoutHistory() {
+        FieldRegionPrior prior = new FieldRegionPrior();
+
+        assertEquals(List.of(0, 1, 2, 3), prior.order(Document.DocumentType.PASSPORT, REGIONS, HEIGHT));
+    }
+
+    @Test
+    public void readsProductiveBandsFirst() {
+        FieldRegionPrior prior = new FieldRegionPrior();
+        prior.record(Document.DocumentType.PASSPORT, REGIONS.get(2), HEIGHT);
+        prior.record(Document.DocumentType.PASSPORT, REGIONS.get(2), HEIGHT);
+        prior.record(Document.DocumentType.PASSPORT, REGIONS.get(3), HEIGHT);
+
+        assertEquals(List.of(2, 3, 0, 1), prior.order(Document.DocumentType.PASSPORT, REGIONS, HEIGHT));
+        // Historique propre à chaque type de document
+        assertEquals(List.of(0, 1, 2, 3), prior.order(Document.DocumentType.ID_CARD, REGIONS, HEIGHT));
+    }
+
+    @Test
+    public void mapsRegionCenterToBand() {
+        assertEquals(0, FieldRegionPrior.band(region(0, 0), HEIGHT));
+        assertEquals(FieldRegionPrior.BANDS - 1, FieldRegionPrior.band(region(HEIGHT - 20, 0), HEIGHT));
+    }
+
+    private static TextRegionDetector.TextRegion region(int y, int row) {
+        return new TextRegionDetector.TextRegion(new Rect(20, y, 400, 40), row, TextRegionDetector.PSM_SINGLE_LINE);
+    }
+}
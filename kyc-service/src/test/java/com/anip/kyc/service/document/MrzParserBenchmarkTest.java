@@ -0,0 +1,75 @@
+package com.anip.kyc.service.document;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Débit de l'analyse MRZ TD3 :
+ * - chemin regex : découpage en lignes, expressions régulières et sous-chaînes par champ
+ * - MrzParser : lecture positionnelle sur le CharSequence avec contrôle de tous les chiffres
+ *
+ * Exécution : mvn test -Dtest=MrzParserBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class MrzParserBenchmarkTest {
+
+    private static final String TD3 = "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<\n"
+        + "L898902C36UTO7408122F1204159ZE184226B<<<<<10";
+
+    private static final Pattern LINE1 = Pattern.compile("^P[A-Z<]([A-Z<]{3})([A-Z<]+?)<<([A-Z<]*)$");
+    private static final Pattern LINE2 = Pattern.compile(
+        "^([A-Z0-9<]{9})(\\d)([A-Z<]{3})(\\d{6})(\\d)([MF<])(\\d{6})(\\d)([A-Z0-9<]{14})(\\d|<)(\\d)$");
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    @Test
+    public void compareThroughput() {
+        int sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += viaRegex().length();
+            sink += viaParser().length();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += viaRegex().length();
+        }
+        long regexNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += viaParser().length();
+        }
+        long parserNanos = System.nanoTime() - start;
+
+        System.out.printf("MRZ TD3 - regex: %.0f ops/s, MrzParser: %.0f ops/s (sink %d)%n",
+            ITERATIONS / (regexNanos / 1e9), ITERATIONS / (parserNanos / 1e9), sink);
+
+        assertEquals(viaRegex(), viaParser());
+    }
+
+    private static String viaRegex() {
+        String[] lines = TD3.split("\\r?\\n");
+        Matcher names = LINE1.matcher(lines[0]);
+        Matcher data = LINE2.matcher(lines[1]);
+        if (!names.matches() || !data.matches()) {
+            return "";
+        }
+        String surname = names.group(2).replace('<', ' ').trim();
+        return data.group(1).replace("<", "") + "|" + surname + "|" + data.group(4);
+    }
+
+    private static String viaParser() {
+        MrzParser.MrzData mrz = MrzParser.parse(TD3);
+        if (mrz == null || !mrz.isValid()) {
+            return "";
+        }
+        return mrz.getDocumentNumber() + "|" + mrz.getSurname() + "|" + TD3.substring(58, 64);
+    }
+}
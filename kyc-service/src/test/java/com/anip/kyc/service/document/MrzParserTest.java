@@ -0,0 +1,99 @@
+package com.anip.kyc.service.document;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Analyse des spécimens ICAO 9303 (parties 4 à 6)
+ */
+public class MrzParserTest {
+
+    private static final String TD1 = "I<UTOD231458907<<<<<<<<<<<<<<<\n"
+        + "7408122F1204159UTO<<<<<<<<<<<6\n"
+        + "ERIKSSON<<ANNA<MARIA<<<<<<<<<<";
+
+    private static final String TD2 = "I<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<\n"
+        + "D231458907UTO7408122F1204159<<<<<<<6";
+
+    private static final String TD3 = "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<\n"
+        + "L898902C36UTO7408122F1204159ZE184226B<<<<<10";
+
+    @Test
+    public void parsesTd3Passport() {
+        MrzParser.MrzData mrz = MrzParser.parse(TD3);
+
+        assertNotNull(mrz);
+        assertEquals(MrzParser.Format.TD3, mrz.getFormat());
+        assertEquals("P", mrz.getDocumentCode());
+        assertEquals("UTO", mrz.getIssuingState());
+        assertEquals("L898902C3", mrz.getDocumentNumber());
+        assertEquals("UTO", mrz.getNationality());
+        assertEquals(LocalDate.of(1974, 8, 12), mrz.getDateOfBirth());
+        assertEquals(LocalDate.of(2012, 4, 15), mrz.getExpiryDate());
+        assertEquals('F', mrz.getSex());
+        assertEquals("ERIKSSON", mrz.getSurname());
+        assertEquals("ANNA MARIA", mrz.getGivenNames());
+        assertEquals("ZE184226B", mrz.getOptionalData());
+        assertTrue(mrz.isValid());
+        assertEquals(1.0, mrz.getValidityRatio());
+    }
+
+    @Test
+    public void parsesTd1IdCard() {
+        MrzParser.MrzData mrz = MrzParser.parse(TD1);
+
+        assertNotNull(mrz);
+        assertEquals(MrzParser.Format.TD1, mrz.getFormat());
+        assertEquals("D23145890", mrz.getDocumentNumber());
+        assertEquals("ERIKSSON", mrz.getSurname());
+        assertEquals("ANNA MARIA", mrz.getGivenNames());
+        assertEquals(LocalDate.of(1974, 8, 12), mrz.getDateOfBirth());
+        assertTrue(mrz.isValid());
+    }
+
+    @Test
+    public void parsesTd2Document() {
+        MrzParser.MrzData mrz = MrzParser.parse(TD2);
+
+        assertNotNull(mrz);
+        assertEquals(MrzParser.Format.TD2, mrz.getFormat());
+        assertEquals("D23145890", mrz.getDocumentNumber());
+        assertTrue(mrz.isValid());
+    }
+
+    @Test
+    public void reportsInvalidCheckDigitPerField() {
+        // Numéro de document altéré : son contrôle et le composite échouent, les dates restent valides
+        MrzParser.MrzData mrz = MrzParser.parse(TD3.replace("L898902C3", "L898902C4"));
+
+        assertNotNull(mrz);
+        assertFalse(mrz.isDocumentNumberValid());
+        assertFalse(mrz.isCompositeValid());
+        assertTrue(mrz.isDateOfBirthValid());
+        assertTrue(mrz.isExpiryDateValid());
+        assertFalse(mrz.isValid());
+    }
+
+    @Test
+    public void correctsOcrConfusionsInNumericFields() {
+        // 'O' lu à la place de '0' dans la date d'expiration
+        MrzParser.MrzData mrz = MrzParser.parse(TD3.replace("1204159", "12O4159"));
+
+        assertNotNull(mrz);
+        assertEquals(LocalDate.of(2012, 4, 15), mrz.getExpiryDate());
+        assertTrue(mrz.isValid());
+    }
+
+    @Test
+    public void rejectsUnknownLayout() {
+        assertNull(MrzParser.parse("P<UTOERIKSSON<<ANNA\nL898902C36UTO"));
+        assertNull(MrzParser.parse(""));
+    }
+}
@@ -0,0 +1,88 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.config.OpenCvNativeLoader;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+
+import javax.imageio.ImageIO;
+
+import com.sun.jna.Pointer;
+
+import net.sourceforge.tess4j.util.ImageIOHelper;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mesure du coût de transfert d'une page prétraitée vers Tesseract, hors reconnaissance :
+ * - ancien chemin : imencode PNG, ImageIO.read, conversion Tess4J en ByteBuffer
+ * - chemin direct : vue ByteBuffer sur le buffer natif du Mat
+ *
+ * Exécution : mvn test -Dtest=OcrImageTransferBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class OcrImageTransferBenchmarkTest {
+
+    // Page A4 à 300 DPI en niveaux de gris
+    private static final int WIDTH = 2480;
+    private static final int HEIGHT = 3508;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 20;
+
+    private static Mat page;
+
+    @BeforeAll
+    static void setUp() {
+        OpenCvNativeLoader.load();
+        page = new Mat(HEIGHT, WIDTH, CvType.CV_8UC1);
+        Core.randu(page, 0, 255);
+    }
+
+    @Test
+    public void compareTransferPaths() throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            viaPng();
+            direct();
+        }
+
+        long pngNanos = 0;
+        long directNanos = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            viaPng();
+            pngNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            direct();
+            directNanos += System.nanoTime() - start;
+        }
+
+        System.out.printf("Transfert par page %dx%d - PNG/ImageIO: %.2f ms, direct: %.3f ms%n",
+            WIDTH, HEIGHT, pngNanos / 1e6 / ITERATIONS, directNanos / 1e6 / ITERATIONS);
+
+        assertEquals(viaPng().capacity(), direct().capacity());
+    }
+
+    private ByteBuffer viaPng() throws Exception {
+        MatOfByte encoded = new MatOfByte();
+        Imgcodecs.imencode(".png", page, encoded);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(encoded.toArray()));
+        encoded.release();
+        return ImageIOHelper.convertImageData(image);
+    }
+
+    private ByteBuffer direct() {
+        return new Pointer(page.dataAddr()).getByteBuffer(0, page.total() * page.elemSize());
+    }
+}
@@ -0,0 +1,76 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.models.Document;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OcrTierPolicyTest {
+
+    private static final TesseractEnginePool.EngineConfig BASE =
+        new TesseractEnginePool.EngineConfig("fra+eng", 7, 1, Map.of("tessedit_char_whitelist", "ABC"));
+
+    @Test
+    public void buildsTierConfigurationsPerDocumentType() {
+        OcrTierPolicy policy = newPolicy(true, "PASSPORT:eng", "");
+
+        TesseractEnginePool.EngineConfig fast = policy.config(OcrTierPolicy.Tier.FAST, Document.DocumentType.PASSPORT, BASE);
+        assertEquals("/tessdata/fast", fast.getDataPath());
+        assertEquals("eng", fast.getLanguage());
+        assertEquals(7, fast.getPageSegMode());
+        assertEquals(BASE.getVariables(), fast.getVariables());
+
+        assertEquals("fra", policy.config(OcrTierPolicy.Tier.FAST, Document.DocumentType.ID_CARD_FRONT, BASE).getLanguage());
+        TesseractEnginePool.EngineConfig best = policy.config(OcrTierPolicy.Tier.BEST, Document.DocumentType.PASSPORT, BASE);
+        assertNull(best.getDataPath());
+        assertEquals("fra+eng", best.getLanguage());
+    }
+
+    @Test
+    public void escalatesOnlyBelowThreshold() {
+        OcrTierPolicy policy = newPolicy(true, "", "ID_CARD_BACK");
+
+        assertTrue(policy.shouldEscalate(Document.DocumentType.PASSPORT, 55));
+        assertFalse(policy.shouldEscalate(Document.DocumentType.PASSPORT, 70));
+        assertFalse(policy.shouldEscalate(Document.DocumentType.ID_CARD_BACK, 10));
+    }
+
+    @Test
+    public void readsWithBestModelsWhenTiersAreDisabled() {
+        OcrTierPolicy policy = newPolicy(false, "", "");
+
+        assertEquals(OcrTierPolicy.Tier.BEST, policy.firstTier());
+        assertEquals("fra+eng", policy.config(OcrTierPolicy.Tier.FAST, Document.DocumentType.PASSPORT, BASE).getLanguage());
+        assertFalse(policy.canEscalate(Document.DocumentType.PASSPORT));
+    }
+
+    @Test
+    public void rejectsMalformedLanguageSpec() {
+        assertThrows(IllegalStateException.class, () -> OcrTierPolicy.parseLanguages("PASSPORT"));
+        assertEquals(Map.of(Document.DocumentType.PASSPORT, "eng", Document.DocumentType.ID_CARD, "fra+eng"),
+            OcrTierPolicy.parseLanguages(" PASSPORT:eng , ID_CARD:fra+eng,"));
+    }
+
+    private static OcrTierPolicy newPolicy(boolean enabled, String fastLanguages, String escalationDisabled) {
+        OcrTierPolicy policy = new OcrTierPolicy();
+        ReflectionTestUtils.setField(policy, "enabled", enabled);
+        ReflectionTestUtils.setField(policy, "fastDataPath", "/tessdata/fast");
+        ReflectionTestUtils.setField(policy, "bestDataPath", "");
+        ReflectionTestUtils.setField(policy, "fastDefaultLanguage", "fra");
+        ReflectionTestUtils.setField(policy, "bestDefaultLanguage", "fra+eng");
+        ReflectionTestUtils.setField(policy, "fastLanguagesSpec", fastLanguages);
+        ReflectionTestUtils.setField(policy, "bestLanguagesSpec", "");
+        ReflectionTestUtils.setField(policy, "escalationDisabledSpec", escalationDisabled);
+        ReflectionTestUtils.setField(policy, "confidenceThreshold", 0.7);
+        policy.init();
+        return policy;
+    }
+}
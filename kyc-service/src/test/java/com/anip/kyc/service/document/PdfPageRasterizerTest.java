@@ -0,0 +1,65 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.config.OpenCvNativeLoader;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+
+import org.opencv.core.CvType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PdfPageRasterizerTest {
+
+    private static byte[] threePagePdf;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        OpenCvNativeLoader.load();
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (int i = 0; i < 3; i++) {
+                document.addPage(new PDPage(PDRectangle.A4));
+            }
+            document.save(out);
+            threePagePdf = out.toByteArray();
+        }
+    }
+
+    @Test
+    public void detectsPdfSignature() {
+        assertTrue(PdfPageRasterizer.isPdf(threePagePdf));
+        assertFalse(PdfPageRasterizer.isPdf(new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0, 0}));
+    }
+
+    @Test
+    public void rendersGrayPagesAtTargetDpiAndStopsOnRequest() throws Exception {
+        PdfPageRasterizer rasterizer = new PdfPageRasterizer();
+        ReflectionTestUtils.setField(rasterizer, "dpi", 72f);
+        ReflectionTestUtils.setField(rasterizer, "maxPages", 10);
+
+        List<Integer> rendered = new ArrayList<>();
+        int pageCount = rasterizer.render(threePagePdf, (pageIndex, total, page) -> {
+            assertEquals(CvType.CV_8UC1, page.type());
+            // A4 à 72 DPI : 595,28 x 841,89 points
+            assertEquals(595, page.width());
+            assertEquals(841, page.height());
+            page.release();
+            rendered.add(pageIndex);
+            return pageIndex < 1;
+        });
+
+        assertEquals(3, pageCount);
+        assertEquals(List.of(0, 1), rendered);
+    }
+}
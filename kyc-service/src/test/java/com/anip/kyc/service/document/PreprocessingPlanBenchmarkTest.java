@@ -0,0 +1,148 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.config.OpenCvNativeLoader;
+import com.anip.kyc.models.Document;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Comparaison des plans de prétraitement sur des cartes synthétiques (propre, terne, bruitée, basse résolution) :
+ * plan choisi par l'estimation, durée de prétraitement et, si des traineddata sont fournis (-Dtessdata=...),
+ * durée OCR et taux de champs extraits par plan.
+ *
+ * Exécution : mvn test -Dtest=PreprocessingPlanBenchmarkTest -Dbenchmark=true [-Dtessdata=/usr/share/tessdata]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class PreprocessingPlanBenchmarkTest {
+
+    private static final String[] LINES = {
+        "CARTE NATIONALE D'IDENTITE N° X4RT56T90",
+        "NOM: DURAND",
+        "PRENOMS: CLAIRE MARIE",
+        "NE(E) LE / NAISSANCE 14/02/1990",
+        "EXPIRATION 01/06/2031"
+    };
+    private static final int ITERATIONS = 10;
+
+    private static PreprocessingPlanner planner;
+    private static TesseractEnginePool enginePool;
+    private static final DocumentFieldExtractor extractor = new DocumentFieldExtractor();
+
+    @BeforeAll
+    static void setUp() {
+        OpenCvNativeLoader.load();
+        planner = new PreprocessingPlanner();
+        ReflectionTestUtils.setField(planner, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(planner, "mode", "adaptive");
+        ReflectionTestUtils.setField(planner, "targetDpi", 300.0);
+        ReflectionTestUtils.setField(planner, "minScale", 0.5);
+        ReflectionTestUtils.setField(planner, "noiseThreshold", 6.0);
+        ReflectionTestUtils.setField(planner, "contrastThreshold", 120.0);
+
+        String tessdata = System.getProperty("tessdata");
+        if (tessdata != null) {
+            enginePool = new TesseractEnginePool();
+            ReflectionTestUtils.setField(enginePool, "meterRegistry", new SimpleMeterRegistry());
+            ReflectionTestUtils.setField(enginePool, "tesseractDataPath", tessdata);
+            ReflectionTestUtils.setField(enginePool, "configuredMaxEngines", 1);
+            ReflectionTestUtils.setField(enginePool, "maxPagesPerEngine", 1000);
+            ReflectionTestUtils.setField(enginePool, "borrowTimeoutMs", 30000L);
+            enginePool.init();
+        }
+    }
+
+    @Test
+    public void comparePlans() throws Exception {
+        Map<String, Mat> samples = new LinkedHashMap<>();
+        samples.put("propre 300 DPI", card(1011, 240, 30, 0));
+        samples.put("terne 300 DPI", card(1011, 150, 110, 0));
+        samples.put("bruitée 300 DPI", card(1011, 240, 30, 18));
+        samples.put("propre 600 DPI", card(2022, 240, 30, 0));
+
+        TesseractEnginePool.EngineConfig config = new TesseractEnginePool.EngineConfig("fra+eng", 6, 1, Map.of());
+        for (Map.Entry<String, Mat> sample : samples.entrySet()) {
+            Mat image = sample.getValue();
+            double dpi = PreprocessingPlanner.estimateDpi(image, Document.DocumentType.ID_CARD);
+            PreprocessingPlanner.Estimate estimate = planner.estimate(image, dpi);
+            double estimationMs = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                estimationMs += planner.estimate(image, dpi).getEstimationMillis() / ITERATIONS;
+            }
+            System.out.printf("%s - plan choisi: %s (bruit %.1f, contraste %.0f, DPI %.0f, échelle %.2f, estimation %.1f ms)%n",
+                sample.getKey(), estimate.getPlan(), estimate.getNoise(), estimate.getContrast(),
+                estimate.getSourceDpi(), estimate.getScale(), estimationMs);
+
+            for (PreprocessingPlanner.Plan plan : PreprocessingPlanner.Plan.values()) {
+                planner.apply(image, plan, estimate.getScale()).release();
+                long start = System.nanoTime();
+                Mat processed = null;
+                for (int i = 0; i < ITERATIONS; i++) {
+                    if (processed != null) {
+                        processed.release();
+                    }
+                    processed = planner.apply(image, plan, estimate.getScale());
+                }
+                double preprocessMs = (System.nanoTime() - start) / 1e6 / ITERATIONS;
+
+                String ocr = "";
+                if (enginePool != null) {
+                    start = System.nanoTime();
+                    String text;
+                    try (TesseractEnginePool.Engine engine = enginePool.borrow(config)) {
+                        text = engine.recognize(processed);
+                    }
+                    double ocrMs = (System.nanoTime() - start) / 1e6;
+                    int fields = extractor.extract(text, Document.DocumentType.ID_CARD).getExtractedFields().size();
+                    ocr = String.format(", OCR %.0f ms, champs %d/%d", ocrMs, fields,
+                        extractor.getFields(Document.DocumentType.ID_CARD).size());
+                }
+                processed.release();
+                System.out.printf("    %-8s prétraitement %.1f ms%s%n", plan, preprocessMs, ocr);
+            }
+            image.release();
+        }
+    }
+
+    /**
+     * Carte ID-1 synthétique (BGR) : fond, texte, bruit gaussien éventuel
+     */
+    private static Mat card(int width, int background, int ink, double noiseSigma) {
+        int height = (int) Math.round(width * 53.98 / 85.6);
+        Mat card = new Mat(height, width, CvType.CV_8UC1, Scalar.all(background));
+        double fontScale = width / 1011.0;
+        for (int i = 0; i < LINES.length; i++) {
+            Imgproc.putText(card, LINES[i], new Point(40 * fontScale, (80 + i * 90) * fontScale),
+                Imgproc.FONT_HERSHEY_SIMPLEX, 1.1 * fontScale, Scalar.all(ink), (int) Math.max(2, 2 * fontScale));
+        }
+        // Flou d'optique puis bruit de capteur
+        Imgproc.GaussianBlur(card, card, new Size(3, 3), 0);
+        if (noiseSigma > 0) {
+            Mat noise = new Mat(card.size(), CvType.CV_16SC1);
+            Core.randn(noise, 0, noiseSigma);
+            Mat signed = new Mat();
+            card.convertTo(signed, CvType.CV_16SC1);
+            Core.add(signed, noise, signed);
+            signed.convertTo(card, CvType.CV_8UC1);
+            noise.release();
+            signed.release();
+        }
+        Imgproc.cvtColor(card, card, Imgproc.COLOR_GRAY2BGR);
+        return card;
+    }
+}
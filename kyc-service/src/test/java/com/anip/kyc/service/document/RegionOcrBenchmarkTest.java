@@ -0,0 +1,115 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.config.OpenCvNativeLoader;
+import com.anip.kyc.models.Document;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.opencv.core.Mat;
+
+/**
+ * Carte synthétique avec photo : durée de détection des régions, part des pixels soumis à l'OCR et, si des
+ * traineddata sont fournis (-Dtessdata=...), durée et champs extraits en OCR pleine page (PSM 6) et en OCR
+ * parallèle par régions (PSM 7).
+ *
+ * Exécution : mvn test -Dtest=RegionOcrBenchmarkTest -Dbenchmark=true [-Dtessdata=/usr/share/tessdata]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class RegionOcrBenchmarkTest {
+
+    private static final int ITERATIONS = 20;
+    private static final int THREADS = 4;
+    private static final Document.DocumentType TYPE = Document.DocumentType.ID_CARD_FRONT;
+
+    private static TextRegionDetector detector;
+    private static TesseractEnginePool enginePool;
+    private static ExecutorService executor;
+    private static final DocumentFieldExtractor extractor = new DocumentFieldExtractor();
+
+    @BeforeAll
+    static void setUp() {
+        OpenCvNativeLoader.load();
+        detector = TextRegionDetectorTest.newDetector();
+        executor = Executors.newFixedThreadPool(THREADS);
+
+        String tessdata = System.getProperty("tessdata");
+        if (tessdata != null) {
+            enginePool = new TesseractEnginePool();
+            ReflectionTestUtils.setField(enginePool, "meterRegistry", new SimpleMeterRegistry());
+            ReflectionTestUtils.setField(enginePool, "tesseractDataPath", tessdata);
+            ReflectionTestUtils.setField(enginePool, "configuredMaxEngines", THREADS);
+            ReflectionTestUtils.setField(enginePool, "maxPagesPerEngine", 1000);
+            ReflectionTestUtils.setField(enginePool, "borrowTimeoutMs", 30000L);
+            enginePool.init();
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void comparePageAndRegions() throws Exception {
+        Mat card = DocumentSceneFactory.cardWithPhoto();
+
+        List<TextRegionDetector.TextRegion> regions = detector.detect(card);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            detector.detect(card);
+        }
+        double detectMs = (System.nanoTime() - start) / 1e6 / ITERATIONS;
+        long regionPixels = regions.stream().mapToLong(r -> (long) r.getBox().area()).sum();
+        System.out.printf("Détection: %d régions en %.1f ms, %.0f %% des pixels soumis à l'OCR%n",
+            regions.size(), detectMs, 100.0 * regionPixels / card.total());
+
+        if (enginePool != null) {
+            TesseractEnginePool.EngineConfig page = new TesseractEnginePool.EngineConfig("fra+eng", 6, 1, Map.of());
+            TesseractEnginePool.EngineConfig line = new TesseractEnginePool.EngineConfig("fra+eng", 7, 1, Map.of());
+
+            start = System.nanoTime();
+            String pageText;
+            try (TesseractEnginePool.Engine engine = enginePool.borrow(page)) {
+                pageText = engine.recognize(card);
+            }
+            report("page entière", pageText, (System.nanoTime() - start) / 1e6);
+
+            start = System.nanoTime();
+            List<Future<String>> texts = new ArrayList<>();
+            for (TextRegionDetector.TextRegion region : regions) {
+                texts.add(executor.submit(() -> {
+                    Mat roi = card.submat(region.getBox());
+                    try (TesseractEnginePool.Engine engine = enginePool.borrow(line)) {
+                        return engine.recognize(roi).trim();
+                    } finally {
+                        roi.release();
+                    }
+                }));
+            }
+            StringBuilder regionText = new StringBuilder();
+            for (Future<String> text : texts) {
+                regionText.append(text.get()).append('\n');
+            }
+            report("régions     ", regionText.toString(), (System.nanoTime() - start) / 1e6);
+        }
+        card.release();
+    }
+
+    private static void report(String label, String text, double ms) {
+        int fields = extractor.extract(text, TYPE).getExtractedFields().size();
+        System.out.printf("%s - OCR %.0f ms, champs %d/%d%n", label, ms, fields, extractor.getFields(TYPE).size());
+    }
+}
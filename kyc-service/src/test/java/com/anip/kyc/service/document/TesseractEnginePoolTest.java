@@ -0,0 +1,204 @@
+package com.anip.kyc.service.document;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.sourceforge.tess4j.ITessAPI;
+import net.sourceforge.tess4j.TesseractException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TesseractEnginePoolTest {
+
+    private static final TesseractEnginePool.EngineConfig FRA = new TesseractEnginePool.EngineConfig("fra", 3, 1, Map.of());
+    private static final TesseractEnginePool.EngineConfig ENG = new TesseractEnginePool.EngineConfig("eng", 3, 1, Map.of());
+    private static final TesseractEnginePool.EngineConfig MRZ = new TesseractEnginePool.EngineConfig("ocrb", 7, 1, Map.of());
+
+    private StubEngineFactory factory;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        factory = new StubEngineFactory();
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    public void reusesReleasedEngine() throws TesseractException {
+        TesseractEnginePool pool = newPool(2, 4, 200);
+
+        TesseractEnginePool.Engine first = pool.borrow(FRA);
+        first.close();
+        TesseractEnginePool.Engine second = pool.borrow(FRA);
+        second.close();
+        // Double restitution sans effet
+        second.close();
+
+        assertEquals(1, factory.created.size());
+        assertEquals(2, factory.cleared);
+        assertEquals(1, pool.getTotalEngines());
+        assertEquals(1.0, registry.get("kyc.ocr.pool.engines").tag("state", "idle").gauge().value());
+        assertEquals(0.0, registry.get("kyc.ocr.pool.engines").tag("state", "active").gauge().value());
+    }
+
+    @Test
+    public void recyclesEngineAfterPageLimit() throws TesseractException {
+        TesseractEnginePool pool = newPool(2, 4, 0);
+
+        pool.borrow(FRA).close();
+        pool.borrow(FRA).close();
+
+        assertEquals(2, factory.created.size());
+        assertEquals(2, factory.destroyed.size());
+        assertEquals(0, pool.getTotalEngines());
+        assertEquals(2.0, registry.get("kyc.ocr.pool.recycled").tag("reason", "pages").counter().count());
+    }
+
+    @Test
+    public void recyclesUnhealthyEngineOnBorrow() throws TesseractException {
+        TesseractEnginePool pool = newPool(2, 4, 200);
+        pool.borrow(FRA).close();
+        ITessAPI.TessBaseAPI stale = factory.created.get(0);
+        factory.unhealthy.add(stale);
+
+        pool.borrow(FRA).close();
+
+        assertEquals(2, factory.created.size());
+        assertEquals(1, factory.destroyed.size());
+        assertSame(stale, factory.destroyed.get(0));
+        assertEquals(1, pool.getTotalEngines());
+        assertEquals(1.0, registry.get("kyc.ocr.pool.recycled").tag("reason", "health").counter().count());
+    }
+
+    @Test
+    public void releasesPermitWhenCreationFails() {
+        TesseractEnginePool pool = newPool(1, 4, 200);
+        factory.failing = true;
+
+        assertThrows(TesseractException.class, () -> pool.borrow(FRA));
+        factory.failing = false;
+
+        assertEquals(0, pool.getTotalEngines());
+        assertTrue(canBorrow(pool, FRA));
+    }
+
+    @Test
+    public void evictsIdleEnginesOfLeastRecentlyUsedConfig() throws TesseractException {
+        TesseractEnginePool pool = newPool(2, 2, 200);
+        pool.borrow(FRA).close();
+        pool.borrow(ENG).close();
+        ITessAPI.TessBaseAPI fra = factory.created.get(0);
+
+        // Limite globale atteinte : le moteur inactif de fra (emprunté le moins récemment) laisse sa place
+        pool.borrow(MRZ).close();
+
+        assertEquals(3, factory.created.size());
+        assertEquals(1, factory.destroyed.size());
+        assertSame(fra, factory.destroyed.get(0));
+        assertEquals(2, pool.getTotalEngines());
+        assertEquals(1.0, registry.get("kyc.ocr.pool.recycled").tag("reason", "evicted").counter().count());
+    }
+
+    @Test
+    public void waitsForCapacityWhenAllEnginesAreActive() throws TesseractException {
+        TesseractEnginePool pool = newPool(2, 2, 200);
+        ReflectionTestUtils.setField(pool, "borrowTimeoutMs", 50L);
+        TesseractEnginePool.Engine fra = pool.borrow(FRA);
+        TesseractEnginePool.Engine eng = pool.borrow(ENG);
+
+        TesseractException e = assertThrows(TesseractException.class, () -> pool.borrow(MRZ));
+        assertTrue(e.getMessage().contains("Limite"), e.getMessage());
+        assertEquals(2, factory.created.size());
+
+        fra.close();
+        eng.close();
+        pool.borrow(MRZ).close();
+        assertEquals(2, pool.getTotalEngines());
+    }
+
+    @Test
+    public void shutdownDestroysIdleEngines() throws TesseractException {
+        TesseractEnginePool pool = newPool(2, 4, 200);
+        TesseractEnginePool.Engine first = pool.borrow(FRA);
+        TesseractEnginePool.Engine second = pool.borrow(FRA);
+        first.close();
+        second.close();
+
+        pool.shutdown();
+
+        assertEquals(2, factory.destroyed.size());
+        assertEquals(0, pool.getTotalEngines());
+    }
+
+    private static boolean canBorrow(TesseractEnginePool pool, TesseractEnginePool.EngineConfig config) {
+        try (TesseractEnginePool.Engine engine = pool.borrow(config)) {
+            return engine != null;
+        } catch (TesseractException e) {
+            return false;
+        }
+    }
+
+    private TesseractEnginePool newPool(int maxPerConfig, int maxTotal, int maxPages) {
+        TesseractEnginePool pool = new TesseractEnginePool();
+        ReflectionTestUtils.setField(pool, "meterRegistry", registry);
+        ReflectionTestUtils.setField(pool, "engineFactory", factory);
+        ReflectionTestUtils.setField(pool, "tesseractDataPath", "/tessdata");
+        ReflectionTestUtils.setField(pool, "configuredMaxEngines", maxPerConfig);
+        ReflectionTestUtils.setField(pool, "configuredMaxTotalEngines", maxTotal);
+        ReflectionTestUtils.setField(pool, "maxPagesPerEngine", maxPages);
+        ReflectionTestUtils.setField(pool, "borrowTimeoutMs", 1000L);
+        pool.init();
+        return pool;
+    }
+
+    /**
+     * Moteurs factices : aucun appel natif. Les handles sont tous nuls, d'où les comparaisons par identité.
+     */
+    private static class StubEngineFactory implements TesseractEnginePool.EngineFactory {
+        private final List<ITessAPI.TessBaseAPI> created = new ArrayList<>();
+        private final List<ITessAPI.TessBaseAPI> destroyed = new ArrayList<>();
+        private final Set<ITessAPI.TessBaseAPI> unhealthy = Collections.synchronizedSet(
+            Collections.newSetFromMap(new IdentityHashMap<>()));
+        private int cleared;
+        private boolean failing;
+
+        @Override
+        public synchronized ITessAPI.TessBaseAPI create(String dataPath, TesseractEnginePool.EngineConfig config)
+                throws TesseractException {
+            if (failing) {
+                throw new TesseractException("Initialisation Tesseract impossible (" + config.getLanguage() + ")");
+            }
+            ITessAPI.TessBaseAPI handle = new ITessAPI.TessBaseAPI();
+            created.add(handle);
+            return handle;
+        }
+
+        @Override
+        public boolean isHealthy(ITessAPI.TessBaseAPI handle, TesseractEnginePool.EngineConfig config) {
+            return !unhealthy.contains(handle);
+        }
+
+        @Override
+        public synchronized void clear(ITessAPI.TessBaseAPI handle) {
+            cleared++;
+        }
+
+        @Override
+        public synchronized void destroy(ITessAPI.TessBaseAPI handle) {
+            destroyed.add(handle);
+        }
+    }
+}
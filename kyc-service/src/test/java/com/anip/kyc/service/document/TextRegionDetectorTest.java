@@ -0,0 +1,100 @@
+package com.anip.kyc.service.document;
+
+import com.anip.kyc.config.OpenCvNativeLoader;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TextRegionDetectorTest {
+
+    private static TextRegionDetector detector;
+
+    @BeforeAll
+    static void setUp() {
+        OpenCvNativeLoader.load();
+        detector = newDetector();
+    }
+
+    static TextRegionDetector newDetector() {
+        TextRegionDetector detector = new TextRegionDetector();
+        ReflectionTestUtils.setField(detector, "modelsPath", "/nonexistent");
+        ReflectionTestUtils.setField(detector, "detectorType", TextRegionDetector.DETECTOR_MORPHOLOGY);
+        ReflectionTestUtils.setField(detector, "eastInputSize", 640);
+        ReflectionTestUtils.setField(detector, "eastConfidence", 0.5f);
+        return detector;
+    }
+
+    @Test
+    public void findsTextLinesInReadingOrderAndSkipsPhoto() {
+        Mat card = DocumentSceneFactory.cardWithPhoto();
+
+        List<TextRegionDetector.TextRegion> regions = detector.detect(card);
+
+        // Une rangée par ligne ; une ligne peut compter plusieurs régions (mots très espacés)
+        assertEquals(DocumentSceneFactory.LINES.length, regions.get(regions.size() - 1).getRow() + 1);
+        TextRegionDetector.TextRegion previous = null;
+        for (TextRegionDetector.TextRegion region : regions) {
+            Rect box = region.getBox();
+            // Ligne de base du texte de la rangée i à 80 + 90 * i
+            int baseline = 80 + 90 * region.getRow();
+            assertTrue(box.y < baseline && box.y + box.height > baseline - 10, "Rangée " + region.getRow() + " : " + box);
+            assertEquals(TextRegionDetector.PSM_SINGLE_LINE, region.getPageSegMode());
+            Rect photo = DocumentSceneFactory.PHOTO;
+            boolean overlapsPhoto = box.x < photo.x + photo.width && box.x + box.width > photo.x
+                && box.y < photo.y + photo.height && box.y + box.height > photo.y;
+            assertFalse(overlapsPhoto, "Photo incluse : " + box);
+            if (previous != null) {
+                assertTrue(region.getRow() > previous.getRow()
+                    || (region.getRow() == previous.getRow() && box.x > previous.getBox().x));
+            }
+            previous = region;
+        }
+        card.release();
+    }
+
+    @Test
+    public void returnsNoRegionOnBlankImage() {
+        Mat blank = DocumentSceneFactory.card();
+        blank.setTo(Scalar.all(235));
+
+        assertTrue(detector.detect(blank).isEmpty());
+        blank.release();
+    }
+
+    @Test
+    public void mergesWordsOfSameLine() {
+        List<Rect> lines = TextRegionDetector.mergeLines(List.of(
+            new Rect(10, 100, 80, 30), new Rect(110, 102, 60, 28), new Rect(400, 101, 50, 30), new Rect(10, 200, 90, 30)));
+
+        assertEquals(3, lines.size());
+        assertTrue(lines.contains(new Rect(10, 100, 160, 30)));
+        assertTrue(lines.contains(new Rect(400, 101, 50, 30)));
+        assertTrue(lines.contains(new Rect(10, 200, 90, 30)));
+    }
+
+    @Test
+    public void readsBlockWithBlockSegmentation() {
+        Mat card = DocumentSceneFactory.card();
+        // Trois lignes serrées fusionnées en un bloc par la fermeture
+        Mat block = card.submat(new Rect(40, 500, 500, 120));
+        Core.randu(block, 0, 255);
+        block.release();
+
+        List<TextRegionDetector.TextRegion> regions = detector.detect(card);
+
+        assertTrue(regions.stream().anyMatch(r -> r.getPageSegMode() == TextRegionDetector.PSM_BLOCK));
+        card.release();
+    }
+}
@@ -0,0 +1,138 @@
+package com.anip.kyc.service.face;
+
+import com.anip.kyc.models.FaceMatch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FaceComparisonCacheTest {
+
+    private static final UUID SESSION = UUID.randomUUID();
+    private static final UUID DOCUMENT = UUID.randomUUID();
+
+    private final AtomicInteger computations = new AtomicInteger();
+    private SimpleMeterRegistry registry;
+    private FaceComparisonCache cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new FaceComparisonCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+        ReflectionTestUtils.setField(cache, "meterRegistry", registry);
+        cache.init();
+    }
+
+    @Test
+    public void reusesResultOfIdenticalRequest() {
+        FaceMatch first = cache.getOrCompute(key(SESSION, "capture", "v1"), this::compute).join();
+        FaceMatch second = cache.getOrCompute(key(SESSION, "capture", "v1"), this::compute).join();
+
+        assertSame(first, second);
+        assertEquals(1, computations.get());
+        assertEquals(1.0, requests("hit"));
+        assertEquals(1.0, requests("miss"));
+    }
+
+    @Test
+    public void computesAgainForAnotherSessionOrCapture() {
+        FaceMatch first = cache.getOrCompute(key(SESSION, "capture", "v1"), this::compute).join();
+
+        assertNotSame(first, cache.getOrCompute(key(UUID.randomUUID(), "capture", "v1"), this::compute).join());
+        assertNotSame(first, cache.getOrCompute(key(SESSION, "other", "v1"), this::compute).join());
+        assertEquals(3, computations.get());
+        assertEquals(0.0, requests("hit"));
+        assertEquals(3.0, requests("miss"));
+    }
+
+    @Test
+    public void modelVersionChangeInvalidatesResult() {
+        FaceMatch first = cache.getOrCompute(key(SESSION, "capture", "facenet:1:0.8"), this::compute).join();
+        FaceMatch second = cache.getOrCompute(key(SESSION, "capture", "facenet:2:0.8"), this::compute).join();
+
+        assertNotSame(first, second);
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedCompletedEntry() {
+        cache.getOrCompute(key(SESSION, "a", "v1"), this::compute).join();
+        cache.getOrCompute(key(SESSION, "b", "v1"), this::compute).join();
+        // "a" redevient la plus récente : "b" est évincée à l'insertion de "c"
+        cache.getOrCompute(key(SESSION, "a", "v1"), this::compute).join();
+        cache.getOrCompute(key(SESSION, "c", "v1"), this::compute).join();
+
+        assertEquals(2, cache.size());
+        assertEquals(2.0, registry.get("kyc.face.compare.cache.size").gauge().value());
+        cache.getOrCompute(key(SESSION, "a", "v1"), this::compute).join();
+        assertEquals(3, computations.get());
+        cache.getOrCompute(key(SESSION, "b", "v1"), this::compute).join();
+        assertEquals(4, computations.get());
+    }
+
+    @Test
+    public void keepsInFlightComputationsOverCapacity() {
+        CompletableFuture<FaceMatch> pending = new CompletableFuture<>();
+        cache.getOrCompute(key(SESSION, "a", "v1"), () -> pending);
+        cache.getOrCompute(key(SESSION, "b", "v1"), this::compute).join();
+        cache.getOrCompute(key(SESSION, "c", "v1"), this::compute).join();
+
+        // Calcul en cours conservé : une requête identique s'y rattache
+        CompletableFuture<FaceMatch> retry = cache.getOrCompute(key(SESSION, "a", "v1"), this::compute);
+        assertEquals(2, computations.get());
+        FaceMatch match = new FaceMatch();
+        pending.complete(match);
+        assertSame(match, retry.join());
+    }
+
+    @Test
+    public void doesNotMemoizeFailures() {
+        CompletableFuture<FaceMatch> failed = cache.getOrCompute(key(SESSION, "a", "v1"),
+            () -> CompletableFuture.failedFuture(new IllegalStateException("visage introuvable")));
+        assertTrue(failed.isCompletedExceptionally());
+
+        cache.getOrCompute(key(SESSION, "a", "v1"), this::compute).join();
+        assertEquals(1, computations.get());
+        assertEquals(2.0, requests("miss"));
+    }
+
+    @Test
+    public void computesAgainAfterComputationFailedToStart() {
+        CompletableFuture<FaceMatch> rejected = cache.getOrCompute(key(SESSION, "a", "v1"), () -> {
+            throw new RejectedExecutionException("file saturée");
+        });
+        assertTrue(rejected.isCompletedExceptionally());
+        assertEquals(0, cache.size());
+
+        cache.getOrCompute(key(SESSION, "a", "v1"), this::compute).join();
+        assertEquals(1, computations.get());
+        assertEquals(0.0, requests("hit"));
+    }
+
+    private CompletableFuture<FaceMatch> compute() {
+        computations.incrementAndGet();
+        return CompletableFuture.completedFuture(new FaceMatch());
+    }
+
+    private double requests(String result) {
+        return registry.get("kyc.face.compare.cache.requests").tag("result", result).functionCounter().count();
+    }
+
+    private static FaceComparisonCache.Key key(UUID session, String capture, String version) {
+        return new FaceComparisonCache.Key(session, DOCUMENT, capture, version);
+    }
+}
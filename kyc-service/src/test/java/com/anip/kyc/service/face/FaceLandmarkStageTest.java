@@ -0,0 +1,179 @@
+package com.anip.kyc.service.face;
+
+import com.anip.kyc.config.OpenCvNativeLoader;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.imgproc.Moments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FaceLandmarkStageTest {
+
+    private static final Point LEFT_EYE = new Point(50, 66);
+    private static final Point RIGHT_EYE = new Point(110, 90);
+
+    @BeforeAll
+    static void setUp() {
+        OpenCvNativeLoader.load();
+    }
+
+    @Test
+    public void feedsNormalizedFaceToNetworkWithoutRescaling() {
+        Mat face = tiltedFace();
+
+        Mat floatBlob = DnnLandmarkExtractor.toBlob(face, 112);
+        Mat byteFace = new Mat();
+        face.convertTo(byteFace, CvType.CV_8U, 255.0);
+        Mat byteBlob = DnnLandmarkExtractor.toBlob(byteFace, 112);
+
+        // Même entrée [0,1] quel que soit le format du visage fourni
+        double floatMax = Core.minMaxLoc(floatBlob.reshape(1, 1)).maxVal;
+        assertEquals(1.0, floatMax, 1e-3);
+        assertEquals(floatMax, Core.minMaxLoc(byteBlob.reshape(1, 1)).maxVal, 1e-2);
+        assertEquals(Core.mean(floatBlob.reshape(1, 1)).val[0], Core.mean(byteBlob.reshape(1, 1)).val[0], 1e-2);
+        face.release();
+        byteFace.release();
+        floatBlob.release();
+        byteBlob.release();
+    }
+
+    @Test
+    public void levelsEyesOfSyntheticFace() {
+        FaceLandmarkStage stage = newStage(new EyeExtractor(true), false);
+        Mat face = tiltedFace();
+
+        FaceLandmarkStage.Landmarks landmarks = stage.extract(face);
+        Mat aligned = stage.align(face, landmarks);
+
+        assertEquals(FaceLandmarkStage.LANDMARK_COUNT, landmarks.getPoints().size());
+        assertTrue(FaceLandmarkStage.rollDegrees(LEFT_EYE, RIGHT_EYE) > 20);
+        assertEquals(face.size(), aligned.size());
+        Point left = brightSpot(aligned, new Rect(0, 0, 80, 160));
+        Point right = brightSpot(aligned, new Rect(80, 0, 80, 160));
+        assertEquals(left.y, right.y, 1.5);
+        assertEquals(LEFT_EYE.x, left.x, 6);
+        face.release();
+        aligned.release();
+    }
+
+    @Test
+    public void skipsStageWithoutAnatomicalExtractorOrAudit() {
+        FaceLandmarkStage stage = newStage(new EyeExtractor(false), false);
+        Mat face = tiltedFace();
+
+        assertFalse(stage.isEnabled());
+        assertSame(face, stage.align(face, stage.extract(face)));
+
+        FaceLandmarkStage audited = newStage(new EyeExtractor(false), true);
+        assertTrue(audited.isEnabled());
+        assertFalse(audited.isAlignmentEnabled());
+        face.release();
+    }
+
+    @Test
+    public void keepsFaceWhenPointsAreIncomplete() {
+        FaceLandmarkStage stage = newStage(new FaceLandmarkExtractor() {
+            @Override
+            public String getName() {
+                return "partial";
+            }
+
+            @Override
+            public List<Point> extract(Mat face) {
+                return List.of(LEFT_EYE, RIGHT_EYE);
+            }
+
+            @Override
+            public boolean isAnatomical() {
+                return true;
+            }
+        }, false);
+        Mat face = tiltedFace();
+
+        assertSame(face, stage.align(face, stage.extract(face)));
+        FaceLandmarkStage complete = newStage(new EyeExtractor(true), false);
+        Mat aligned = complete.align(face, complete.extract(face));
+        assertNotSame(face, aligned);
+        face.release();
+        aligned.release();
+    }
+
+    private static FaceLandmarkStage newStage(FaceLandmarkExtractor extractor, boolean audit) {
+        FaceLandmarkStage stage = new FaceLandmarkStage();
+        ReflectionTestUtils.setField(stage, "extractor", extractor);
+        ReflectionTestUtils.setField(stage, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(stage, "auditEnabled", audit);
+        stage.init();
+        return stage;
+    }
+
+    /**
+     * Visage normalisé 160x160 (CV_32FC3, [0,1]) dont les yeux, deux points clairs, sont inclinés
+     */
+    private static Mat tiltedFace() {
+        Mat face = new Mat(160, 160, CvType.CV_32FC3, Scalar.all(0.3));
+        Imgproc.circle(face, LEFT_EYE, 5, Scalar.all(1.0), -1);
+        Imgproc.circle(face, RIGHT_EYE, 5, Scalar.all(1.0), -1);
+        return face;
+    }
+
+    private static Point brightSpot(Mat image, Rect area) {
+        Mat gray = new Mat();
+        Imgproc.cvtColor(image.submat(area), gray, Imgproc.COLOR_BGR2GRAY);
+        Imgproc.threshold(gray, gray, 0.8, 1.0, Imgproc.THRESH_BINARY);
+        Moments moments = Imgproc.moments(gray);
+        gray.release();
+        return new Point(area.x + moments.m10 / moments.m00, area.y + moments.m01 / moments.m00);
+    }
+
+    /**
+     * Extracteur 68 points dont seuls les yeux sont renseignés
+     */
+    private static final class EyeExtractor implements FaceLandmarkExtractor {
+        private final boolean anatomical;
+
+        private EyeExtractor(boolean anatomical) {
+            this.anatomical = anatomical;
+        }
+
+        @Override
+        public String getName() {
+            return "eyes";
+        }
+
+        @Override
+        public List<Point> extract(Mat face) {
+            List<Point> points = new ArrayList<>(Collections.nCopies(FaceLandmarkStage.LANDMARK_COUNT, new Point(80, 120)));
+            for (int i = 0; i < 6; i++) {
+                points.set(36 + i, LEFT_EYE);
+                points.set(42 + i, RIGHT_EYE);
+            }
+            return points;
+        }
+
+        @Override
+        public boolean isAnatomical() {
+            return anatomical;
+        }
+    }
+}
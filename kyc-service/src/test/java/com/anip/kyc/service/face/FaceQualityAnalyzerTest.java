@@ -0,0 +1,122 @@
+package com.anip.kyc.service.face;
+
+import com.anip.kyc.config.OpenCvNativeLoader;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FaceQualityAnalyzerTest {
+
+    private static final Rect FACE = new Rect(200, 110, 240, 260);
+
+    private static final AtomicInteger detections = new AtomicInteger();
+    private static List<FaceDetector.FaceBox> detected = List.of();
+    private static FaceQualityAnalyzer analyzer;
+
+    @BeforeAll
+    static void setUp() {
+        OpenCvNativeLoader.load();
+        analyzer = newAnalyzer(new FaceDetector() {
+            @Override
+            public List<FaceBox> detect(Mat image) {
+                detections.incrementAndGet();
+                return detected;
+            }
+        });
+    }
+
+    /**
+     * Analyseur avec les seuils par défaut de l'application
+     */
+    public static FaceQualityAnalyzer newAnalyzer(FaceDetector detector) {
+        FaceQualityAnalyzer analyzer = new FaceQualityAnalyzer();
+        ReflectionTestUtils.setField(analyzer, "faceDetector", detector);
+        ReflectionTestUtils.setField(analyzer, "minSharpness", 50.0);
+        ReflectionTestUtils.setField(analyzer, "minBrightness", 60.0);
+        ReflectionTestUtils.setField(analyzer, "maxBrightness", 200.0);
+        ReflectionTestUtils.setField(analyzer, "maxClippedRatio", 0.25);
+        ReflectionTestUtils.setField(analyzer, "minFaceRatio", FaceQualityAnalyzer.MIN_FACE_SIZE_RATIO);
+        ReflectionTestUtils.setField(analyzer, "maxFaceRatio", FaceQualityAnalyzer.MAX_FACE_SIZE_RATIO);
+        ReflectionTestUtils.setField(analyzer, "maxCenterOffset", 0.25);
+        ReflectionTestUtils.setField(analyzer, "minSymmetry", 0.6);
+        return analyzer;
+    }
+
+    @Test
+    public void acceptsSharpCenteredFace() {
+        Mat capture = FaceSceneFactory.capture(FACE);
+
+        FaceQualityAnalyzer.Assessment assessment = analyzer.analyze(capture, List.of(box(FACE)));
+
+        assertTrue(assessment.isAcceptable(), assessment.getIssues() + " " + assessment.getMetrics());
+        assertTrue(assessment.getWarnings().isEmpty());
+        capture.release();
+    }
+
+    @Test
+    public void keepsLargestFaceWhenSeveralAreDetected() {
+        Mat capture = FaceSceneFactory.capture(FACE);
+        List<FaceDetector.FaceBox> faces = List.of(box(FACE), box(new Rect(20, 20, 60, 70)));
+
+        FaceQualityAnalyzer.Assessment assessment = analyzer.analyze(capture, faces);
+
+        // Même politique que l'extraction : signalé, non bloquant
+        assertTrue(assessment.isAcceptable(), assessment.getIssues().toString());
+        assertEquals(List.of(FaceQualityAnalyzer.MULTIPLE_FACES), assessment.getWarnings());
+        assertEquals(FACE, assessment.getFaceBox());
+        capture.release();
+    }
+
+    @Test
+    public void rejectsFaceBelowExtractionRatio() {
+        // 7 % de l'image : accepté par l'ancien seuil du pré-contrôle, refusé par l'extraction
+        Rect small = new Rect(240, 170, 160, 140);
+        Mat capture = FaceSceneFactory.capture(small);
+
+        FaceQualityAnalyzer.Assessment assessment = analyzer.analyze(capture, List.of(box(small)));
+
+        assertEquals(List.of(FaceQualityAnalyzer.FACE_TOO_SMALL), assessment.getIssues());
+        capture.release();
+    }
+
+    @Test
+    public void detectsOnlyWhenNoBoxesAreGiven() {
+        Mat capture = FaceSceneFactory.capture(FACE);
+        detected = List.of(box(FACE));
+        detections.set(0);
+
+        List<FaceDetector.FaceBox> given = List.of(box(FACE));
+        assertSame(given, analyzer.analyze(capture, given).getFaces());
+        assertEquals(0, detections.get());
+
+        FaceQualityAnalyzer.Assessment assessment = analyzer.analyze(capture);
+        assertEquals(1, detections.get());
+        assertSame(detected, assessment.getFaces());
+        capture.release();
+    }
+
+    @Test
+    public void reportsMissingFace() {
+        Mat capture = FaceSceneFactory.capture(FACE);
+
+        FaceQualityAnalyzer.Assessment assessment = analyzer.analyze(capture, List.of());
+
+        assertEquals(List.of(FaceQualityAnalyzer.NO_FACE), assessment.getIssues());
+        capture.release();
+    }
+
+    private static FaceDetector.FaceBox box(Rect rect) {
+        return new FaceDetector.FaceBox(rect, 0.9);
+    }
+}
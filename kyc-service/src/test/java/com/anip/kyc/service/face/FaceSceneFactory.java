@@ -0,0 +1,37 @@
+package com.anip.kyc.service.face;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Captures synthétiques : fond uni et « visage » texturé, symétrique gauche/droite, dans une boîte donnée
+ */
+public final class FaceSceneFactory {
+
+    private FaceSceneFactory() {
+    }
+
+    /**
+     * Capture BGR 640x480 avec une zone de visage nette et bien exposée dans face (largeur paire)
+     */
+    public static Mat capture(Rect face) {
+        Mat capture = new Mat(480, 640, CvType.CV_8UC3, new Scalar(120, 125, 130));
+        Mat half = new Mat(face.height, face.width / 2, CvType.CV_8UC1);
+        Core.randu(half, 70, 190);
+        Mat mirrored = new Mat();
+        Core.flip(half, mirrored, 1);
+        Mat gray = new Mat();
+        Core.hconcat(java.util.List.of(half, mirrored), gray);
+        Mat region = capture.submat(face);
+        Imgproc.cvtColor(gray, region, Imgproc.COLOR_GRAY2BGR);
+        half.release();
+        mirrored.release();
+        gray.release();
+        region.release();
+        return capture;
+    }
+}